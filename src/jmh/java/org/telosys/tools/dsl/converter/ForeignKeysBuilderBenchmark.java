@@ -0,0 +1,122 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.converter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.telosys.tools.dsl.DslModelErrors;
+import org.telosys.tools.dsl.jmh.BenchmarkModels;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.ParsingResult;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+import org.telosys.tools.generic.model.Entity;
+
+/**
+ * 'ForeignKeysBuilderV2' alone : explicit FK (from '@FK') and implicit FK (from links) <br>
+ * The DSL model is prepared before each invocation (the FK builder modifies the entities) <br>
+ * so the measurement is meaningful for the biggest models only
+ *
+ * @author Laurent Guerin
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForeignKeysBuilderBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	private int entities ;
+
+	private DomainModel domainModel ;
+
+	private DslModel dslModel ;
+
+	@Setup
+	public void setup() {
+		ParsingResult result = new ParserV2().parseModel(BenchmarkModels.getModelFolder(entities));
+		if ( result.hasErrors() ) {
+			throw new IllegalStateException("Invalid synthetic model : " + result.getErrors());
+		}
+		domainModel = result.getModel();
+	}
+
+	/**
+	 * Builds a new DSL model with the conversion steps before the FK creation 
+	 * @param withExplicitForeignKeysAndLinks true to run the steps before the implicit FK creation
+	 */
+	private void prepareModel(boolean withExplicitForeignKeysAndLinks) {
+		ModelConverter converter = new ModelConverter(new DslModelErrors());
+		dslModel = new DslModel(domainModel.getModelName(), domainModel.getModelInfo());
+		converter.step1CreateAllVoidEntities(domainModel, dslModel);
+		converter.step2CreateAllAttributes(domainModel, dslModel);
+		if ( withExplicitForeignKeysAndLinks ) {
+			converter.step3CreateAllExplicitForeignKeys(domainModel, dslModel);
+			converter.step4CreateAllLinks(domainModel, dslModel);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BeforeExplicitForeignKeys {
+		@Setup(Level.Invocation)
+		public void setup(ForeignKeysBuilderBenchmark benchmark) {
+			benchmark.prepareModel(false);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class BeforeImplicitForeignKeys {
+		@Setup(Level.Invocation)
+		public void setup(ForeignKeysBuilderBenchmark benchmark) {
+			benchmark.prepareModel(true);
+		}
+	}
+
+	@Benchmark
+	public DslModel buildForeignKeys(BeforeExplicitForeignKeys state) {
+		ForeignKeysBuilderV2 fkBuilder = new ForeignKeysBuilderV2(dslModel);
+		for ( DomainEntity entity : domainModel.getEntities() ) {
+			fkBuilder.buildForeignKeys(entity);
+		}
+		return dslModel;
+	}
+
+	@Benchmark
+	public DslModel buildImplicitForeignKeys(BeforeImplicitForeignKeys state) {
+		ForeignKeysBuilderV2 fkBuilder = new ForeignKeysBuilderV2(dslModel);
+		for ( Entity entity : dslModel.getEntities() ) {
+			fkBuilder.buildImplicitForeignKeys((DslModelEntity) entity);
+		}
+		return dslModel;
+	}
+}
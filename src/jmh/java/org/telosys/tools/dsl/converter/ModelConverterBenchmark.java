@@ -0,0 +1,114 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.converter;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.telosys.tools.dsl.DslModelErrors;
+import org.telosys.tools.dsl.jmh.BenchmarkModels;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.ParsingResult;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Conversion of a parsed model ( 'DomainModel' to 'DslModel' ) <br>
+ * Full conversion and cumulative steps (each step requires the previous ones)
+ *
+ * @author Laurent Guerin
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelConverterBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	private int entities ;
+
+	private DomainModel domainModel ;
+
+	@Setup
+	public void setup() {
+		ParsingResult result = new ParserV2().parseModel(BenchmarkModels.getModelFolder(entities));
+		if ( result.hasErrors() ) {
+			throw new IllegalStateException("Invalid synthetic model : " + result.getErrors());
+		}
+		domainModel = result.getModel();
+	}
+
+	private DslModel newDslModel() {
+		return new DslModel(domainModel.getModelName(), domainModel.getModelInfo());
+	}
+
+	@Benchmark
+	public Model convertModel() {
+		return new ModelConverter(new DslModelErrors()).convertModel(domainModel);
+	}
+
+	@Benchmark
+	public DslModel step1VoidEntities() {
+		ModelConverter converter = new ModelConverter(new DslModelErrors());
+		DslModel dslModel = newDslModel();
+		converter.step1CreateAllVoidEntities(domainModel, dslModel);
+		return dslModel;
+	}
+
+	@Benchmark
+	public DslModel step1to2Attributes() {
+		ModelConverter converter = new ModelConverter(new DslModelErrors());
+		DslModel dslModel = newDslModel();
+		converter.step1CreateAllVoidEntities(domainModel, dslModel);
+		converter.step2CreateAllAttributes(domainModel, dslModel);
+		return dslModel;
+	}
+
+	@Benchmark
+	public DslModel step1to3ExplicitForeignKeys() {
+		ModelConverter converter = new ModelConverter(new DslModelErrors());
+		DslModel dslModel = newDslModel();
+		converter.step1CreateAllVoidEntities(domainModel, dslModel);
+		converter.step2CreateAllAttributes(domainModel, dslModel);
+		converter.step3CreateAllExplicitForeignKeys(domainModel, dslModel);
+		return dslModel;
+	}
+
+	@Benchmark
+	public DslModel step1to4Links() {
+		ModelConverter converter = new ModelConverter(new DslModelErrors());
+		DslModel dslModel = newDslModel();
+		converter.step1CreateAllVoidEntities(domainModel, dslModel);
+		converter.step2CreateAllAttributes(domainModel, dslModel);
+		converter.step3CreateAllExplicitForeignKeys(domainModel, dslModel);
+		converter.step4CreateAllLinks(domainModel, dslModel);
+		return dslModel;
+	}
+}
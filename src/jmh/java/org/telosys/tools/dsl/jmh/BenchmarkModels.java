@@ -0,0 +1,125 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.writer.SyntheticModelGenerator;
+
+/**
+ * Synthetic models used by the benchmarks <br>
+ * The models are generated by 'SyntheticModelGenerator' with a fixed seed <br>
+ * (same content for the same number of entities) <br>
+ * in "target/jmh-models/model-N" and reused if they already exist
+ *
+ * @author Laurent Guerin
+ *
+ */
+public class BenchmarkModels {
+
+	private static final String MODELS_FOLDER = "target/jmh-models" ;
+
+	// not a model file, written when the model is complete
+	private static final String COMPLETION_MARKER = "generated.done" ;
+
+	private static final long SEED = 20240101L ;
+
+	/**
+	 * Private constructor
+	 */
+	private BenchmarkModels() {
+	}
+
+	/**
+	 * Returns the name of the entity for the given index (starting at 1)
+	 * @param numberOfEntities
+	 * @param index
+	 * @return
+	 */
+	public static String entityName(int numberOfEntities, int index) {
+		return newGenerator(numberOfEntities).entityName(index);
+	}
+
+	/**
+	 * Returns the folder of the synthetic model with the given number of entities <br>
+	 * (the model is generated if it doesn't exist yet)
+	 * @param numberOfEntities
+	 * @return
+	 */
+	public static synchronized File getModelFolder(int numberOfEntities) {
+		File modelFolder = new File(MODELS_FOLDER, "model-" + numberOfEntities);
+		if ( ! new File(modelFolder, COMPLETION_MARKER).exists() ) {
+			generateModel(modelFolder, numberOfEntities);
+		}
+		return modelFolder;
+	}
+
+	/**
+	 * Returns the entity file for the given index in the given model
+	 * @param numberOfEntities
+	 * @param index
+	 * @return
+	 */
+	public static File getEntityFile(int numberOfEntities, int index) {
+		return new File(getModelFolder(numberOfEntities), entityName(numberOfEntities, index) + ".entity");
+	}
+
+	/**
+	 * Loads the synthetic model with the given number of entities
+	 * @param numberOfEntities
+	 * @return
+	 */
+	public static DslModel loadModel(int numberOfEntities) {
+		DslModelManager modelManager = new DslModelManager();
+		DslModel model = (DslModel) modelManager.loadModel(getModelFolder(numberOfEntities));
+		if ( model == null ) {
+			throw new IllegalStateException("Invalid synthetic model : " + modelManager.getErrorMessage() 
+					+ " " + modelManager.getErrors());
+		}
+		return model;
+	}
+
+	private static void generateModel(File modelFolder, int numberOfEntities) {
+		// remove the files of a previous incomplete generation
+		if ( modelFolder.exists() ) {
+			for ( File file : modelFolder.listFiles() ) {
+				file.delete();
+			}
+		}
+		newGenerator(numberOfEntities).writeModel(modelFolder);
+		try {
+			Files.write(new File(modelFolder, COMPLETION_MARKER).toPath(), new byte[0]);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot generate synthetic model", e);
+		}
+	}
+
+	private static SyntheticModelGenerator newGenerator(int numberOfEntities) {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumberOfEntities(numberOfEntities);
+		generator.setFieldsPerEntity(6);
+		generator.setAnnotationDensity(0.5);
+		generator.setTagDensity(0.3);
+		generator.setForeignKeysPerEntity(2);
+		generator.setNumberOfJoinEntities(numberOfEntities / 10);
+		generator.setSeed(SEED);
+		return generator;
+	}
+}
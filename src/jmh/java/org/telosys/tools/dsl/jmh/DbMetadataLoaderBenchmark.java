@@ -0,0 +1,105 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.jmh;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.telosys.tools.db.model.DatabaseModelManager;
+import org.telosys.tools.db.model.DatabaseTables;
+import org.telosys.tools.dsl.model.dbmodel.DbMetadataBulkLoader;
+
+/**
+ * Database metadata loading with H2 (in memory) : table by table vs schema-wide requests 
+ * ( each table has 10 columns and a FK referencing the previous table )
+ *
+ * @author Laurent Guerin
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DbMetadataLoaderBenchmark {
+
+	private static final String SCHEMA = "PUBLIC" ;
+	private static final String[] TABLE_TYPES = { "TABLE" } ;
+
+	@Param({"100", "1000"})
+	private int tables ;
+
+	private Connection connection ;
+
+	@Setup
+	public void setup() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:bench" + tables + ";DB_CLOSE_DELAY=-1", "sa", "");
+		Statement statement = connection.createStatement();
+		try {
+			for ( int i = 1 ; i <= tables ; i++ ) {
+				StringBuilder sql = new StringBuilder();
+				sql.append("CREATE TABLE T_" + i + " ( ID INTEGER NOT NULL PRIMARY KEY, PREV_ID INTEGER");
+				for ( int c = 1 ; c <= 8 ; c++ ) {
+					sql.append(", COL_" + c + " VARCHAR(40)");
+				}
+				if ( i > 1 ) {
+					sql.append(", CONSTRAINT FK_" + i + " FOREIGN KEY (PREV_ID) REFERENCES T_" + (i - 1) + "(ID)");
+				}
+				sql.append(" )");
+				statement.execute(sql.toString());
+			}
+		} finally {
+			statement.close();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		Statement statement = connection.createStatement();
+		try {
+			statement.execute("DROP ALL OBJECTS");
+		} finally {
+			statement.close();
+			connection.close();
+		}
+	}
+
+	@Benchmark
+	public DatabaseTables tableByTable() throws SQLException {
+		return new DatabaseModelManager().getDatabaseTables(connection, null, SCHEMA, "%", TABLE_TYPES, null, null);
+	}
+
+	@Benchmark
+	public DatabaseTables schemaWide() throws SQLException {
+		return new DbMetadataBulkLoader().getDatabaseTables(connection, null, SCHEMA, "%", TABLE_TYPES, null, null);
+	}
+}
@@ -0,0 +1,100 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.jmh;
+
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.writer.EntityFileWriter;
+import org.telosys.tools.dsl.model.writer.ModelWriter;
+import org.telosys.tools.dsl.model.writer.ModelWriterResult;
+import org.telosys.tools.generic.model.Entity;
+
+/**
+ * Writing of a whole model (model file and all the entity files)
+ *
+ * @author Laurent Guerin
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelWriterBenchmark {
+
+	@Param({"10", "100", "1000", "10000"})
+	private int entities ;
+
+	private DslModel model ;
+
+	private String outputFolder ;
+
+	@Setup
+	public void setup() {
+		model = BenchmarkModels.loadModel(entities);
+		outputFolder = new File("target/jmh-output/model-" + entities).getAbsolutePath();
+	}
+
+	@Benchmark
+	public DslModel writeModel() {
+		new ModelWriter().writeModel(model, outputFolder);
+		return model;
+	}
+
+	/**
+	 * Rendering of all the entities without file writing (CPU and allocations only)
+	 * @return
+	 */
+	@Benchmark
+	public int renderEntities() {
+		EntityFileWriter entityWriter = new EntityFileWriter(outputFolder);
+		int length = 0 ;
+		for ( Entity entity : model.getEntities() ) {
+			length = length + entityWriter.renderEntity((DslModelEntity) entity).length();
+		}
+		return length;
+	}
+
+	/**
+	 * Files already written with the same content => all files skipped (after the first call) 
+	 * @return
+	 */
+	@Benchmark
+	public ModelWriterResult writeModelIfChanged() {
+		return new ModelWriter().writeModelIfChanged(model, outputFolder);
+	}
+
+	@Benchmark
+	public ModelWriterResult writeModelIfChangedInParallel() {
+		return new ModelWriter(ForkJoinPool.commonPool()).writeModelIfChanged(model, outputFolder);
+	}
+}
@@ -0,0 +1,377 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.generic.model.Entity;
+
+/**
+ * Thread-safe cache of loaded models <br>
+ * Each model is identified by the canonical path of its folder and a fingerprint of its files <br>
+ * (name and content hash of each entity file and of the model file, so that a change is detected <br>
+ * even if the size and the last modification time are unchanged) <br>
+ * A model is reloaded if its fingerprint has changed. <br>
+ * <br>
+ * The cache is bounded by a maximum number of models and an approximate heap size <br>
+ * (estimated from the number of entities, attributes, links and foreign keys) <br>
+ * with LRU eviction. <br>
+ * Concurrent requests for the same model folder trigger a single load (the other threads wait for it).
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DslModelCache {
+
+	//--- approximate heap size (in bytes) for each element of a model
+	private static final long ENTITY_WEIGHT      = 2048 ;
+	private static final long ATTRIBUTE_WEIGHT   = 768 ;
+	private static final long LINK_WEIGHT        = 512 ;
+	private static final long FOREIGN_KEY_WEIGHT = 256 ;
+
+	/**
+	 * Cached model 
+	 */
+	private static class CacheEntry {
+		private final String fingerprint ;
+		private final DslModel model ;
+		private final long weight ;
+		private CacheEntry(String fingerprint, DslModel model, long weight) {
+			this.fingerprint = fingerprint;
+			this.model = model;
+			this.weight = weight;
+		}
+	}
+
+	/**
+	 * Model being loaded (shared by all the threads requesting the same model)
+	 */
+	private static class LoadingTask extends FutureTask<DslModel> {
+		private final String fingerprint ;
+		private LoadingTask(String fingerprint, Callable<DslModel> callable) {
+			super(callable);
+			this.fingerprint = fingerprint;
+		}
+	}
+
+	private final int  maxModels ;
+	private final long maxWeight ;
+	private final DslModelManagerFactory modelManagerFactory ;
+
+	//--- all the fields below are protected by the lock of this instance 
+	private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true); // access order
+	private final Map<String, LoadingTask> loadingTasks = new HashMap<>();
+	private long totalWeight = 0 ;
+
+	private final AtomicLong hits = new AtomicLong(0);
+	private final AtomicLong misses = new AtomicLong(0);
+	private final AtomicLong evictions = new AtomicLong(0);
+
+	/**
+	 * Constructor
+	 * @param maxModels maximum number of models in the cache (at least 1)
+	 * @param maxWeight maximum approximate heap size of the models in the cache, in bytes ( 0 for no limit )
+	 */
+	public DslModelCache(int maxModels, long maxWeight) {
+		this(maxModels, maxWeight, new DslModelManagerFactory() {
+			@Override
+			public DslModelManager createModelManager() {
+				return new DslModelManager();
+			}
+		});
+	}
+
+	/**
+	 * Constructor
+	 * @param maxModels maximum number of models in the cache (at least 1)
+	 * @param maxWeight maximum approximate heap size of the models in the cache, in bytes ( 0 for no limit )
+	 * @param modelManagerFactory factory providing the model manager used for each loading
+	 */
+	public DslModelCache(int maxModels, long maxWeight, DslModelManagerFactory modelManagerFactory) {
+		super();
+		if ( maxModels < 1 ) {
+			throw new IllegalArgumentException("Invalid max models : " + maxModels);
+		}
+		if ( maxWeight < 0 ) {
+			throw new IllegalArgumentException("Invalid max weight : " + maxWeight);
+		}
+		if ( modelManagerFactory == null ) {
+			throw new IllegalArgumentException("Model manager factory is null");
+		}
+		this.maxModels = maxModels;
+		this.maxWeight = maxWeight;
+		this.modelManagerFactory = modelManagerFactory;
+	}
+
+	/**
+	 * Returns the model located in the given folder <br>
+	 * The model is loaded if it is not in the cache or if its files have changed 
+	 * @param modelFolder
+	 * @return
+	 * @throws DslModelError if the model is invalid (the invalid models are not cached)
+	 */
+	public DslModel getModel(File modelFolder) throws DslModelError {
+		if ( ! modelFolder.isDirectory() ) {
+			throw new DslModelError("Model folder '" + modelFolder.toString() + "' not found or not a directory");
+		}
+		String key = getKey(modelFolder);
+		String fingerprint = computeFingerprint(modelFolder);
+		LoadingTask task ;
+		boolean loader = false ;
+		synchronized (this) {
+			CacheEntry entry = entries.get(key);
+			if ( entry != null ) {
+				if ( entry.fingerprint.equals(fingerprint) ) {
+					hits.incrementAndGet();
+					return entry.model ;
+				}
+				// model files changed => obsolete model
+				remove(key);
+			}
+			task = loadingTasks.get(key);
+			if ( task != null && task.fingerprint.equals(fingerprint) ) {
+				hits.incrementAndGet(); // model loaded by another thread
+			}
+			else {
+				misses.incrementAndGet();
+				task = new LoadingTask(fingerprint, newLoader(modelFolder));
+				loadingTasks.put(key, task);
+				loader = true ;
+			}
+		}
+		if ( loader ) {
+			task.run(); // load in the current thread
+		}
+		try {
+			DslModel model = task.get();
+			if ( loader ) {
+				put(key, task, model);
+			}
+			return model;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DslModelError("Model loading interrupted");
+		} catch (ExecutionException e) {
+			if ( loader ) {
+				put(key, task, null);
+			}
+			Throwable cause = e.getCause();
+			if ( cause instanceof DslModelError ) {
+				throw (DslModelError) cause;
+			}
+			if ( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Unexpected error during model loading", cause);
+		}
+	}
+
+	private Callable<DslModel> newLoader(final File modelFolder) {
+		return new Callable<DslModel>() {
+			@Override
+			public DslModel call() throws DslModelError {
+				return loadModel(modelFolder);
+			}
+		};
+	}
+
+	/**
+	 * Loads the model located in the given folder with a model manager provided by the factory
+	 * @param modelFolder
+	 * @return
+	 * @throws DslModelError if the model is invalid
+	 */
+	protected DslModel loadModel(File modelFolder) throws DslModelError {
+		DslModelManager modelManager = modelManagerFactory.createModelManager();
+		DslModel model = (DslModel) modelManager.loadModel(modelFolder);
+		if ( model == null ) {
+			throw new DslModelError("Invalid model '" + modelFolder.getName() + "' : " 
+					+ modelManager.getErrorMessage() + " " + modelManager.getErrors());
+		}
+		return model;
+	}
+
+	/**
+	 * Returns the approximate heap size of the given model, in bytes
+	 * @param model
+	 * @return
+	 */
+	protected long weigh(DslModel model) {
+		long weight = 0 ;
+		for ( Entity entity : model.getEntities() ) {
+			weight = weight + ENTITY_WEIGHT 
+					+ entity.getAttributes().size() * ATTRIBUTE_WEIGHT 
+					+ entity.getLinks().size() * LINK_WEIGHT 
+					+ entity.getForeignKeys().size() * FOREIGN_KEY_WEIGHT ;
+		}
+		return weight;
+	}
+
+	/**
+	 * Puts the loaded model in the cache (if any) and ends the loading task 
+	 * @param key
+	 * @param task
+	 * @param model the model (or null if the loading has failed)
+	 */
+	private synchronized void put(String key, LoadingTask task, DslModel model) {
+		if ( loadingTasks.get(key) == task ) {
+			loadingTasks.remove(key);
+		}
+		if ( model != null ) {
+			remove(key);
+			CacheEntry entry = new CacheEntry(task.fingerprint, model, weigh(model));
+			entries.put(key, entry);
+			totalWeight = totalWeight + entry.weight ;
+			evict();
+		}
+	}
+
+	/**
+	 * Evicts the least recently used models until the limits are respected
+	 */
+	private void evict() {
+		Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+		while ( iterator.hasNext() && ( entries.size() > maxModels || ( maxWeight > 0 && totalWeight > maxWeight ) ) ) {
+			CacheEntry entry = iterator.next().getValue();
+			iterator.remove();
+			totalWeight = totalWeight - entry.weight ;
+			evictions.incrementAndGet();
+		}
+	}
+
+	private void remove(String key) {
+		CacheEntry entry = entries.remove(key);
+		if ( entry != null ) {
+			totalWeight = totalWeight - entry.weight ;
+		}
+	}
+
+	/**
+	 * Removes the model located in the given folder (if any)
+	 * @param modelFolder
+	 */
+	public synchronized void invalidate(File modelFolder) {
+		remove(getKey(modelFolder));
+	}
+
+	/**
+	 * Removes all the models 
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		totalWeight = 0 ;
+	}
+
+	/**
+	 * Returns the number of models in the cache
+	 * @return
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the approximate heap size of all the models in the cache, in bytes
+	 * @return
+	 */
+	public synchronized long getWeight() {
+		return totalWeight;
+	}
+
+	/**
+	 * Returns the number of requests served without loading the model 
+	 * @return
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of requests that have loaded the model
+	 * @return
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the number of models evicted to respect the limits
+	 * @return
+	 */
+	public long getEvictions() {
+		return evictions.get();
+	}
+
+	private String getKey(File modelFolder) {
+		try {
+			return modelFolder.getCanonicalPath();
+		} catch (IOException e) {
+			return modelFolder.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * Computes the fingerprint of the model files (name and content of each file) <br>
+	 * The content is used because the size and the last modification time are not reliable <br>
+	 * (same size and a modification in the timestamp granularity of the file system)
+	 * @param modelFolder
+	 * @return
+	 */
+	protected String computeFingerprint(File modelFolder) {
+		MessageDigest digest ;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+		List<String> fileNames = DslModelUtil.getEntityFullFileNames(modelFolder);
+		Collections.sort(fileNames);
+		fileNames.add(DslModelUtil.getModelFileFromModelFolder(modelFolder).getAbsolutePath());
+		for ( String fileName : fileNames ) {
+			File file = new File(fileName);
+			digest.update((file.getName() + "|").getBytes(StandardCharsets.UTF_8));
+			try {
+				byte[] content = Files.readAllBytes(file.toPath());
+				digest.update((content.length + "|").getBytes(StandardCharsets.UTF_8));
+				digest.update(content);
+			} catch (IOException e) {
+				digest.update("-".getBytes(StandardCharsets.UTF_8)); // no file (or not readable)
+			}
+			digest.update((byte) '\n');
+		}
+		StringBuilder sb = new StringBuilder();
+		for ( byte b : digest.digest() ) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
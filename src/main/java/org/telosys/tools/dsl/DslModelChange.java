@@ -0,0 +1,95 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl;
+
+import org.telosys.tools.dsl.commons.ModelInfo;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+
+/**
+ * Change (delta) published by the model monitor
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DslModelChange {
+
+	private final DslModelChangeType type ;
+	private final String entityName ; // null for model information changes
+	private final DomainEntity entity ;
+	private final ModelInfo modelInfo ;
+	private final DslModelErrors errors ;
+
+	/**
+	 * Constructor
+	 * @param type the type of change
+	 * @param entityName the entity name (or null if the change is about the model information)
+	 * @param entity the new parsed entity (or null)
+	 * @param modelInfo the new model information (or null)
+	 * @param errors the parsing errors (or null if none)
+	 */
+	protected DslModelChange(DslModelChangeType type, String entityName, DomainEntity entity,
+			ModelInfo modelInfo, DslModelErrors errors) {
+		super();
+		this.type = type;
+		this.entityName = entityName;
+		this.entity = entity;
+		this.modelInfo = modelInfo;
+		this.errors = ( errors != null ? errors : new DslModelErrors() );
+	}
+
+	public DslModelChangeType getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the name of the entity concerned by this change <br>
+	 * or null if the change is about the model information file
+	 * @return
+	 */
+	public String getEntityName() {
+		return entityName;
+	}
+
+	/**
+	 * Returns the new parsed entity for ENTITY_ADDED and ENTITY_CHANGED (else null)
+	 * @return
+	 */
+	public DomainEntity getEntity() {
+		return entity;
+	}
+
+	/**
+	 * Returns the new model information for MODEL_INFO_CHANGED (else null)
+	 * @return
+	 */
+	public ModelInfo getModelInfo() {
+		return modelInfo;
+	}
+
+	/**
+	 * Returns the parsing errors for PARSING_ERRORS (else void)
+	 * @return
+	 */
+	public DslModelErrors getErrors() {
+		return errors;
+	}
+
+	@Override
+	public String toString() {
+		return type + ( entityName != null ? " " + entityName : "" )
+				+ ( errors.isEmpty() ? "" : " (" + errors.getNumberOfErrors() + " error(s))" ) ;
+	}
+}
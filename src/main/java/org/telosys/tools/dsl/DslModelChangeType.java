@@ -0,0 +1,44 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl;
+
+/**
+ * Type of change published by the model monitor
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public enum DslModelChangeType {
+
+	/** new entity (entity file successfully parsed for the first time) */
+	ENTITY_ADDED,
+
+	/** entity file deleted */
+	ENTITY_REMOVED,
+
+	/** existing entity successfully re-parsed */
+	ENTITY_CHANGED,
+
+	/** model information file ('model.yaml') reloaded */
+	MODEL_INFO_CHANGED,
+
+	/** parsing errors in an entity file or in the model information file */
+	PARSING_ERRORS,
+
+	/** model folder deleted or no longer accessible (the monitor is stopped) */
+	MODEL_FOLDER_REMOVED
+
+}
@@ -28,13 +28,96 @@ public class DslModelErrors {
 
 	private final List<DslModelError> errors ;
 
+	private final int maxErrors ; // v 4.3.0 ( 0 = no limit )
+	
+	private int unprocessedEntities = 0 ; // v 4.3.0
+	private int skippedSteps = 0 ; // v 4.3.0
+
     /**
-     * Constructor with a single error message
-     * @param errorMessage
+     * Constructor (no limit for the number of errors)
      */
     public DslModelErrors() {
+        this(0);
+    }
+
+    /**
+     * Constructor with a maximum number of errors <br>
+     * When the limit is reached the next errors are ignored <br>
+     * and the model loading is supposed to stop as soon as possible (see 'isLimitReached') 
+     * @param maxErrors the maximum number of errors ( 1 for 'fail fast', 0 for no limit )
+     * @since 4.3.0
+     */
+    public DslModelErrors(int maxErrors) {
         super();
+        if ( maxErrors < 0 ) {
+        	throw new IllegalArgumentException("Invalid max errors : " + maxErrors);
+        }
         this.errors = new LinkedList<>();
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Returns the maximum number of errors ( 0 if no limit )
+     * @return
+     * @since 4.3.0
+     */
+    public int getMaxErrors() {
+    	return maxErrors ;
+    }
+
+    /**
+     * Returns true if the maximum number of errors is reached 
+     * @return
+     * @since 4.3.0
+     */
+    public boolean isLimitReached() {
+    	return maxErrors > 0 && errors.size() >= maxErrors ;
+    }
+
+    /**
+     * Adds a number of entities not processed because the limit has been reached
+     * @param n
+     * @since 4.3.0
+     */
+    public void addUnprocessedEntities(int n) {
+    	unprocessedEntities = unprocessedEntities + n ;
+    }
+
+    /**
+     * Returns the number of entities not processed (parsing or conversion step) 
+     * because the limit has been reached
+     * @return
+     * @since 4.3.0
+     */
+    public int getNumberOfUnprocessedEntities() {
+    	return unprocessedEntities ;
+    }
+
+    /**
+     * Adds a number of conversion steps not executed because the limit has been reached
+     * @param n
+     * @since 4.3.0
+     */
+    public void addSkippedSteps(int n) {
+    	skippedSteps = skippedSteps + n ;
+    }
+
+    /**
+     * Returns the number of conversion steps not executed because the limit has been reached
+     * @return
+     * @since 4.3.0
+     */
+    public int getNumberOfSkippedSteps() {
+    	return skippedSteps ;
+    }
+
+    /**
+     * Returns true if the model loading has been stopped before the end (limit reached) 
+     * @return
+     * @since 4.3.0
+     */
+    public boolean isInterrupted() {
+    	return unprocessedEntities > 0 || skippedSteps > 0 ;
     }
 
     /**
@@ -66,14 +149,31 @@ public class DslModelErrors {
      * @param error
      */
     public void addError(DslModelError error) {
-    	errors.add(error);
+    	if ( ! isLimitReached() ) {
+    		errors.add(error);
+    	}
+    }
+    
+    /**
+     * Add all the errors of the given collector (in their original order)
+     * @param otherErrors
+     */
+    public void addErrors(DslModelErrors otherErrors) {
+    	for ( DslModelError error : otherErrors.getErrors() ) {
+    		addError(error);
+    	}
     }
     
     @Override
     public String toString() {
     	StringBuilder sb = new StringBuilder();
     	sb.append(errors.size());
-    	sb.append(" error(s) : \n");
+    	sb.append(" error(s)");
+    	if ( isInterrupted() ) {
+    		sb.append(" (limit reached : " + unprocessedEntities + " entities not processed, " 
+    				+ skippedSteps + " steps skipped)");
+    	}
+    	sb.append(" : \n");
 		for ( DslModelError e : errors ) {
 	    	sb.append(" . " );
 	    	sb.append(e.getReportMessage() );
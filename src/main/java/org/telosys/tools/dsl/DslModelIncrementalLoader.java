@@ -0,0 +1,406 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.telosys.tools.dsl.commons.ModelInfo;
+import org.telosys.tools.dsl.commons.ModelInfoLoader;
+import org.telosys.tools.dsl.converter.ModelConverter;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.commons.FkElement;
+import org.telosys.tools.dsl.parser.model.DomainAnnotation;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainField;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+import org.telosys.tools.generic.model.Model;
+
+/**
+ * Incremental DSL model loader <br>
+ * Keeps the state of the last load for a given model folder and, on each new load, <br>
+ * re-parses only the entity files added or changed since the previous load (file fingerprint) <br>
+ * and converts only the changed entities and the entities referencing them. <br>
+ * The unchanged entities are shared with the previously returned model (same instances) : <br>
+ * once a new model is loaded the previous one must no longer be used, and the returned models <br>
+ * must not be modified (a modified entity would be reused as is by the next loads). <br>
+ * <br>
+ * An instance is dedicated to a single model folder and is not thread-safe.
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DslModelIncrementalLoader {
+
+	private final File modelFolder ;
+
+	private String errorMessage = "";
+
+	private DslModelErrors errors = new DslModelErrors();
+
+	//--- state of the last load
+	private FileFingerprint modelInfoFingerprint = null ;
+	private ModelInfo modelInfo = null ;
+	private final Map<String, FileFingerprint> entitiesFingerprints = new HashMap<>();
+	private final Map<String, DomainEntity> entities = new HashMap<>();
+	private final Map<String, DslModelErrors> entitiesErrors = new HashMap<>();
+	private DslModel lastValidModel = null ; // null if the last load failed
+
+	//--- statistics for the last load
+	private int numberOfParsedEntities = 0 ;
+	private int numberOfConvertedEntities = 0 ;
+
+	/**
+	 * Constructor
+	 * @param modelFolder the model folder containing the entity files
+	 */
+	public DslModelIncrementalLoader(File modelFolder) {
+		super();
+		this.modelFolder = modelFolder;
+	}
+
+	/**
+	 * Returns main error message for the last load (or void if no error)
+	 * @return
+	 */
+	public String getErrorMessage() {
+		return errorMessage;
+	}
+
+	/**
+	 * Returns all errors detected during the last load
+	 * @return
+	 */
+	public DslModelErrors getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Returns the number of entity files parsed during the last load
+	 * @return
+	 */
+	public int getNumberOfParsedEntities() {
+		return numberOfParsedEntities;
+	}
+
+	/**
+	 * Returns the number of entities converted during the last load
+	 * @return
+	 */
+	public int getNumberOfConvertedEntities() {
+		return numberOfConvertedEntities;
+	}
+
+	/**
+	 * Forgets the state of the previous loads (the next load will be a full load)
+	 */
+	public void reset() {
+		modelInfoFingerprint = null ;
+		modelInfo = null ;
+		entitiesFingerprints.clear();
+		entities.clear();
+		entitiesErrors.clear();
+		lastValidModel = null ;
+	}
+
+	/**
+	 * Loads (parse and convert) the model <br>
+	 * The first call is a full load, the next calls only process the changes <br>
+	 * If errors occurred this method returns null <br>
+	 * and the errors can be retrieved with getErrors() and getErrorMessage()
+	 *
+	 * @return the model or null if errors detected
+	 */
+	public Model loadModel() {
+		errors = new DslModelErrors();
+		errorMessage = "";
+		numberOfParsedEntities = 0 ;
+		numberOfConvertedEntities = 0 ;
+
+		//--- check model folder validity
+		if ( ! modelFolder.exists() || ! modelFolder.isDirectory() ) {
+			reset();
+			errors.addError(new DslModelError("Model folder '" + modelFolder.toString() + "' not found or not a directory"));
+			errorMessage = "1 parsing error(s)";
+			return null;
+		}
+
+		//--- reload model info file only if changed
+		boolean modelInfoChanged = updateModelInfo();
+		if ( ! errors.isEmpty() ) {
+			errorMessage = errors.getNumberOfErrors() + " parsing error(s)";
+			return null;
+		}
+
+		//--- parse the changed entities
+		List<String> entitiesFileNames = DslModelUtil.getEntityFullFileNames(modelFolder);
+		List<String> entitiesNames = new LinkedList<>();
+		for ( String entityFileName : entitiesFileNames ) {
+			entitiesNames.add(DslModelUtil.getEntityName(new File(entityFileName)));
+		}
+		Set<String> parsedEntities = parseChangedEntities(entitiesFileNames, entitiesNames);
+		Set<String> deletedEntities = removeDeletedEntities(entitiesNames);
+
+		//--- build the 'raw model' and collect errors (in entity files order)
+		DomainModel domainModel = new DomainModel(modelFolder.getName(), modelInfo);
+		for ( String entityName : entitiesNames ) {
+			DslModelErrors entityErrors = entitiesErrors.get(entityName);
+			if ( entityErrors != null ) {
+				errors.addErrors(entityErrors);
+			}
+			DomainEntity domainEntity = entities.get(entityName);
+			if ( domainEntity != null ) {
+				domainModel.setEntity(domainEntity);
+			}
+		}
+		if ( ! errors.isEmpty() ) {
+			lastValidModel = null ;
+			errorMessage = errors.getNumberOfErrors() + " parsing error(s)";
+			return null ;
+		}
+
+		//--- convert the 'raw model'
+		if ( lastValidModel == null || modelInfoChanged ) {
+			return convertModel(domainModel, null, null);
+		}
+		else {
+			Set<String> changedEntities = new HashSet<>(parsedEntities);
+			changedEntities.addAll(deletedEntities);
+			Set<String> entitiesToConvert = new HashSet<>(parsedEntities);
+			for ( DomainEntity domainEntity : domainModel.getEntities() ) {
+				if ( referencesAny(domainEntity, changedEntities) ) {
+					entitiesToConvert.add(domainEntity.getName());
+				}
+			}
+			return convertModel(domainModel, lastValidModel, entitiesToConvert);
+		}
+	}
+
+	/**
+	 * Loads the model information file if it has changed since the last load
+	 * @return true if the model information has been (re)loaded
+	 */
+	private boolean updateModelInfo() {
+		File modelInfoFile = DslModelUtil.getModelFileFromModelFolder(modelFolder);
+		FileFingerprint fingerprint = new FileFingerprint(modelInfoFile);
+		if ( modelInfo != null && fingerprint.equals(modelInfoFingerprint) ) {
+			return false;
+		}
+		try {
+			modelInfo = ModelInfoLoader.loadModelInformation(modelInfoFile);
+			modelInfoFingerprint = fingerprint ;
+		} catch (DslModelError e) {
+			modelInfo = null ;
+			modelInfoFingerprint = null ;
+			errors.addError(e);
+		}
+		return true;
+	}
+
+	/**
+	 * Parses the entity files added or changed since the last load <br>
+	 * If the set of entity names has changed, the entities referencing a deleted entity <br>
+	 * and the entities with parsing errors are also parsed (their result depends on the entity names)
+	 * @param entitiesFileNames the current entity files
+	 * @param entitiesNames the current entity names (same order)
+	 * @return the names of the parsed entities
+	 */
+	private Set<String> parseChangedEntities(List<String> entitiesFileNames, List<String> entitiesNames) {
+		Set<String> entitiesToParse = new HashSet<>();
+		for ( String entityFileName : entitiesFileNames ) {
+			File entityFile = new File(entityFileName);
+			String entityName = DslModelUtil.getEntityName(entityFile);
+			if ( ! new FileFingerprint(entityFile).equals(entitiesFingerprints.get(entityName)) ) {
+				entitiesToParse.add(entityName);
+			}
+		}
+		//--- the entity names have changed => impact on the entities referencing them
+		if ( ! new HashSet<>(entitiesNames).equals(entitiesFingerprints.keySet()) ) {
+			Set<String> deletedEntities = new HashSet<>(entitiesFingerprints.keySet());
+			deletedEntities.removeAll(entitiesNames);
+			for ( String entityName : entitiesNames ) {
+				DomainEntity domainEntity = entities.get(entityName);
+				if ( entitiesErrors.containsKey(entityName) || referencesAny(domainEntity, deletedEntities) ) {
+					entitiesToParse.add(entityName);
+				}
+			}
+		}
+		//--- parse
+		ParserV2 parser = new ParserV2();
+		for ( String entityFileName : entitiesFileNames ) {
+			File entityFile = new File(entityFileName);
+			String entityName = DslModelUtil.getEntityName(entityFile);
+			if ( entitiesToParse.contains(entityName) ) {
+				DslModelErrors entityErrors = new DslModelErrors();
+				FileFingerprint fingerprint = new FileFingerprint(entityFile); // before parsing
+				DomainEntity domainEntity = parser.parseEntity(entityFile, entitiesNames, entityErrors);
+				entitiesFingerprints.put(entityName, fingerprint);
+				setOrRemove(entities, entityName, domainEntity);
+				setOrRemove(entitiesErrors, entityName, entityErrors.isEmpty() ? null : entityErrors);
+				numberOfParsedEntities++;
+			}
+		}
+		return entitiesToParse;
+	}
+
+	private <T> void setOrRemove(Map<String, T> map, String key, T value) {
+		if ( value != null ) {
+			map.put(key, value);
+		}
+		else {
+			map.remove(key);
+		}
+	}
+
+	/**
+	 * Removes all the entities whose file no longer exists
+	 * @param entitiesNames the current entity names
+	 * @return the names of the removed entities
+	 */
+	private Set<String> removeDeletedEntities(List<String> entitiesNames) {
+		Set<String> deletedEntities = new HashSet<>(entitiesFingerprints.keySet());
+		deletedEntities.removeAll(entitiesNames);
+		for ( String entityName : deletedEntities ) {
+			entitiesFingerprints.remove(entityName);
+			entities.remove(entityName);
+			entitiesErrors.remove(entityName);
+		}
+		return deletedEntities;
+	}
+
+	/**
+	 * Returns true if the given entity references at least one of the given entities <br>
+	 * (field type, FK definition or annotation parameter)
+	 * @param domainEntity the entity (can be null)
+	 * @param entitiesNames
+	 * @return
+	 */
+	protected static boolean referencesAny(DomainEntity domainEntity, Set<String> entitiesNames) {
+		if ( domainEntity == null || entitiesNames.isEmpty() ) {
+			return false;
+		}
+		for ( DomainAnnotation annotation : domainEntity.getAnnotations().values() ) {
+			if ( referencesAny(annotation, entitiesNames) ) {
+				return true;
+			}
+		}
+		for ( DomainField field : domainEntity.getFields() ) {
+			if ( field.isLink() && entitiesNames.contains(field.getTypeName()) ) {
+				return true;
+			}
+			for ( FkElement fkElement : field.getFkElements() ) {
+				if ( entitiesNames.contains(fkElement.getReferencedEntityName()) ) {
+					return true;
+				}
+			}
+			for ( DomainAnnotation annotation : field.getAnnotations().values() ) {
+				if ( referencesAny(annotation, entitiesNames) ) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean referencesAny(DomainAnnotation annotation, Set<String> entitiesNames) {
+		Object parameter = annotation.getParameter();
+		if ( parameter instanceof String ) {
+			return entitiesNames.contains(parameter);
+		}
+		else if ( parameter instanceof List ) {
+			for ( Object element : (List<?>) parameter ) {
+				if ( entitiesNames.contains(element) ) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Converts the 'raw model' to 'DSL/generic model'
+	 * @param domainModel
+	 * @param previousModel the previous valid model (or null for a full conversion)
+	 * @param entitiesToConvert the entities to be converted (or null for a full conversion)
+	 * @return the model or null if errors
+	 */
+	private Model convertModel(DomainModel domainModel, DslModel previousModel, Set<String> entitiesToConvert) {
+		ModelConverter converter = new ModelConverter(errors);
+		Model model ;
+		try {
+			if ( previousModel == null ) {
+				numberOfConvertedEntities = domainModel.getNumberOfEntities();
+				model = converter.convertModel(domainModel);
+			}
+			else {
+				numberOfConvertedEntities = entitiesToConvert.size();
+				model = converter.convertModel(domainModel, previousModel, entitiesToConvert);
+			}
+		} catch (Exception e) {
+			// Unexpected exception
+			String msg = e.getMessage();
+			if ( msg == null ) { // eg NullPointerException
+				msg = e.toString();
+			}
+			errorMessage = "Converter error : " + msg ;
+			lastValidModel = null ;
+			return null ;
+		}
+		if ( errors.isEmpty() ) {
+			lastValidModel = (DslModel) model ;
+			return model ; // Model is OK
+		}
+		else {
+			lastValidModel = null ;
+			return null ; // Invalid model
+		}
+	}
+
+	/**
+	 * File fingerprint based on the file size and the last modification time
+	 */
+	private static class FileFingerprint {
+		private final boolean exists ;
+		private final long lastModified ;
+		private final long length ;
+
+		private FileFingerprint(File file) {
+			this.exists = file.exists();
+			this.lastModified = file.lastModified();
+			this.length = file.length();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if ( obj instanceof FileFingerprint ) {
+				FileFingerprint other = (FileFingerprint) obj;
+				return exists == other.exists && lastModified == other.lastModified && length == other.length ;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (lastModified ^ length);
+		}
+	}
+}
@@ -16,12 +16,30 @@
 package org.telosys.tools.dsl;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.ProviderNotFoundException;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
 
 import org.telosys.tools.dsl.commons.ModelInfo;
 import org.telosys.tools.dsl.commons.ModelInfoLoader;
+import org.telosys.tools.dsl.commons.ModelSource;
 import org.telosys.tools.dsl.converter.ModelConverter;
+import org.telosys.tools.dsl.jfr.DslEvents;
+import org.telosys.tools.dsl.metrics.MetricsPhase;
+import org.telosys.tools.dsl.metrics.ModelMetricsListener;
 import org.telosys.tools.dsl.parser.ParserV2;
 import org.telosys.tools.dsl.parser.ParsingResult;
+import org.telosys.tools.dsl.parser.cache.EntityParsingCache;
 import org.telosys.tools.dsl.parser.model.DomainModel;
 import org.telosys.tools.generic.model.Model;
 
@@ -40,13 +58,102 @@ public class DslModelManager {
 	 */
 	private DslModelErrors errors ;
 
+	/**
+	 * Executor used to parse entities in parallel (or null)
+	 */
+	private final ExecutorService executor ;
+
+	/**
+	 * Cache for parsed entities (or null if no cache)
+	 */
+	private final EntityParsingCache parsingCache ;
+
+	/**
+	 * Maximum number of errors before stopping the model loading ( 0 = no limit )
+	 */
+	private int maxErrors = 0 ;
+
+	/**
+	 * Metrics listener (or null if no metrics)
+	 */
+	private ModelMetricsListener metricsListener = null ;
+
+	/**
+	 * Use the executor also to convert the entities in parallel (in each conversion step)
+	 */
+	private boolean parallelConversion = false ;
+
 	/**
 	 * Constructor
 	 */
 	public DslModelManager() {
+		this(null, false);
+	}
+
+	/**
+	 * Constructor with an executor to parse the entity files in parallel
+	 * @param executor the executor to be used (or null for sequential parsing)
+	 * @since 4.3.0
+	 */
+	public DslModelManager(ExecutorService executor) {
+		this(executor, false);
+	}
+
+	/**
+	 * Constructor with an executor and the option to use the on-disk parsing cache <br>
+	 * (cache located in the '.telosys-cache' folder of each model folder)
+	 * @param executor the executor to be used (or null for sequential parsing)
+	 * @param useParsingCache true to use the parsing cache
+	 * @since 4.3.0
+	 */
+	public DslModelManager(ExecutorService executor, boolean useParsingCache) {
 		super();
 		parsingErrorMessage = "";
 		errors = new DslModelErrors();
+		this.executor = executor;
+		this.parsingCache = useParsingCache ? new EntityParsingCache() : null ;
+	}
+
+	/**
+	 * Sets the maximum number of errors : the model loading (parsing and conversion) <br>
+	 * stops as soon as this limit is reached 
+	 * @param maxErrors the maximum number of errors ( 0 for no limit )
+	 * @since 4.3.0
+	 */
+	public void setMaxErrors(int maxErrors) {
+		if ( maxErrors < 0 ) {
+			throw new IllegalArgumentException("Invalid max errors : " + maxErrors);
+		}
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * Stops the model loading at the first error if true ( same as 'setMaxErrors(1)' )
+	 * @param failFast
+	 * @since 4.3.0
+	 */
+	public void setFailFast(boolean failFast) {
+		setMaxErrors(failFast ? 1 : 0);
+	}
+
+	/**
+	 * Converts the entities in parallel (in each conversion step) using the executor <br>
+	 * given to the constructor (no effect if no executor)
+	 * @param parallelConversion
+	 * @since 4.3.0
+	 */
+	public void setParallelConversion(boolean parallelConversion) {
+		this.parallelConversion = parallelConversion;
+	}
+
+	/**
+	 * Sets the listener receiving the model loading metrics <br>
+	 * (time per phase and per entity, counters for parsing and conversion) 
+	 * @param metricsListener the listener (or null for no metrics, default)
+	 * @since 4.3.0
+	 */
+	public void setMetricsListener(ModelMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
 	}
 
 	/**
@@ -85,10 +192,173 @@ public class DslModelManager {
      * @return the generic model or null if errors detected during parsing 
      */
     public Model loadModel(File modelFolder) {
-		ParsingResult parsingResult = step1ParseModel(modelFolder);
+		this.errors = new DslModelErrors(maxErrors); // v 4.3.0
+		Object event = DslEvents.beginModelLoad(); // null if no JFR recording
+		long start = ( metricsListener != null ? System.nanoTime() : 0L );
+		Model model = processParsingResult(step1ParseModel(modelFolder));
+		modelLoadingCompleted(start, event, modelFolder.getName(), model);
+		return model;
+    }
+
+    /**
+     * Loads (parse and convert) the model defined by the given sources (no model folder required) <br>
+     * The sources can be files, strings, bytes arrays, zip entries, etc <br>
+     * If errors occured this method returns null <br>
+     * and the errors can be retrieved from this instance ( parsingErrorMessage and parsingErrors ) 
+     *
+     * @param modelName the model name
+     * @param sources the model sources ( 'model.yaml' and '.entity' sources )
+     * @return the generic model or null if errors detected during parsing 
+     * @since 4.3.0
+     */
+    public Model loadModel(String modelName, Collection<ModelSource> sources) {
+		this.errors = new DslModelErrors(maxErrors);
+		Object event = DslEvents.beginModelLoad(); // null if no JFR recording
+		long start = ( metricsListener != null ? System.nanoTime() : 0L );
+		Model model = processParsingResult(newParser().parseModel(modelName, sources));
+		modelLoadingCompleted(start, event, modelName, model);
+		return model;
+    }
+
+    private void modelLoadingCompleted(long start, Object event, String modelName, Model model) {
+		if ( metricsListener != null ) {
+			metricsListener.phaseCompleted(MetricsPhase.MODEL_LOADING, System.nanoTime() - start);
+		}
+		DslEvents.endModelLoad(event, modelName, model != null ? model.getEntities().size() : 0, 
+				errors.getNumberOfErrors());
+    }
+
+    private ParserV2 newParser() {
+    	ParserV2 dslParser = new ParserV2(executor, parsingCache);
+    	dslParser.setMaxErrors(maxErrors);
+    	dslParser.setMetricsListener(metricsListener);
+    	return dslParser;
+    }
+
+    /**
+     * Loads (parse and convert) the model located in the given folder of a zip/jar archive <br>
+     * The files are read through a zip file system (no extraction) <br>
+     * If errors occured this method returns null <br>
+     * and the errors can be retrieved from this instance ( parsingErrorMessage and parsingErrors ) 
+     *
+     * @param archiveFile the zip/jar file
+     * @param modelFolderPath the model folder path in the archive ( e.g. "models/bookstore" or "/" for the root )
+     * @return the generic model or null if errors detected during parsing 
+     * @since 4.3.0
+     */
+    public Model loadModelFromArchive(File archiveFile, String modelFolderPath) {
+		this.errors = new DslModelErrors(maxErrors);
+    	if ( ! archiveFile.isFile() ) {
+    		return setError("Model archive '" + archiveFile.toString() + "' not found");
+    	}
+		String modelName = lastSegment(modelFolderPath);
+		if ( modelName.isEmpty() ) {
+			// model at the root of the archive => archive name without extension
+			modelName = archiveFile.getName().replaceFirst("\\.[^.]*$", "");
+		}
+		return loadModelFromArchive(modelName, archiveFile.toPath(), modelFolderPath);
+    }
+
+    /**
+     * Loads the model located in the given folder of an archive through a private zip file system <br>
+     * (never shared with other callers, always closed after the loading)
+     * @param modelName
+     * @param archivePath
+     * @param modelFolderPath
+     * @return
+     */
+    private Model loadModelFromArchive(String modelName, Path archivePath, String modelFolderPath) {
+		try ( FileSystem zipFileSystem = FileSystems.newFileSystem(archivePath, (ClassLoader) null) ) {
+			return loadModel(modelName, zipFileSystem.getPath(modelFolderPath.isEmpty() ? "/" : modelFolderPath));
+		} catch (IOException | ProviderNotFoundException e) {
+    		return setError("Cannot read model archive '" + archivePath.toString() + "' : " + e.getMessage());
+		}
+    }
+
+    /**
+     * Loads (parse and convert) the model located in the given classpath resource folder <br>
+     * The folder can be located in a directory or in a jar (no extraction) <br>
+     * A jar is read through a private zip file system (a file system opened by another caller is never used) <br>
+     * Other kinds of resources (e.g. "vfs:" or "bundleresource:" URLs) are reported as errors <br>
+     * If errors occured this method returns null <br>
+     * and the errors can be retrieved from this instance ( parsingErrorMessage and parsingErrors ) 
+     *
+     * @param resourceFolder the model folder resource name ( e.g. "models/bookstore" )
+     * @param classLoader the class loader used to find the resource
+     * @return the generic model or null if errors detected during parsing 
+     * @since 4.3.0
+     */
+    public Model loadModelFromClasspath(String resourceFolder, ClassLoader classLoader) {
+		this.errors = new DslModelErrors(maxErrors);
+		URL url = classLoader.getResource(resourceFolder);
+		if ( url == null ) {
+    		return setError("Model resource '" + resourceFolder + "' not found");
+		}
+		String modelName = lastSegment(resourceFolder);
+		try {
+			URI uri = url.toURI();
+			if ( "jar".equals(uri.getScheme()) ) {
+				// "jar:file:/aa/bb/xx.jar!/models/bookstore"
+				String jarUri = uri.getRawSchemeSpecificPart();
+				int separator = jarUri.indexOf("!/");
+				if ( separator < 0 || jarUri.indexOf("!/", separator + 2) >= 0 ) {
+		    		return setError("Unsupported model resource URL '" + url + "' (nested jar)");
+				}
+				URI archiveUri = new URI(jarUri.substring(0, separator));
+				if ( ! "file".equals(archiveUri.getScheme()) ) {
+		    		return setError("Unsupported model resource URL '" + url + "'");
+				}
+				String entryPath = new URI("/" + jarUri.substring(separator + 2)).getPath() ; // decoded
+				return loadModelFromArchive(modelName, Paths.get(archiveUri), entryPath);
+			}
+			else if ( "file".equals(uri.getScheme()) ) {
+				return loadModel(modelName, Paths.get(uri));
+			}
+			else {
+	    		return setError("Unsupported model resource URL '" + url + "'");
+			}
+		} catch (URISyntaxException | IOException | FileSystemNotFoundException | IllegalArgumentException e) {
+    		return setError("Cannot read model resource '" + resourceFolder + "' : " + e.getMessage());
+		}
+    }
+
+    /**
+     * Loads the model located in the given folder path (any file system)
+     * @param modelName
+     * @param modelFolder
+     * @return
+     * @throws IOException
+     */
+    private Model loadModel(String modelName, Path modelFolder) throws IOException {
+    	if ( ! Files.isDirectory(modelFolder) ) {
+    		return setError("Model folder '" + modelFolder.toString() + "' not found");
+    	}
+    	// the sources are read during the loading (the file system must remain open)
+		return loadModel(modelName, DslModelUtil.getModelSources(modelFolder));
+    }
+
+    private String lastSegment(String path) {
+    	String s = path ;
+    	while ( s.endsWith("/") ) {
+    		s = s.substring(0, s.length() - 1);
+    	}
+    	return s.substring(s.lastIndexOf('/') + 1);
+    }
+
+    private Model setError(String message) {
+		errors.addError(new DslModelError(message));
+		parsingErrorMessage = errors.getNumberOfErrors() + " parsing error(s)";
+		return null;
+    }
+
+    private Model processParsingResult(ParsingResult parsingResult) {
 		if ( parsingResult.hasErrors() ) {
 			this.errors = parsingResult.getErrors();
 			this.parsingErrorMessage = parsingResult.getErrors().getNumberOfErrors() + " parsing error(s)";
+			if ( errors.isInterrupted() ) {
+				this.parsingErrorMessage = parsingErrorMessage + " (parsing stopped, " 
+						+ errors.getNumberOfUnprocessedEntities() + " entities not parsed)";
+			}
 			return null ;
 		}
 		else {
@@ -103,8 +373,7 @@ public class DslModelManager {
      * @return
      */
     private ParsingResult step1ParseModel(File modelFolder) {
-    	ParserV2 dslParser = new ParserV2();
-		return dslParser.parseModel(modelFolder);
+		return newParser().parseModel(modelFolder);
     }
     
     /**
@@ -113,7 +382,8 @@ public class DslModelManager {
      * @return
      */
     private Model step2ConvertModel(DomainModel domainModel) {
-        ModelConverter converter = new ModelConverter(errors);
+        ModelConverter converter = new ModelConverter(errors, parallelConversion ? executor : null);
+        converter.setMetricsListener(metricsListener);
 		try {
 			Model model = converter.convertModel(domainModel);
 			if ( errors.isEmpty() ) {
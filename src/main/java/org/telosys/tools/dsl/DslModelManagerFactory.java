@@ -0,0 +1,33 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl;
+
+/**
+ * Factory providing a configured model manager for each model loading <br>
+ * (e.g. with an executor, a parsing cache, a metrics listener, etc)
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public interface DslModelManagerFactory {
+
+	/**
+	 * Returns a new model manager (a model manager is not shared between loadings)
+	 * @return
+	 */
+	public DslModelManager createModelManager();
+
+}
@@ -0,0 +1,436 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.telosys.tools.commons.TelosysToolsLogger;
+import org.telosys.tools.commons.logger.ConsoleLogger;
+import org.telosys.tools.dsl.commons.ModelInfo;
+import org.telosys.tools.dsl.commons.ModelInfoLoader;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+
+/**
+ * Live model monitor based on a 'WatchService' over the model folder <br>
+ * Bursts of file events are debounced, then only the affected entity files <br>
+ * (and 'model.yaml' if changed) are re-parsed and the resulting changes are <br>
+ * published to the listeners. <br>
+ * <br>
+ * When the set of entity names changes, the entities with parsing errors and <br>
+ * the entities referencing a removed entity are also re-parsed (their result depends on the entity names). <br>
+ * <br>
+ * If the model folder is deleted, the monitor publishes the removed entities <br>
+ * and a 'MODEL_FOLDER_REMOVED' change, then it stops by itself. <br>
+ * <br>
+ * The listeners are called in the monitor thread (a listener can stop the monitor).
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DslModelMonitor {
+
+	public static final long DEFAULT_DEBOUNCE_DELAY = 200 ; // milliseconds
+
+	private final File modelFolder ;
+
+	private volatile long debounceDelay = DEFAULT_DEBOUNCE_DELAY ;
+
+	private volatile TelosysToolsLogger logger = new ConsoleLogger();
+
+	private final List<DslModelMonitorListener> listeners = new CopyOnWriteArrayList<>();
+
+	//--- current state of the model (updated by each batch of changes)
+	private ModelInfo modelInfo = null ;
+	private final Map<String, File> entitiesFiles = new TreeMap<>();
+	private final Map<String, DomainEntity> entities = new HashMap<>(); // last valid entities
+	private final Map<String, DslModelErrors> entitiesErrors = new HashMap<>();
+	private int numberOfParsedEntities = 0 ;
+
+	private WatchService watchService = null ;
+	private Thread thread = null ;
+
+	/**
+	 * Constructor
+	 * @param modelFolder the model folder to be monitored
+	 */
+	public DslModelMonitor(File modelFolder) {
+		super();
+		this.modelFolder = modelFolder;
+	}
+
+	/**
+	 * Set the delay without file events required before processing a batch of events
+	 * @param debounceDelay the delay in milliseconds
+	 */
+	public void setDebounceDelay(long debounceDelay) {
+		if ( debounceDelay < 0 ) {
+			throw new IllegalArgumentException("Invalid debounce delay " + debounceDelay);
+		}
+		this.debounceDelay = debounceDelay;
+	}
+
+	public long getDebounceDelay() {
+		return debounceDelay;
+	}
+
+	/**
+	 * Set the logger used to report the listeners failures
+	 * @param logger
+	 */
+	public void setLogger(TelosysToolsLogger logger) {
+		if ( logger == null ) {
+			throw new IllegalArgumentException("TelosysToolsLogger is null");
+		}
+		this.logger = logger;
+	}
+
+	public void addListener(DslModelMonitorListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(DslModelMonitorListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Parses all the model files (initial state) and starts watching the model folder
+	 * @throws IOException if the folder cannot be watched
+	 */
+	public synchronized void start() throws IOException {
+		if ( thread != null ) {
+			throw new IllegalStateException("Model monitor already started");
+		}
+		if ( ! modelFolder.isDirectory() ) {
+			throw new IllegalArgumentException("Model folder '" + modelFolder.toString() + "' not found or not a directory");
+		}
+		watchService = modelFolder.toPath().getFileSystem().newWatchService();
+		modelFolder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+		initialize();
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "model-monitor-" + modelFolder.getName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops watching the model folder <br>
+	 * Can be called by a listener (in the monitor thread) : in this case the monitor thread ends after the listeners calls
+	 */
+	public void stop() {
+		Thread threadToStop ;
+		synchronized (this) {
+			if ( thread == null ) {
+				return;
+			}
+			try {
+				watchService.close(); // the monitor thread ends with 'ClosedWatchServiceException'
+			} catch (IOException e) {
+				// nothing to do
+			}
+			threadToStop = thread ;
+			thread = null ;
+			watchService = null ;
+		}
+		if ( Thread.currentThread() == threadToStop ) {
+			return; // called by a listener => cannot wait for itself
+		}
+		threadToStop.interrupt();
+		try {
+			threadToStop.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Ends the monitoring from the monitor thread (the model folder is no longer watchable)
+	 * @param ws the watch service used by the monitor thread
+	 */
+	private synchronized void ended(WatchService ws) {
+		try {
+			ws.close();
+		} catch (IOException e) {
+			// nothing to do
+		}
+		if ( watchService == ws ) {
+			thread = null ;
+			watchService = null ;
+		}
+	}
+
+	public synchronized boolean isStarted() {
+		return thread != null ;
+	}
+
+	/**
+	 * Returns the names of the current entities (sorted)
+	 * @return
+	 */
+	public synchronized List<String> getEntityNames() {
+		return new LinkedList<>(entitiesFiles.keySet());
+	}
+
+	/**
+	 * Returns the last valid parsed entity for the given name (or null if none)
+	 * @param entityName
+	 * @return
+	 */
+	public synchronized DomainEntity getEntity(String entityName) {
+		return entities.get(entityName);
+	}
+
+	/**
+	 * Returns the current parsing errors for the given entity (or null if none)
+	 * @param entityName
+	 * @return
+	 */
+	public synchronized DslModelErrors getEntityErrors(String entityName) {
+		return entitiesErrors.get(entityName);
+	}
+
+	/**
+	 * Returns the last valid model information
+	 * @return
+	 */
+	public synchronized ModelInfo getModelInfo() {
+		return modelInfo;
+	}
+
+	/**
+	 * Returns the number of entity files parsed since the monitor creation
+	 * @return
+	 */
+	public synchronized int getNumberOfParsedEntities() {
+		return numberOfParsedEntities;
+	}
+
+	/**
+	 * Initial (full) parsing of the model folder
+	 */
+	protected synchronized void initialize() {
+		modelInfo = null ;
+		entitiesFiles.clear();
+		entities.clear();
+		entitiesErrors.clear();
+		Set<String> fileNames = new HashSet<>();
+		fileNames.add(DslModelUtil.getModelFileName());
+		for ( String entityFileName : DslModelUtil.getEntityFullFileNames(modelFolder) ) {
+			fileNames.add(new File(entityFileName).getName());
+		}
+		processChanges(fileNames);
+	}
+
+	private void watch() {
+		WatchService ws ;
+		synchronized (this) {
+			ws = watchService ;
+		}
+		if ( ws == null ) {
+			return; // already stopped
+		}
+		try {
+			boolean valid = true ;
+			while ( valid ) {
+				Set<String> fileNames = new HashSet<>();
+				boolean overflow = false ;
+				//--- debounce : wait until no more events
+				WatchKey key = ws.take();
+				while ( key != null ) {
+					overflow = collectEvents(key, fileNames) || overflow ;
+					if ( ! key.reset() ) {
+						valid = false ; // model folder deleted (or no longer accessible)
+						break;
+					}
+					key = ws.poll(debounceDelay, TimeUnit.MILLISECONDS);
+				}
+				if ( ! valid ) {
+					//--- no more events => all the known entities are checked (removed) and the monitor ends
+					fileNames.addAll(getKnownEntityFileNames());
+					List<DslModelChange> changes = processChanges(fileNames);
+					changes.add(new DslModelChange(DslModelChangeType.MODEL_FOLDER_REMOVED, null, null, null, null));
+					ended(ws);
+					publish(changes);
+				}
+				else {
+					if ( overflow ) {
+						// events lost => check all the files
+						fileNames.add(DslModelUtil.getModelFileName());
+						fileNames.addAll(getKnownEntityFileNames());
+						if ( modelFolder.isDirectory() ) {
+							for ( String entityFileName : DslModelUtil.getEntityShortFileNames(modelFolder) ) {
+								fileNames.add(entityFileName);
+							}
+						}
+					}
+					publish(processChanges(fileNames));
+				}
+			}
+		} catch (ClosedWatchServiceException e) {
+			// monitor stopped
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private synchronized List<String> getKnownEntityFileNames() {
+		List<String> list = new LinkedList<>();
+		for ( File file : entitiesFiles.values() ) {
+			list.add(file.getName());
+		}
+		return list;
+	}
+
+	/**
+	 * Collects the file names of the given watch key events (the key is not reset)
+	 * @param key
+	 * @param fileNames
+	 * @return true if events have been lost (overflow)
+	 */
+	private boolean collectEvents(WatchKey key, Set<String> fileNames) {
+		boolean overflow = false ;
+		for ( WatchEvent<?> event : key.pollEvents() ) {
+			if ( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+				overflow = true ;
+			}
+			else {
+				fileNames.add(((Path) event.context()).getFileName().toString());
+			}
+		}
+		return overflow ;
+	}
+
+	private void publish(List<DslModelChange> changes) {
+		if ( changes.isEmpty() ) {
+			return;
+		}
+		List<DslModelChange> unmodifiableChanges = Collections.unmodifiableList(changes);
+		for ( DslModelMonitorListener listener : listeners ) {
+			try {
+				listener.modelChanged(unmodifiableChanges);
+			} catch (RuntimeException e) {
+				// a listener failure must not stop the monitor
+				logger.error("Model monitor '" + modelFolder.getName() + "' : listener error " + e.toString());
+			}
+		}
+	}
+
+	/**
+	 * Processes a batch of changed files : re-parses the affected files and updates the current state
+	 * @param fileNames the short names of the changed files in the model folder (created, modified or deleted)
+	 * @return the resulting changes
+	 */
+	protected synchronized List<DslModelChange> processChanges(Collection<String> fileNames) {
+		List<DslModelChange> changes = new LinkedList<>();
+		Set<String> changedEntities = new TreeSet<>();
+		for ( String fileName : fileNames ) {
+			File file = new File(modelFolder, fileName);
+			if ( fileName.equals(DslModelUtil.getModelFileName()) ) {
+				reloadModelInfo(file, changes);
+			}
+			else if ( DslModelUtil.isValidEntityFile(file) ) {
+				changedEntities.add(DslModelUtil.getEntityName(file));
+			}
+		}
+
+		//--- update the entity names
+		Set<String> addedEntities = new HashSet<>();
+		Set<String> removedEntities = new TreeSet<>();
+		for ( String entityName : changedEntities ) {
+			File entityFile = new File(modelFolder, entityName + ".entity");
+			if ( entityFile.isFile() ) {
+				if ( entitiesFiles.put(entityName, entityFile) == null ) {
+					addedEntities.add(entityName);
+				}
+			}
+			else if ( entitiesFiles.remove(entityName) != null ) {
+				removedEntities.add(entityName);
+			}
+		}
+		for ( String entityName : removedEntities ) {
+			entities.remove(entityName);
+			entitiesErrors.remove(entityName);
+			changes.add(new DslModelChange(DslModelChangeType.ENTITY_REMOVED, entityName, null, null, null));
+		}
+
+		//--- entities to be parsed
+		Set<String> entitiesToParse = new TreeSet<>(changedEntities);
+		entitiesToParse.retainAll(entitiesFiles.keySet());
+		if ( ! addedEntities.isEmpty() || ! removedEntities.isEmpty() ) {
+			for ( String entityName : entitiesFiles.keySet() ) {
+				if ( entitiesErrors.containsKey(entityName)
+						|| DslModelIncrementalLoader.referencesAny(entities.get(entityName), removedEntities) ) {
+					entitiesToParse.add(entityName);
+				}
+			}
+		}
+
+		//--- parse
+		ParserV2 parser = new ParserV2();
+		List<String> entitiesNames = new LinkedList<>(entitiesFiles.keySet());
+		for ( String entityName : entitiesToParse ) {
+			DslModelErrors errors = new DslModelErrors();
+			DomainEntity domainEntity = parser.parseEntity(entitiesFiles.get(entityName), entitiesNames, errors);
+			numberOfParsedEntities++;
+			if ( errors.isEmpty() && domainEntity != null ) {
+				entitiesErrors.remove(entityName);
+				DslModelChangeType type = ( entities.put(entityName, domainEntity) == null ?
+						DslModelChangeType.ENTITY_ADDED : DslModelChangeType.ENTITY_CHANGED );
+				changes.add(new DslModelChange(type, entityName, domainEntity, null, null));
+			}
+			else {
+				entitiesErrors.put(entityName, errors);
+				changes.add(new DslModelChange(DslModelChangeType.PARSING_ERRORS, entityName, null, null, errors));
+			}
+		}
+		return changes;
+	}
+
+	private void reloadModelInfo(File modelInfoFile, List<DslModelChange> changes) {
+		try {
+			modelInfo = ModelInfoLoader.loadModelInformation(modelInfoFile);
+			changes.add(new DslModelChange(DslModelChangeType.MODEL_INFO_CHANGED, null, null, modelInfo, null));
+		} catch (DslModelError e) {
+			DslModelErrors errors = new DslModelErrors();
+			errors.addError(e);
+			changes.add(new DslModelChange(DslModelChangeType.PARSING_ERRORS, null, null, null, errors));
+		}
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl;
+
+import java.util.List;
+
+/**
+ * Listener notified by the model monitor after each batch of file changes
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public interface DslModelMonitorListener {
+
+	/**
+	 * Called (in the monitor thread) with the changes resulting from a batch of file events
+	 * @param changes the changes (never empty)
+	 */
+	public void modelChanged(List<DslModelChange> changes);
+
+}
@@ -16,6 +16,13 @@
 package org.telosys.tools.dsl;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -24,6 +31,7 @@ import org.telosys.tools.commons.FileUtil;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.dsl.commons.ModelInfo;
+import org.telosys.tools.dsl.commons.ModelSource;
 import org.telosys.tools.dsl.model.writer.ModelInfoFileWriter;
 
 public class DslModelUtil {
@@ -139,6 +147,33 @@ public class DslModelUtil {
         return entities;
     }
     
+    /**
+     * Returns the model sources ( 'model.yaml' and '.entity' files ) located in the given model folder <br>
+     * The folder can be located in any file system ( default file system, zip file system, etc )
+     * @param modelFolder
+     * @return the sources sorted by name
+     * @throws IOException
+     * @since 4.3.0
+     */
+    public static List<ModelSource> getModelSources(Path modelFolder) throws IOException {
+    	List<ModelSource> sources = new ArrayList<>();
+    	try ( DirectoryStream<Path> stream = Files.newDirectoryStream(modelFolder) ) {
+    		for ( Path path : stream ) {
+    			ModelSource source = ModelSource.fromPath(path);
+    			if ( ( source.isEntity() || source.isModelInfo() ) && Files.isRegularFile(path) ) {
+    				sources.add(source);
+    			}
+    		}
+    	}
+    	Collections.sort(sources, new Comparator<ModelSource>() {
+			@Override
+			public int compare(ModelSource source1, ModelSource source2) {
+				return source1.getName().compareTo(source2.getName());
+			}
+		});
+    	return sources;
+    }
+
     /**
      * Returns the entity file in the given model folder for the given entity name 
      * @param modelFolder
@@ -15,12 +15,19 @@
  */
 package org.telosys.tools.dsl.commons;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import org.telosys.tools.commons.TelosysToolsException;
 import org.telosys.tools.commons.YamlFileManager;
 import org.telosys.tools.dsl.DslModelError;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
 
 public class ModelInfoLoader {
 
@@ -43,11 +50,7 @@ public class ModelInfoLoader {
 			YamlFileManager yaml = new YamlFileManager(modelYamlFile);
 			try {
 				Map<String, Object> map = yaml.loadMap();
-				if ( map != null ) {
-					modelInfo.setDescription(asString( map.get(ModelInfo.DESCRIPTION) ) ); 
-					modelInfo.setTitle(      asString( map.get(ModelInfo.TITLE      ) ) ); 
-					modelInfo.setVersion(    asString( map.get(ModelInfo.VERSION    ) ) ); 
-				}
+				setModelInfo(modelInfo, map);
 			} catch (TelosysToolsException e) {
 				throw new DslModelError("Invalid model file : YAML error" );
 			}
@@ -55,6 +58,47 @@ public class ModelInfoLoader {
 		return modelInfo;
 	}
 
+	/**
+	 * Loads model information from the given source ( 'model.yaml' content ) <br>
+	 * if the source is null a void ModelInfo is returned 
+	 * @param modelYamlSource the source (can be null)
+	 * @return model information load from YAML content 
+	 * @throws DslModelError 
+	 * @since 4.3.0
+	 */
+	public static ModelInfo loadModelInformation(ModelSource modelYamlSource) throws DslModelError {
+		if ( modelYamlSource == null ) {
+			return new ModelInfo();
+		}
+		if ( modelYamlSource.getFile() != null ) {
+			return loadModelInformation(modelYamlSource.getFile());
+		}
+		// content parsed in memory (no temporary file)
+		// safe constructor : standard YAML types only (no Java object created from global tags)
+		Object yamlObject ;
+		try ( InputStream inputStream = new ByteArrayInputStream(modelYamlSource.getContent()) ) {
+			yamlObject = new Yaml(new SafeConstructor(new LoaderOptions())).load(inputStream);
+		} catch (IOException e) {
+			throw new DslModelError("Cannot read model file : IOException : " + e.getMessage() );
+		} catch (YAMLException e) {
+			throw new DslModelError("Invalid model file : YAML error" );
+		}
+		if ( yamlObject != null && ! ( yamlObject instanceof Map ) ) {
+			throw new DslModelError("Invalid model file : YAML error (not a map)" );
+		}
+		ModelInfo modelInfo = new ModelInfo();
+		setModelInfo(modelInfo, (Map<?, ?>) yamlObject);
+		return modelInfo;
+	}
+
+	private static void setModelInfo(ModelInfo modelInfo, Map<?, ?> map) {
+		if ( map != null ) {
+			modelInfo.setDescription(asString( map.get(ModelInfo.DESCRIPTION) ) ); 
+			modelInfo.setTitle(      asString( map.get(ModelInfo.TITLE      ) ) ); 
+			modelInfo.setVersion(    asString( map.get(ModelInfo.VERSION    ) ) ); 
+		}
+	}
+
 	/**
 	 * Converts the given value to String 
 	 *   null -> ""
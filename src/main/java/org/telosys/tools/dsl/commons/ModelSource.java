@@ -0,0 +1,237 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.commons;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.telosys.tools.dsl.DslModelUtil;
+
+/**
+ * Model source : a model file name (e.g. 'Car.entity' or 'model.yaml') with a content supplier <br>
+ * The content can be located in a file, a string, a bytes array or a zip entry <br>
+ * (the content is read each time it is requested, nothing is kept in memory by the file and zip sources)
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public abstract class ModelSource {
+
+	private final String name ;
+
+	/**
+	 * Constructor
+	 * @param name the file name without path (e.g. 'Car.entity' or 'model.yaml')
+	 */
+	protected ModelSource(String name) {
+		super();
+		if ( name == null || name.isEmpty() ) {
+			throw new IllegalArgumentException("Invalid source name (null or empty)");
+		}
+		this.name = name;
+	}
+
+	/**
+	 * Returns the file name without path (e.g. 'Car.entity' or 'model.yaml')
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns true if the source is an entity ( name ending with '.entity' )
+	 * @return
+	 */
+	public boolean isEntity() {
+		return DslModelUtil.isValidEntityFile(new File(name));
+	}
+
+	/**
+	 * Returns true if the source is the model information ( 'model.yaml' )
+	 * @return
+	 */
+	public boolean isModelInfo() {
+		return ModelInfo.FILE_NAME.equals(name);
+	}
+
+	/**
+	 * Returns the entity name ( e.g. 'Car' for 'Car.entity' )
+	 * @return
+	 */
+	public String getEntityName() {
+		return DslModelUtil.getEntityName(new File(name));
+	}
+
+	/**
+	 * Returns the file containing the source if any (or null if not stored in a file)
+	 * @return
+	 */
+	public File getFile() {
+		return null;
+	}
+
+	/**
+	 * Returns the source content (UTF-8 bytes)
+	 * @return
+	 * @throws IOException
+	 */
+	public abstract byte[] getContent() throws IOException ;
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Factory methods
+	//-------------------------------------------------------------------------------------------------
+	/**
+	 * Returns a source for the given file
+	 * @param file
+	 * @return
+	 */
+	public static ModelSource fromFile(File file) {
+		return new FileSource(file);
+	}
+
+	/**
+	 * Returns a source for the given path (default file system or any other file system, e.g. zip)
+	 * @param path
+	 * @return
+	 */
+	public static ModelSource fromPath(Path path) {
+		return new PathSource(path);
+	}
+
+	/**
+	 * Returns a source for the given content
+	 * @param name the file name (e.g. 'Car.entity')
+	 * @param content
+	 * @return
+	 */
+	public static ModelSource fromString(String name, String content) {
+		return new BytesSource(name, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns a source for the given content
+	 * @param name the file name (e.g. 'Car.entity')
+	 * @param content the content (UTF-8 bytes, not copied)
+	 * @return
+	 */
+	public static ModelSource fromBytes(String name, byte[] content) {
+		return new BytesSource(name, content);
+	}
+
+	/**
+	 * Returns a source for the given zip entry (the source name is the entry name without path)
+	 * @param zipFile the zip file (must remain open while the source is used)
+	 * @param zipEntry
+	 * @return
+	 */
+	public static ModelSource fromZipEntry(ZipFile zipFile, ZipEntry zipEntry) {
+		return new ZipEntrySource(zipFile, zipEntry);
+	}
+
+	private static String lastSegment(String entryName) {
+		String s = entryName.endsWith("/") ? entryName.substring(0, entryName.length() - 1) : entryName ;
+		return s.substring(s.lastIndexOf('/') + 1);
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Implementations
+	//-------------------------------------------------------------------------------------------------
+	private static class FileSource extends ModelSource {
+		private final File file ;
+		private FileSource(File file) {
+			super(file.getName());
+			this.file = file;
+		}
+		@Override
+		public File getFile() {
+			return file;
+		}
+		@Override
+		public byte[] getContent() throws IOException {
+			return Files.readAllBytes(file.toPath());
+		}
+	}
+
+	private static class PathSource extends ModelSource {
+		private final Path path ;
+		private PathSource(Path path) {
+			super(lastSegment(path.getFileName().toString()));
+			this.path = path;
+		}
+		@Override
+		public File getFile() {
+			try {
+				return path.toFile();
+			} catch (UnsupportedOperationException e) {
+				return null; // not in the default file system
+			}
+		}
+		@Override
+		public byte[] getContent() throws IOException {
+			return Files.readAllBytes(path);
+		}
+	}
+
+	private static class BytesSource extends ModelSource {
+		private final byte[] content ;
+		private BytesSource(String name, byte[] content) {
+			super(name);
+			if ( content == null ) {
+				throw new IllegalArgumentException("Invalid source content (null)");
+			}
+			this.content = content;
+		}
+		@Override
+		public byte[] getContent() {
+			return content;
+		}
+	}
+
+	private static class ZipEntrySource extends ModelSource {
+		private final ZipFile zipFile ;
+		private final ZipEntry zipEntry ;
+		private ZipEntrySource(ZipFile zipFile, ZipEntry zipEntry) {
+			super(lastSegment(zipEntry.getName()));
+			this.zipFile = zipFile;
+			this.zipEntry = zipEntry;
+		}
+		@Override
+		public byte[] getContent() throws IOException {
+			try ( InputStream is = zipFile.getInputStream(zipEntry) ) {
+				ByteArrayOutputStream out = new ByteArrayOutputStream(zipEntry.getSize() > 0 ? (int) zipEntry.getSize() : 1024);
+				byte[] buffer = new byte[8192];
+				int n ;
+				while ( ( n = is.read(buffer) ) != -1 ) {
+					out.write(buffer, 0, n);
+				}
+				return out.toByteArray();
+			}
+		}
+	}
+}
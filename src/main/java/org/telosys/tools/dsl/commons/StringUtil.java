@@ -35,6 +35,24 @@ public class StringUtil {
 		return sb.toString();
 	}
 
+	/**
+	 * Returns the given string protected with double quotes if necessary <br>
+	 * (leading or trailing space, parenthesis or double quote) 
+	 * @param s
+	 * @return
+	 * @since 4.3.0
+	 */
+	public static String quoteIfNecessary(String s) {
+		if ( s != null && ( s.startsWith(" ") || s.endsWith(" ") 
+				|| s.contains("(") || s.contains(")") 
+				|| s.contains("\"") ) ) {
+			return quote(s);
+		}
+		else {
+			return s;
+		}
+	}
+
 	public static String unquote(String s) {
 		if (s == null) {
 			return s;
@@ -16,6 +16,7 @@
 package org.telosys.tools.dsl.converter;
 
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -287,26 +288,53 @@ public class ForeignKeysBuilderV2 {
 	 * @since 4.1.0
 	 */
 	public void buildImplicitForeignKeys(DslModelEntity dslModelEntity) {
+		for ( DslModelForeignKey fk : createImplicitForeignKeys(dslModelEntity) ) {
+			addImplicitForeignKey(dslModelEntity, fk);
+		}
+	}
+
+	/**
+	 * Creates the implicit Foreign Keys declared in the links of the given entity <br>
+	 * The Foreign Keys are not named and the entity is not modified 
+	 * (see 'addImplicitForeignKey') 
+	 * @param dslModelEntity
+	 * @return
+	 * @since 4.3.0
+	 */
+	public List<DslModelForeignKey> createImplicitForeignKeys(DslModelEntity dslModelEntity) {
+		List<DslModelForeignKey> foreignKeys = new LinkedList<>();
 		for ( Link link : dslModelEntity.getLinks() ) {
 			DslModelLink dslModelLink = (DslModelLink) link ;
 			if ( dslModelLink.isBasedOnAttributes() ) {
 				// this link is based on @LinkByAttr(...)
-				ForeignKey fk = createImplicitForeignKeyFromLink(dslModelEntity, dslModelLink);
-				// register the FK in the entity it belongs to
-				dslModelEntity.addForeignKey(fk);
-				// appply FK on all attributes involved in it 
-				AttributeFKUtil.applyFKToAttributes(fk, model);		
+				foreignKeys.add(createImplicitForeignKeyFromLink(dslModelEntity, dslModelLink));
 			}
 		}
+		return foreignKeys;
+	}
+
+	/**
+	 * Assigns its name to the given implicit Foreign Key, registers it in the entity <br>
+	 * and applies it on all the attributes involved in it
+	 * @param dslModelEntity
+	 * @param fk
+	 * @since 4.3.0
+	 */
+	public void addImplicitForeignKey(DslModelEntity dslModelEntity, DslModelForeignKey fk) {
+		fk.assignImplicitName();
+		// register the FK in the entity it belongs to
+		dslModelEntity.addForeignKey(fk);
+		// appply FK on all attributes involved in it 
+		AttributeFKUtil.applyFKToAttributes(fk, model);		
 	}
 
-	private ForeignKey createImplicitForeignKeyFromLink(DslModelEntity entity, DslModelLink link) {
+	private DslModelForeignKey createImplicitForeignKeyFromLink(DslModelEntity entity, DslModelLink link) {
 		
 		// New FK without attributes
 		String originEntityName = entity.getClassName();
 		String referencedEntityName = link.getReferencedEntityName();
 		
-		DslModelForeignKey fk = new DslModelForeignKey(originEntityName, referencedEntityName );
+		DslModelForeignKey fk = DslModelForeignKey.createUnnamedImplicitForeignKey(originEntityName, referencedEntityName );
 		
 		for ( LinkAttribute linkAttribute : link.getAttributes() ) {
 			int ordinal = getNextAttributeOrdinal(fk);
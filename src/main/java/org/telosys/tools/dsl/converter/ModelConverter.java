@@ -15,9 +15,22 @@
  */
 package org.telosys.tools.dsl.converter;
 
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.telosys.tools.dsl.DslModelErrors;
+import org.telosys.tools.dsl.jfr.DslEvents;
+import org.telosys.tools.dsl.metrics.MetricsCounter;
+import org.telosys.tools.dsl.metrics.MetricsPhase;
+import org.telosys.tools.dsl.metrics.ModelMetricsListener;
 import org.telosys.tools.dsl.model.DslModel;
 import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.DslModelForeignKey;
 import org.telosys.tools.dsl.parser.model.DomainEntity;
 import org.telosys.tools.dsl.parser.model.DomainModel;
 import org.telosys.tools.generic.model.Entity;
@@ -33,17 +46,47 @@ public class ModelConverter extends AbstractConverter {
 
 	private final DslModelErrors  errors;
 
+	/**
+	 * Executor used to convert the entities in parallel in each step (or null for sequential conversion)
+	 */
+	private final ExecutorService executor ; // v 4.3.0
+
+	private ModelMetricsListener metricsListener = null ; // v 4.3.0 (null if no metrics)
+
 	/**
 	 * Constructor
 	 */
 	public ModelConverter(DslModelErrors errors) {
+		this(errors, null);
+	}
+
+	/**
+	 * Constructor for parallel conversion <br>
+	 * The steps are still executed one after the other, but in each step the entities <br>
+	 * are converted in parallel using the given executor (typically a ForkJoinPool). <br>
+	 * The result (entities, errors order, errors limit) is the same as with a sequential conversion
+	 * @param errors
+	 * @param executor the executor to be used (or null for sequential conversion)
+	 * @since 4.3.0
+	 */
+	public ModelConverter(DslModelErrors errors, ExecutorService executor) {
 		super();
 		this.errors = errors;
+		this.executor = executor;
 	}
 
 	public DslModelErrors getErrors() {
 		return errors;
 	}
+
+	/**
+	 * Sets the listener receiving the conversion metrics (time per step and per entity, counters) 
+	 * @param metricsListener the listener (or null for no metrics, default)
+	 * @since 4.3.0
+	 */
+	public void setMetricsListener(ModelMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
 	
 	/**
 	 * Re-throw the given exception by adding a prefix to the message 
@@ -73,32 +116,223 @@ public class ModelConverter extends AbstractConverter {
 		// Create a new void DSL model 
 		DslModel dslModel = new DslModel(domainModel.getModelName(), domainModel.getModelInfo()); // v 3.4.0
 
+		long start = startTime();
+		int initialErrors = errors.getNumberOfErrors();
+		convertAllEntities(domainModel, dslModel);
+		conversionCompleted(dslModel, start, initialErrors);
+		return dslModel;
+	}
+
+	private void convertAllEntities(DomainModel domainModel, DslModel dslModel) {
+		
 		// Create void entities (without attribute)
+		long start = startTime();
+		Object event = DslEvents.beginConverterStep(); // null if no JFR recording
 		step1CreateAllVoidEntities(domainModel, dslModel);
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP1_VOID_ENTITIES, start, event, dslModel);
+		if ( limitReached(4) ) { // v 4.3.0 : stop as soon as the errors limit is reached 
+			return;
+		}
 
 		// Create attributes : fields with basic neutral type (apply annotations and tags) 
+		event = DslEvents.beginConverterStep();
 		step2CreateAllAttributes(domainModel, dslModel);
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP2_ATTRIBUTES, start, event, dslModel);
+		if ( limitReached(3) ) {
+			return;
+		}
 		
 		// Create explicit Foreign Keys defined in attributes ( with @FK(xx) annotation )
+		event = DslEvents.beginConverterStep();
 		step3CreateAllExplicitForeignKeys(domainModel, dslModel);
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP3_EXPLICIT_FOREIGN_KEYS, start, event, dslModel);
+		if ( limitReached(2) ) {
+			return;
+		}
 		
 		// Create links : fields referencing entities (apply annotations and tags) 
 		// Keep it AFTER FK creation (to be able to found Foreign Keys)
+		event = DslEvents.beginConverterStep();
 		step4CreateAllLinks(domainModel, dslModel); 
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP4_LINKS, start, event, dslModel);
+		if ( limitReached(1) ) {
+			return;
+		}
 		
 		// Create implicit Foreign Keys defined in links ( with @LinkByAttr(xx) annotation )
 		// Keep it AFTER LINKS creation (to be able to found Link attributes)
+		event = DslEvents.beginConverterStep();
 		step5CreateAllImplicitForeignKeys(dslModel); 
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP5_IMPLICIT_FOREIGN_KEYS, start, event, dslModel);
 
 		// Sort all entities by class name
 		dslModel.sortEntitiesByClassName();
 
 		// Finally check model
+		event = DslEvents.beginConverterStep();
 		step6CheckModel(dslModel);
-		
+		stepCompleted(MetricsPhase.CONVERTER_STEP6_CHECK, start, event, dslModel);
+	}
+
+	//--- metrics (v 4.3.0)
+	private long startTime() {
+		return metricsListener != null ? System.nanoTime() : 0L ;
+	}
+
+	private long phaseCompleted(MetricsPhase phase, long start) {
+		if ( metricsListener != null ) {
+			long end = System.nanoTime();
+			metricsListener.phaseCompleted(phase, end - start);
+			return end ;
+		}
+		return 0L ;
+	}
+
+	private long stepCompleted(MetricsPhase step, long start, Object event, DslModel dslModel) {
+		DslEvents.endConverterStep(event, dslModel.getName(), step.name(), dslModel.getEntities().size(), 
+				errors.getNumberOfErrors());
+		return phaseCompleted(step, start);
+	}
+
+	private void entityPhaseCompleted(MetricsPhase phase, String entityName, long start) {
+		if ( metricsListener != null ) {
+			metricsListener.entityPhaseCompleted(phase, entityName, System.nanoTime() - start);
+		}
+	}
+
+	private void conversionCompleted(DslModel dslModel, long start, int initialErrors) {
+		if ( metricsListener != null ) {
+			phaseCompleted(MetricsPhase.CONVERSION, start);
+			int foreignKeys = 0 ;
+			int links = 0 ;
+			for ( Entity entity : dslModel.getEntities() ) {
+				foreignKeys += entity.getForeignKeys().size();
+				links += entity.getLinks().size();
+			}
+			metricsListener.count(MetricsCounter.FOREIGN_KEYS, foreignKeys);
+			metricsListener.count(MetricsCounter.LINKS, links);
+			metricsListener.count(MetricsCounter.ERRORS, errors.getNumberOfErrors() - (long) initialErrors);
+		}
+	}
+
+	/**
+	 * Converts PARSER MODEL to DSL/Generic model by converting only the given entities <br>
+	 * The other entities are supposed to be unchanged, they are taken from the previous model <br>
+	 * (if an entity is not found in the previous model it is converted) <br>
+	 * The unchanged entities are not copied : the same 'DslModelEntity' instances are shared by <br>
+	 * the previous model and the new one, so the previous model must no longer be used <br>
+	 * (and neither model must be modified). <br>
+	 * The steps events and metrics are reported as for a full conversion (for the converted entities only). 
+	 * 
+	 * @param domainModel
+	 *            paser domain model
+	 * @param previousModel
+	 *            the previous DSL model built from the same model folder (without error)
+	 * @param entitiesToConvert
+	 *            the names of the entities to be converted 
+	 * @return DSL/Generic model
+	 * @since 4.3.0
+	 */
+	public Model convertModel(DomainModel domainModel, DslModel previousModel, Collection<String> entitiesToConvert) {
+
+		// Create a new void DSL model 
+		DslModel dslModel = new DslModel(domainModel.getModelName(), domainModel.getModelInfo());
+
+		long start = startTime();
+		int initialErrors = errors.getNumberOfErrors();
+		convertEntities(domainModel, previousModel, entitiesToConvert, dslModel);
+		conversionCompleted(dslModel, start, initialErrors);
 		return dslModel;
 	}
 
+	private void convertEntities(DomainModel domainModel, DslModel previousModel, Collection<String> entitiesToConvert, 
+			DslModel dslModel) {
+
+		// Reuse unchanged entities and create void entities for the others
+		long start = startTime();
+		Object event = DslEvents.beginConverterStep(); // null if no JFR recording
+		List<DomainEntity> domainEntities = new LinkedList<>();
+		EntityConverter entityConverter = new EntityConverter(dslModel, errors);
+		for (DomainEntity domainEntity : domainModel.getEntities()) {
+			Entity previousEntity = previousModel.getEntityByClassName(domainEntity.getName());
+			if ( previousEntity != null && ! entitiesToConvert.contains(domainEntity.getName()) ) {
+				dslModel.addEntity(previousEntity); // shared with the previous model (not copied)
+			}
+			else {
+				long entityStart = startTime();
+				dslModel.addEntity(entityConverter.convertEntity(domainEntity)); 
+				domainEntities.add(domainEntity);
+				entityPhaseCompleted(MetricsPhase.CONVERTER_STEP1_VOID_ENTITIES, domainEntity.getName(), entityStart);
+			}
+		}
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP1_VOID_ENTITIES, start, event, dslModel);
+		if ( limitReached(4) ) {
+			return;
+		}
+
+		// Same steps as for a full conversion but only for the entities to be converted
+		event = DslEvents.beginConverterStep();
+		createAttributes(domainEntities, dslModel);
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP2_ATTRIBUTES, start, event, dslModel);
+		if ( limitReached(3) ) {
+			return;
+		}
+		event = DslEvents.beginConverterStep();
+		createExplicitForeignKeys(domainEntities, dslModel);
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP3_EXPLICIT_FOREIGN_KEYS, start, event, dslModel);
+		if ( limitReached(2) ) {
+			return;
+		}
+		event = DslEvents.beginConverterStep();
+		createLinks(domainEntities, dslModel); 
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP4_LINKS, start, event, dslModel);
+		if ( limitReached(1) ) {
+			return;
+		}
+		event = DslEvents.beginConverterStep();
+		List<DslModelEntity> dslEntities = new LinkedList<>();
+		for (DomainEntity domainEntity : domainEntities) {
+			dslEntities.add((DslModelEntity) dslModel.getEntityByClassName(domainEntity.getName()));
+		}
+		createImplicitForeignKeys(dslEntities, dslModel); 
+		start = stepCompleted(MetricsPhase.CONVERTER_STEP5_IMPLICIT_FOREIGN_KEYS, start, event, dslModel);
+
+		// Sort all entities by class name
+		dslModel.sortEntitiesByClassName();
+
+		// Finally check model
+		event = DslEvents.beginConverterStep();
+		step6CheckModel(dslModel);
+		stepCompleted(MetricsPhase.CONVERTER_STEP6_CHECK, start, event, dslModel);
+	}
+
+	/**
+	 * Returns true if the maximum number of errors is reached (the remaining steps are reported as skipped)
+	 * @param remainingSteps
+	 * @return
+	 */
+	private boolean limitReached(int remainingSteps) {
+		if ( errors.isLimitReached() ) {
+			errors.addSkippedSteps(remainingSteps);
+			return true ;
+		}
+		return false ;
+	}
+
+	/**
+	 * Returns true if the maximum number of errors is reached during a step (the remaining entities are reported)
+	 * @param numberOfEntities number of entities to be processed in the current step
+	 * @param processed number of entities already processed in the current step
+	 * @return
+	 */
+	private boolean limitReached(int numberOfEntities, int processed) {
+		if ( errors.isLimitReached() ) {
+			errors.addUnprocessedEntities(numberOfEntities - processed);
+			return true ;
+		}
+		return false ;
+	}
+
 	/**
 	 * Creates and returns a DSL model containing only void entities (without attributes or links)
 	 * @param domainModel
@@ -107,9 +341,15 @@ public class ModelConverter extends AbstractConverter {
 	protected void step1CreateAllVoidEntities(DomainModel domainModel, DslModel dslModel) {
 		// v 3.4.0
 		EntityConverter entityConverter = new EntityConverter(dslModel, errors);
+		int processed = 0 ;
 		for (DomainEntity domainEntity : domainModel.getEntities()) {
+			if ( limitReached(domainModel.getEntities().size(), processed++) ) {
+				break;
+			}
+			long start = startTime();
 			DslModelEntity dslEntity = entityConverter.convertEntity(domainEntity);
 			dslModel.addEntity(dslEntity); 
+			entityPhaseCompleted(MetricsPhase.CONVERTER_STEP1_VOID_ENTITIES, domainEntity.getName(), start);
 		}
 	}
 	
@@ -118,10 +358,38 @@ public class ModelConverter extends AbstractConverter {
 	 * @param dslModel
 	 */
 	protected void step2CreateAllAttributes(DomainModel domainModel, DslModel dslModel) {
+		createAttributes(domainModel.getEntities(), dslModel);
+	}
+	
+	private void createAttributes(Collection<DomainEntity> domainEntities, final DslModel dslModel) {
+		if ( executor != null ) { // v 4.3.0
+			List<EntityConversionTask> tasks = new LinkedList<>();
+			for (final DomainEntity domainEntity : domainEntities) {
+				tasks.add(new EntityConversionTask(domainEntity.getName()) {
+					@Override
+					protected void convert(DslModelErrors entityErrors) {
+						try {
+							DslModelEntity genericEntity = (DslModelEntity) dslModel.getEntityByClassName(entityName);
+							new AttributesConverter(dslModel, entityErrors).convertAttributes(domainEntity, genericEntity);
+						}
+						catch(Exception e) {
+							rethrowException(e, "Entity " + entityName + " : ");
+						}
+					}
+				});
+			}
+			convertInParallel(tasks, MetricsPhase.CONVERTER_STEP2_ATTRIBUTES, dslModel);
+			return;
+		}
 		AttributesConverter attribConverter = new AttributesConverter(dslModel, errors);
 		// for each "DomainEntity" convert attributes 
-		for (DomainEntity domainEntity : domainModel.getEntities()) {
+		int processed = 0 ;
+		for (DomainEntity domainEntity : domainEntities) {
+			if ( limitReached(domainEntities.size(), processed++) ) {
+				break;
+			}
 			String entityName = domainEntity.getName();
+			long start = startTime();
 			try {
 				// Get the GenericEntity built previously
 				DslModelEntity genericEntity = (DslModelEntity) dslModel.getEntityByClassName(domainEntity.getName());
@@ -132,6 +400,7 @@ public class ModelConverter extends AbstractConverter {
 			catch(Exception e) {
 				rethrowException(e, "Entity " + entityName + " : ");
 			}			
+			entityPhaseCompleted(MetricsPhase.CONVERTER_STEP2_ATTRIBUTES, entityName, start);
 		}
 	}
 
@@ -140,12 +409,40 @@ public class ModelConverter extends AbstractConverter {
 	 * @param dslModel
 	 */
 	protected void step4CreateAllLinks(DomainModel domainModel, DslModel dslModel) {
+		createLinks(domainModel.getEntities(), dslModel);
+	}
+	
+	private void createLinks(Collection<DomainEntity> domainEntities, final DslModel dslModel) {
+		if ( executor != null ) { // v 4.3.0
+			List<EntityConversionTask> tasks = new LinkedList<>();
+			for (final DomainEntity domainEntity : domainEntities) {
+				tasks.add(new EntityConversionTask(domainEntity.getName()) {
+					@Override
+					protected void convert(DslModelErrors entityErrors) {
+						try {
+							DslModelEntity genericEntity = (DslModelEntity) dslModel.getEntityByClassName(entityName);
+							new LinksConverter(dslModel, entityErrors).convertLinks(domainEntity, genericEntity);
+						}
+						catch(Exception e) {
+							rethrowException(e, "Entity " + entityName + " : ");
+						}
+					}
+				});
+			}
+			convertInParallel(tasks, MetricsPhase.CONVERTER_STEP4_LINKS, dslModel);
+			return;
+		}
 
 		LinksConverter linksConverter = new LinksConverter(dslModel, errors);
 		
 		// Create the links 
-		for (DomainEntity domainEntity : domainModel.getEntities()) {
+		int processed = 0 ;
+		for (DomainEntity domainEntity : domainEntities) {
+			if ( limitReached(domainEntities.size(), processed++) ) {
+				break;
+			}
 			String entityName = domainEntity.getName();
+			long start = startTime();
 			try {
 				// Get the GenericEntity built previously
 				DslModelEntity genericEntity = (DslModelEntity) dslModel.getEntityByClassName(entityName);
@@ -155,6 +452,7 @@ public class ModelConverter extends AbstractConverter {
 			catch(Exception e) {
 				rethrowException(e,"Entity " + entityName + " : ");
 			}
+			entityPhaseCompleted(MetricsPhase.CONVERTER_STEP4_LINKS, entityName, start);
 		}
 	}
 	
@@ -164,16 +462,45 @@ public class ModelConverter extends AbstractConverter {
 	 * @param dslModel
 	 */
 	protected void step3CreateAllExplicitForeignKeys(DomainModel domainModel, DslModel dslModel) {
+		createExplicitForeignKeys(domainModel.getEntities(), dslModel);
+	}
+	
+	private void createExplicitForeignKeys(Collection<DomainEntity> domainEntities, final DslModel dslModel) {
+		if ( executor != null ) { // v 4.3.0
+			List<EntityConversionTask> tasks = new LinkedList<>();
+			for (final DomainEntity entity : domainEntities) {
+				tasks.add(new EntityConversionTask(entity.getName()) {
+					@Override
+					protected void convert(DslModelErrors entityErrors) {
+						try {
+							// one builder per task (the builder is not thread-safe)
+							new ForeignKeysBuilderV2(dslModel).buildForeignKeys(entity);
+						}
+						catch(Exception e) {
+							rethrowException(e, "Entity " + entityName + " : ");
+						}
+					}
+				});
+			}
+			convertInParallel(tasks, MetricsPhase.CONVERTER_STEP3_EXPLICIT_FOREIGN_KEYS, dslModel);
+			return;
+		}
 		ForeignKeysBuilderV2 fkBuilder = new ForeignKeysBuilderV2(dslModel);
-		// for each entity in the model
-		for (DomainEntity entity : domainModel.getEntities()) {
+		// for each entity 
+		int processed = 0 ;
+		for (DomainEntity entity : domainEntities) {
+			if ( limitReached(domainEntities.size(), processed++) ) {
+				break;
+			}
 			String entityName = entity.getName();
+			long start = startTime();
 			try {
 				fkBuilder.buildForeignKeys(entity);
 			}
 			catch(Exception e) {
 				rethrowException(e,"Entity " + entityName + " : ");
 			}
+			entityPhaseCompleted(MetricsPhase.CONVERTER_STEP3_EXPLICIT_FOREIGN_KEYS, entityName, start);
 		}
 	}
 
@@ -182,11 +509,171 @@ public class ModelConverter extends AbstractConverter {
 	 * @param dslModel
 	 */
 	protected void step5CreateAllImplicitForeignKeys(DslModel dslModel) {
-		ForeignKeysBuilderV2 fkBuilder = new ForeignKeysBuilderV2(dslModel);
-		// for each entity in the model
+		List<DslModelEntity> dslEntities = new LinkedList<>();
 		for ( Entity entity : dslModel.getEntities() ) {
-			DslModelEntity dslModelEntity = (DslModelEntity)entity;
+			dslEntities.add((DslModelEntity)entity);
+		}
+		createImplicitForeignKeys(dslEntities, dslModel);
+	}
+	
+	private void createImplicitForeignKeys(Collection<DslModelEntity> dslEntities, final DslModel dslModel) {
+		if ( executor != null ) { // v 4.3.0
+			List<EntityConversionTask> tasks = new LinkedList<>();
+			final ForeignKeysBuilderV2 fkBuilder = new ForeignKeysBuilderV2(dslModel); // used by the current thread only
+			for ( final DslModelEntity dslModelEntity : dslEntities ) {
+				tasks.add(new EntityConversionTask(dslModelEntity.getClassName()) {
+					private List<DslModelForeignKey> foreignKeys ;
+					@Override
+					protected void convert(DslModelErrors entityErrors) {
+						// unnamed FK (names assigned in the entities order by the current thread)
+						foreignKeys = new ForeignKeysBuilderV2(dslModel).createImplicitForeignKeys(dslModelEntity);
+					}
+					@Override
+					protected void merge() {
+						for ( DslModelForeignKey fk : foreignKeys ) {
+							fkBuilder.addImplicitForeignKey(dslModelEntity, fk);
+						}
+					}
+				});
+			}
+			convertInParallel(tasks, MetricsPhase.CONVERTER_STEP5_IMPLICIT_FOREIGN_KEYS, dslModel);
+			return;
+		}
+		ForeignKeysBuilderV2 fkBuilder = new ForeignKeysBuilderV2(dslModel);
+		// for each entity 
+		int processed = 0 ;
+		for ( DslModelEntity dslModelEntity : dslEntities ) {
+			if ( limitReached(dslEntities.size(), processed++) ) {
+				break;
+			}
+			long start = startTime();
 			fkBuilder.buildImplicitForeignKeys(dslModelEntity);
+			entityPhaseCompleted(MetricsPhase.CONVERTER_STEP5_IMPLICIT_FOREIGN_KEYS, dslModelEntity.getClassName(), start);
+		}
+	}
+
+	//--- parallel conversion (v 4.3.0)
+
+	/**
+	 * Result of a single entity conversion task (errors, exception if any, time if metrics are enabled)
+	 */
+	private static class EntityConversionTaskResult {
+		private final DslModelErrors errors ;
+		private final RuntimeException exception ;
+		private final long elapsedTime ;
+		private EntityConversionTaskResult(DslModelErrors errors, RuntimeException exception, long elapsedTime) {
+			this.errors = errors;
+			this.exception = exception;
+			this.elapsedTime = elapsedTime;
+		}
+	}
+
+	/**
+	 * Task converting a single entity (for the current step) with its own errors collector <br>
+	 * A task can read the other entities but it must modify only its own entity
+	 */
+	private abstract class EntityConversionTask implements Callable<EntityConversionTaskResult> {
+		protected final String entityName ;
+		private EntityConversionTask(String entityName) {
+			this.entityName = entityName;
+		}
+		protected abstract void convert(DslModelErrors entityErrors);
+		/**
+		 * Called by the current thread when merging the result (in the tasks order) 
+		 */
+		protected void merge() {
+			// nothing to merge by default
+		}
+		@Override
+		public EntityConversionTaskResult call() {
+			DslModelErrors entityErrors = new DslModelErrors();
+			long start = startTime();
+			RuntimeException exception = null ;
+			try {
+				convert(entityErrors);
+			}
+			catch(RuntimeException e) {
+				// kept in the result to be thrown by the current thread (as is) when merging the results
+				exception = e ;
+			}
+			long elapsedTime = ( metricsListener != null ? System.nanoTime() - start : 0L );
+			return new EntityConversionTaskResult(entityErrors, exception, elapsedTime);
+		}
+	}
+
+	/**
+	 * Runs all the given tasks in parallel (one task per entity) and waits for the end of all of them <br>
+	 * The results are merged in the tasks order (only the current thread updates the errors and  <br>
+	 * the metrics), so the errors and the exception (if any) are the same as with a sequential conversion <br>
+	 * NB : when the errors limit is reached, the entities following the last merged one <br>
+	 * may have been converted (the model is invalid in this case)
+	 * @param tasks
+	 * @param phase
+	 * @param dslModel
+	 */
+	private void convertInParallel(List<EntityConversionTask> tasks, MetricsPhase phase, DslModel dslModel) {
+		prepareConcurrentReads(dslModel);
+		//--- submit a task for each entity
+		List<Future<EntityConversionTaskResult>> futures = new LinkedList<>();
+		for ( EntityConversionTask task : tasks ) {
+			futures.add(executor.submit(task));
+		}
+		//--- merge results in the original order
+		try {
+			int processed = 0 ;
+			for ( Future<EntityConversionTaskResult> future : futures ) {
+				if ( errors.isLimitReached() ) {
+					// cancel the tasks not yet started (no interruption for the running tasks)
+					for ( Future<EntityConversionTaskResult> f : futures ) {
+						f.cancel(false);
+					}
+					errors.addUnprocessedEntities(futures.size() - processed);
+					break;
+				}
+				EntityConversionTaskResult result = future.get();
+				errors.addErrors(result.errors);
+				if ( result.exception != null ) {
+					cancelAll(futures);
+					throw result.exception ;
+				}
+				tasks.get(processed).merge();
+				if ( metricsListener != null ) {
+					metricsListener.entityPhaseCompleted(phase, tasks.get(processed).entityName, result.elapsedTime);
+				}
+				processed++;
+			}
+		} catch (InterruptedException e) {
+			cancelAll(futures);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Model conversion interrupted");
+		} catch (ExecutionException e) {
+			cancelAll(futures);
+			Throwable cause = e.getCause();
+			if ( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Unexpected error during model conversion", cause);
+		}
+	}
+
+	private void cancelAll(List<Future<EntityConversionTaskResult>> futures) {
+		for ( Future<EntityConversionTaskResult> future : futures ) {
+			future.cancel(true);
+		}
+	}
+
+	/**
+	 * Builds all the lazy indexes (model and entities) before running the tasks of a step <br>
+	 * The tasks only read the entities indexes (the attributes of the other entities are not modified <br>
+	 * after the attributes step), so no index is rebuilt by concurrent threads
+	 * @param dslModel
+	 */
+	private void prepareConcurrentReads(DslModel dslModel) {
+		dslModel.rebuildIndexes();
+		for ( Entity entity : dslModel.getEntities() ) {
+			if ( entity instanceof DslModelEntity ) {
+				((DslModelEntity) entity).hasId(); // builds attributes index and key attributes
+			}
 		}
 	}
 
@@ -0,0 +1,50 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event : DSL model converter step <br>
+ * (disabled by default, must be enabled in the recording settings)
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+@Name("org.telosys.dsl.ConverterStep")
+@Label("Converter Step")
+@Description("DSL model converter step")
+@Category({"Telosys", "DSL Model"})
+@Enabled(false)
+class ConverterStepEvent extends Event {
+
+	@Label("Model Name")
+	String modelName ;
+
+	@Label("Step")
+	String step ;
+
+	@Label("Entity Count")
+	int entityCount ;
+
+	@Label("Error Count")
+	int errorCount ;
+}
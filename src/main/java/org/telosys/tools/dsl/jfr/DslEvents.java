@@ -0,0 +1,184 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.jfr;
+
+/**
+ * Java Flight Recorder events emitted by the DSL model parser, converter and writers <br>
+ * <br>
+ * All the events are disabled by default, they are recorded only if enabled in the recording settings <br>
+ * ( e.g. 'org.telosys.dsl.ModelLoad#enabled=true' ). <br>
+ * Each 'beginXxx' method returns an opaque event (or null if JFR is not available or the event is disabled) <br>
+ * to be passed to the corresponding 'endXxx' method. <br>
+ * <br>
+ * This is the only class referencing the JFR event classes : the callers can be loaded without JFR.
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public final class DslEvents {
+
+	private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+	/**
+	 * Private constructor
+	 */
+	private DslEvents() {
+	}
+
+	private static boolean isJfrAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event");
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Model loading
+	//-------------------------------------------------------------------------------------------------
+	public static Object beginModelLoad() {
+		if ( JFR_AVAILABLE ) {
+			ModelLoadEvent event = new ModelLoadEvent();
+			if ( event.isEnabled() ) {
+				event.begin();
+				return event;
+			}
+		}
+		return null;
+	}
+
+	public static void endModelLoad(Object event, String modelName, int entityCount, int errorCount) {
+		if ( event != null ) {
+			ModelLoadEvent e = (ModelLoadEvent) event;
+			e.end();
+			if ( e.shouldCommit() ) {
+				e.modelName = modelName;
+				e.entityCount = entityCount;
+				e.errorCount = errorCount;
+				e.commit();
+			}
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Entity parsing
+	//-------------------------------------------------------------------------------------------------
+	public static Object beginEntityParse() {
+		if ( JFR_AVAILABLE ) {
+			EntityParseEvent event = new EntityParseEvent();
+			if ( event.isEnabled() ) {
+				event.begin();
+				return event;
+			}
+		}
+		return null;
+	}
+
+	public static void endEntityParse(Object event, String entityName, int elementCount, int errorCount) {
+		if ( event != null ) {
+			EntityParseEvent e = (EntityParseEvent) event;
+			e.end();
+			if ( e.shouldCommit() ) {
+				e.entityName = entityName;
+				e.elementCount = elementCount;
+				e.errorCount = errorCount;
+				e.commit();
+			}
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Converter steps
+	//-------------------------------------------------------------------------------------------------
+	public static Object beginConverterStep() {
+		if ( JFR_AVAILABLE ) {
+			ConverterStepEvent event = new ConverterStepEvent();
+			if ( event.isEnabled() ) {
+				event.begin();
+				return event;
+			}
+		}
+		return null;
+	}
+
+	public static void endConverterStep(Object event, String modelName, String step, int entityCount, int errorCount) {
+		if ( event != null ) {
+			ConverterStepEvent e = (ConverterStepEvent) event;
+			e.end();
+			if ( e.shouldCommit() ) {
+				e.modelName = modelName;
+				e.step = step;
+				e.entityCount = entityCount;
+				e.errorCount = errorCount;
+				e.commit();
+			}
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Database reverse engineering
+	//-------------------------------------------------------------------------------------------------
+	public static Object beginDbReverseEngineering() {
+		if ( JFR_AVAILABLE ) {
+			DbReverseEngineeringEvent event = new DbReverseEngineeringEvent();
+			if ( event.isEnabled() ) {
+				event.begin();
+				return event;
+			}
+		}
+		return null;
+	}
+
+	public static void endDbReverseEngineering(Object event, String modelName, String databaseId, int entityCount) {
+		if ( event != null ) {
+			DbReverseEngineeringEvent e = (DbReverseEngineeringEvent) event;
+			e.end();
+			if ( e.shouldCommit() ) {
+				e.modelName = modelName;
+				e.databaseId = databaseId;
+				e.entityCount = entityCount;
+				e.commit();
+			}
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------------
+	// Model writing
+	//-------------------------------------------------------------------------------------------------
+	public static Object beginModelWrite() {
+		if ( JFR_AVAILABLE ) {
+			ModelWriteEvent event = new ModelWriteEvent();
+			if ( event.isEnabled() ) {
+				event.begin();
+				return event;
+			}
+		}
+		return null;
+	}
+
+	public static void endModelWrite(Object event, String modelName, int entityCount) {
+		if ( event != null ) {
+			ModelWriteEvent e = (ModelWriteEvent) event;
+			e.end();
+			if ( e.shouldCommit() ) {
+				e.modelName = modelName;
+				e.entityCount = entityCount;
+				e.commit();
+			}
+		}
+	}
+}
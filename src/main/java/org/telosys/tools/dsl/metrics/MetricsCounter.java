@@ -0,0 +1,56 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.metrics;
+
+/**
+ * Counters reported during the model loading 
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public enum MetricsCounter {
+
+	/** entity files parsed (including the entities restored from the parsing cache) */
+	FILES,
+
+	/** elements produced by the lexer (not counted for the entities restored from the parsing cache) */
+	ELEMENTS,
+
+	/** entities parsed (including the entities restored from the parsing cache) */
+	ENTITIES,
+
+	/** entities restored from the parsing cache (not lexed) */
+	CACHED_ENTITIES,
+
+	/** fields parsed */
+	FIELDS,
+
+	/** annotations parsed (entity and field level) */
+	ANNOTATIONS,
+
+	/** tags parsed (entity and field level) */
+	TAGS,
+
+	/** foreign keys in the converted model */
+	FOREIGN_KEYS,
+
+	/** links in the converted model */
+	LINKS,
+
+	/** errors */
+	ERRORS
+
+}
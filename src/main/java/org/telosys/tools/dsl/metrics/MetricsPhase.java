@@ -0,0 +1,62 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.metrics;
+
+/**
+ * Phases measured during the model loading 
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public enum MetricsPhase {
+
+	/** whole model loading (parsing + conversion) */
+	MODEL_LOADING,
+
+	/** whole model parsing (all the entity files) */
+	PARSING,
+
+	/** entity file reading and splitting in elements */
+	LEXING,
+
+	/** entity elements processing (without annotations and tags) */
+	ELEMENTS_PROCESSING,
+
+	/** annotations and tags processing */
+	ANNOTATIONS_AND_TAGS_PROCESSING,
+
+	/** whole model conversion (all the converter steps) */
+	CONVERSION,
+
+	/** converter step 1 : void entities creation */
+	CONVERTER_STEP1_VOID_ENTITIES,
+
+	/** converter step 2 : attributes creation */
+	CONVERTER_STEP2_ATTRIBUTES,
+
+	/** converter step 3 : explicit foreign keys creation */
+	CONVERTER_STEP3_EXPLICIT_FOREIGN_KEYS,
+
+	/** converter step 4 : links creation */
+	CONVERTER_STEP4_LINKS,
+
+	/** converter step 5 : implicit foreign keys creation */
+	CONVERTER_STEP5_IMPLICIT_FOREIGN_KEYS,
+
+	/** converter step 6 : model checking */
+	CONVERTER_STEP6_CHECK
+
+}
@@ -0,0 +1,51 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.metrics;
+
+/**
+ * Listener receiving the metrics collected during the model loading (parsing and conversion) <br>
+ * No metric is collected if no listener is set (no timing, no counting) <br>
+ * <br>
+ * With parallel parsing the methods are called by several threads : the implementations must be thread-safe.
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public interface ModelMetricsListener {
+
+	/**
+	 * Called at the end of a phase for the whole model
+	 * @param phase
+	 * @param durationNanos the wall time of the phase in nanoseconds
+	 */
+	public void phaseCompleted(MetricsPhase phase, long durationNanos);
+
+	/**
+	 * Called at the end of a phase for a single entity 
+	 * @param phase
+	 * @param entityName
+	 * @param durationNanos the wall time of the phase for the entity in nanoseconds
+	 */
+	public void entityPhaseCompleted(MetricsPhase phase, String entityName, long durationNanos);
+
+	/**
+	 * Called to increment a counter 
+	 * @param counter
+	 * @param value the value to be added 
+	 */
+	public void count(MetricsCounter counter, long value);
+
+}
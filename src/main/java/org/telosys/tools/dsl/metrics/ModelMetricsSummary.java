@@ -0,0 +1,223 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.metrics;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default metrics listener : accumulates all the metrics and prints a summary table <br>
+ * (time per phase, counters and the slowest entities with their time per phase) <br>
+ * <br>
+ * This class is thread-safe
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class ModelMetricsSummary implements ModelMetricsListener {
+
+	private static final int DEFAULT_TOP_ENTITIES = 10 ;
+
+	private int topEntities = DEFAULT_TOP_ENTITIES ;
+
+	private final Map<MetricsPhase, Long> phasesTimes = new EnumMap<>(MetricsPhase.class);
+	private final Map<MetricsCounter, Long> counters = new EnumMap<>(MetricsCounter.class);
+	private final Map<String, Map<MetricsPhase, Long>> entitiesTimes = new HashMap<>();
+	private final Set<MetricsPhase> entitiesPhases = EnumSet.noneOf(MetricsPhase.class);
+
+	/**
+	 * Set the number of entities in the 'slowest entities' table (default 10)
+	 * @param topEntities
+	 */
+	public void setTopEntities(int topEntities) {
+		if ( topEntities < 0 ) {
+			throw new IllegalArgumentException("Invalid number of entities : " + topEntities);
+		}
+		this.topEntities = topEntities;
+	}
+
+	@Override
+	public synchronized void phaseCompleted(MetricsPhase phase, long durationNanos) {
+		add(phasesTimes, phase, durationNanos);
+	}
+
+	@Override
+	public synchronized void entityPhaseCompleted(MetricsPhase phase, String entityName, long durationNanos) {
+		Map<MetricsPhase, Long> entityTimes = entitiesTimes.get(entityName);
+		if ( entityTimes == null ) {
+			entityTimes = new EnumMap<>(MetricsPhase.class);
+			entitiesTimes.put(entityName, entityTimes);
+		}
+		add(entityTimes, phase, durationNanos);
+		entitiesPhases.add(phase);
+	}
+
+	@Override
+	public synchronized void count(MetricsCounter counter, long value) {
+		add(counters, counter, value);
+	}
+
+	private <K> void add(Map<K, Long> map, K key, long value) {
+		Long current = map.get(key);
+		map.put(key, current != null ? current + value : value);
+	}
+
+	private <K> long get(Map<K, Long> map, K key) {
+		Long value = map.get(key);
+		return value != null ? value : 0L ;
+	}
+
+	/**
+	 * Returns the total time for the given phase (whole model)
+	 * @param phase
+	 * @return the time in nanoseconds
+	 */
+	public synchronized long getPhaseTime(MetricsPhase phase) {
+		return get(phasesTimes, phase);
+	}
+
+	/**
+	 * Returns the time for the given phase and the given entity 
+	 * @param phase
+	 * @param entityName
+	 * @return the time in nanoseconds
+	 */
+	public synchronized long getEntityPhaseTime(MetricsPhase phase, String entityName) {
+		Map<MetricsPhase, Long> entityTimes = entitiesTimes.get(entityName);
+		return entityTimes != null ? get(entityTimes, phase) : 0L ;
+	}
+
+	/**
+	 * Returns the total time (all phases) for the given entity 
+	 * @param entityName
+	 * @return the time in nanoseconds
+	 */
+	public synchronized long getEntityTime(String entityName) {
+		long total = 0 ;
+		Map<MetricsPhase, Long> entityTimes = entitiesTimes.get(entityName);
+		if ( entityTimes != null ) {
+			for ( Long time : entityTimes.values() ) {
+				total += time ;
+			}
+		}
+		return total ;
+	}
+
+	/**
+	 * Returns the current value of the given counter
+	 * @param counter
+	 * @return
+	 */
+	public synchronized long getCounter(MetricsCounter counter) {
+		return get(counters, counter);
+	}
+
+	/**
+	 * Returns the names of the slowest entities (total time, slowest first)
+	 * @param maxEntities the maximum number of entities 
+	 * @return
+	 */
+	public synchronized List<String> getSlowestEntities(int maxEntities) {
+		List<String> names = new ArrayList<>(entitiesTimes.keySet());
+		final Map<String, Long> totals = new HashMap<>();
+		for ( String name : names ) {
+			totals.put(name, getEntityTime(name));
+		}
+		Collections.sort(names, new Comparator<String>() {
+			@Override
+			public int compare(String name1, String name2) {
+				int r = Long.compare(totals.get(name2), totals.get(name1));
+				return r != 0 ? r : name1.compareTo(name2);
+			}
+		});
+		return names.size() > maxEntities ? new ArrayList<>(names.subList(0, maxEntities)) : names ;
+	}
+
+	/**
+	 * Clears all the metrics
+	 */
+	public synchronized void reset() {
+		phasesTimes.clear();
+		counters.clear();
+		entitiesTimes.clear();
+		entitiesPhases.clear();
+	}
+
+	/**
+	 * Prints the summary table in the given stream
+	 * @param out
+	 */
+	public void printSummary(PrintStream out) {
+		out.print(getSummary());
+		out.flush();
+	}
+
+	/**
+	 * Returns the summary table 
+	 * @return
+	 */
+	public synchronized String getSummary() {
+		StringBuilder sb = new StringBuilder();
+		//--- phases
+		sb.append(String.format(Locale.US, "%-40s %12s%n", "Phase", "Time (ms)"));
+		for ( MetricsPhase phase : MetricsPhase.values() ) {
+			if ( phasesTimes.containsKey(phase) ) {
+				sb.append(String.format(Locale.US, "%-40s %12s%n", phase.name(), millis(get(phasesTimes, phase))));
+			}
+		}
+		//--- counters
+		sb.append(String.format(Locale.US, "%n%-40s %12s%n", "Counter", "Value"));
+		for ( MetricsCounter counter : MetricsCounter.values() ) {
+			sb.append(String.format(Locale.US, "%-40s %12d%n", counter.name(), get(counters, counter)));
+		}
+		//--- slowest entities
+		if ( ! entitiesTimes.isEmpty() && topEntities > 0 ) {
+			List<String> names = getSlowestEntities(topEntities);
+			int nameWidth = "Entity".length();
+			for ( String name : names ) {
+				nameWidth = Math.max(nameWidth, name.length());
+			}
+			sb.append(String.format(Locale.US, "%nSlowest entities (%d of %d)%n", names.size(), entitiesTimes.size()));
+			sb.append(String.format(Locale.US, "%-" + nameWidth + "s %12s", "Entity", "Total (ms)"));
+			for ( MetricsPhase phase : entitiesPhases ) {
+				sb.append(String.format(Locale.US, " %" + phase.name().length() + "s", phase.name()));
+			}
+			sb.append(String.format("%n"));
+			for ( String name : names ) {
+				sb.append(String.format(Locale.US, "%-" + nameWidth + "s %12s", name, millis(getEntityTime(name))));
+				for ( MetricsPhase phase : entitiesPhases ) {
+					sb.append(String.format(Locale.US, " %" + phase.name().length() + "s", 
+							millis(getEntityPhaseTime(phase, name))));
+				}
+				sb.append(String.format("%n"));
+			}
+		}
+		return sb.toString();
+	}
+
+	private String millis(long nanos) {
+		return String.format(Locale.US, "%.3f", nanos / 1000000.0);
+	}
+}
@@ -15,9 +15,10 @@
  */
 package org.telosys.tools.dsl.model;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.dsl.commons.ModelInfo;
@@ -38,7 +39,12 @@ public class DslModel implements Model {
 	private String databaseName	;
 	private String databaseType ;
 	
-	private List<Entity> entities = new ArrayList<>();
+	private final ModificationCountList<Entity> entities = new ModificationCountList<>();
+
+	// v 4.3.0 : indexes for O(1) lookups (the first entity wins in case of duplicated names)
+	// rebuilt only if the entities list has been modified (the read paths never modify the current index, 
+	// they replace it by a new one : model shared between threads) 
+	private volatile EntitiesIndex entitiesIndex = new EntitiesIndex(entities, 0);
 
 	/**
 	 * Constructor
@@ -127,7 +133,16 @@ public class DslModel implements Model {
 	}
 
 	public void addEntity(Entity entity) { // v 3.4.0
+		EntitiesIndex index = entitiesIndex ;
+		boolean upToDate = ( index.modifications == entities.getModificationCount() );
 		entities.add(entity);
+		if ( upToDate ) {
+			index.add(entity, entities.size() - 1); // write path : current index updated 
+			index.modifications = entities.getModificationCount();
+		}
+		else {
+			rebuildIndexes();
+		}
 	}
 
 	@Override
@@ -135,12 +150,7 @@ public class DslModel implements Model {
 		if ( entityClassName == null ) {
 			throw new IllegalArgumentException("getEntityByClassName() : entityClassName is null");
 		}
-		for(Entity entity : getEntities()) {
-			if ( entityClassName.equals(entity.getClassName()) ) {
-				return entity;
-			}
-		}
-		return null;
+		return findEntity(entityClassName, true);
 	}
 
 	@Override
@@ -148,16 +158,119 @@ public class DslModel implements Model {
 		if ( entityTableName == null ) {
 			throw new IllegalArgumentException("getEntityByTableName() : entityTableName is null");
 		}
-		for(Entity entity : getEntities()) {
-			if ( entityTableName.equals(entity.getDatabaseTable() ) ) {
-				return entity;
+		return findEntity(entityTableName, false);
+	}
+
+	private Entity findEntity(String name, boolean byClassName) {
+		EntitiesIndex index = getIndex();
+		Integer position = index.position(name, byClassName);
+		if ( position == null ) {
+			return null ; // not found (no rebuild : the list has not been modified since indexing) 
+		}
+		Entity entity = index.find(entities, position, name, byClassName);
+		if ( entity == null ) {
+			// entity renamed after indexing (table name) => rebuild and retry once
+			entity = newIndex().find(entities, name, byClassName);
+		}
+		return entity;
+	}
+
+	/**
+	 * Returns the entities indexed by class name (unmodifiable map)
+	 * @return
+	 * @since 4.3.0
+	 */
+	public Map<String, Entity> getEntitiesByClassName() {
+		return getIndex().toEntitiesMap(entities, true);
+	}
+
+	/**
+	 * Returns the entities indexed by database table name (unmodifiable map)
+	 * @return
+	 * @since 4.3.0
+	 */
+	public Map<String, Entity> getEntitiesByTableName() {
+		return getIndex().toEntitiesMap(entities, false);
+	}
+
+	/**
+	 * Rebuilds the indexes from the current list of entities <br>
+	 * (the lookups rebuild the indexes if the list has been modified, this method is only required <br>
+	 * if a database table name has been changed after adding the entity)
+	 * @since 4.3.0
+	 */
+	public void rebuildIndexes() {
+		newIndex();
+	}
+
+	private EntitiesIndex newIndex() {
+		EntitiesIndex index = new EntitiesIndex(entities, entities.getModificationCount());
+		entitiesIndex = index ; // published as a whole 
+		return index;
+	}
+
+	private EntitiesIndex getIndex() {
+		EntitiesIndex index = entitiesIndex ;
+		// entities list modified directly (via getEntities)
+		return index.modifications == entities.getModificationCount() ? index : newIndex() ;
+	}
+
+	/**
+	 * Indexes of entities positions in the list (by class name and by table name) 
+	 */
+	private static final class EntitiesIndex {
+		private final Map<String, Integer> byClassName = new HashMap<>();
+		private final Map<String, Integer> byTableName = new HashMap<>();
+		private int size = 0 ;
+		private int modifications ; // list modifications count when indexed
+
+		private EntitiesIndex(List<Entity> entities, int modifications) {
+			for ( Entity entity : entities ) {
+				add(entity, size);
+			}
+			this.modifications = modifications ;
+		}
+
+		private void add(Entity entity, int position) {
+			if ( entity.getClassName() != null && ! byClassName.containsKey(entity.getClassName()) ) {
+				byClassName.put(entity.getClassName(), position);
+			}
+			if ( entity.getDatabaseTable() != null && ! byTableName.containsKey(entity.getDatabaseTable()) ) {
+				byTableName.put(entity.getDatabaseTable(), position);
+			}
+			size = position + 1 ;
+		}
+
+		private Integer position(String name, boolean byClassName) {
+			return ( byClassName ? this.byClassName : this.byTableName ).get(name);
+		}
+
+		private Entity find(List<Entity> entities, String name, boolean byClassName) {
+			Integer position = position(name, byClassName);
+			return position != null ? find(entities, position, name, byClassName) : null ;
+		}
+
+		private Entity find(List<Entity> entities, int position, String name, boolean byClassName) {
+			if ( position >= entities.size() ) {
+				return null;
+			}
+			Entity entity = entities.get(position);
+			// still the same name at this position ?
+			return name.equals(byClassName ? entity.getClassName() : entity.getDatabaseTable()) ? entity : null ;
+		}
+
+		private Map<String, Entity> toEntitiesMap(List<Entity> entities, boolean byClassName) {
+			Map<String, Entity> map = new HashMap<>();
+			for ( Map.Entry<String, Integer> entry : ( byClassName ? this.byClassName : this.byTableName ).entrySet() ) {
+				map.put(entry.getKey(), entities.get(entry.getValue()));
 			}
+			return Collections.unmodifiableMap(map);
 		}
-		return null;
 	}
 
 	public void sortEntitiesByClassName() {
 		Collections.sort(entities, new EntityClassNameComparator() ) ;
+		rebuildIndexes(); // v 4.3.0 (sorted list : index rebuilt now rather than by the first lookup)
 	}
 	
 }
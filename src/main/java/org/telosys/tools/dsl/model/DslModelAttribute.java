@@ -47,6 +47,7 @@ public class DslModelAttribute implements Attribute {
 	
 	private String defaultValue = "" ; 
 	private Entity entity;
+	private DslModelEntity owner ; // v 4.3.0 : entity holding this attribute (notified when the key element changes)
 	private GeneratedValueStrategy generatedValueStrategy = GeneratedValueStrategy.UNDEFINED; // v 3.4.0
 	private String initialValue = "" ; 
 	private String inputType = "" ; 
@@ -190,6 +191,15 @@ public class DslModelAttribute implements Attribute {
 		this.defaultValue = defaultValue;
 	}
 
+	/**
+	 * Sets the entity holding this attribute (called when the attribute is added in an entity)
+	 * @param owner
+	 * @since 4.3.0
+	 */
+	protected void setOwner(DslModelEntity owner) {
+		this.owner = owner;
+	}
+
 	public Entity getEntity() {
 		return entity;
 	}
@@ -365,7 +375,11 @@ public class DslModelAttribute implements Attribute {
 		return keyElement;
 	}
 	public void setKeyElement(boolean keyElement) {
+		boolean changed = this.keyElement != keyElement ;
 		this.keyElement = keyElement;
+		if ( changed && owner != null ) {
+			owner.keyElementChanged(); // v 4.3.0
+		}
 	}
 
 	@Override
@@ -16,8 +16,11 @@
 package org.telosys.tools.dsl.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.telosys.tools.dsl.tags.Tags;
 import org.telosys.tools.generic.model.Attribute;
@@ -38,9 +41,9 @@ public class DslModelEntity implements Entity {
 	private String packageName = ""; // @Package annotation
 
 	private List<Attribute> attributes = new ArrayList<>();
-	private List<ForeignKey> foreignKeys = new ArrayList<>(); // v 3.4.0 
+	private final ModificationCountList<ForeignKey> foreignKeys = new ModificationCountList<>(); // v 3.4.0 
 
-	private List<Link> links = new ArrayList<>();
+	private final ModificationCountList<Link> links = new ModificationCountList<>();
 
 	// Database 
 	private String databaseTable   = ""; // set to 'entity name' by Converter 
@@ -66,6 +69,14 @@ public class DslModelEntity implements Entity {
     // Tags added in v 3.4.0 
     private TagContainer tagContainer = new Tags() ;  // Init with void Tags (never null)
     
+	// v 4.3.0 : name indexes (rebuilt if the lists have been modified directly) 
+	// the attributes index is never modified by the read paths, it is replaced by a new one (entity shared between threads)
+	private volatile AttributesIndex attributesIndex = new AttributesIndex(attributes);
+	// links and foreign keys : positions by name, rebuilt if the list has been modified directly 
+	private volatile NamesIndex linksIndex = new NamesIndex(0);
+	private volatile NamesIndex foreignKeysIndex = new NamesIndex(0);
+	// v 4.3.0 : key attributes (null if not yet computed or invalidated by a change)
+	private volatile List<Attribute> keyAttributes = null ;
 
 	/**
 	 * Constructor
@@ -82,24 +93,96 @@ public class DslModelEntity implements Entity {
 	}
 	public void setAttributes(List<Attribute> attributes) {
 		this.attributes = attributes;
+		for ( Attribute attribute : attributes ) {
+			setOwner(attribute);
+		}
+		rebuildAttributesIndex(); // v 4.3.0
 	}
 	public void addAttribute(Attribute attribute) { // v 3.4.0
 		this.attributes.add(attribute);
+		setOwner(attribute);
+		AttributesIndex index = attributesIndex ;
+		if ( index.size == attributes.size() - 1 ) {
+			index.add(attribute); // write path : current index updated 
+			keyAttributes = null ;
+		}
+		else {
+			rebuildAttributesIndex();
+		}
+	}
+	private void setOwner(Attribute attribute) {
+		if ( attribute instanceof DslModelAttribute ) {
+			((DslModelAttribute) attribute).setOwner(this);
+		}
 	}
 	
 	/**
-	 * Returns all attributes being part of the PK 
+	 * Returns all attributes being part of the PK <br>
+	 * (a new list at each call, the key attributes are computed once and kept until the next change)
 	 * @return
 	 * @since  3.3.x
 	 */
 	public List<Attribute> getKeyAttributes() {
-		LinkedList<Attribute> attributesList = new LinkedList<>();
-		for ( Attribute a : this.attributes ) {
-			if ( a.isKeyElement() ) {
-            	attributesList.add(a);
+		return new ArrayList<>(keyAttributes()) ; // v 4.3.0 : copy (modifiable list as before)
+	}
+
+	/**
+	 * Returns the key attributes (unmodifiable list shared by all the callers)
+	 * @return
+	 */
+	private List<Attribute> keyAttributes() {
+		getAttributesIndex();
+		List<Attribute> list = keyAttributes ;
+		if ( list == null ) {
+			List<Attribute> attributesList = new ArrayList<>();
+			for ( Attribute a : this.attributes ) {
+				if ( a.isKeyElement() ) {
+	            	attributesList.add(a);
+				}
 			}
+			list = Collections.unmodifiableList(attributesList);
+			keyAttributes = list ; // published as a whole
+		}
+		return list ;
+	}
+
+	/**
+	 * Called when the key element flag of an attribute of this entity has changed
+	 */
+	protected void keyElementChanged() {
+		keyAttributes = null ;
+	}
+
+	private AttributesIndex rebuildAttributesIndex() {
+		AttributesIndex index = new AttributesIndex(attributes);
+		keyAttributes = null ;
+		attributesIndex = index ; // published as a whole
+		return index;
+	}
+	private AttributesIndex getAttributesIndex() {
+		AttributesIndex index = attributesIndex ;
+		// attributes list modified directly (via getAttributes)
+		return index.size == attributes.size() ? index : rebuildAttributesIndex() ;
+	}
+
+	/**
+	 * Attributes by name (the first attribute wins in case of duplicated names)
+	 */
+	private static final class AttributesIndex {
+		private final Map<String, Attribute> byName = new HashMap<>();
+		private int size = 0 ;
+
+		private AttributesIndex(List<Attribute> attributes) {
+			for ( Attribute attribute : attributes ) {
+				add(attribute);
+			}
+		}
+		private void add(Attribute attribute) {
+			if ( ! byName.containsKey(attribute.getName()) ) { // first attribute wins
+				byName.put(attribute.getName(), attribute);
+			}
+			size++;
 		}
-		return attributesList ;
 	}
 
 	//--------------------------------------------------------------------------
@@ -204,15 +287,40 @@ public class DslModelEntity implements Entity {
 		return foreignKeys;
 	}
 	public void addForeignKey(ForeignKey fk) { // v 3.4.0
+		NamesIndex index = foreignKeysIndex ;
+		boolean upToDate = ( index.modifications == foreignKeys.getModificationCount() );
 		this.foreignKeys.add(fk);
+		if ( upToDate ) {
+			index.add(fk.getName(), foreignKeys.size() - 1, foreignKeys.getModificationCount()); // write path 
+		}
+		else {
+			rebuildForeignKeysIndex();
+		}
 	}
 	public ForeignKey getForeignKeyByName(String fkName) {
-		for (ForeignKey fk : this.foreignKeys) {
-			if (fkName.equals(fk.getName())) {
-				return fk;
-			}
+		NamesIndex index = foreignKeysIndex ;
+		if ( index.modifications != foreignKeys.getModificationCount() ) {
+			index = rebuildForeignKeysIndex();
 		}
-		return null;
+		ForeignKey fk = foreignKeyAt(index.get(fkName));
+		if ( fk != null && ! fkName.equals(fk.getName()) ) {
+			// changed without being counted (eg via a sub-list) => rebuild and retry once
+			fk = foreignKeyAt(rebuildForeignKeysIndex().get(fkName));
+		}
+		return fk;
+	}
+	private ForeignKey foreignKeyAt(int position) {
+		return ( position >= 0 && position < foreignKeys.size() ) ? foreignKeys.get(position) : null ;
+	}
+	private NamesIndex rebuildForeignKeysIndex() {
+		NamesIndex index = new NamesIndex(foreignKeys.size());
+		int position = 0 ;
+		for ( ForeignKey fk : foreignKeys ) {
+			index.add(fk.getName(), position++, 0);
+		}
+		index.modifications = foreignKeys.getModificationCount();
+		foreignKeysIndex = index ; // published as a whole
+		return index;
 	}
 	
 	//--------------------------------------------------------------------------
@@ -288,15 +396,63 @@ public class DslModelEntity implements Entity {
 		return links;
 	}
 	public void addLink(Link link) { // v 3.4.0
+		NamesIndex index = linksIndex ;
+		boolean upToDate = ( index.modifications == links.getModificationCount() );
 		this.links.add(link);
+		if ( upToDate ) {
+			index.add(link.getFieldName(), links.size() - 1, links.getModificationCount()); // write path 
+		}
+		else {
+			rebuildLinksIndex();
+		}
 	}
 	public Link getLinkByFieldName(String fieldName) {
-		for(Link link : links) {
-			if(fieldName.equals(link.getFieldName())) {
-				return link;
+		NamesIndex index = linksIndex ;
+		if ( index.modifications != links.getModificationCount() ) {
+			index = rebuildLinksIndex();
+		}
+		Link link = linkAt(index.get(fieldName));
+		if ( link != null && ! fieldName.equals(link.getFieldName()) ) {
+			// changed without being counted (eg via a sub-list) => rebuild and retry once
+			link = linkAt(rebuildLinksIndex().get(fieldName));
+		}
+		return link;
+	}
+	private Link linkAt(int position) {
+		return ( position >= 0 && position < links.size() ) ? links.get(position) : null ;
+	}
+	private NamesIndex rebuildLinksIndex() {
+		NamesIndex index = new NamesIndex(links.size());
+		int position = 0 ;
+		for ( Link link : links ) {
+			index.add(link.getFieldName(), position++, 0);
+		}
+		index.modifications = links.getModificationCount();
+		linksIndex = index ; // published as a whole
+		return index;
+	}
+
+	/**
+	 * Positions in a list by name (the first element wins in case of duplicated names) <br>
+	 * A new index is built and published by the read paths, an index is only updated by the write paths 
+	 */
+	private static final class NamesIndex {
+		private final Map<String, Integer> positions ;
+		private int modifications = 0 ; // list modifications count when indexed
+
+		private NamesIndex(int size) {
+			positions = new HashMap<>(size * 2);
+		}
+		private void add(String name, int position, int modifications) {
+			if ( name != null && ! positions.containsKey(name) ) { // first element wins
+				positions.put(name, position);
 			}
+			this.modifications = modifications ;
+		}
+		private int get(String name) {
+			Integer position = positions.get(name);
+			return position != null ? position : -1 ;
 		}
-		return null;
 	}
 	
 	//--------------------------------------------------------------------------
@@ -314,12 +470,7 @@ public class DslModelEntity implements Entity {
 	 * @return
 	 */
 	public boolean hasId() {
-		for ( Attribute attribute : this.attributes ) {
-			if ( attribute.isKeyElement() ) {
-				return true ;
-			}
-		}
-		return false ; // No attribute with "@Id"
+		return ! keyAttributes().isEmpty() ; // v 4.3.0
 	}
 	
 	/**
@@ -327,13 +478,7 @@ public class DslModelEntity implements Entity {
 	 * @return
 	 */
 	public int getIdCount() {
-		int count = 0 ;
-		for ( Attribute attribute : this.attributes ) {
-			if ( attribute.isKeyElement() ) {
-				count++ ;
-			}
-		}
-		return count ;
+		return keyAttributes().size() ; // v 4.3.0
 	}
 	
 	/**
@@ -348,12 +493,7 @@ public class DslModelEntity implements Entity {
 	//--------------------------------------------------------------------------
 	@Override
 	public Attribute getAttributeByName(String name) {
-		for(Attribute attribute : getAttributes()) {
-			if(name.equals(attribute.getName())) {
-				return attribute;
-			}
-		}
-		return null;
+		return getAttributesIndex().byName.get(name);
 	}
 
 	/**
@@ -363,13 +503,12 @@ public class DslModelEntity implements Entity {
 	 * @return
 	 */
 	public Attribute replaceAttribute(String name, Attribute newAttribute) {
-		List<Attribute> list = this.attributes  ;
-		for ( int index = 0 ; index < list.size() ; index++ ) {
-			Attribute attribute = list.get(index);
-			if ( name.equals(attribute.getName()) ) { // Found
-				list.set(index, newAttribute); // Replace
-				return attribute ;
-			}
+		Attribute attribute = getAttributeByName(name);
+		if ( attribute != null ) { // Found
+			this.attributes.set(this.attributes.indexOf(attribute), newAttribute); // Replace
+			setOwner(newAttribute);
+			rebuildAttributesIndex(); // the new attribute can have another name
+			return attribute ;
 		}
 		return null;
 	}
@@ -17,6 +17,7 @@ package org.telosys.tools.dsl.model;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.generic.model.ForeignKey;
@@ -26,9 +27,9 @@ import org.telosys.tools.generic.model.LinkAttribute;
 public class DslModelForeignKey implements ForeignKey {
 	
 	private static final String CONTRUCTOR_ERROR = "Foreign Key constructor error : ";
-	private static int implicitForeignKeyIdentifier = 0 ;
+	private static final AtomicInteger implicitForeignKeyIdentifier = new AtomicInteger(0) ; // v 4.3.0 (thread-safe)
 	
-    private final String fkName; 
+    private String fkName; // not final : implicit FK name can be assigned after creation (v 4.3.0)
     private final String originEntityName; // entity holding this FK
     private final String referencedEntityName; // entity referenced by this FK
     private final boolean explicitFK; 
@@ -39,7 +40,7 @@ public class DslModelForeignKey implements ForeignKey {
 		super();
 		this.explicitFK = explicit;
 		
-		if ( StrUtil.nullOrVoid(fkName)) {
+		if ( explicit && StrUtil.nullOrVoid(fkName)) {
 			throw new IllegalArgumentException(CONTRUCTOR_ERROR + "'name' is null or void");
 		}
         this.fkName = fkName;
@@ -75,9 +76,32 @@ public class DslModelForeignKey implements ForeignKey {
 				originEntityName, referencedEntityName);
     }
 	
+    /**
+     * Creates an implicit Foreign Key without name <br>
+     * The name must be assigned with 'assignImplicitName()' before using the Foreign Key <br>
+     * (allows to create the FK in any thread and to assign the names in a deterministic order)
+     * @param originEntityName
+     * @param referencedEntityName
+     * @return
+     * @since 4.3.0
+     */
+    public static DslModelForeignKey createUnnamedImplicitForeignKey(String originEntityName, String referencedEntityName) {
+		return new DslModelForeignKey(false, null, originEntityName, referencedEntityName);
+    }
+
+    /**
+     * Assigns the next implicit name ('FK_IMPLICITn_Origin_Referenced') to an unnamed implicit Foreign Key
+     * @since 4.3.0
+     */
+    public void assignImplicitName() {
+    	if ( fkName != null ) {
+			throw new IllegalStateException("Foreign Key name already assigned : " + fkName);
+    	}
+    	fkName = createImplicitForeignKeyName(originEntityName, referencedEntityName);
+    }
+
     private static final String createImplicitForeignKeyName(String originEntityName, String referencedEntityName) {
-    	implicitForeignKeyIdentifier++;
-		return "FK_IMPLICIT" + implicitForeignKeyIdentifier + "_" + originEntityName + "_" + referencedEntityName ;	
+		return "FK_IMPLICIT" + implicitForeignKeyIdentifier.incrementAndGet() + "_" + originEntityName + "_" + referencedEntityName ;	
 	}
 	
 	@Override
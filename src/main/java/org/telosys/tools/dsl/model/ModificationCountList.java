@@ -0,0 +1,57 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model;
+
+import java.util.ArrayList;
+
+/**
+ * ArrayList counting its modifications (structural changes, sort and 'set') <br>
+ * Used to know if an index built from the list is still up to date <br>
+ * (the changes made through a sub-list 'set' are not counted)
+ *
+ * @param <E>
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+class ModificationCountList<E> extends ArrayList<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	private int setCount = 0 ;
+
+	/**
+	 * Constructor for a void list
+	 */
+	ModificationCountList() {
+		super();
+	}
+
+	@Override
+	public E set(int index, E element) {
+		E previous = super.set(index, element);
+		setCount++;
+		return previous;
+	}
+
+	/**
+	 * Returns the number of modifications since the list creation
+	 * @return
+	 */
+	int getModificationCount() {
+		return modCount + setCount ;
+	}
+}
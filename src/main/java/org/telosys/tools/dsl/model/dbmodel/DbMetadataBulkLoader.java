@@ -0,0 +1,426 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.telosys.tools.db.model.DatabaseModelManager;
+import org.telosys.tools.db.model.DatabaseTables;
+
+/**
+ * Database metadata loader using schema-wide requests <br>
+ * The columns, primary keys and foreign keys of all the tables are loaded with 3 requests <br>
+ * ( 'getColumns', 'getPrimaryKeys' and 'getImportedKeys' without table name ) and grouped by table in memory. <br>
+ * Then the standard 'DatabaseModelManager' builds the tables from these rows, so the result is <br>
+ * the same as with the table by table loading, without a round trip per table. <br>
+ * If the driver doesn't support a schema-wide request, the corresponding metadata is loaded table by table <br>
+ * (a schema-wide keys request returning no row for a schema with columns is considered as not supported, <br>
+ * some drivers ignore the requests without table name).
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DbMetadataBulkLoader {
+
+	private static final String TABLE_NAME   = "TABLE_NAME" ;
+	private static final String TABLE_CAT    = "TABLE_CAT" ;
+	private static final String TABLE_SCHEM  = "TABLE_SCHEM" ;
+	private static final String COLUMN_NAME  = "COLUMN_NAME" ;
+	private static final String FKTABLE_NAME = "FKTABLE_NAME" ;
+	private static final String FKTABLE_CAT  = "FKTABLE_CAT" ;
+	private static final String FKTABLE_SCHEM = "FKTABLE_SCHEM" ;
+
+	/**
+	 * Loads all the tables (same parameters as 'DatabaseModelManager.getDatabaseTables') 
+	 * @param con
+	 * @param catalog
+	 * @param schema
+	 * @param tableNamePattern
+	 * @param tableTypes
+	 * @param tableNameInclude
+	 * @param tableNameExclude
+	 * @return
+	 * @throws SQLException
+	 */
+	public DatabaseTables getDatabaseTables(Connection con, String catalog, String schema, String tableNamePattern, 
+			String[] tableTypes, String tableNameInclude, String tableNameExclude) throws SQLException {
+		Connection connection = bulkConnection(con, catalog, schema, tableNamePattern);
+		return new DatabaseModelManager().getDatabaseTables(connection, catalog, schema, tableNamePattern, 
+				tableTypes, tableNameInclude, tableNameExclude);
+	}
+
+	/**
+	 * Loads the metadata with schema-wide requests and returns a connection using them 
+	 * (the requests not covered by the loaded metadata are delegated to the given connection)
+	 * @param con
+	 * @param catalog
+	 * @param schema
+	 * @param tableNamePattern
+	 * @return
+	 * @throws SQLException
+	 */
+	protected Connection bulkConnection(Connection con, String catalog, String schema, String tableNamePattern) throws SQLException {
+		return new BulkMetaData(con, catalog, schema, tableNamePattern).connectionProxy();
+	}
+
+	/**
+	 * Metadata loaded with schema-wide requests and grouped by table name
+	 */
+	private static class BulkMetaData {
+		private final Connection connection ;
+		private final DatabaseMetaData metaData ;
+		private final String escape ;
+		private final String catalog ;
+		private final String schemaPattern ;
+		private final String tableNamePattern ;
+		// all the rows (original order) and the same rows grouped by table name ( null if not loaded )
+		private final MetaDataRows allColumns ;
+		private final MetaDataRows allPrimaryKeys ;
+		private final MetaDataRows allImportedKeys ;
+		private final Map<String, MetaDataRows> columns ;
+		private final Map<String, MetaDataRows> primaryKeys ;
+		private final Map<String, MetaDataRows> importedKeys ;
+
+		private BulkMetaData(Connection connection, String catalog, String schemaPattern, String tableNamePattern) throws SQLException {
+			this.connection = connection;
+			this.metaData = connection.getMetaData();
+			this.escape = metaData.getSearchStringEscape();
+			this.catalog = catalog;
+			this.schemaPattern = schemaPattern;
+			this.tableNamePattern = tableNamePattern;
+			// schema-wide requests (the keys requests expect a schema name, not a pattern)
+			String keysSchema = isLiteral(schemaPattern, escape) ? unescape(schemaPattern, escape) : null ;
+			this.allColumns = loadRows("getColumns", catalog, schemaPattern, tableNamePattern, "%");
+			this.columns = groupByTable(allColumns, TABLE_NAME);
+			this.allPrimaryKeys = keysRows(loadRows("getPrimaryKeys", catalog, keysSchema, null));
+			this.primaryKeys = groupByTable(allPrimaryKeys, TABLE_NAME);
+			this.allImportedKeys = keysRows(loadRows("getImportedKeys", catalog, keysSchema, null));
+			this.importedKeys = groupByTable(allImportedKeys, FKTABLE_NAME);
+		}
+
+		/**
+		 * Calls the given metadata method and loads all the rows (or returns null if not supported by the driver)
+		 */
+		private MetaDataRows loadRows(String methodName, Object... args) {
+			try {
+				ResultSet rs ;
+				if ( "getColumns".equals(methodName) ) {
+					rs = metaData.getColumns((String) args[0], (String) args[1], (String) args[2], (String) args[3]);
+				}
+				else if ( "getPrimaryKeys".equals(methodName) ) {
+					rs = metaData.getPrimaryKeys((String) args[0], (String) args[1], (String) args[2]);
+				}
+				else {
+					rs = metaData.getImportedKeys((String) args[0], (String) args[1], (String) args[2]);
+				}
+				return MetaDataRows.load(rs);
+			} catch (SQLException e) {
+				// schema-wide request not supported => table by table
+				return null ;
+			}
+		}
+
+		/**
+		 * Returns null (table by table requests) if no key has been loaded for the tables found <br>
+		 * (some drivers return no row instead of an error when the table name is null)
+		 */
+		private MetaDataRows keysRows(MetaDataRows rows) {
+			if ( rows != null && rows.getRows().isEmpty() && allColumns != null && ! allColumns.getRows().isEmpty() ) {
+				return null ;
+			}
+			return rows ;
+		}
+
+		private Map<String, MetaDataRows> groupByTable(MetaDataRows rows, String tableNameLabel) {
+			if ( rows == null ) {
+				return null ;
+			}
+			Map<String, List<Object[]>> map = new LinkedHashMap<>();
+			for ( Object[] row : rows.getRows() ) {
+				String tableName = rows.getString(row, tableNameLabel);
+				List<Object[]> tableRows = map.get(tableName);
+				if ( tableRows == null ) {
+					tableRows = new ArrayList<>();
+					map.put(tableName, tableRows);
+				}
+				tableRows.add(row);
+			}
+			Map<String, MetaDataRows> result = new LinkedHashMap<>();
+			for ( Map.Entry<String, List<Object[]>> entry : map.entrySet() ) {
+				result.put(entry.getKey(), rows.withRows(entry.getValue()));
+			}
+			return result;
+		}
+
+		/**
+		 * Returns a connection returning the cached metadata (all the other calls are delegated)
+		 */
+		private Connection connectionProxy() {
+			final Object metaDataProxy = Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), 
+					new Class<?>[] { DatabaseMetaData.class }, new InvocationHandler() {
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							ResultSet rs = getCachedResultSet(method.getName(), args);
+							return rs != null ? rs : delegate(metaData, method, args);
+						}
+					});
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), 
+					new Class<?>[] { Connection.class }, new InvocationHandler() {
+						@Override
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							if ( "getMetaData".equals(method.getName()) ) {
+								return metaDataProxy ;
+							}
+							return delegate(connection, method, args);
+						}
+					});
+		}
+
+		/**
+		 * Returns the result set built from the cached rows (or null if not in cache)
+		 */
+		private ResultSet getCachedResultSet(String methodName, Object[] args) {
+			if ( "getColumns".equals(methodName) && columns != null 
+					&& covers(args) ) {
+				return select(columns, allColumns, args, TABLE_CAT, TABLE_SCHEM, TABLE_NAME, (String) args[3]).toResultSet();
+			}
+			if ( "getPrimaryKeys".equals(methodName) && primaryKeys != null && args[2] != null ) {
+				Object[] patternArgs = toPatternArgs(args);
+				if ( covers(patternArgs) ) {
+					return select(primaryKeys, allPrimaryKeys, patternArgs, TABLE_CAT, TABLE_SCHEM, TABLE_NAME, null).toResultSet();
+				}
+			}
+			if ( "getImportedKeys".equals(methodName) && importedKeys != null && args[2] != null ) {
+				Object[] patternArgs = toPatternArgs(args);
+				if ( covers(patternArgs) ) {
+					return select(importedKeys, allImportedKeys, patternArgs, FKTABLE_CAT, FKTABLE_SCHEM, FKTABLE_NAME, null).toResultSet();
+				}
+			}
+			return null ;
+		}
+
+		/**
+		 * Escapes the schema and table names of a 'keys' request (names, not patterns)
+		 */
+		private Object[] toPatternArgs(Object[] args) {
+			Object[] patternArgs = args.clone();
+			patternArgs[1] = args[1] != null ? DbTablesParallelLoader.escapePattern((String) args[1], escape) : null ;
+			patternArgs[2] = DbTablesParallelLoader.escapePattern((String) args[2], escape);
+			return patternArgs;
+		}
+
+		/**
+		 * Returns true if the rows loaded with the schema-wide request include all the rows requested
+		 */
+		private boolean covers(Object[] args) {
+			String requestCatalog = (String) args[0];
+			if ( catalog != null && ! catalog.equals(requestCatalog) ) {
+				return false ;
+			}
+			return coversPattern(schemaPattern, (String) args[1]) && coversPattern(tableNamePattern, (String) args[2]) ;
+		}
+
+		private boolean coversPattern(String bulkPattern, String requestPattern) {
+			if ( bulkPattern == null || "%".equals(bulkPattern) ) {
+				return true ;
+			}
+			if ( requestPattern == null ) {
+				return false ;
+			}
+			if ( requestPattern.equals(bulkPattern) ) {
+				return true ;
+			}
+			return isLiteral(requestPattern, escape) 
+					&& like(unescape(requestPattern, escape), bulkPattern, escape) ;
+		}
+
+		private MetaDataRows select(Map<String, MetaDataRows> rowsByTable, MetaDataRows allRows, Object[] args, 
+				String catalogLabel, String schemaLabel, String tableLabel, String columnPattern) {
+			String requestTable = (String) args[2];
+			List<Object[]> result = new LinkedList<>();
+			if ( isLiteral(requestTable, escape) ) {
+				// usual case : a single table name
+				MetaDataRows tableRows = rowsByTable.get(unescape(requestTable, escape));
+				if ( tableRows != null ) {
+					selectRows(tableRows, tableRows.getRows(), result, args, columnPattern, catalogLabel, schemaLabel);
+				}
+			}
+			else {
+				// table name pattern (eg name with '_') : find the matching tables 
+				List<String> tableNames = new LinkedList<>();
+				Pattern tablePattern = likePattern(requestTable, escape);
+				for ( String tableName : rowsByTable.keySet() ) {
+					if ( tablePattern.matcher(tableName).matches() ) {
+						tableNames.add(tableName);
+					}
+				}
+				if ( tableNames.size() == 1 ) {
+					MetaDataRows tableRows = rowsByTable.get(tableNames.get(0));
+					selectRows(tableRows, tableRows.getRows(), result, args, columnPattern, catalogLabel, schemaLabel);
+				}
+				else if ( tableNames.size() > 1 ) {
+					// several tables : keep the original order of the rows 
+					List<Object[]> rows = new LinkedList<>();
+					for ( Object[] row : allRows.getRows() ) {
+						if ( tableNames.contains(allRows.getString(row, tableLabel)) ) {
+							rows.add(row);
+						}
+					}
+					selectRows(allRows, rows, result, args, columnPattern, catalogLabel, schemaLabel);
+				}
+			}
+			return allRows.withRows(result);
+		}
+
+		private void selectRows(MetaDataRows rowsDefinition, List<Object[]> rows, List<Object[]> result, Object[] args, 
+				String columnPattern, String catalogLabel, String schemaLabel) {
+			String requestCatalog = (String) args[0];
+			String requestSchema = (String) args[1];
+			for ( Object[] row : rows ) {
+				selectRow(rowsDefinition, row, result, requestCatalog, requestSchema, columnPattern, catalogLabel, schemaLabel);
+			}
+		}
+
+		private void selectRow(MetaDataRows rows, Object[] row, List<Object[]> result, String requestCatalog, String requestSchema, 
+				String columnPattern, String catalogLabel, String schemaLabel) {
+			// catalog : null => any catalog, "" => no catalog
+			if ( requestCatalog != null ) {
+				String rowCatalog = rows.getString(row, catalogLabel);
+				if ( ! requestCatalog.equals(rowCatalog == null ? "" : rowCatalog) ) {
+					return;
+				}
+			}
+			if ( requestSchema != null ) {
+				String rowSchema = rows.getString(row, schemaLabel);
+				if ( ! like(rowSchema == null ? "" : rowSchema, requestSchema, escape) ) {
+					return;
+				}
+			}
+			if ( columnPattern != null && ! like(rows.getString(row, COLUMN_NAME), columnPattern, escape) ) {
+				return;
+			}
+			result.add(row);
+		}
+	}
+
+	private static Object delegate(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Returns true if the given JDBC pattern has no wildcard ( '%' or '_' not escaped ) 
+	 * @param pattern
+	 * @param escape
+	 * @return
+	 */
+	protected static boolean isLiteral(String pattern, String escape) {
+		if ( pattern == null ) {
+			return false ;
+		}
+		boolean hasEscape = escape != null && ! escape.isEmpty() ;
+		for ( int i = 0 ; i < pattern.length() ; i++ ) {
+			if ( hasEscape && pattern.startsWith(escape, i) ) {
+				i = i + escape.length() ; // skip the escaped char
+			}
+			else if ( pattern.charAt(i) == '%' || pattern.charAt(i) == '_' ) {
+				return false ;
+			}
+		}
+		return true ;
+	}
+
+	/**
+	 * Removes the escape strings from the given literal pattern
+	 * @param pattern
+	 * @param escape
+	 * @return
+	 */
+	protected static String unescape(String pattern, String escape) {
+		if ( pattern == null || escape == null || escape.isEmpty() ) {
+			return pattern;
+		}
+		StringBuilder sb = new StringBuilder();
+		for ( int i = 0 ; i < pattern.length() ; i++ ) {
+			if ( pattern.startsWith(escape, i) && i + escape.length() < pattern.length() ) {
+				i = i + escape.length() ;
+			}
+			sb.append(pattern.charAt(i));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns true if the given value matches the given JDBC pattern ( '%' : any string, '_' : any char )
+	 * @param value
+	 * @param pattern
+	 * @param escape
+	 * @return
+	 */
+	protected static boolean like(String value, String pattern, String escape) {
+		if ( pattern == null ) {
+			return true ;
+		}
+		if ( value == null ) {
+			return false ;
+		}
+		return likePattern(pattern, escape).matcher(value).matches();
+	}
+
+	/**
+	 * Converts the given JDBC pattern to a regular expression
+	 * @param pattern
+	 * @param escape
+	 * @return
+	 */
+	protected static Pattern likePattern(String pattern, String escape) {
+		boolean hasEscape = escape != null && ! escape.isEmpty() ;
+		StringBuilder regex = new StringBuilder();
+		for ( int i = 0 ; i < pattern.length() ; i++ ) {
+			char c = pattern.charAt(i);
+			if ( hasEscape && pattern.startsWith(escape, i) && i + escape.length() < pattern.length() ) {
+				i = i + escape.length() ;
+				regex.append(Pattern.quote(String.valueOf(pattern.charAt(i))));
+			}
+			else if ( c == '%' ) {
+				regex.append(".*");
+			}
+			else if ( c == '_' ) {
+				regex.append('.');
+			}
+			else {
+				regex.append(Pattern.quote(String.valueOf(c)));
+			}
+		}
+		return Pattern.compile(regex.toString(), Pattern.DOTALL);
+	}
+}
@@ -0,0 +1,255 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinition;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinitions;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinitionsLoader;
+
+/**
+ * Offline snapshot of the database metadata used to create a model <br>
+ * Contains the database definition (without JDBC connection parameters) 
+ * and all the metadata calls recorded during the loading of the tables. <br>
+ * The same tables can be reloaded from the snapshot file without database connection.
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DbMetadataSnapshot {
+
+	private static final String MAGIC   = "TELOSYS-DB-SNAPSHOT" ;
+	private static final int    VERSION = 1 ;
+
+	private final DatabaseDefinition databaseDefinition ;
+	
+	private final boolean bulkMetadataLoading ;
+
+	private final MetaDataRecording recording ;
+
+	/**
+	 * Constructor for a new snapshot (to be recorded)
+	 * @param databaseDefinition the database definition used to load the tables
+	 * @param bulkMetadataLoading true if the tables are loaded with schema-wide requests
+	 */
+	public DbMetadataSnapshot(DatabaseDefinition databaseDefinition, boolean bulkMetadataLoading) {
+		this(databaseDefinition, bulkMetadataLoading, new MetaDataRecording());
+	}
+
+	private DbMetadataSnapshot(DatabaseDefinition databaseDefinition, boolean bulkMetadataLoading, MetaDataRecording recording) {
+		super();
+		if ( databaseDefinition == null ) {
+			throw new IllegalArgumentException("DatabaseDefinition is null");
+		}
+		this.databaseDefinition = databaseDefinition;
+		this.bulkMetadataLoading = bulkMetadataLoading;
+		this.recording = recording;
+	}
+
+	/**
+	 * Returns the database definition recorded with the snapshot <br>
+	 * Only its metadata selection parameters are used to replay the snapshot 
+	 * (the model creation options are the current ones)
+	 * @return
+	 */
+	public DatabaseDefinition getDatabaseDefinition() {
+		return databaseDefinition;
+	}
+
+	/**
+	 * Returns true if the tables must be reloaded with schema-wide requests (as when recorded)
+	 * @return
+	 */
+	public boolean isBulkMetadataLoading() {
+		return bulkMetadataLoading;
+	}
+
+	/**
+	 * Returns the number of metadata calls recorded in the snapshot
+	 * @return
+	 */
+	public int getNumberOfRecordedCalls() {
+		return recording.getNumberOfCalls();
+	}
+
+	/**
+	 * Returns a connection recording in this snapshot all the metadata calls made on the given connection
+	 * @param connection the real database connection 
+	 * @return
+	 */
+	public Connection recordingConnection(Connection connection) {
+		return recording.recordingConnection(connection);
+	}
+
+	/**
+	 * Returns a connection replaying the metadata calls recorded in this snapshot (no database access)
+	 * @return
+	 */
+	public Connection replayConnection() {
+		return recording.replayConnection();
+	}
+
+	//-------------------------------------------------------------------------------------------
+	// Save / Load
+	//-------------------------------------------------------------------------------------------
+	/**
+	 * Saves the snapshot in the given file (GZIP compressed binary file)
+	 * @param file
+	 * @throws TelosysToolsException
+	 */
+	public void save(File file) throws TelosysToolsException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if ( parent != null && !parent.exists() ) {
+			parent.mkdirs();
+		}
+		try ( DataOutputStream out = new DataOutputStream(new GZIPOutputStream(
+				new BufferedOutputStream(new FileOutputStream(file)))) ) {
+			MetaDataRecording.writeString(out, MAGIC);
+			out.writeInt(VERSION);
+			MetaDataRecording.writeString(out, databaseDefinition.getId());
+			MetaDataRecording.writeString(out, toYaml(databaseDefinition));
+			out.writeBoolean(bulkMetadataLoading);
+			recording.write(out);
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot save database snapshot '" + file + "'", e);
+		}
+	}
+
+	/**
+	 * Loads a snapshot from the given file (previously saved)
+	 * @param file
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public static DbMetadataSnapshot load(File file) throws TelosysToolsException {
+		if ( !file.isFile() ) {
+			throw new TelosysToolsException("Database snapshot file not found '" + file + "'");
+		}
+		String databaseId ;
+		String yaml ;
+		boolean bulk ;
+		MetaDataRecording recording ;
+		try ( DataInputStream in = new DataInputStream(new GZIPInputStream(
+				new BufferedInputStream(new FileInputStream(file)))) ) {
+			if ( ! MAGIC.equals(MetaDataRecording.readString(in)) ) {
+				throw new TelosysToolsException("Invalid database snapshot file '" + file + "'");
+			}
+			int version = in.readInt();
+			if ( version != VERSION ) {
+				throw new TelosysToolsException("Unsupported database snapshot version " + version + " in '" + file + "'");
+			}
+			databaseId = MetaDataRecording.readString(in);
+			yaml = MetaDataRecording.readString(in);
+			bulk = in.readBoolean();
+			recording = MetaDataRecording.read(in);
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot load database snapshot '" + file + "'", e);
+		}
+		return new DbMetadataSnapshot(fromYaml(databaseId, yaml), bulk, recording);
+	}
+
+	//-------------------------------------------------------------------------------------------
+	// Database definition (same YAML format as 'databases.yaml')
+	//-------------------------------------------------------------------------------------------
+	/**
+	 * Returns the database definition in YAML format (as in 'databases.yaml') <br>
+	 * The JDBC connection parameters (url, driver, user, password) are not kept
+	 * @param db
+	 * @return
+	 */
+	protected static String toYaml(DatabaseDefinition db) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("databases :\n");
+		sb.append("  - id: ").append(yamlValue(db.getId())).append("\n");
+		appendKey(sb, "name", yamlValue(db.getName()));
+		appendKey(sb, "type", yamlValue(db.getType()));
+		// Metadata parameters
+		appendKey(sb, "catalog", yamlValue(db.getCatalog()));
+		appendKey(sb, "schema", yamlValue(db.getSchema()));
+		appendKey(sb, "tableNamePattern", yamlValue(db.getTableNamePattern()));
+		appendKey(sb, "tableNameInclude", yamlValue(db.getTableNameInclude()));
+		appendKey(sb, "tableNameExclude", yamlValue(db.getTableNameExclude()));
+		StringBuilder tableTypes = new StringBuilder();
+		for ( String tableType : db.getTableTypesArray() ) {
+			if ( tableTypes.length() > 0 ) {
+				tableTypes.append(" ");
+			}
+			tableTypes.append(tableType);
+		}
+		appendKey(sb, "tableTypes", yamlValue(tableTypes.toString()));
+		// Telosys DSL model creation
+		appendKey(sb, "linksManyToOne", db.isLinksManyToOne());
+		appendKey(sb, "linksOneToMany", db.isLinksOneToMany());
+		appendKey(sb, "linksManyToMany", db.isLinksManyToMany());
+		appendKey(sb, "dbCatalog", db.isDbCatalog());
+		appendKey(sb, "dbSchema", db.isDbSchema());
+		appendKey(sb, "dbTable", db.isDbTable());
+		appendKey(sb, "dbView", db.isDbView());
+		appendKey(sb, "dbType", db.isDbType());
+		appendKey(sb, "dbName", db.isDbName());
+		appendKey(sb, "dbDefaultValue", db.isDbDefaultValue());
+		appendKey(sb, "dbComment", db.isDbComment());
+		return sb.toString();
+	}
+
+	private static void appendKey(StringBuilder sb, String key, Object value) {
+		sb.append("    ").append(key).append(": ").append(value).append("\n");
+	}
+
+	private static String yamlValue(String s) {
+		if ( s == null ) {
+			return "";
+		}
+		if ( s.isEmpty() ) {
+			return "!"; // empty string (not null)
+		}
+		return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"" ;
+	}
+
+	protected static DatabaseDefinition fromYaml(String databaseId, String yaml) throws TelosysToolsException {
+		File tmpFile = null ;
+		try {
+			tmpFile = File.createTempFile("telosys-db-snapshot", ".yaml");
+			Files.write(tmpFile.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+			DatabaseDefinitions databaseDefinitions = new DatabaseDefinitionsLoader().load(tmpFile);
+			DatabaseDefinition databaseDefinition = databaseDefinitions.getDatabaseDefinition(databaseId);
+			if ( databaseDefinition == null ) {
+				throw new TelosysToolsException("Invalid database definition in snapshot (id '" + databaseId + "')");
+			}
+			return databaseDefinition;
+		} catch (IOException e) {
+			throw new TelosysToolsException("Cannot read database definition from snapshot", e);
+		} finally {
+			if ( tmpFile != null ) {
+				tmpFile.delete();
+			}
+		}
+	}
+}
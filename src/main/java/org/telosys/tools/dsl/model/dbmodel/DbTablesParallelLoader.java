@@ -0,0 +1,244 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseConnectionProvider;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinition;
+import org.telosys.tools.db.model.DatabaseModelManager;
+import org.telosys.tools.db.model.DatabaseTable;
+import org.telosys.tools.db.model.DatabaseTables;
+
+/**
+ * Loads the database tables metadata in parallel using several JDBC connections <br>
+ * The tables are listed with a first connection, then they are split across N connections. <br>
+ * Each connection loads the metadata (columns, primary key, foreign keys) of its own tables <br>
+ * with the standard 'DatabaseModelManager', then all the tables are merged in the original order. <br>
+ * The result is the same as with a single connection.
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DbTablesParallelLoader {
+
+	private final DatabaseConnectionProvider connectionProvider ;
+	private final DatabaseDefinition databaseDefinition ;
+	private final int numberOfConnections ;
+
+	/**
+	 * Constructor
+	 * @param connectionProvider provider used to open each connection
+	 * @param databaseDefinition the database to be loaded
+	 * @param numberOfConnections the maximum number of connections used at the same time
+	 */
+	public DbTablesParallelLoader(DatabaseConnectionProvider connectionProvider, DatabaseDefinition databaseDefinition, 
+			int numberOfConnections) {
+		super();
+		if ( connectionProvider == null ) {
+			throw new IllegalArgumentException("DatabaseConnectionProvider is null");
+		}
+		if ( databaseDefinition == null ) {
+			throw new IllegalArgumentException("DatabaseDefinition is null");
+		}
+		if ( numberOfConnections < 1 ) {
+			throw new IllegalArgumentException("Invalid number of connections : " + numberOfConnections);
+		}
+		this.connectionProvider = connectionProvider;
+		this.databaseDefinition = databaseDefinition;
+		this.numberOfConnections = numberOfConnections;
+	}
+
+	/**
+	 * Loads all the tables matching the given pattern and the database definition criteria <br>
+	 * ( catalog, schema, table types, include and exclude patterns )
+	 * @param tableNamePattern the table name pattern (JDBC pattern, eg '%')
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	public DatabaseTables loadTables(String tableNamePattern) throws TelosysToolsException {
+		DatabaseTables dbTables = new DatabaseTables();
+		//--- STEP 1 : list the tables names
+		List<String> tableNames = getTableNames(tableNamePattern);
+		if ( tableNames.isEmpty() ) {
+			return dbTables;
+		}
+		//--- STEP 2 : load the tables on N connections 
+		Map<String, List<DatabaseTable>> tablesByName = loadTablesInParallel(tableNames);
+		//--- STEP 3 : merge in the original order
+		for ( String tableName : tableNames ) {
+			List<DatabaseTable> tables = tablesByName.get(tableName);
+			if ( tables != null ) {
+				for ( DatabaseTable table : tables ) {
+					dbTables.addTable(table);
+				}
+			}
+		}
+		return dbTables;
+	}
+
+	/**
+	 * Returns the names of all the tables matching the given pattern (in the JDBC order, without duplicate)
+	 * @param tableNamePattern
+	 * @return
+	 * @throws TelosysToolsException
+	 */
+	protected List<String> getTableNames(String tableNamePattern) throws TelosysToolsException {
+		Set<String> tableNames = new LinkedHashSet<>();
+		Connection connection = connectionProvider.getConnection(databaseDefinition);
+		try {
+			DatabaseMetaData metaData = connection.getMetaData();
+			ResultSet rs = metaData.getTables(databaseDefinition.getCatalog(), databaseDefinition.getSchema(), 
+					tableNamePattern, databaseDefinition.getTableTypesArray());
+			try {
+				while ( rs.next() ) {
+					tableNames.add(rs.getString("TABLE_NAME"));
+				}
+			} finally {
+				rs.close();
+			}
+		} catch (SQLException e) {
+			throw new TelosysToolsException("Cannot get tables list (SQLException)", e);
+		} finally {
+			closeConnection(connection);
+		}
+		return new ArrayList<>(tableNames);
+	}
+
+	private Map<String, List<DatabaseTable>> loadTablesInParallel(List<String> tableNames) throws TelosysToolsException {
+		//--- split the tables (round robin to balance the work between connections)
+		int n = Math.min(numberOfConnections, tableNames.size());
+		List<List<String>> partitions = new ArrayList<>(n);
+		for ( int i = 0 ; i < n ; i++ ) {
+			partitions.add(new LinkedList<String>());
+		}
+		int i = 0 ;
+		for ( String tableName : tableNames ) {
+			partitions.get(i % n).add(tableName);
+			i++;
+		}
+		//--- one task (and one connection) for each partition
+		ExecutorService executor = Executors.newFixedThreadPool(n);
+		try {
+			List<Future<Map<String, List<DatabaseTable>>>> futures = new LinkedList<>();
+			for ( List<String> partition : partitions ) {
+				futures.add(executor.submit(new TablesLoadingTask(partition)));
+			}
+			Map<String, List<DatabaseTable>> tablesByName = new HashMap<>();
+			for ( Future<Map<String, List<DatabaseTable>>> future : futures ) {
+				tablesByName.putAll(future.get());
+			}
+			return tablesByName;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new TelosysToolsException("Database metadata loading interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if ( cause instanceof TelosysToolsException ) {
+				throw (TelosysToolsException) cause;
+			}
+			throw new TelosysToolsException("Cannot get DB-Model (" + cause.getClass().getSimpleName() + ")", cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Task loading a set of tables with its own connection
+	 */
+	private class TablesLoadingTask implements Callable<Map<String, List<DatabaseTable>>> {
+		private final List<String> tableNames ;
+		private TablesLoadingTask(List<String> tableNames) {
+			this.tableNames = tableNames;
+		}
+		@Override
+		public Map<String, List<DatabaseTable>> call() throws TelosysToolsException {
+			Map<String, List<DatabaseTable>> tablesByName = new HashMap<>();
+			Connection connection = connectionProvider.getConnection(databaseDefinition);
+			try {
+				String escape = connection.getMetaData().getSearchStringEscape();
+				DatabaseModelManager manager = new DatabaseModelManager();
+				for ( String tableName : tableNames ) {
+					DatabaseTables dbTables = manager.getDatabaseTables(connection, 
+							databaseDefinition.getCatalog(), 
+							databaseDefinition.getSchema(), 
+							escapePattern(tableName, escape), 
+							databaseDefinition.getTableTypesArray(),
+							databaseDefinition.getTableNameInclude(), 
+							databaseDefinition.getTableNameExclude());
+					List<DatabaseTable> tables = new LinkedList<>();
+					for ( DatabaseTable table : dbTables ) {
+						if ( tableName.equals(table.getTableName()) ) {
+							tables.add(table);
+						}
+					}
+					tablesByName.put(tableName, tables);
+				}
+			} catch (SQLException e) {
+				throw new TelosysToolsException("Cannot get DB-Model (SQLException)", e);
+			} finally {
+				closeConnection(connection);
+			}
+			return tablesByName;
+		}
+	}
+
+	/**
+	 * Escapes the JDBC pattern characters ( '_' and '%' ) in the given table name 
+	 * @param tableName
+	 * @param escape the escape string (can be null or void if not supported)
+	 * @return
+	 */
+	protected static String escapePattern(String tableName, String escape) {
+		if ( escape == null || escape.isEmpty() ) {
+			return tableName;
+		}
+		StringBuilder sb = new StringBuilder();
+		for ( char c : tableName.toCharArray() ) {
+			if ( c == '_' || c == '%' || escape.indexOf(c) >= 0 ) {
+				sb.append(escape);
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	private void closeConnection(Connection connection) throws TelosysToolsException {
+		if ( connection != null ) {
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				throw new TelosysToolsException("Cannot close DB connection (SQLException)", e);
+			}
+		}
+	}
+}
@@ -29,7 +29,9 @@ import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinitions;
 import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinitionsLoader;
 import org.telosys.tools.db.model.DatabaseModelManager;
 import org.telosys.tools.db.model.DatabaseTables;
+import org.telosys.tools.dsl.DslModelManager;
 import org.telosys.tools.dsl.commons.ModelInfo;
+import org.telosys.tools.dsl.jfr.DslEvents;
 import org.telosys.tools.dsl.model.DslModel;
 import org.telosys.tools.dsl.model.writer.ModelWriter;
 
@@ -43,6 +45,10 @@ public class DbToModelManager {
 	private final TelosysToolsCfg    telosysToolsCfg ;
 	private final TelosysToolsLogger logger ;
 
+	private int numberOfConnections = 1 ; // v 4.3.0
+
+	private boolean bulkMetadataLoading = false ; // v 4.3.0
+
 	/**
 	 * Constructor
 	 * @param telosysToolsCfg
@@ -60,6 +66,30 @@ public class DbToModelManager {
 		this.logger = logger;
 	}
 	
+	/**
+	 * Sets the number of JDBC connections used to load the database metadata <br>
+	 * If more than 1 the tables are split across N connections and loaded in parallel <br>
+	 * (useful for large schemas on remote databases)
+	 * @param numberOfConnections the number of connections (1 by default)
+	 * @since 4.3.0
+	 */
+	public void setNumberOfConnections(int numberOfConnections) {
+		if ( numberOfConnections < 1 ) {
+			throw new IllegalArgumentException("Invalid number of connections : " + numberOfConnections);
+		}
+		this.numberOfConnections = numberOfConnections;
+	}
+
+	/**
+	 * Loads the database metadata with schema-wide requests instead of table by table requests <br>
+	 * (far less round trips on remote databases, used only with a single connection) 
+	 * @param bulkMetadataLoading
+	 * @since 4.3.0
+	 */
+	public void setBulkMetadataLoading(boolean bulkMetadataLoading) {
+		this.bulkMetadataLoading = bulkMetadataLoading;
+	}
+
 	/**
 	 * Creates a new DSL model from the given database
 	 * @param databaseId
@@ -76,14 +106,135 @@ public class DbToModelManager {
 		DslModel model = initModelFromDatabase(modelName, databaseDefinition);
 		
 		// STEP 2 : write model in the model folder
-		String modelDirectory = telosysToolsCfg.getModelFolderAbsolutePath(modelName);
-		ModelWriter modelWriter = new ModelWriter();
-		modelWriter.writeModel(model, modelDirectory);
+		writeModel(model, modelName);
 		
 		// return the model
 		return model ;
 	}
 	
+	/**
+	 * Creates a new DSL model from the given database and saves a snapshot of the database metadata <br>
+	 * (the model can be recreated later from the snapshot file without database connection) <br>
+	 * The metadata are always loaded with a single connection 
+	 * @param databaseId
+	 * @param modelName
+	 * @param snapshotFile the snapshot file to be created
+	 * @return
+	 * @throws TelosysToolsException
+	 * @since 4.3.0
+	 */
+	public DslModel createModelFromDatabase(String databaseId, String modelName, File snapshotFile) throws TelosysToolsException {
+		DatabaseDefinition databaseDefinition = getDatabaseDefinition(databaseId);
+		Object event = DslEvents.beginDbReverseEngineering();
+		DbMetadataSnapshot snapshot = new DbMetadataSnapshot(databaseDefinition, bulkMetadataLoading);
+		DslModel model;
+		Connection connection = openConnection(databaseDefinition);
+		try {
+			model = createModelFromDatabase(modelName, snapshot.recordingConnection(connection), databaseDefinition, bulkMetadataLoading);
+		} finally {
+			closeConnection(connection); 
+		}
+		completeModel(model, databaseDefinition);
+		DslEvents.endDbReverseEngineering(event, modelName, databaseDefinition.getId(), model.getEntities().size());
+		snapshot.save(snapshotFile);
+		logger.log("Database snapshot saved : " + snapshotFile + " (" + snapshot.getNumberOfRecordedCalls() + " metadata calls)");
+		writeModel(model, modelName);
+		return model ;
+	}
+
+	/**
+	 * Creates a new DSL model from a database snapshot (no database connection required) <br>
+	 * The metadata selection (catalog, schema, table name pattern/include/exclude, table types) <br>
+	 * comes from the snapshot, the model creation options (links, db attributes) come from the <br>
+	 * current definition of the snapshot database in 'databases.yaml'
+	 * @param snapshotFile the snapshot file 
+	 * @param modelName
+	 * @return
+	 * @throws TelosysToolsException
+	 * @since 4.3.0
+	 */
+	public DslModel createModelFromSnapshot(File snapshotFile, String modelName) throws TelosysToolsException {
+		DbMetadataSnapshot snapshot = DbMetadataSnapshot.load(snapshotFile);
+		logger.log("Database snapshot loaded : " + snapshotFile + " (database '" + snapshot.getDatabaseDefinition().getId() + "')");
+		return createModelFromSnapshot(snapshot, modelName, getDatabaseDefinition(snapshot.getDatabaseDefinition().getId()));
+	}
+
+	/**
+	 * Creates a new DSL model from a database snapshot (no database connection required) <br>
+	 * The metadata selection (catalog, schema, table name pattern/include/exclude, table types) <br>
+	 * comes from the snapshot, the model creation options (links, db attributes) come from the <br>
+	 * given database definition 
+	 * @param snapshotFile the snapshot file 
+	 * @param modelName
+	 * @param modelOptions the database definition providing the model creation options
+	 * @return
+	 * @throws TelosysToolsException
+	 * @since 4.3.0
+	 */
+	public DslModel createModelFromSnapshot(File snapshotFile, String modelName, DatabaseDefinition modelOptions) throws TelosysToolsException {
+		if ( modelOptions == null ) {
+			throw new IllegalArgumentException("DatabaseDefinition is null");
+		}
+		DbMetadataSnapshot snapshot = DbMetadataSnapshot.load(snapshotFile);
+		logger.log("Database snapshot loaded : " + snapshotFile + " (database '" + snapshot.getDatabaseDefinition().getId() + "')");
+		return createModelFromSnapshot(snapshot, modelName, modelOptions);
+	}
+
+	private DslModel createModelFromSnapshot(DbMetadataSnapshot snapshot, String modelName, DatabaseDefinition modelOptions) throws TelosysToolsException {
+		Object event = DslEvents.beginDbReverseEngineering();
+		// metadata selection parameters : as recorded in the snapshot
+		DatabaseTables dbTables = getDatabaseTablesFromDb(snapshot.replayConnection(), snapshot.getDatabaseDefinition(), 
+				snapshot.isBulkMetadataLoading());
+		// model creation options : current options
+		DslModel model = createModelFromDatabaseTables(modelName, dbTables, modelOptions);
+		completeModel(model, modelOptions);
+		DslEvents.endDbReverseEngineering(event, modelName, modelOptions.getId(), model.getEntities().size());
+		writeModel(model, modelName);
+		return model ;
+	}
+
+	/**
+	 * Synchronizes an existing model with the given database <br>
+	 * Only the entity files impacted by a database change (new table, changed table) are written, <br>
+	 * the annotations and tags added by the user are kept. <br>
+	 * The entities of the dropped tables are reported (their files are not deleted)
+	 * @param databaseId
+	 * @param modelName the existing model 
+	 * @return the synchronization result
+	 * @throws TelosysToolsException
+	 * @since 4.3.0
+	 */
+	public DbToModelSyncResult syncModelFromDatabase(String databaseId, String modelName) throws TelosysToolsException {
+		
+		// STEP 0 : load the current model (must be valid)
+		String modelDirectory = telosysToolsCfg.getModelFolderAbsolutePath(modelName);
+		File modelFolder = new File(modelDirectory);
+		if ( ! modelFolder.isDirectory() ) {
+			throw new TelosysToolsException("Model folder not found '" + modelDirectory + "'");
+		}
+		DslModelManager modelManager = new DslModelManager();
+		DslModel currentModel = (DslModel) modelManager.loadModel(modelFolder);
+		if ( currentModel == null ) {
+			throw new TelosysToolsException("Cannot synchronize invalid model '" + modelName + "' : " 
+					+ modelManager.getErrorMessage());
+		}
+
+		// STEP 1 : init model from database (in memory) 
+		DatabaseDefinition databaseDefinition = getDatabaseDefinition(databaseId);
+		DslModel databaseModel = initModelFromDatabase(modelName, databaseDefinition);
+
+		// STEP 2 : write the changes in the model folder
+		DbToModelSyncResult result = new DbToModelSynchronizer().synchronize(currentModel, databaseModel, modelDirectory);
+		logger.log("Model '" + modelName + "' synchronized with database '" + databaseId + "' : " + result);
+		return result;
+	}
+
+	private void writeModel(DslModel model, String modelName) {
+		String modelDirectory = telosysToolsCfg.getModelFolderAbsolutePath(modelName);
+		ModelWriter modelWriter = new ModelWriter();
+		modelWriter.writeModel(model, modelDirectory);
+	}
+	
 	/**
 	 * Loads the database definition for the given database id 
 	 * @param databaseId
@@ -119,24 +270,38 @@ public class DbToModelManager {
 	 */
 	private DslModel initModelFromDatabase(String modelName, DatabaseDefinition databaseDefinition) throws TelosysToolsException {
 		
+		Object event = DslEvents.beginDbReverseEngineering(); // v 4.3.0 (null if no JFR recording)
+
 		//--- STEP 1 : Create the model (Entities, Attributes with Foreign Keys )
-		Connection connection = openConnection(databaseDefinition);
 		DslModel model;
-		try {
-			model = createModelFromDatabase(modelName, connection, databaseDefinition);
-		} finally { // v 3.0.0 (finally added for connection closing)
-			closeConnection(connection); 
+		if ( numberOfConnections > 1 ) { // v 4.3.0
+			DatabaseTables dbTables = getDatabaseTablesFromDbInParallel(databaseDefinition);
+			model = createModelFromDatabaseTables(modelName, dbTables, databaseDefinition);
+		}
+		else {
+			Connection connection = openConnection(databaseDefinition);
+			try {
+				model = createModelFromDatabase(modelName, connection, databaseDefinition, bulkMetadataLoading);
+			} finally { // v 3.0.0 (finally added for connection closing)
+				closeConnection(connection); 
+			}
 		}
 
-		//--- STEP 2 : Detect all "Join Entities" in the model
+		//--- STEP 2 and 3 : Join Entities and links 
+		completeModel(model, databaseDefinition);
+		
+		DslEvents.endDbReverseEngineering(event, modelName, databaseDefinition.getId(), model.getEntities().size());
+		return model ;
+	}
+
+	private void completeModel(DslModel model, DatabaseDefinition databaseDefinition) {
+		//--- Detect all "Join Entities" in the model
 		JoinEntityDetector joinEntityDetector = new JoinEntityDetector();
 		joinEntityDetector.detectJoinEntities(model);
 		
-		//--- STEP 3 : Create the links between entities (based on FK)
+		//--- Create the links between entities (based on FK)
 		LinksBuilder linksBuilder = new LinksBuilder(databaseDefinition);
 		linksBuilder.createLinks(model);
-		
-		return model ;
 	}
 
 	private Connection openConnection(DatabaseDefinition databaseDefinition) throws TelosysToolsException {
@@ -155,10 +320,15 @@ public class DbToModelManager {
 		}
 	}
 	
-	private DslModel createModelFromDatabase(String modelName, Connection con, DatabaseDefinition databaseDefinition) throws TelosysToolsException {
+	private DslModel createModelFromDatabase(String modelName, Connection con, DatabaseDefinition databaseDefinition,
+			boolean bulk) throws TelosysToolsException {
 		
 		// Load all tables (DB-Model)
-		DatabaseTables dbTables = getDatabaseTablesFromDb(con, databaseDefinition);
+		DatabaseTables dbTables = getDatabaseTablesFromDb(con, databaseDefinition, bulk);
+		return createModelFromDatabaseTables(modelName, dbTables, databaseDefinition);
+	}
+
+	private DslModel createModelFromDatabaseTables(String modelName, DatabaseTables dbTables, DatabaseDefinition databaseDefinition) {
 		
 		// Convert DB-Model to DSL-Model
 		DbToModelConverter modelConverter = new DbToModelConverter(logger);
@@ -175,14 +345,55 @@ public class DbToModelManager {
 		return model;
 	}
 
-	private DatabaseTables getDatabaseTablesFromDb(Connection con, DatabaseDefinition databaseDefinition) throws TelosysToolsException {
+	private DatabaseTables getDatabaseTablesFromDb(Connection con, DatabaseDefinition databaseDefinition, 
+			boolean bulk) throws TelosysToolsException {
 		
+		String tableNamePattern = getTableNamePattern(databaseDefinition);
+		logMetadataParameters(databaseDefinition, tableNamePattern);
+
+		//--- Load the Database Model
+		try {
+			if ( bulk ) { // v 4.3.0
+				return new DbMetadataBulkLoader().getDatabaseTables(con, 
+						databaseDefinition.getCatalog(), 
+						databaseDefinition.getSchema(), 
+						tableNamePattern, 
+						databaseDefinition.getTableTypesArray(),
+						databaseDefinition.getTableNameInclude(), 
+						databaseDefinition.getTableNameExclude());
+			}
+			DatabaseModelManager manager = new DatabaseModelManager();
+			return manager.getDatabaseTables(con, 
+					databaseDefinition.getCatalog(), 
+					databaseDefinition.getSchema(), 
+					tableNamePattern, 
+					databaseDefinition.getTableTypesArray(),
+					databaseDefinition.getTableNameInclude(), 
+					databaseDefinition.getTableNameExclude());
+		} catch (SQLException e) {
+			throw new TelosysToolsException("Cannot get DB-Model (SQLException)", e);
+		}
+	}
+
+	private DatabaseTables getDatabaseTablesFromDbInParallel(DatabaseDefinition databaseDefinition) throws TelosysToolsException {
+		String tableNamePattern = getTableNamePattern(databaseDefinition);
+		logMetadataParameters(databaseDefinition, tableNamePattern);
+		logger.log("    . Connections = " + numberOfConnections);
+		DbTablesParallelLoader loader = new DbTablesParallelLoader(new DatabaseConnectionProvider(telosysToolsCfg), 
+				databaseDefinition, numberOfConnections);
+		return loader.loadTables(tableNamePattern);
+	}
+
+	private String getTableNamePattern(DatabaseDefinition databaseDefinition) {
 		String tableNamePattern = databaseDefinition.getTableNamePattern();
 		if ( StrUtil.nullOrVoid(tableNamePattern) ) {
 			// Not set => use "%" by default
 			tableNamePattern = "%";
 		}
+		return tableNamePattern;
+	}
 
+	private void logMetadataParameters(DatabaseDefinition databaseDefinition, String tableNamePattern) {
 		StringBuilder sb = new StringBuilder();
 		for (String s : databaseDefinition.getTableTypesArray() ) {
 			sb.append("[" + s + "] ");
@@ -194,20 +405,6 @@ public class DbToModelManager {
 		logger.log("    . Table Types Array  = " + sb.toString());
 		logger.log("    . Table Name Include = " + databaseDefinition.getTableNameInclude());
 		logger.log("    . Table Name Exclude = " + databaseDefinition.getTableNameExclude());
-
-		//--- Load the Database Model
-		DatabaseModelManager manager = new DatabaseModelManager();
-		try {
-			return manager.getDatabaseTables(con, 
-					databaseDefinition.getCatalog(), 
-					databaseDefinition.getSchema(), 
-					tableNamePattern, 
-					databaseDefinition.getTableTypesArray(),
-					databaseDefinition.getTableNameInclude(), 
-					databaseDefinition.getTableNameExclude());
-		} catch (SQLException e) {
-			throw new TelosysToolsException("Cannot get DB-Model (SQLException)", e);
-		}
 	}
 	
 }
@@ -0,0 +1,92 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Result of a model synchronization with the database (entities names)
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DbToModelSyncResult {
+
+	private final List<String> newEntities       = new LinkedList<>();
+	private final List<String> changedEntities   = new LinkedList<>();
+	private final List<String> droppedEntities   = new LinkedList<>();
+	private final List<String> unchangedEntities = new LinkedList<>();
+
+	protected void addNewEntity(String entityName) {
+		newEntities.add(entityName);
+	}
+	protected void addChangedEntity(String entityName) {
+		changedEntities.add(entityName);
+	}
+	protected void addDroppedEntity(String entityName) {
+		droppedEntities.add(entityName);
+	}
+	protected void addUnchangedEntity(String entityName) {
+		unchangedEntities.add(entityName);
+	}
+
+	/**
+	 * Returns the entities created for the new tables (entity file created)
+	 * @return
+	 */
+	public List<String> getNewEntities() {
+		return newEntities;
+	}
+
+	/**
+	 * Returns the entities changed in the database (entity file rewritten)
+	 * @return
+	 */
+	public List<String> getChangedEntities() {
+		return changedEntities;
+	}
+
+	/**
+	 * Returns the entities whose table no longer exists in the database
+	 * @return
+	 */
+	public List<String> getDroppedEntities() {
+		return droppedEntities;
+	}
+
+	/**
+	 * Returns the entities not changed (entity file not written)
+	 * @return
+	 */
+	public List<String> getUnchangedEntities() {
+		return unchangedEntities;
+	}
+
+	/**
+	 * Returns the number of entity files written (new and changed entities)
+	 * @return
+	 */
+	public int getNumberOfFilesWritten() {
+		return newEntities.size() + changedEntities.size();
+	}
+
+	@Override
+	public String toString() {
+		return "new=" + newEntities.size() + " changed=" + changedEntities.size() 
+			+ " dropped=" + droppedEntities.size() + " unchanged=" + unchangedEntities.size() ;
+	}
+}
@@ -0,0 +1,464 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.DslModelForeignKeyPart;
+import org.telosys.tools.dsl.model.DslModelLink;
+import org.telosys.tools.dsl.model.writer.EntityFileWriter;
+import org.telosys.tools.dsl.model.writer.ModelWriterException;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.ForeignKeyPart;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.enums.GeneratedValueStrategy;
+
+/**
+ * Synchronizes an existing model (entity files) with a model created from the database <br>
+ * Entities are matched by table name, attributes by column name and links by FK name 
+ * (the entities, attributes and links can be renamed in the model). <br>
+ * Only the entity files impacted by a database change are written : <br>
+ *  - new table : new entity file <br>
+ *  - changed table (columns, keys, foreign keys, links) : entity file rewritten <br>
+ *  - unchanged table : entity file not written <br>
+ * In a rewritten entity the properties derived from the database are updated in place 
+ * and all the other annotations and tags defined by the user are kept. <br>
+ * The validation annotations (@NotNull, @NotEmpty, @MaxLen, @Size, @LongText) are considered as 
+ * user properties : they are not used to detect a change and they are updated only for a changed column 
+ * (different database name, type, size, default value or key).
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class DbToModelSynchronizer {
+
+	private boolean deleteDroppedEntities = false ;
+
+	/**
+	 * Defines if the entity files of the dropped tables must be deleted (not deleted by default)
+	 * @param deleteDroppedEntities
+	 */
+	public void setDeleteDroppedEntities(boolean deleteDroppedEntities) {
+		this.deleteDroppedEntities = deleteDroppedEntities;
+	}
+
+	/**
+	 * Synchronizes the current model with the model created from the database 
+	 * @param currentModel the current model (loaded from the model directory)
+	 * @param databaseModel the model created from the database (not modified except entity names translation)
+	 * @param modelDirectory the directory where to write the entity files
+	 * @return
+	 */
+	public DbToModelSyncResult synchronize(DslModel currentModel, DslModel databaseModel, String modelDirectory) {
+		DbToModelSyncResult result = new DbToModelSyncResult();
+
+		//--- Match entities by table name
+		Map<String, DslModelEntity> currentEntities = new HashMap<>();
+		for ( Entity entity : currentModel.getEntities() ) {
+			String key = entityKey(entity);
+			if ( ! currentEntities.containsKey(key) ) { // first entity wins
+				currentEntities.put(key, (DslModelEntity) entity);
+			}
+		}
+		Map<String, String> entityNames = new HashMap<>(); // database entity name -> current entity name
+		for ( Entity entity : databaseModel.getEntities() ) {
+			DslModelEntity currentEntity = currentEntities.get(entityKey(entity));
+			if ( currentEntity != null && ! currentEntity.getClassName().equals(entity.getClassName()) ) {
+				entityNames.put(entity.getClassName(), currentEntity.getClassName());
+			}
+		}
+		if ( ! entityNames.isEmpty() ) {
+			translateEntityNames(databaseModel, entityNames);
+		}
+
+		//--- New and changed tables
+		EntityFileWriter entityWriter = new EntityFileWriter(modelDirectory);
+		Set<String> databaseKeys = new HashSet<>();
+		for ( Entity entity : databaseModel.getEntities() ) {
+			DslModelEntity databaseEntity = (DslModelEntity) entity;
+			String key = entityKey(databaseEntity);
+			databaseKeys.add(key);
+			DslModelEntity currentEntity = currentEntities.get(key);
+			if ( currentEntity == null ) {
+				entityWriter.writeEntity(databaseEntity);
+				result.addNewEntity(databaseEntity.getClassName());
+			}
+			else if ( isChanged(currentEntity, databaseEntity) ) {
+				merge(currentEntity, databaseEntity);
+				entityWriter.writeEntity(currentEntity);
+				result.addChangedEntity(currentEntity.getClassName());
+			}
+			else {
+				result.addUnchangedEntity(currentEntity.getClassName());
+			}
+		}
+
+		//--- Dropped tables
+		for ( Entity entity : currentModel.getEntities() ) {
+			if ( ! databaseKeys.contains(entityKey(entity)) ) {
+				result.addDroppedEntity(entity.getClassName());
+				if ( deleteDroppedEntities ) {
+					deleteEntityFile(modelDirectory, entity.getClassName());
+				}
+			}
+		}
+		return result;
+	}
+
+	private void deleteEntityFile(String modelDirectory, String entityName) {
+		File file = new File(modelDirectory, entityName + ".entity");
+		if ( file.exists() && ! file.delete() ) {
+			throw new ModelWriterException("Cannot delete file " + file.getAbsolutePath());
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------
+	// Keys and names
+	//-------------------------------------------------------------------------------------------
+	protected static String entityKey(Entity entity) {
+		String table = entity.getDatabaseTable();
+		return StrUtil.nullOrVoid(table) ? entity.getClassName() : table ;
+	}
+
+	protected static String attributeKey(Attribute attribute) {
+		String column = attribute.getDatabaseName();
+		return StrUtil.nullOrVoid(column) ? attribute.getName() : column ;
+	}
+
+	/**
+	 * Returns the key used to match the links : the FK name for a link based on a FK, <br>
+	 * the join entity for a link based on a join entity, else the field name (no database identity)
+	 * @param link
+	 * @return
+	 */
+	protected static String linkKey(Link link) {
+		if ( link.isBasedOnForeignKey() ) {
+			return "FK:" + link.getForeignKeyName() ;
+		}
+		else if ( link.isBasedOnJoinEntity() ) {
+			return "JE:" + link.getJoinEntityName() + ">" + link.getReferencedEntityName() ;
+		}
+		else {
+			return "FN:" + link.getFieldName() ;
+		}
+	}
+
+	/**
+	 * Uses the current names for the entities renamed in the current model
+	 * @param databaseModel
+	 * @param entityNames
+	 */
+	private void translateEntityNames(DslModel databaseModel, Map<String, String> entityNames) {
+		for ( Entity entity : databaseModel.getEntities() ) {
+			for ( Attribute attribute : entity.getAttributes() ) {
+				List<ForeignKeyPart> fkParts = attribute.getFKParts();
+				for ( int i = 0 ; i < fkParts.size() ; i++ ) {
+					ForeignKeyPart fkPart = fkParts.get(i);
+					String name = entityNames.get(fkPart.getReferencedEntityName());
+					if ( name != null ) {
+						fkParts.set(i, new DslModelForeignKeyPart(fkPart.getFkName(), name, fkPart.getReferencedAttributeName()));
+					}
+				}
+			}
+			for ( Link link : entity.getLinks() ) {
+				DslModelLink dslLink = (DslModelLink) link;
+				dslLink.setReferencedEntityName(translate(dslLink.getReferencedEntityName(), entityNames));
+				dslLink.setJoinEntityName(translate(dslLink.getJoinEntityName(), entityNames));
+			}
+		}
+	}
+
+	private String translate(String entityName, Map<String, String> entityNames) {
+		String name = ( entityName != null ? entityNames.get(entityName) : null );
+		return name != null ? name : entityName ;
+	}
+
+	//-------------------------------------------------------------------------------------------
+	// Changes detection (database properties only)
+	//-------------------------------------------------------------------------------------------
+	/**
+	 * Returns true if the database properties of the entity are not the same in the current model 
+	 * @param currentEntity
+	 * @param databaseEntity
+	 * @return
+	 */
+	protected boolean isChanged(DslModelEntity currentEntity, DslModelEntity databaseEntity) {
+		if ( ! entitySignature(currentEntity).equals(entitySignature(databaseEntity)) ) {
+			return true;
+		}
+		//--- Attributes (same columns with same properties)
+		Map<String, DslModelAttribute> currentAttributes = attributesByKey(currentEntity);
+		int matched = 0 ;
+		for ( Attribute attribute : databaseEntity.getAttributes() ) {
+			DslModelAttribute currentAttribute = currentAttributes.get(attributeKey(attribute));
+			if ( currentAttribute == null 
+					|| ! attributeSignature(currentAttribute).equals(attributeSignature((DslModelAttribute) attribute)) ) {
+				return true;
+			}
+			matched++;
+		}
+		if ( matched != currentAttributes.size() ) {
+			return true; // dropped column(s)
+		}
+		//--- Links 
+		Map<String, Link> currentLinks = linksByKey(currentEntity);
+		Map<String, Link> databaseLinks = linksByKey(databaseEntity);
+		for ( Map.Entry<String, Link> entry : databaseLinks.entrySet() ) {
+			Link currentLink = currentLinks.get(entry.getKey());
+			if ( currentLink == null || ! linkSignature(currentLink).equals(linkSignature(entry.getValue())) ) {
+				return true;
+			}
+		}
+		for ( Map.Entry<String, Link> entry : currentLinks.entrySet() ) {
+			if ( isDatabaseLink(entry.getValue()) && ! databaseLinks.containsKey(entry.getKey()) ) {
+				return true; // dropped FK
+			}
+		}
+		return false;
+	}
+
+	private Map<String, Link> linksByKey(DslModelEntity entity) {
+		Map<String, Link> map = new HashMap<>();
+		for ( Link link : entity.getLinks() ) {
+			String key = linkKey(link);
+			if ( ! map.containsKey(key) ) { // first link wins
+				map.put(key, link);
+			}
+		}
+		return map;
+	}
+
+	/**
+	 * Returns the current attributes mapped to a column (transient attributes are ignored)
+	 * @param entity
+	 * @return
+	 */
+	private Map<String, DslModelAttribute> attributesByKey(DslModelEntity entity) {
+		Map<String, DslModelAttribute> map = new HashMap<>();
+		for ( Attribute attribute : entity.getAttributes() ) {
+			if ( ! attribute.isTransient() ) {
+				map.put(attributeKey(attribute), (DslModelAttribute) attribute);
+			}
+		}
+		return map;
+	}
+
+	private String entitySignature(DslModelEntity entity) {
+		return entity.getDatabaseTable() + "|" + entity.getDatabaseCatalog() + "|" + entity.getDatabaseSchema() 
+			+ "|" + nullIfVoid(entity.getDatabaseComment()) + "|" + entity.isDatabaseView() + "|" + entity.isJoinEntity() ;
+	}
+
+	/**
+	 * Returns the attribute signature built only with the database properties (@DbXxx, key, identity and FK) <br>
+	 * The validation annotations (@NotNull, @NotEmpty, @MaxLen, @Size, @LongText) are not included 
+	 * because they can be changed by the user
+	 * @param attribute
+	 * @return
+	 */
+	private String attributeSignature(DslModelAttribute attribute) {
+		StringBuilder sb = new StringBuilder();
+		// name and neutral type not included (can be changed by the user)
+		sb.append(columnSignature(attribute))
+			.append("|").append(nullIfVoid(attribute.getDatabaseComment()))
+			.append("|").append(attribute.getGeneratedValueStrategy() == GeneratedValueStrategy.IDENTITY);
+		for ( ForeignKeyPart fkPart : attribute.getFKParts() ) {
+			sb.append("|FK:").append(nullIfVoid(fkPart.getFkName())).append(",").append(fkPart.getReferencedEntityName())
+				.append(".").append(nullIfVoid(fkPart.getReferencedAttributeName()));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns the signature of the column definition (a change in this signature means a changed column)
+	 * @param attribute
+	 * @return
+	 */
+	private String columnSignature(DslModelAttribute attribute) {
+		return nullIfVoid(attribute.getDatabaseName()) 
+			+ "|" + nullIfVoid(attribute.getDatabaseType()) 
+			+ "|" + nullIfVoid(attribute.getDatabaseSize()) 
+			+ "|" + nullIfVoid(attribute.getDatabaseDefaultValue()) 
+			+ "|" + attribute.isKeyElement() ;
+	}
+
+	private String linkSignature(Link link) {
+		// field name not included (can be changed by the user)
+		return link.getReferencedEntityName() + "|" + link.getCardinality() 
+			+ "|" + ( link.isBasedOnForeignKey() ? link.getForeignKeyName() : "" ) 
+			+ "|" + ( link.isBasedOnJoinEntity() ? link.getJoinEntityName() : "" ) ;
+	}
+
+	/**
+	 * Returns true if the link is based on a database Foreign Key (directly or via a join entity)
+	 * @param link
+	 * @return
+	 */
+	private boolean isDatabaseLink(Link link) {
+		return link.isBasedOnForeignKey() || link.isBasedOnJoinEntity() ;
+	}
+
+	private String nullIfVoid(String s) {
+		return StrUtil.nullOrVoid(s) ? null : s ;
+	}
+
+	//-------------------------------------------------------------------------------------------
+	// Merge 
+	//-------------------------------------------------------------------------------------------
+	/**
+	 * Updates the current entity with the database properties <br>
+	 * The existing attributes and links are updated in place (names and user properties kept)
+	 * @param currentEntity
+	 * @param databaseEntity
+	 */
+	protected void merge(DslModelEntity currentEntity, DslModelEntity databaseEntity) {
+		//--- Entity 
+		currentEntity.setDatabaseTable(databaseEntity.getDatabaseTable());
+		currentEntity.setDatabaseCatalog(databaseEntity.getDatabaseCatalog());
+		currentEntity.setDatabaseSchema(databaseEntity.getDatabaseSchema());
+		currentEntity.setDatabaseComment(databaseEntity.getDatabaseComment());
+		currentEntity.setDatabaseView(databaseEntity.isDatabaseView());
+		currentEntity.setJoinEntity(databaseEntity.isJoinEntity());
+
+		//--- Attributes : current order kept, new columns at the end 
+		Map<String, DslModelAttribute> databaseAttributes = new HashMap<>();
+		for ( Attribute attribute : databaseEntity.getAttributes() ) {
+			databaseAttributes.put(attributeKey(attribute), (DslModelAttribute) attribute);
+		}
+		Set<String> keys = new HashSet<>();
+		List<Attribute> attributes = new ArrayList<>();
+		for ( Attribute attribute : currentEntity.getAttributes() ) {
+			DslModelAttribute databaseAttribute = ( attribute.isTransient() ? null : databaseAttributes.get(attributeKey(attribute)) );
+			if ( databaseAttribute != null ) {
+				keys.add(attributeKey(attribute));
+				updateDatabaseProperties((DslModelAttribute) attribute, databaseAttribute);
+				attributes.add(attribute);
+			}
+			else if ( attribute.isTransient() ) {
+				attributes.add(attribute); // not mapped to a column
+			}
+			// else : dropped column
+		}
+		for ( Attribute attribute : databaseEntity.getAttributes() ) {
+			if ( ! keys.contains(attributeKey(attribute)) ) {
+				attributes.add(attribute); // new column
+			}
+		}
+		currentEntity.setAttributes(attributes); // after in place updates (key attributes recomputed)
+
+		//--- Links : database links (updated in place if existing) + other links defined by the user
+		Map<String, Link> currentLinks = linksByKey(currentEntity);
+		List<Link> links = new LinkedList<>();
+		Set<String> linkKeys = new HashSet<>();
+		for ( Link link : databaseEntity.getLinks() ) {
+			String key = linkKey(link);
+			linkKeys.add(key);
+			Link currentLink = currentLinks.get(key);
+			if ( currentLink != null ) {
+				updateDatabaseProperties((DslModelLink) currentLink, (DslModelLink) link);
+				links.add(currentLink);
+			}
+			else {
+				links.add(link); // new FK
+			}
+		}
+		for ( Link link : currentEntity.getLinks() ) {
+			if ( ! linkKeys.contains(linkKey(link)) && ! isDatabaseLink(link) ) {
+				links.add(link);
+			}
+			// else : updated or dropped FK
+		}
+		currentEntity.getLinks().clear();
+		for ( Link link : links ) {
+			currentEntity.addLink(link);
+		}
+	}
+
+	/**
+	 * Updates the properties derived from the database (the other properties are not modified)
+	 * @param attribute the attribute to be updated
+	 * @param databaseAttribute
+	 */
+	private void updateDatabaseProperties(DslModelAttribute attribute, DslModelAttribute databaseAttribute) {
+		// validation annotations updated only if the column itself has changed (else user choices kept)
+		if ( ! columnSignature(attribute).equals(columnSignature(databaseAttribute)) ) {
+			attribute.setSize(databaseAttribute.getSize());
+			attribute.setLongText(databaseAttribute.isLongText());
+			attribute.setNotNull(databaseAttribute.isNotNull());
+			attribute.setNotEmpty(databaseAttribute.isNotEmpty());
+			attribute.setMaxLength(databaseAttribute.getMaxLength());
+		}
+		attribute.setDatabaseName(databaseAttribute.getDatabaseName());
+		attribute.setDatabaseType(databaseAttribute.getDatabaseType());
+		attribute.setDatabaseSize(databaseAttribute.getDatabaseSize());
+		attribute.setDatabaseDefaultValue(databaseAttribute.getDatabaseDefaultValue());
+		attribute.setDatabaseComment(databaseAttribute.getDatabaseComment());
+		attribute.setKeyElement(databaseAttribute.isKeyElement());
+		// auto-incremented column (a @GeneratedValue defined by the user is kept)
+		if ( databaseAttribute.getGeneratedValueStrategy() == GeneratedValueStrategy.IDENTITY ) {
+			copyGeneratedValue(databaseAttribute, attribute);
+		}
+		else if ( attribute.getGeneratedValueStrategy() == GeneratedValueStrategy.IDENTITY ) {
+			attribute.setGeneratedValueStrategy(databaseAttribute.getGeneratedValueStrategy());
+		}
+		// foreign keys
+		attribute.getFKParts().clear();
+		attribute.getFKParts().addAll(databaseAttribute.getFKParts());
+		attribute.setFKSimple(databaseAttribute.isFKSimple());
+		attribute.setFKComposite(databaseAttribute.isFKComposite());
+		attribute.setReferencedEntityClassName(databaseAttribute.getReferencedEntityClassName());
+	}
+
+	private void copyGeneratedValue(DslModelAttribute from, DslModelAttribute to) {
+		to.setGeneratedValueStrategy(from.getGeneratedValueStrategy());
+		to.setGeneratedValueSequenceName(from.getGeneratedValueSequenceName());
+		to.setGeneratedValueTableName(from.getGeneratedValueTableName());
+		to.setGeneratedValueTablePkColumnName(from.getGeneratedValueTablePkColumnName());
+		to.setGeneratedValueTablePkColumnValue(from.getGeneratedValueTablePkColumnValue());
+		to.setGeneratedValueTableValueColumnName(from.getGeneratedValueTableValueColumnName());
+		if ( from.getGeneratedValueAllocationSize() != null ) {
+			to.setGeneratedValueAllocationSize(from.getGeneratedValueAllocationSize());
+		}
+		if ( from.getGeneratedValueInitialValue() != null ) {
+			to.setGeneratedValueInitialValue(from.getGeneratedValueInitialValue());
+		}
+	}
+
+	/**
+	 * Updates the properties derived from the database (the other properties are not modified)
+	 * @param link the link to be updated
+	 * @param databaseLink
+	 */
+	private void updateDatabaseProperties(DslModelLink link, DslModelLink databaseLink) {
+		link.setReferencedEntityName(databaseLink.getReferencedEntityName());
+		link.setCardinality(databaseLink.getCardinality());
+		link.setForeignKeyName(databaseLink.getForeignKeyName());
+		link.setBasedOnForeignKey(databaseLink.isBasedOnForeignKey());
+		link.setJoinEntityName(databaseLink.getJoinEntityName());
+		link.setBasedOnJoinEntity(databaseLink.isBasedOnJoinEntity());
+	}
+}
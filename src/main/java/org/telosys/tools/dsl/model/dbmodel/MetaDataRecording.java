@@ -0,0 +1,346 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recording of all the JDBC metadata calls (and their results) made through a connection <br>
+ * The recorded calls can be replayed later without database (same calls => same results) 
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+class MetaDataRecording {
+
+	private static final String CONNECTION = "Connection." ;
+	private static final String METADATA   = "DatabaseMetaData." ;
+
+	// value types in the stream
+	private static final int NULL    = 0 ;
+	private static final int STRING  = 1 ;
+	private static final int INTEGER = 2 ;
+	private static final int SHORT   = 3 ;
+	private static final int LONG    = 4 ;
+	private static final int BOOLEAN = 5 ;
+	private static final int DECIMAL = 6 ;
+	private static final int DOUBLE  = 7 ;
+	private static final int FLOAT   = 8 ;
+	private static final int BYTE    = 9 ;
+	private static final int ROWS    = 10 ;
+
+	private final Map<String, Object> results = new LinkedHashMap<>(); // value or MetaDataRows
+
+	protected int getNumberOfCalls() {
+		return results.size();
+	}
+
+	private static String callKey(String prefix, Method method, Object[] args) {
+		return prefix + method.getName() + ( args != null ? Arrays.deepToString(args) : "[]" ) ;
+	}
+
+	private static boolean isRecordable(Class<?> type) {
+		return type.isPrimitive() || type == String.class || Number.class.isAssignableFrom(type) || type == Boolean.class ;
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Returns a connection recording all the metadata calls made on the given connection 
+	 * @param connection the real connection
+	 * @return
+	 */
+	protected Connection recordingConnection(final Connection connection) {
+		final Object[] connectionProxy = new Object[1];
+		final InvocationHandler metaDataHandler = new InvocationHandler() {
+			private DatabaseMetaData metaData = null ;
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if ( "getConnection".equals(method.getName()) ) {
+					return connectionProxy[0];
+				}
+				if ( metaData == null ) {
+					metaData = connection.getMetaData();
+				}
+				Object result = MetaDataRecording.invoke(metaData, method, args);
+				return record(callKey(METADATA, method, args), method.getReturnType(), result);
+			}
+		};
+		connectionProxy[0] = Proxy.newProxyInstance(Connection.class.getClassLoader(), 
+				new Class<?>[] { Connection.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if ( "getMetaData".equals(method.getName()) ) {
+							return Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), 
+									new Class<?>[] { DatabaseMetaData.class }, metaDataHandler);
+						}
+						Object result = MetaDataRecording.invoke(connection, method, args);
+						return record(callKey(CONNECTION, method, args), method.getReturnType(), result);
+					}
+				});
+		return (Connection) connectionProxy[0];
+	}
+
+	private synchronized Object record(String key, Class<?> returnType, Object result) throws Exception {
+		if ( result instanceof ResultSet ) {
+			MetaDataRows rows = MetaDataRows.load((ResultSet) result);
+			results.put(key, rows);
+			return rows.toResultSet();
+		}
+		if ( isRecordable(returnType) ) {
+			results.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a connection replaying the recorded metadata calls (no database required) <br>
+	 * A call not recorded throws a 'SQLFeatureNotSupportedException' 
+	 * @return
+	 */
+	protected Connection replayConnection() {
+		final Object[] connectionProxy = new Object[1];
+		final Object metaDataProxy = Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), 
+				new Class<?>[] { DatabaseMetaData.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if ( "getConnection".equals(method.getName()) ) {
+							return connectionProxy[0];
+						}
+						return replay(callKey(METADATA, method, args), proxy, method, args);
+					}
+				});
+		connectionProxy[0] = Proxy.newProxyInstance(Connection.class.getClassLoader(), 
+				new Class<?>[] { Connection.class }, new InvocationHandler() {
+					private boolean closed = false ;
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						switch ( method.getName() ) {
+						case "getMetaData":
+							return metaDataProxy ;
+						case "close":
+							closed = true ;
+							return null;
+						case "isClosed":
+							return closed;
+						default:
+							return replay(callKey(CONNECTION, method, args), proxy, method, args);
+						}
+					}
+				});
+		return (Connection) connectionProxy[0];
+	}
+
+	private synchronized Object replay(String key, Object proxy, Method method, Object[] args) throws Exception {
+		if ( results.containsKey(key) ) {
+			Object result = results.get(key);
+			if ( result instanceof MetaDataRows ) {
+				return ((MetaDataRows) result).toResultSet();
+			}
+			return result;
+		}
+		switch ( method.getName() ) {
+		case "toString":
+			return "MetaDataRecording replay (" + results.size() + " calls)" ;
+		case "hashCode":
+			return System.identityHashCode(proxy);
+		case "equals":
+			return proxy == args[0];
+		default:
+			throw new SQLFeatureNotSupportedException("Not available offline (not recorded) : " + key);
+		}
+	}
+
+	//-------------------------------------------------------------------------------------------
+	// Serialization
+	//-------------------------------------------------------------------------------------------
+	/**
+	 * Writes all the recorded calls in the given stream
+	 * @param out
+	 * @throws IOException
+	 */
+	protected synchronized void write(DataOutputStream out) throws IOException {
+		out.writeInt(results.size());
+		for ( Map.Entry<String, Object> entry : results.entrySet() ) {
+			writeString(out, entry.getKey());
+			Object result = entry.getValue();
+			if ( result instanceof MetaDataRows ) {
+				out.writeByte(ROWS);
+				writeRows(out, (MetaDataRows) result);
+			}
+			else {
+				writeValue(out, result);
+			}
+		}
+	}
+
+	/**
+	 * Reads the recorded calls from the given stream (written by 'write')
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	protected static MetaDataRecording read(DataInputStream in) throws IOException {
+		MetaDataRecording recording = new MetaDataRecording();
+		int n = in.readInt();
+		for ( int i = 0 ; i < n ; i++ ) {
+			String key = readString(in);
+			int type = in.readByte();
+			if ( type == ROWS ) {
+				recording.results.put(key, readRows(in));
+			}
+			else {
+				recording.results.put(key, readValue(in, type));
+			}
+		}
+		return recording;
+	}
+
+	private static void writeRows(DataOutputStream out, MetaDataRows rows) throws IOException {
+		List<String> labels = rows.getLabels();
+		out.writeInt(labels.size());
+		for ( String label : labels ) {
+			writeString(out, label);
+		}
+		out.writeInt(rows.getRows().size());
+		for ( Object[] row : rows.getRows() ) {
+			for ( Object value : row ) {
+				writeValue(out, value);
+			}
+		}
+	}
+
+	private static MetaDataRows readRows(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		List<String> labels = new ArrayList<>(n);
+		for ( int i = 0 ; i < n ; i++ ) {
+			labels.add(readString(in));
+		}
+		int numberOfRows = in.readInt();
+		List<Object[]> rows = new ArrayList<>(numberOfRows);
+		for ( int r = 0 ; r < numberOfRows ; r++ ) {
+			Object[] row = new Object[n];
+			for ( int i = 0 ; i < n ; i++ ) {
+				row[i] = readValue(in, in.readByte());
+			}
+			rows.add(row);
+		}
+		return new MetaDataRows(labels, rows);
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if ( value == null ) {
+			out.writeByte(NULL);
+		} else if ( value instanceof String ) {
+			out.writeByte(STRING);
+			writeString(out, (String) value);
+		} else if ( value instanceof Integer ) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) value);
+		} else if ( value instanceof Short ) {
+			out.writeByte(SHORT);
+			out.writeShort((Short) value);
+		} else if ( value instanceof Long ) {
+			out.writeByte(LONG);
+			out.writeLong((Long) value);
+		} else if ( value instanceof Boolean ) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if ( value instanceof BigDecimal ) {
+			out.writeByte(DECIMAL);
+			writeString(out, value.toString());
+		} else if ( value instanceof Double ) {
+			out.writeByte(DOUBLE);
+			out.writeDouble((Double) value);
+		} else if ( value instanceof Float ) {
+			out.writeByte(FLOAT);
+			out.writeFloat((Float) value);
+		} else if ( value instanceof Byte ) {
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		} else {
+			// driver specific type => kept as string
+			out.writeByte(STRING);
+			writeString(out, value.toString());
+		}
+	}
+
+	private static Object readValue(DataInputStream in, int type) throws IOException {
+		switch ( type ) {
+		case NULL :
+			return null;
+		case STRING :
+			return readString(in);
+		case INTEGER :
+			return in.readInt();
+		case SHORT :
+			return in.readShort();
+		case LONG :
+			return in.readLong();
+		case BOOLEAN :
+			return in.readBoolean();
+		case DECIMAL :
+			return new BigDecimal(readString(in));
+		case DOUBLE :
+			return in.readDouble();
+		case FLOAT :
+			return in.readFloat();
+		case BYTE :
+			return in.readByte();
+		default:
+			throw new IOException("Invalid value type " + type);
+		}
+	}
+
+	protected static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	protected static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if ( length < 0 ) {
+			throw new IOException("Invalid string length " + length);
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,279 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rows of a JDBC metadata result set kept in memory <br>
+ * (can be filtered and re-read as a standard read-only 'ResultSet')
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+class MetaDataRows {
+
+	private final List<String> labels ; // column labels in upper case 
+	private final List<Object[]> rows ;
+
+	/**
+	 * Constructor
+	 * @param labels
+	 * @param rows
+	 */
+	protected MetaDataRows(List<String> labels, List<Object[]> rows) {
+		super();
+		this.labels = new ArrayList<>(labels.size());
+		for ( String label : labels ) {
+			this.labels.add(label.toUpperCase(Locale.ROOT));
+		}
+		this.rows = rows;
+	}
+
+	/**
+	 * Reads all the rows of the given result set (the result set is closed at the end)
+	 * @param rs
+	 * @return
+	 * @throws SQLException
+	 */
+	protected static MetaDataRows load(ResultSet rs) throws SQLException {
+		try {
+			ResultSetMetaData rsMetaData = rs.getMetaData();
+			int n = rsMetaData.getColumnCount();
+			List<String> labels = new ArrayList<>(n);
+			for ( int i = 1 ; i <= n ; i++ ) {
+				labels.add(rsMetaData.getColumnLabel(i));
+			}
+			List<Object[]> rows = new ArrayList<>();
+			while ( rs.next() ) {
+				Object[] row = new Object[n];
+				for ( int i = 0 ; i < n ; i++ ) {
+					row[i] = rs.getObject(i + 1);
+				}
+				rows.add(row);
+			}
+			return new MetaDataRows(labels, rows);
+		} finally {
+			rs.close();
+		}
+	}
+
+	/**
+	 * Returns a new instance with the same labels and the given rows 
+	 * @param otherRows
+	 * @return
+	 */
+	protected MetaDataRows withRows(List<Object[]> otherRows) {
+		return new MetaDataRows(labels, otherRows);
+	}
+
+	protected List<String> getLabels() {
+		return Collections.unmodifiableList(labels);
+	}
+
+	protected List<Object[]> getRows() {
+		return Collections.unmodifiableList(rows);
+	}
+
+	/**
+	 * Returns the value of the given column for the given row (or null if no such column)
+	 * @param row
+	 * @param label
+	 * @return
+	 */
+	protected Object getValue(Object[] row, String label) {
+		int i = labels.indexOf(label.toUpperCase(Locale.ROOT));
+		return i >= 0 ? row[i] : null ;
+	}
+
+	protected String getString(Object[] row, String label) {
+		Object value = getValue(row, label);
+		return value != null ? value.toString() : null ;
+	}
+
+	/**
+	 * Returns a new read-only and forward-only result set for the current rows
+	 * @return
+	 */
+	protected ResultSet toResultSet() {
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), 
+				new Class<?>[] { ResultSet.class }, new ResultSetHandler());
+	}
+
+	/**
+	 * Invocation handler implementing the 'ResultSet' methods used to read metadata
+	 */
+	private class ResultSetHandler implements InvocationHandler {
+		private int current = -1 ;
+		private boolean closed = false ;
+		private boolean wasNull = false ;
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			switch ( name ) {
+			case "next":
+				current++;
+				return current < rows.size();
+			case "close":
+				closed = true ;
+				return null;
+			case "isClosed":
+				return closed;
+			case "wasNull":
+				return wasNull;
+			case "findColumn":
+				return columnIndex(args[0]) + 1 ;
+			case "getMetaData":
+				return resultSetMetaData();
+			case "getStatement":
+				return null;
+			case "toString":
+				return "MetaDataRows" + labels;
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "equals":
+				return proxy == args[0];
+			default:
+				if ( name.startsWith("get") && args != null && args.length == 1 ) {
+					return getColumnValue(name, args[0], method.getReturnType());
+				}
+				throw new SQLFeatureNotSupportedException("ResultSet." + name + " not supported");
+			}
+		}
+
+		private int columnIndex(Object column) throws SQLException {
+			int i ;
+			if ( column instanceof Integer ) {
+				i = ((Integer) column) - 1 ;
+			}
+			else {
+				i = labels.indexOf(column.toString().toUpperCase(Locale.ROOT));
+			}
+			if ( i < 0 || i >= labels.size() ) {
+				throw new SQLException("Invalid column '" + column + "'");
+			}
+			return i ;
+		}
+
+		private Object getColumnValue(String getter, Object column, Class<?> returnType) throws SQLException {
+			if ( closed ) {
+				throw new SQLException("ResultSet closed");
+			}
+			if ( current < 0 || current >= rows.size() ) {
+				throw new SQLException("No current row");
+			}
+			Object value = rows.get(current)[columnIndex(column)];
+			wasNull = ( value == null ) ;
+			if ( "getObject".equals(getter) ) {
+				return value;
+			}
+			return convert(value, returnType);
+		}
+	}
+
+	/**
+	 * Converts a column value to the type expected by a 'getXxx' method 
+	 * @param value
+	 * @param type
+	 * @return
+	 * @throws SQLException
+	 */
+	protected static Object convert(Object value, Class<?> type) throws SQLException {
+		if ( type == String.class ) {
+			return value != null ? value.toString() : null ;
+		}
+		if ( type == boolean.class ) {
+			if ( value instanceof Boolean ) {
+				return value;
+			}
+			if ( value instanceof Number ) {
+				return ((Number) value).intValue() != 0 ;
+			}
+			return value != null && ( "true".equalsIgnoreCase(value.toString()) || "1".equals(value.toString()) ) ;
+		}
+		if ( type.isPrimitive() || Number.class.isAssignableFrom(type) ) {
+			BigDecimal number = toNumber(value);
+			if ( type == int.class ) {
+				return number.intValue();
+			}
+			if ( type == short.class ) {
+				return number.shortValue();
+			}
+			if ( type == long.class ) {
+				return number.longValue();
+			}
+			if ( type == byte.class ) {
+				return number.byteValue();
+			}
+			if ( type == double.class ) {
+				return number.doubleValue();
+			}
+			if ( type == float.class ) {
+				return number.floatValue();
+			}
+			if ( type == BigDecimal.class ) {
+				return value != null ? number : null ;
+			}
+		}
+		throw new SQLFeatureNotSupportedException("Cannot convert metadata value to " + type.getName());
+	}
+
+	private static BigDecimal toNumber(Object value) throws SQLException {
+		if ( value == null ) {
+			return BigDecimal.ZERO;
+		}
+		if ( value instanceof BigDecimal ) {
+			return (BigDecimal) value;
+		}
+		if ( value instanceof Boolean ) {
+			return ((Boolean) value) ? BigDecimal.ONE : BigDecimal.ZERO ;
+		}
+		try {
+			return new BigDecimal(value.toString().trim());
+		} catch (NumberFormatException e) {
+			throw new SQLException("Not a number : '" + value + "'");
+		}
+	}
+
+	private ResultSetMetaData resultSetMetaData() {
+		return (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(), 
+				new Class<?>[] { ResultSetMetaData.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						String name = method.getName();
+						if ( "getColumnCount".equals(name) ) {
+							return labels.size();
+						}
+						if ( "getColumnName".equals(name) || "getColumnLabel".equals(name) ) {
+							return labels.get(((Integer) args[0]) - 1);
+						}
+						throw new SQLFeatureNotSupportedException("ResultSetMetaData." + name + " not supported");
+					}
+				});
+	}
+}
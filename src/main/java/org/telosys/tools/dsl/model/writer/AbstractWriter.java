@@ -15,6 +15,7 @@
  */
 package org.telosys.tools.dsl.model.writer;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -22,7 +23,15 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.telosys.tools.commons.FileUtil;
 
@@ -34,6 +43,10 @@ import org.telosys.tools.commons.FileUtil;
  */
 public abstract class AbstractWriter {
 
+	protected static final String LINE_SEPARATOR = System.lineSeparator(); // same as 'println' (v 4.3.0)
+
+	private static final AtomicLong TMP_FILE_COUNTER = new AtomicLong(System.nanoTime()); // unique temporary file names (v 4.3.0)
+
 	private final String directory;
 	
 	private OutputStream outputStream;
@@ -76,6 +89,16 @@ public abstract class AbstractWriter {
 		printWriter.flush();
 	}
 	
+	/**
+	 * Print the given text in the output file
+	 * @param text
+	 * @since 4.3.0
+	 */
+	protected void print(String text) {
+		printWriter.print(text);
+		printWriter.flush();
+	}
+	
 	/**
 	 * Print the given lines in the output file
 	 * @param lines
@@ -99,4 +122,100 @@ public abstract class AbstractWriter {
 		}
 	}
 
+	/**
+	 * Returns the text of the given lines (as written by 'printLine') 
+	 * @param lines
+	 * @return
+	 * @since 4.3.0
+	 */
+	protected String toText(List<String> lines) {
+		StringBuilder sb = new StringBuilder();
+		for (String line : lines ) {
+			sb.append(line).append(LINE_SEPARATOR);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the given content in the given file only if the current file content is different <br>
+	 * The file is written atomically (temporary file in the same directory renamed) <br>
+	 * The charset for the output file is UTF-8
+	 * 
+	 * @param fileName
+	 * @param content
+	 * @return true if the file has been written, false if the file content is unchanged
+	 * @since 4.3.0
+	 */
+	protected boolean writeFileIfChanged(String fileName, String content) {
+		byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+		File file = new File(FileUtil.buildFilePath(directory, fileName));
+		try {
+			if ( file.isFile() && file.length() == bytes.length && Arrays.equals(Files.readAllBytes(file.toPath()), bytes) ) {
+				return false;
+			}
+		} catch (IOException e) {
+			throw new ModelWriterException("IOException : Cannot read file " + file, e); 
+		}
+		Path tmpFile = null ;
+		try {
+			tmpFile = createTemporaryFile(file);
+			Files.write(tmpFile, bytes);
+			copyPermissions(file.toPath(), tmpFile);
+			try {
+				Files.move(tmpFile, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		} catch (IOException e) {
+			deleteQuietly(tmpFile);
+			throw new ModelWriterException("IOException : Cannot write file " + file, e); 
+		}
+	}
+
+	/**
+	 * Creates a new temporary file in the same directory as the given file <br>
+	 * (created with the default permissions, unlike 'Files.createTempFile' which creates a private file) 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	private Path createTemporaryFile(File file) throws IOException {
+		Path dir = file.getAbsoluteFile().getParentFile().toPath();
+		while ( true ) {
+			Path tmpFile = dir.resolve("." + file.getName() + "." + TMP_FILE_COUNTER.incrementAndGet() + ".tmp");
+			try {
+				Files.newOutputStream(tmpFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+				return tmpFile;
+			} catch (FileAlreadyExistsException e) {
+				// try another name
+			}
+		}
+	}
+
+	/**
+	 * Copies the POSIX permissions of the existing file (if any) on the new file 
+	 * @param existingFile
+	 * @param newFile
+	 * @throws IOException
+	 */
+	private void copyPermissions(Path existingFile, Path newFile) throws IOException {
+		if ( Files.exists(existingFile) ) {
+			try {
+				Files.setPosixFilePermissions(newFile, Files.getPosixFilePermissions(existingFile));
+			} catch (UnsupportedOperationException e) {
+				// not a POSIX file system : default permissions
+			}
+		}
+	}
+
+	private void deleteQuietly(Path path) {
+		if ( path != null ) {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				// nothing to do 
+			}
+		}
+	}
 }
@@ -15,11 +15,13 @@
  */
 package org.telosys.tools.dsl.model.writer;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.LinkedList;
 import java.util.List;
 
 import org.telosys.tools.commons.StrUtil;
+import org.telosys.tools.dsl.commons.StringUtil;
 import org.telosys.tools.dsl.model.DslModelAttribute;
 import org.telosys.tools.dsl.model.DslModelEntity;
 import org.telosys.tools.dsl.model.DslModelLink;
@@ -86,6 +88,7 @@ import org.telosys.tools.generic.model.LinkAttribute;
 import org.telosys.tools.generic.model.enums.BooleanValue;
 import org.telosys.tools.generic.model.enums.Cardinality;
 import org.telosys.tools.generic.model.enums.FetchType;
+import org.telosys.tools.generic.model.enums.GeneratedValueStrategy;
 import org.telosys.tools.generic.model.enums.Optional;
 
 /**
@@ -98,6 +101,68 @@ public class EntityFileWriter extends AbstractWriter {
 
 	private static final String INDENTATION = "  " ;
 	
+	//--- Precomputed annotation literals ( "@Name" ) shared by all the writers (v 4.3.0)
+	// Entity
+	private static final String AT_PACKAGE              = at(new PackageAnnotation());
+	private static final String AT_DB_TABLE             = at(new DbTableAnnotation());
+	private static final String AT_DB_CATALOG           = at(new DbCatalogAnnotation());
+	private static final String AT_DB_SCHEMA            = at(new DbSchemaAnnotation());
+	private static final String AT_DB_COMMENT           = at(new DbCommentAnnotation());
+	private static final String AT_DB_TABLESPACE        = at(new DbTablespaceAnnotation());
+	private static final String AT_DB_VIEW              = at(new DbViewAnnotation());
+	private static final String AT_JOIN_ENTITY          = at(new JoinEntityAnnotation());
+	private static final String AT_DOMAIN               = at(new DomainAnnotation());
+	private static final String AT_CONTEXT              = at(new ContextAnnotation());
+	private static final String AT_AGGREGATE_ROOT       = at(new AggregateRootAnnotation());
+	private static final String AT_READ_ONLY            = at(new ReadOnlyAnnotation());
+	private static final String AT_IN_MEMORY_REPOSITORY = at(new InMemoryRepositoryAnnotation());
+	private static final String AT_ABSTRACT             = at(new AbstractAnnotation());
+	private static final String AT_EXTENDS              = at(new ExtendsAnnotation());
+	// Attribute
+	private static final String AT_ID               = at(new IdAnnotation());
+	private static final String AT_DB_NAME          = at(new DbNameAnnotation());
+	private static final String AT_DB_TYPE          = at(new DbTypeAnnotation());
+	private static final String AT_DB_DEFAULT_VALUE = at(new DbDefaultValueAnnotation());
+	private static final String AT_NOT_NULL         = at(new NotNullAnnotation());
+	private static final String AT_NOT_BLANK        = at(new NotBlankAnnotation());
+	private static final String AT_NOT_EMPTY        = at(new NotEmptyAnnotation());
+	private static final String AT_UNIQUE           = at(new UniqueAnnotation());
+	private static final String AT_TRANSIENT        = at(new TransientAnnotation());
+	private static final String AT_MAX              = at(new MaxAnnotation());
+	private static final String AT_MIN              = at(new MinAnnotation());
+	private static final String AT_SIZE             = at(new SizeAnnotation());
+	private static final String AT_MAX_LEN          = at(new MaxLenAnnotation());
+	private static final String AT_MIN_LEN          = at(new MinLenAnnotation());
+	private static final String AT_LABEL            = at(new LabelAnnotation());
+	private static final String AT_INPUT_TYPE       = at(new InputTypeAnnotation());
+	private static final String AT_INITIAL_VALUE    = at(new InitialValueAnnotation());
+	private static final String AT_DEFAULT_VALUE    = at(new DefaultValueAnnotation());
+	private static final String AT_PATTERN          = at(new PatternAnnotation());
+	private static final String AT_LONG_TEXT        = at(new LongTextAnnotation());
+	private static final String AT_OBJECT_TYPE      = at(new ObjectTypeAnnotation());
+	private static final String AT_PRIMITIVE_TYPE   = at(new PrimitiveTypeAnnotation());
+	private static final String AT_UNSIGNED_TYPE    = at(new UnsignedTypeAnnotation());
+	private static final String AT_PAST             = at(new PastAnnotation());
+	private static final String AT_FUTURE           = at(new FutureAnnotation());
+	// Link
+	private static final String AT_EMBEDDED            = at(new EmbeddedAnnotation());
+	private static final String AT_OPTIONAL            = at(new OptionalAnnotation());
+	private static final String AT_FETCH_TYPE_EAGER    = at(new FetchTypeEagerAnnotation());
+	private static final String AT_FETCH_TYPE_LAZY     = at(new FetchTypeLazyAnnotation());
+	private static final String AT_MANY_TO_MANY        = at(new ManyToManyAnnotation());
+	private static final String AT_ONE_TO_ONE          = at(new OneToOneAnnotation());
+	private static final String AT_MAPPED_BY           = at(new MappedByAnnotation());
+	private static final String AT_INSERTABLE          = at(new InsertableAnnotation());
+	private static final String AT_UPDATABLE           = at(new UpdatableAnnotation());
+	private static final String AT_LINK_BY_FK          = at(new LinkByFKAnnotation());
+	private static final String AT_LINK_BY_JOIN_ENTITY = at(new LinkByJoinEntityAnnotation());
+
+	private static String at(AnnotationDefinition ad) {
+		return "@" + ad.getName();
+	}
+
+	private final StringBuilder buffer = new StringBuilder(4096); // reusable rendering buffer (v 4.3.0)
+
 	/**
 	 * Constructor 
 	 * @param directory
@@ -111,249 +176,485 @@ public class EntityFileWriter extends AbstractWriter {
 	 * @param entity
 	 */
 	public void writeEntity(DslModelEntity entity) {
-		String entityFileName = entity.getClassName() + ".entity";
-		openFile(entityFileName);
-		
-		// build and write entity header 
-		printLines(buildEntityHeader(entity));
-		// write entity opening 
-		printLine(entity.getClassName() + " {");
-		// build and write all attributes 
-		printLine(INDENTATION + "// attributes");
+		String text = renderEntity(entity);
+		openFile(buildEntityFileName(entity));
+		print(text);
+		closeFile();
+	}
+	
+	/**
+	 * Writes the given entity in a ".entity" file only if the file content is not the same <br>
+	 * (the file is written atomically)
+	 * @param entity
+	 * @return true if the file has been written, false if unchanged
+	 * @since 4.3.0
+	 */
+	public boolean writeEntityIfChanged(DslModelEntity entity) {
+		return writeFileIfChanged(buildEntityFileName(entity), renderEntity(entity));
+	}
+
+	/**
+	 * Renders the entity file content 
+	 * @param entity
+	 * @return
+	 * @since 4.3.0
+	 */
+	public String renderEntity(DslModelEntity entity) {
+		buffer.setLength(0);
+		try {
+			renderEntity(entity, buffer);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unexpected error with StringBuilder", e); // never happens
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Renders the entity file content in the given Appendable <br>
+	 * Each line is followed by the line separator <br>
+	 * The text is appended directly (no intermediate lists of annotations and tags, no intermediate buffer)
+	 * @param entity
+	 * @param out
+	 * @throws IOException
+	 * @since 4.3.0
+	 */
+	public void renderEntity(DslModelEntity entity, Appendable out) throws IOException {
+		renderEntityHeader(out, entity);
+		out.append(entity.getClassName()).append(" {").append(LINE_SEPARATOR);
+		out.append(INDENTATION).append("// attributes").append(LINE_SEPARATOR);
 		for ( Attribute attribute : entity.getAttributes() ) {
-			printLine(buildAttribute((DslModelAttribute) attribute) ) ;
+			renderAttribute(out, (DslModelAttribute) attribute);
 		}
-		// build and write all links 
-		printLine(INDENTATION + "// links");
+		out.append(INDENTATION).append("// links").append(LINE_SEPARATOR);
 		for ( Link link : entity.getLinks() ) {
-			printLine(buildLink((DslModelLink) link) ) ;
+			renderLink(out, (DslModelLink) link);
 		}
-		// write entity closing 
-		printLine("}");
-		
-		closeFile();
+		out.append("}").append(LINE_SEPARATOR);
 	}
-	
+
 	/**
-	 * Builds a list of lines for entity header ( annotations and tags )
+	 * Entity header ( annotations and tags ) : one line for each annotation and tag
+	 * @param out
 	 * @param entity
-	 * @return
+	 * @throws IOException
 	 */
-	protected List<String> buildEntityHeader(DslModelEntity entity) {
-		List<String> lines = new LinkedList<>();
-		//--- Entity ANNOTATIONS :
+	private void renderEntityHeader(Appendable out, DslModelEntity entity) throws IOException {
 		// Package
-		buildAnnotation(lines, new PackageAnnotation(), entity.getPackageName());
+		headerLine(out, AT_PACKAGE, entity.getPackageName());
 		// Database annotations
-		buildAnnotation(lines, new DbTableAnnotation(), entity.getDatabaseTable());
-		buildAnnotation(lines, new DbCatalogAnnotation(), entity.getDatabaseCatalog());
-		buildAnnotation(lines, new DbSchemaAnnotation(), entity.getDatabaseSchema());
-		buildAnnotation(lines, new DbCommentAnnotation(), entity.getDatabaseComment());
-		buildAnnotation(lines, new DbTablespaceAnnotation(), entity.getDatabaseTablespace());
-		buildAnnotationWithoutParam(lines, new DbViewAnnotation(), entity.isDatabaseView());
+		headerLine(out, AT_DB_TABLE, entity.getDatabaseTable());
+		headerLine(out, AT_DB_CATALOG, entity.getDatabaseCatalog());
+		headerLine(out, AT_DB_SCHEMA, entity.getDatabaseSchema());
+		headerLine(out, AT_DB_COMMENT, entity.getDatabaseComment());
+		headerLine(out, AT_DB_TABLESPACE, entity.getDatabaseTablespace());
+		headerLine(out, AT_DB_VIEW, entity.isDatabaseView());
 		// Join Entity ( v 4.1.0 )
-		buildAnnotationWithoutParam(lines, new JoinEntityAnnotation(), entity.isJoinEntity());
+		headerLine(out, AT_JOIN_ENTITY, entity.isJoinEntity());
 		// Domain & context annotations
-		buildAnnotation(lines, new DomainAnnotation(), entity.getDomain());
-		buildAnnotation(lines, new ContextAnnotation(), entity.getContext());
-		// AggregateRoot, ReadOnly, 
-		buildAnnotationWithoutParam(lines, new AggregateRootAnnotation(), entity.isAggregateRoot());
-		buildAnnotationWithoutParam(lines, new ReadOnlyAnnotation(), entity.isReadOnly() );
-		buildAnnotationWithoutParam(lines, new InMemoryRepositoryAnnotation(), entity.isInMemoryRepository());
+		headerLine(out, AT_DOMAIN, entity.getDomain());
+		headerLine(out, AT_CONTEXT, entity.getContext());
+		// AggregateRoot, ReadOnly, InMemoryRepository
+		headerLine(out, AT_AGGREGATE_ROOT, entity.isAggregateRoot());
+		headerLine(out, AT_READ_ONLY, entity.isReadOnly());
+		headerLine(out, AT_IN_MEMORY_REPOSITORY, entity.isInMemoryRepository());
 		// Abstract & extends annotations
-		buildAnnotationWithoutParam(lines, new AbstractAnnotation(), entity.isAbstract());
-		buildAnnotation(lines, new ExtendsAnnotation(), entity.getSuperClass());
+		headerLine(out, AT_ABSTRACT, entity.isAbstract());
+		headerLine(out, AT_EXTENDS, entity.getSuperClass());
 		//--- Entity TAGS :
-		List<String> tags = buildTags((Tags) entity.getTagContainer());
-		for ( String s : tags ) {
-			lines.add(s);
+		for ( Tag tag : ((Tags) entity.getTagContainer()).getAllTags() ) {
+			renderTag(out, tag);
+			out.append(LINE_SEPARATOR);
+		}
+	}
+	private void headerLine(Appendable out, String at, String param) throws IOException {
+		if ( ! StrUtil.nullOrVoid(param) ) {
+			renderAnnotation(out, at, param);
+			out.append(LINE_SEPARATOR);
+		}
+	}
+	private void headerLine(Appendable out, String at, boolean flag) throws IOException {
+		if ( flag ) {
+			out.append(at).append(LINE_SEPARATOR);
 		}
-		return lines;
 	}
 
 	/**
-	 * Builds a line for the attribute definition <br>
+	 * Line for the attribute definition <br>
 	 * Example : <br>
 	 *  "  firtName : string { @NotNull  #MyTag };"
+	 * @param out
 	 * @param attribute
-	 * @return
+	 * @throws IOException
 	 */
-	protected String buildAttribute(DslModelAttribute attribute) {
-		List<String> annotations = buildAttributeAnnotations(attribute);
-		List<String> tags = buildTags((Tags)attribute.getTagContainer());
-
-		StringBuilder sb = new StringBuilder();
-		sb.append(INDENTATION);
-		sb.append(attribute.getName());
-		sb.append(" : ");
-		sb.append(attribute.getNeutralType());
-		if ( annotations.size() + tags.size() > 0  ) {
-			sb.append(" {");
-			for ( String s : annotations ) {
-				sb.append(" ").append(s);
-			}
-			for ( String s : tags ) {
-				sb.append(" ").append(s);
-			}
-			sb.append(" }");
-		}
-		sb.append(";");
-		return sb.toString();
-	}
-
-	protected String buildLink(DslModelLink link) {
-		List<String> annotations = buildLinkAnnotations(link);
-		List<String> tags = buildTags((Tags)link.getTagContainer());
-
-		StringBuilder sb = new StringBuilder();
-		sb.append(INDENTATION);
-		sb.append(link.getFieldName());
-		sb.append(" : ");
-		sb.append(link.getReferencedEntityName());
-		Cardinality cardinality = link.getCardinality() ;
-		if ( cardinality == Cardinality.ONE_TO_MANY || cardinality == Cardinality.MANY_TO_MANY ) {
-			sb.append("[]");
-		}
-		if ( annotations.size() + tags.size() > 0  ) {
-			sb.append(" {");
-			for ( String s : annotations ) {
-				sb.append(" ").append(s);
-			}
-			for ( String s : tags ) {
-				sb.append(" ").append(s);
-			}
-			sb.append(" }");
-		}
-		sb.append(";");
-		return sb.toString();
+	private void renderAttribute(Appendable out, DslModelAttribute attribute) throws IOException {
+		out.append(INDENTATION).append(attribute.getName()).append(" : ").append(attribute.getNeutralType());
+		ElementLine line = new ElementLine(out);
+		renderAttributeAnnotations(line, attribute);
+		line.tags((Tags) attribute.getTagContainer());
+		line.end();
 	}
 
-	protected List<String> buildAttributeAnnotations(DslModelAttribute attribute) {
-		List<String> list = new LinkedList<>();
+	private void renderAttributeAnnotations(ElementLine line, DslModelAttribute attribute) throws IOException {
 		// @Id
-		buildAnnotationWithoutParam(list, new IdAnnotation(), attribute.isKeyElement());
-		// @AutoIncremented, @GeneratedValue
-		// v 4.1.0 :: buildAnnotationWithoutParam(list, new AutoIncrementedAnnotation(), attribute.isAutoIncremented());
-		buildGeneratedValueAnnotationIfAny(list, attribute);
+		line.flag(AT_ID, attribute.isKeyElement());
+		// @GeneratedValue
+		if ( hasGeneratedValueAnnotation(attribute) ) {
+			renderGeneratedValueAnnotation(line.next(), attribute);
+		}
 		// @Dbxxxx (database annotations)
-		buildAnnotation(list, new DbNameAnnotation(), attribute.getDatabaseName() );
-		buildAnnotation(list, new DbTypeAnnotation(), attribute.getDatabaseType() );
-		buildAnnotation(list, new DbDefaultValueAnnotation(), attribute.getDatabaseDefaultValue());
-		buildAnnotation(list, new DbCommentAnnotation(), attribute.getDatabaseComment());
+		line.annotation(AT_DB_NAME, attribute.getDatabaseName());
+		line.annotation(AT_DB_TYPE, attribute.getDatabaseType());
+		line.annotation(AT_DB_DEFAULT_VALUE, attribute.getDatabaseDefaultValue());
+		line.annotation(AT_DB_COMMENT, attribute.getDatabaseComment());
 		// @NotNull, @NotBlank, @NotEmpty
-		buildAnnotationWithoutParam(list, new NotNullAnnotation(), attribute.isNotNull());
-		buildAnnotationWithoutParam(list, new NotBlankAnnotation(), attribute.isNotBlank());
-		buildAnnotationWithoutParam(list, new NotEmptyAnnotation(), attribute.isNotEmpty());
+		line.flag(AT_NOT_NULL, attribute.isNotNull());
+		line.flag(AT_NOT_BLANK, attribute.isNotBlank());
+		line.flag(AT_NOT_EMPTY, attribute.isNotEmpty());
 		// @Unique, @Transient
-		buildAnnotationWithoutParam(list, new UniqueAnnotation(), attribute.isUnique());
-		buildAnnotationWithoutParam(list, new TransientAnnotation(), attribute.isTransient());
+		line.flag(AT_UNIQUE, attribute.isUnique());
+		line.flag(AT_TRANSIENT, attribute.isTransient());
 		// @Max / @Min 
-		buildAnnotation(list, new MaxAnnotation(), attribute.getMaxValue());
-		buildAnnotation(list, new MinAnnotation(), attribute.getMinValue());
+		line.annotation(AT_MAX, attribute.getMaxValue());
+		line.annotation(AT_MIN, attribute.getMinValue());
 		// @Size /  @MaxLen / @MinLen 
-		buildAnnotation(list, new SizeAnnotation(), attribute.getSize());
-		buildAnnotation(list, new MaxLenAnnotation(), attribute.getMaxLength());
-		buildAnnotation(list, new MinLenAnnotation(), attribute.getMinLength());
-		// OLD : SizeMaxAnnotation() => attribute.getMaxLength()
-		// OLD : SizeMinAnnotation() => attribute.getMinLength()
+		line.annotation(AT_SIZE, attribute.getSize());
+		line.annotation(AT_MAX_LEN, attribute.getMaxLength());
+		line.annotation(AT_MIN_LEN, attribute.getMinLength());
 		// @Label, @InputType, @InitialValue, @DefaultValue, @Pattern, @LongText
-		buildAnnotation(list, new LabelAnnotation(), attribute.getLabel());
-		buildAnnotation(list, new InputTypeAnnotation(), attribute.getInputType());
-		buildAnnotation(list, new InitialValueAnnotation(), attribute.getInitialValue());
-		buildAnnotation(list, new DefaultValueAnnotation(), attribute.getDefaultValue());
-		buildAnnotation(list, new PatternAnnotation(), attribute.getPattern());
-		buildAnnotationWithoutParam(list, new LongTextAnnotation(), attribute.isLongText());
+		line.annotation(AT_LABEL, attribute.getLabel());
+		line.annotation(AT_INPUT_TYPE, attribute.getInputType());
+		line.annotation(AT_INITIAL_VALUE, attribute.getInitialValue());
+		line.annotation(AT_DEFAULT_VALUE, attribute.getDefaultValue());
+		line.annotation(AT_PATTERN, attribute.getPattern());
+		line.flag(AT_LONG_TEXT, attribute.isLongText());
 		// Generated type : @ObjectType / @PrimitiveType / @UnsignedType
-		buildAnnotationWithoutParam(list, new ObjectTypeAnnotation(), attribute.isObjectTypeExpected());
-		buildAnnotationWithoutParam(list, new PrimitiveTypeAnnotation(), attribute.isPrimitiveTypeExpected());
-		buildAnnotationWithoutParam(list, new UnsignedTypeAnnotation(), attribute.isUnsignedTypeExpected());
+		line.flag(AT_OBJECT_TYPE, attribute.isObjectTypeExpected());
+		line.flag(AT_PRIMITIVE_TYPE, attribute.isPrimitiveTypeExpected());
+		line.flag(AT_UNSIGNED_TYPE, attribute.isUnsignedTypeExpected());
 		// @Past / @Future
-		buildAnnotationWithoutParam(list, new PastAnnotation(), attribute.isDatePast());
-		buildAnnotationWithoutParam(list, new FutureAnnotation(), attribute.isDateFuture());
+		line.flag(AT_PAST, attribute.isDatePast());
+		line.flag(AT_FUTURE, attribute.isDateFuture());
 		// @FK : Foreign Key part annotation(s)
-		buildFkAnnotationsIfAny(list, attribute);
-		// 
-		return list;
+		if ( attribute.isFK() ) {
+			for ( ForeignKeyPart fkPart : attribute.getFKParts() ) {
+				renderFkAnnotation(line.next(), fkPart);
+			}
+		}
 	}
-	protected List<String> buildLinkAnnotations(DslModelLink link) {
-		List<String> list = new LinkedList<>();
+
+	private void renderLink(Appendable out, DslModelLink link) throws IOException {
+		out.append(INDENTATION).append(link.getFieldName()).append(" : ").append(link.getReferencedEntityName());
+		Cardinality cardinality = link.getCardinality() ;
+		if ( cardinality == Cardinality.ONE_TO_MANY || cardinality == Cardinality.MANY_TO_MANY ) {
+			out.append("[]");
+		}
+		ElementLine line = new ElementLine(out);
+		renderLinkAnnotations(line, link);
+		line.tags((Tags) link.getTagContainer());
+		line.end();
+	}
+
+	private void renderLinkAnnotations(ElementLine line, DslModelLink link) throws IOException {
+		Cardinality cardinality = link.getCardinality() ;
 		// @Embedded / @Transient
-		buildAnnotationWithoutParam(list, new EmbeddedAnnotation(), link.isEmbedded());
-		buildAnnotationWithoutParam(list, new TransientAnnotation(), link.isTransient());
+		line.flag(AT_EMBEDDED, link.isEmbedded());
+		line.flag(AT_TRANSIENT, link.isTransient());
 		// @Optional
-		buildAnnotationWithoutParam(list, new OptionalAnnotation(), link.getOptional() == Optional.TRUE); 
+		line.flag(AT_OPTIONAL, link.getOptional() == Optional.TRUE);
 		// @FetchTypeEager / @FetchTypeLazy
-		buildAnnotationWithoutParam(list, new FetchTypeEagerAnnotation(),  link.getFetchType() == FetchType.EAGER);
-		buildAnnotationWithoutParam(list, new FetchTypeLazyAnnotation(),   link.getFetchType() == FetchType.LAZY );
+		line.flag(AT_FETCH_TYPE_EAGER, link.getFetchType() == FetchType.EAGER);
+		line.flag(AT_FETCH_TYPE_LAZY, link.getFetchType() == FetchType.LAZY);
 		// @ManyToMany / @OneToOne
-		buildAnnotationWithoutParam(list, new ManyToManyAnnotation(), link.getCardinality() == Cardinality.MANY_TO_MANY );
-		buildAnnotationWithoutParam(list, new OneToOneAnnotation(), link.getCardinality() == Cardinality.ONE_TO_ONE );
+		line.flag(AT_MANY_TO_MANY, cardinality == Cardinality.MANY_TO_MANY);
+		line.flag(AT_ONE_TO_ONE, cardinality == Cardinality.ONE_TO_ONE);
 		// @MappedBy
-		buildAnnotation(list, new MappedByAnnotation(), link.getMappedBy() ); 
+		line.annotation(AT_MAPPED_BY, link.getMappedBy());
 		// @Insertable(boolean) / @Updatable(boolean) 
-		buildAnnotation(list, new InsertableAnnotation(), link.getInsertable());
-		buildAnnotation(list, new UpdatableAnnotation(),  link.getUpdatable());
+		line.annotation(AT_INSERTABLE, link.getInsertable());
+		line.annotation(AT_UPDATABLE, link.getUpdatable());
 		//--- @LinkByxxxx
 		if ( link.isBasedOnForeignKey() ) { // @LinkByFK(FOREIGN_KEY_NAME)
-			buildAnnotation(list, new LinkByFKAnnotation(), link.getForeignKeyName());
+			line.annotation(AT_LINK_BY_FK, link.getForeignKeyName());
 		}
 		else if ( link.isBasedOnJoinEntity() ) { // @LinkByJoinEntity(EntityName)
-			buildAnnotation(list, new LinkByJoinEntityAnnotation(), link.getJoinEntityName());
+			line.annotation(AT_LINK_BY_JOIN_ENTITY, link.getJoinEntityName());
 		}
 		else if ( link.isBasedOnAttributes() ) { // @LinkByAttr(attr1, attr2, ... )
-			buildLinkByAttrAnnotation(list, link);
+			renderLinkByAttrAnnotation(line.next(), link);
 		}
 		// else : link by Foreign Key inference => no annotation 
-		return list;
-	}	
+	}
 
-	protected List<String> buildTags(Tags tags) {
-		List<String> list = new LinkedList<>();
-		for ( Tag tag : tags.getAllTags() ) {
-			String tagString = "";
-			if ( tag.hasParameter() ) {
-				tagString = "#"+tag.getName()+"("+tag.getParameter()+")";
+	/**
+	 * End of an attribute or link line : the annotations and tags ( "{ ... }" if any ) and ";" <br>
+	 * or list of annotations and tags (one string for each) for the deprecated 'build' methods
+	 */
+	private static class ElementLine {
+		private final Appendable out ;
+		private final List<String> items ; // null if rendered in 'out'
+		private StringBuilder item = null ;
+		private boolean opened = false ;
+		private ElementLine(Appendable out) {
+			this.out = out;
+			this.items = null ;
+		}
+		private ElementLine(List<String> items) {
+			this.out = null ;
+			this.items = items;
+		}
+		/**
+		 * Starts a new annotation or tag ( "{" before the first one )
+		 * @return
+		 * @throws IOException
+		 */
+		private Appendable next() throws IOException {
+			if ( items != null ) {
+				addItem();
+				item = new StringBuilder();
+				return item;
 			}
-			else {
-				tagString = "#"+tag.getName();
+			out.append(opened ? " " : " { ");
+			opened = true ;
+			return out;
+		}
+		private void addItem() {
+			if ( item != null ) {
+				items.add(item.toString());
+				item = null ;
+			}
+		}
+		private List<String> getItems() {
+			addItem();
+			return items;
+		}
+		private void flag(String at, boolean flag) throws IOException {
+			if ( flag ) {
+				next().append(at);
+			}
+		}
+		private void annotation(String at, String param) throws IOException {
+			if ( ! StrUtil.nullOrVoid(param) ) {
+				renderAnnotation(next(), at, param);
+			}
+		}
+		private void annotation(String at, BigDecimal param) throws IOException {
+			if ( param != null ) {
+				next().append(at).append('(').append(param.toString()).append(')');
+			}
+		}
+		private void annotation(String at, Integer param) throws IOException {
+			if ( param != null ) {
+				next().append(at).append('(').append(param.toString()).append(')');
+			}
+		}
+		private void annotation(String at, BooleanValue param) throws IOException {
+			if ( param == BooleanValue.TRUE ) {
+				renderAnnotation(next(), at, "true");
+			}
+			else if ( param == BooleanValue.FALSE ) {
+				renderAnnotation(next(), at, "false");
+			}
+		}
+		private void tags(Tags tags) throws IOException {
+			for ( Tag tag : tags.getAllTags() ) {
+				renderTag(next(), tag);
 			}
-			list.add(tagString);
 		}
-		return list ;
+		private void end() throws IOException {
+			if ( opened ) {
+				out.append(" }");
+			}
+			out.append(';').append(LINE_SEPARATOR);
+		}
 	}
-	
+
+	private static void renderTag(Appendable out, Tag tag) throws IOException {
+		out.append('#').append(tag.getName());
+		if ( tag.hasParameter() ) {
+			out.append('(').append(tag.getParameter()).append(')');
+		}
+	}
+
+	/**
+	 * Renders an annotation with a string parameter <br>
+	 * The parameter is protected with double quotes if necessary (same rule as 'AnnotationDefinition.literal(String)')
+	 * @param out
+	 * @param at
+	 * @param param
+	 * @throws IOException
+	 */
+	private static void renderAnnotation(Appendable out, String at, String param) throws IOException {
+		out.append(at).append('(').append(StringUtil.quoteIfNecessary(param)).append(')');
+	}
+
+	protected String buildEntityFileName(DslModelEntity entity) {
+		return entity.getClassName() + ".entity";
+	}
+
 	//-----------------------------------------------------------------------------------------
-	
+	// Lines and annotations as strings (before v 4.3.0) 
+	// NB : not used by the writer, overriding these methods has no effect on the written files
+	//-----------------------------------------------------------------------------------------
+	private static IllegalStateException unexpected(IOException e) {
+		return new IllegalStateException("Unexpected error with StringBuilder", e); // never happens
+	}
+
+	private static String removeLineSeparator(StringBuilder sb) {
+		int end = sb.length() - LINE_SEPARATOR.length();
+		return end >= 0 && sb.indexOf(LINE_SEPARATOR, end) == end ? sb.substring(0, end) : sb.toString();
+	}
+
+	/**
+	 * Builds a list of lines for entity header ( annotations and tags )
+	 * @param entity
+	 * @return
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected List<String> buildEntityHeader(DslModelEntity entity) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			renderEntityHeader(sb, entity);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		List<String> lines = new LinkedList<>();
+		int start = 0 ;
+		int end ;
+		while ( ( end = sb.indexOf(LINE_SEPARATOR, start) ) >= 0 ) {
+			lines.add(sb.substring(start, end));
+			start = end + LINE_SEPARATOR.length();
+		}
+		return lines;
+	}
+
+	/**
+	 * Builds a line for the attribute definition <br>
+	 * Example : <br>
+	 *  "  firtName : string { @NotNull  #MyTag };"
+	 * @param attribute
+	 * @return
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected String buildAttribute(DslModelAttribute attribute) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			renderAttribute(sb, attribute);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		return removeLineSeparator(sb);
+	}
+
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected String buildLink(DslModelLink link) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			renderLink(sb, link);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		return removeLineSeparator(sb);
+	}
+
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected List<String> buildAttributeAnnotations(DslModelAttribute attribute) {
+		ElementLine line = new ElementLine(new LinkedList<String>());
+		try {
+			renderAttributeAnnotations(line, attribute);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		return line.getItems();
+	}
+
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected List<String> buildLinkAnnotations(DslModelLink link) {
+		ElementLine line = new ElementLine(new LinkedList<String>());
+		try {
+			renderLinkAnnotations(line, link);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		return line.getItems();
+	}
+
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected List<String> buildTags(Tags tags) {
+		ElementLine line = new ElementLine(new LinkedList<String>());
+		try {
+			line.tags(tags);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		return line.getItems();
+	}
+
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
 	protected void buildAnnotation(List<String> list, AnnotationDefinition ad, String param) {
 		if ( ! StrUtil.nullOrVoid(param) ) {
 			list.add( ad.literal(param) );
 		}
 	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
 	protected void buildAnnotation(List<String> list, AnnotationDefinition ad, BigDecimal param) {
 		if ( param != null ) {
 			list.add( ad.literal(param) );
 		}
 	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
 	protected void buildAnnotation(List<String> list, AnnotationDefinition ad, Integer param) {
 		if ( param != null ) {
 			list.add( ad.literal(param) );
 		}
 	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
 	protected void buildAnnotation(List<String> list, AnnotationDefinition ad, BooleanValue param) {
-		if ( param != null ) {
-			if ( param == BooleanValue.TRUE ) {
-				list.add( ad.literal("true") );
-			}
-			else if  ( param == BooleanValue.FALSE ) {
-				list.add( ad.literal("false") );
-			}
+		if ( param == BooleanValue.TRUE ) {
+			list.add( ad.literal("true") );
+		}
+		else if ( param == BooleanValue.FALSE ) {
+			list.add( ad.literal("false") );
 		}
 	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
 	protected void buildAnnotationWithoutParam(List<String> list, AnnotationDefinition ad, boolean flag ) {
 		if ( flag ) {
 			list.add( ad.literal() );
 		}
 	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
 	protected void buildFkAnnotationsIfAny(List<String> list, DslModelAttribute attribute) {
 		if ( attribute.isFK() ) {
 			for ( ForeignKeyPart fkPart : attribute.getFKParts() ) {
@@ -361,32 +662,71 @@ public class EntityFileWriter extends AbstractWriter {
 			}
 		}
 	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
 	protected String buildFkAnnotation(ForeignKeyPart fkPart) {
 		StringBuilder sb = new StringBuilder();
-		sb.append("@FK(") ;
+		try {
+			renderFkAnnotation(sb, fkPart);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		return sb.toString();
+	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected void buildLinkByAttrAnnotation(List<String> list, DslModelLink link) {
+		StringBuilder sb = new StringBuilder();
+		try {
+			renderLinkByAttrAnnotation(sb, link);
+		} catch (IOException e) {
+			throw unexpected(e);
+		}
+		list.add( sb.toString() );
+	}
+	/**
+	 * @deprecated use renderEntity(DslModelEntity, Appendable)
+	 */
+	@Deprecated
+	protected void buildGeneratedValueAnnotationIfAny(List<String> list, DslModelAttribute attribute) {
+		if ( hasGeneratedValueAnnotation(attribute) ) {
+			StringBuilder sb = new StringBuilder();
+			try {
+				renderGeneratedValueAnnotation(sb, attribute);
+			} catch (IOException e) {
+				throw unexpected(e);
+			}
+			list.add(sb.toString());
+		}
+	}
+
+	private void renderFkAnnotation(Appendable out, ForeignKeyPart fkPart) throws IOException {
+		out.append("@FK(") ;
 		// FK name (optional)
 		if ( ! StrUtil.nullOrVoid( fkPart.getFkName() ) ) {
-			sb.append(fkPart.getFkName()) ;
-			sb.append(", ") ;
+			out.append(fkPart.getFkName()) ;
+			out.append(", ") ;
 		}
 		// Referenced entity (mandatory)
 		if ( StrUtil.nullOrVoid(fkPart.getReferencedEntityName() ) ) {
 			throw new IllegalStateException("ForeignKeyPart has no referenced entity");
 		}
-		sb.append(fkPart.getReferencedEntityName()) ;
+		out.append(fkPart.getReferencedEntityName()) ;
 		// Referenced attribute (optional if FK not composite)
 		if ( ! StrUtil.nullOrVoid( fkPart.getReferencedAttributeName() ) ) {
-			sb.append(".") ;
-			sb.append(fkPart.getReferencedAttributeName());
+			out.append(".") ;
+			out.append(fkPart.getReferencedAttributeName());
 		}
-		sb.append(")") ;
-		return sb.toString();
+		out.append(")") ;
 	}
 	
-	protected void buildLinkByAttrAnnotation(List<String> list, DslModelLink link) {
-		StringBuilder sb = new StringBuilder();
+	private void renderLinkByAttrAnnotation(Appendable out, DslModelLink link) throws IOException {
 		// @LinkByAttr(attribute1, attribute2, ... )
-		sb.append("@").append(AnnotationName.LINK_BY_ATTR).append("(") ;
+		out.append("@").append(AnnotationName.LINK_BY_ATTR).append("(") ;
 		List<LinkAttribute> linkAttributes = link.getAttributes();
 		if ( linkAttributes.isEmpty() ) {
 			throw new IllegalStateException("@LinkByAttr : link has no attribute");
@@ -395,75 +735,73 @@ public class EntityFileWriter extends AbstractWriter {
 		for ( LinkAttribute linkAttribute : linkAttributes) {
 			n++;
 			if ( n > 1 ) {
-				sb.append(", ") ;
+				out.append(", ") ;
 			}
-			sb.append( linkAttribute.getOriginAttributeName() );
+			out.append( linkAttribute.getOriginAttributeName() );
 		}
-		sb.append(")") ;
-		list.add( sb.toString() );
+		out.append(")") ;
 	}
 	
-	protected void buildGeneratedValueAnnotationIfAny(List<String> list, DslModelAttribute attribute) {
-		if ( attribute.getGeneratedValueStrategy() == null ) {
-			return;
-		}
-		StringBuilder sb = new StringBuilder();
-		sb.append("@GeneratedValue(");
+	private boolean hasGeneratedValueAnnotation(DslModelAttribute attribute) {
+		return attribute.getGeneratedValueStrategy() != null 
+				&& attribute.getGeneratedValueStrategy() != GeneratedValueStrategy.UNDEFINED ;
+	}
+	private void renderGeneratedValueAnnotation(Appendable out, DslModelAttribute attribute) throws IOException {
+		out.append("@GeneratedValue(");
 		switch ( attribute.getGeneratedValueStrategy() ) {
 		case AUTO :
-			sb.append("AUTO");
+			out.append("AUTO");
 			break;
 		case IDENTITY :
-			sb.append("IDENTITY");
+			out.append("IDENTITY");
 			break;
 		case SEQUENCE :
-			completeGeneratedValueSequence(sb, attribute);
+			completeGeneratedValueSequence(out, attribute);
 			break;
 		case TABLE :
-			completeGeneratedValueTable(sb, attribute); 
+			completeGeneratedValueTable(out, attribute); 
 			break;
 		case UNDEFINED :
-			return;
+			break;
 		}
-		sb.append(")") ;
-		list.add(sb.toString());
+		out.append(")") ;
 	}
 
-	private void completeGeneratedValueSequence(StringBuilder sb, DslModelAttribute attribute) { // v 4.1.0
-		sb.append("SEQUENCE");
+	private void completeGeneratedValueSequence(Appendable out, DslModelAttribute attribute) throws IOException { // v 4.1.0
+		out.append("SEQUENCE");
 		// add sequence name
 		String sequenceName  = attribute.getGeneratedValueSequenceName();
 		if ( StrUtil.nullOrVoid(sequenceName) ) {
 			sequenceName = "undefinedSequenceName"; 
 		}
-		sb.append(", ");
-		sb.append(sequenceName);
+		out.append(", ");
+		out.append(sequenceName);
 		// add allocation size & initial value if any
-		addGeneratedValueAllocationSizeAndInitialValue(sb, attribute);
+		addGeneratedValueAllocationSizeAndInitialValue(out, attribute);
 	}
 	
-	private void completeGeneratedValueTable(StringBuilder sb, DslModelAttribute attribute) {  // v 4.1.0
-		sb.append("TABLE");
+	private void completeGeneratedValueTable(Appendable out, DslModelAttribute attribute) throws IOException {  // v 4.1.0
+		out.append("TABLE");
 		// add primary key value 
 		String pkValue = attribute.getGeneratedValueTablePkColumnValue();
 		if ( ! StrUtil.nullOrVoid(pkValue) ) {
 			pkValue = "undefinedPkValue"; 
 		}
-		sb.append(", ");
-		sb.append(pkValue);
+		out.append(", ");
+		out.append(pkValue);
 		// add allocation size & initial value if any
-		addGeneratedValueAllocationSizeAndInitialValue(sb, attribute);
+		addGeneratedValueAllocationSizeAndInitialValue(out, attribute);
 	}
 	
-	private void addGeneratedValueAllocationSizeAndInitialValue(StringBuilder sb, DslModelAttribute attribute) { // v 4.1.0
+	private void addGeneratedValueAllocationSizeAndInitialValue(Appendable out, DslModelAttribute attribute) throws IOException { // v 4.1.0
 		// add allocation size if any
 		if ( attribute.getGeneratedValueAllocationSize() != null ) {
-			sb.append(", ");
-			sb.append(attribute.getGeneratedValueAllocationSize());
+			out.append(", ");
+			out.append(String.valueOf(attribute.getGeneratedValueAllocationSize()));
 			// add initial value if any
 			if ( attribute.getGeneratedValueInitialValue() != null ) {
-				sb.append(", ");
-				sb.append(attribute.getGeneratedValueInitialValue());
+				out.append(", ");
+				out.append(String.valueOf(attribute.getGeneratedValueInitialValue()));
 			}
 		}
 	}	
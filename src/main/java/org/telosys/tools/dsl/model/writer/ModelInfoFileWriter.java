@@ -15,6 +15,9 @@
  */
 package org.telosys.tools.dsl.model.writer;
 
+import java.util.LinkedList;
+import java.util.List;
+
 import org.telosys.tools.dsl.commons.ModelInfo;
 
 /**
@@ -39,10 +42,26 @@ public class ModelInfoFileWriter extends AbstractWriter {
 	 */
 	public void writeModelInfoFile(ModelInfo modelInfo) {
 		openFile(ModelInfo.FILE_NAME);
-		printLine("# Telosys model info ");
-		printLine(ModelInfo.TITLE + ": " + modelInfo.getTitle());
-		printLine(ModelInfo.VERSION + ": " + modelInfo.getVersion());
-		printLine(ModelInfo.DESCRIPTION + ": " + modelInfo.getDescription());
+		printLines(buildModelInfoLines(modelInfo));
 		closeFile();
 	}
+
+	/**
+	 * Writes model info in file only if the file content is not the same (the file is written atomically)
+	 * @param modelInfo
+	 * @return true if the file has been written, false if unchanged
+	 * @since 4.3.0
+	 */
+	public boolean writeModelInfoFileIfChanged(ModelInfo modelInfo) {
+		return writeFileIfChanged(ModelInfo.FILE_NAME, toText(buildModelInfoLines(modelInfo)));
+	}
+
+	protected List<String> buildModelInfoLines(ModelInfo modelInfo) {
+		List<String> lines = new LinkedList<>();
+		lines.add("# Telosys model info ");
+		lines.add(ModelInfo.TITLE + ": " + modelInfo.getTitle());
+		lines.add(ModelInfo.VERSION + ": " + modelInfo.getVersion());
+		lines.add(ModelInfo.DESCRIPTION + ": " + modelInfo.getDescription());
+		return lines;
+	}
 }
@@ -16,8 +16,16 @@
 package org.telosys.tools.dsl.model.writer;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.telosys.tools.commons.DirUtil;
+import org.telosys.tools.dsl.commons.ModelInfo;
+import org.telosys.tools.dsl.jfr.DslEvents;
 import org.telosys.tools.dsl.model.DslModel;
 import org.telosys.tools.dsl.model.DslModelEntity;
 import org.telosys.tools.generic.model.Entity;
@@ -30,6 +38,26 @@ import org.telosys.tools.generic.model.Entity;
  */
 public class ModelWriter {
 
+	private final ExecutorService executor ; // v 4.3.0
+
+	/**
+	 * Constructor
+	 */
+	public ModelWriter() {
+		this(null);
+	}
+
+	/**
+	 * Constructor with an executor used to render and write the entity files in parallel <br>
+	 * (used by 'writeModelIfChanged')
+	 * @param executor the executor (or null for a sequential writing)
+	 * @since 4.3.0
+	 */
+	public ModelWriter(ExecutorService executor) {
+		super();
+		this.executor = executor;
+	}
+
 	/**
 	 * Writes the given model in the given directory
 	 * @param model
@@ -37,6 +65,8 @@ public class ModelWriter {
 	 */
 	public void writeModel(DslModel model, String modelDirectory) {
 		
+		Object event = DslEvents.beginModelWrite(); // v 4.3.0 (null if no JFR recording)
+
 		// 1) check model directory existence (create it if not exist)
 		DirUtil.createDirectory(new File(modelDirectory) );
 		
@@ -49,6 +79,92 @@ public class ModelWriter {
 		for ( Entity entity : model.getEntities() ) {
 			entityWriter.writeEntity((DslModelEntity) entity); 
 		}
+
+		DslEvents.endModelWrite(event, model.getName(), model.getEntities().size());
 	}
 
+	/**
+	 * Writes the given model in the given directory, only the files with a different content are written <br>
+	 * The unchanged files are not touched (same last modified date) and each file is written atomically <br>
+	 * The entities are rendered and written in parallel if an executor has been provided
+	 * @param model
+	 * @param modelDirectory
+	 * @return the written and skipped files
+	 * @since 4.3.0
+	 */
+	public ModelWriterResult writeModelIfChanged(DslModel model, final String modelDirectory) {
+		
+		Object event = DslEvents.beginModelWrite();
+		ModelWriterResult result = new ModelWriterResult();
+
+		// 1) check model directory existence (create it if not exist)
+		DirUtil.createDirectory(new File(modelDirectory) );
+		
+		// 2) write model info file in the model directory (model.yaml) if changed
+		ModelInfoFileWriter modelInfoFilewriter = new ModelInfoFileWriter(modelDirectory);
+		result.addFile(ModelInfo.FILE_NAME, modelInfoFilewriter.writeModelInfoFileIfChanged(model.getModelInfo()));
+		
+		// 3) write all changed entities in the model directory (N xxx.entity)
+		if ( executor != null ) {
+			writeEntitiesInParallel(model, modelDirectory, result);
+		}
+		else {
+			EntityFileWriter entityWriter = new EntityFileWriter(modelDirectory) ;
+			for ( Entity entity : model.getEntities() ) {
+				DslModelEntity dslEntity = (DslModelEntity) entity;
+				result.addFile(entityWriter.buildEntityFileName(dslEntity), entityWriter.writeEntityIfChanged(dslEntity));
+			}
+		}
+
+		DslEvents.endModelWrite(event, model.getName(), model.getEntities().size());
+		return result;
+	}
+
+	private void writeEntitiesInParallel(DslModel model, final String modelDirectory, ModelWriterResult result) {
+		List<Entity> entities = model.getEntities();
+		List<String> fileNames = new ArrayList<>(entities.size());
+		List<Future<Boolean>> futures = new ArrayList<>(entities.size());
+		try {
+			for ( Entity entity : entities ) {
+				final DslModelEntity dslEntity = (DslModelEntity) entity;
+				final EntityFileWriter entityWriter = new EntityFileWriter(modelDirectory) ; // one writer per task
+				fileNames.add(entityWriter.buildEntityFileName(dslEntity));
+				futures.add(executor.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						return entityWriter.writeEntityIfChanged(dslEntity);
+					}
+				}));
+			}
+			// results in the entities order 
+			for ( int i = 0 ; i < futures.size() ; i++ ) {
+				result.addFile(fileNames.get(i), waitForResult(futures.get(i)));
+			}
+		} catch (RuntimeException e) {
+			// do not write the other files after an error 
+			cancelAll(futures);
+			throw e;
+		}
+	}
+
+	private void cancelAll(List<Future<Boolean>> futures) {
+		for ( Future<Boolean> future : futures ) {
+			future.cancel(false); // no interrupt : a file being written is not left truncated 
+		}
+	}
+
+	private boolean waitForResult(Future<Boolean> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ModelWriterException("Model writing interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if ( cause instanceof ModelWriterException ) {
+				throw (ModelWriterException) cause;
+			}
+			throw new ModelWriterException("Cannot write entity file : " + cause, e);
+		}
+	}
 }
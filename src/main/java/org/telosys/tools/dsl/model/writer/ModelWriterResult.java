@@ -0,0 +1,69 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.writer;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Result of a model writing with only the changed files written (files names)
+ * 
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class ModelWriterResult {
+
+	private final List<String> writtenFiles = new LinkedList<>();
+	private final List<String> skippedFiles = new LinkedList<>();
+
+	protected void addFile(String fileName, boolean written) {
+		if ( written ) {
+			writtenFiles.add(fileName);
+		}
+		else {
+			skippedFiles.add(fileName);
+		}
+	}
+
+	/**
+	 * Returns the files written (new or changed content)
+	 * @return
+	 */
+	public List<String> getWrittenFiles() {
+		return writtenFiles;
+	}
+
+	/**
+	 * Returns the files not written (same content)
+	 * @return
+	 */
+	public List<String> getSkippedFiles() {
+		return skippedFiles;
+	}
+
+	public int getNumberOfWrittenFiles() {
+		return writtenFiles.size();
+	}
+
+	public int getNumberOfSkippedFiles() {
+		return skippedFiles.size();
+	}
+
+	@Override
+	public String toString() {
+		return "written=" + writtenFiles.size() + " skipped=" + skippedFiles.size() ;
+	}
+}
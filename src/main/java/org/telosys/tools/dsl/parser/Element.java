@@ -23,43 +23,132 @@ package org.telosys.tools.dsl.parser;
 public class Element {
 
 	private final int    lineNumber;
-	private final String content ;
+	private String content ; // built from the buffer on demand if not set
+
+	//--- buffer reference (only for the elements built by the single-pass lexer) // v 4.3.0
+	private final char[] buffer ;
+	private final int    offset ;
+	private final int    length ;
+	private final int    column ;
 	
 	public Element(int lineNumber, String content) {
 		super();
 		this.lineNumber = lineNumber ;
 		this.content = content;
+		this.buffer = null ;
+		this.offset = -1 ;
+		this.length = content != null ? content.length() : 0 ;
+		this.column = 0 ;
 	}
 	
 	public Element(int lineNumber, char c) {
+		this(lineNumber, String.valueOf(c));
+	}
+	
+	/**
+	 * Constructor for an element located in a characters buffer <br>
+	 * The content is not copied, the 'String' is created only if 'getContent()' is called <br>
+	 * (except for a single character separator which is always the same String instance)
+	 * @param lineNumber the line number (starting at 1)
+	 * @param column the column of the first character in the line (starting at 1)
+	 * @param buffer the characters buffer (not copied, must not be modified)
+	 * @param offset the offset of the first character in the buffer
+	 * @param length the number of characters 
+	 * @since 4.3.0
+	 */
+	public Element(int lineNumber, int column, char[] buffer, int offset, int length) {
 		super();
 		this.lineNumber = lineNumber ;
-		this.content = String.valueOf(c);
+		this.column = column ;
+		this.buffer = buffer ;
+		this.offset = offset ;
+		this.length = length ;
+		this.content = length == 1 ? separator(buffer[offset]) : null ;
+	}
+	
+	private static String separator(char c) {
+		switch (c) {
+		case '{' : return "{" ;
+		case '}' : return "}" ;
+		case ';' : return ";" ;
+		case ':' : return ":" ;
+		default  : return null ;
+		}
 	}
 	
 	public int getLineNumber() {
 		return lineNumber;
 	}
 	
+	/**
+	 * Returns the column of the first character in the line (starting at 1) <br>
+	 * or 0 if unknown 
+	 * @return
+	 * @since 4.3.0
+	 */
+	public int getColumn() {
+		return column;
+	}
+	
+	/**
+	 * Returns the offset of the first character in the file buffer <br>
+	 * or -1 if unknown 
+	 * @return
+	 * @since 4.3.0
+	 */
+	public int getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * Returns the number of characters in the element
+	 * @return
+	 * @since 4.3.0
+	 */
+	public int getLength() {
+		return length;
+	}
+	
 	public String getContent() {
+		if ( content == null && buffer != null ) {
+			content = new String(buffer, offset, length);
+		}
 		return content;
 	}
 
+	private boolean startsWith(char c) {
+		if ( content == null && buffer != null ) {
+			return length > 0 && buffer[offset] == c ;
+		}
+		return content != null && content.length() > 0 && content.charAt(0) == c ; 
+	}
+
 	public boolean startsWithAnnotationPrefix() {
-		return content != null && content.startsWith("@") ; 
+		return startsWith('@') ; 
 	}
 	
 	public boolean startsWithTagPrefix() {
-		return content != null && content.startsWith("#") ; 
+		return startsWith('#') ; 
 	}
 	
 	public boolean contentEquals(String s) {
+		if ( content == null && buffer != null ) {
+			if ( s == null || s.length() != length ) {
+				return false;
+			}
+			for ( int i = 0 ; i < length ; i++ ) {
+				if ( buffer[offset + i] != s.charAt(i) ) {
+					return false;
+				}
+			}
+			return true;
+		}
 		return content != null && content.equals(s);
 	}
 	
 	@Override
 	public String toString() {
-		return "Element (line " + lineNumber + ") '" + content + "'" ;
+		return "Element (line " + lineNumber + ") '" + getContent() + "'" ;
 	}
 
 }
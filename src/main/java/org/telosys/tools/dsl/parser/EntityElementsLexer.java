@@ -0,0 +1,253 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.telosys.tools.dsl.DslModelError;
+
+/**
+ * Telosys DSL : single-pass lexer working on the whole entity file content <br>
+ * The file is decoded once in a characters buffer and each element refers to this buffer <br>
+ * (offset, length, line and column) without intermediate String. <br>
+ * Produces exactly the same elements as the line by line processing of 'EntityElementsParser'
+ *
+ * @author Laurent GUERIN
+ * @since 4.3.0
+ */
+class EntityElementsLexer {
+
+	private static final char SPACE = 32;
+
+	private final String entityName ;
+
+	//--- current line state
+	private int     lineNumber ;
+	private int     lineStart ;
+	private boolean inAnnotationOrTag ;
+	private boolean inAnnotationOrTagParam ;
+	private boolean inQuote ;
+	private char    previousChar ;
+	private Element previousElement ;
+	private int     elementStart ; // -1 if no current element
+	private int     elementEnd ;
+
+	/**
+	 * Constructor
+	 * @param entityName the entity name (for error messages)
+	 */
+	protected EntityElementsLexer(String entityName) {
+		super();
+		this.entityName = entityName;
+	}
+
+	/**
+	 * Reads the given file (UTF-8) and returns all its elements
+	 * @param file
+	 * @return
+	 * @throws DslModelError
+	 */
+	protected List<Element> parseFile(File file) throws DslModelError {
+		byte[] bytes ;
+		try {
+			bytes = Files.readAllBytes(file.toPath());
+		} catch (IOException e) {
+			throw new DslModelError(entityName, "IOException : " + e.getMessage() );
+		}
+		return parseBytes(bytes);
+	}
+
+	/**
+	 * Decodes the given content (UTF-8) and returns all its elements
+	 * @param bytes
+	 * @return
+	 * @throws DslModelError
+	 */
+	protected List<Element> parseBytes(byte[] bytes) throws DslModelError {
+		CharBuffer charBuffer ;
+		try {
+			charBuffer = StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPORT)
+					.onUnmappableCharacter(CodingErrorAction.REPORT)
+					.decode(ByteBuffer.wrap(bytes));
+		} catch (IOException e) {
+			throw new DslModelError(entityName, "IOException : " + e.getMessage() );
+		}
+		return parse(charBuffer.array(), charBuffer.arrayOffset() + charBuffer.position(),
+				charBuffer.arrayOffset() + charBuffer.limit());
+	}
+
+	/**
+	 * Returns all the elements located in the given characters buffer
+	 * @param buffer the characters buffer (the elements keep a reference on it)
+	 * @param start the first character offset
+	 * @param end the offset after the last character
+	 * @return
+	 * @throws DslModelError
+	 */
+	protected List<Element> parse(char[] buffer, int start, int end) throws DslModelError {
+		List<Element> elements = new ArrayList<>();
+		lineNumber = 0 ;
+		int i = start ;
+		while ( i < end ) {
+			//--- new line
+			lineNumber++;
+			lineStart = i ;
+			resetLine();
+			boolean comment = false ;
+			while ( i < end ) {
+				char c = buffer[i];
+				if ( c == '\n' || c == '\r' ) {
+					break; // end of line
+				}
+				if ( ! comment ) {
+					comment = processCharacter(buffer, i, elements);
+				}
+				i++;
+			}
+			//--- end of line => keep current element if any
+			if ( ! comment ) {
+				keepElement(buffer, elements);
+			}
+			//--- skip line terminator ( "\n", "\r" or "\r\n" )
+			if ( i < end && buffer[i] == '\r' ) {
+				i++;
+				if ( i < end && buffer[i] == '\n' ) {
+					i++;
+				}
+			}
+			else if ( i < end ) {
+				i++;
+			}
+		}
+		return elements;
+	}
+
+	private void resetLine() {
+		resetElementState();
+		previousChar = 0 ;
+		previousElement = null ;
+		elementStart = -1 ;
+	}
+
+	private void resetElementState() {
+		inAnnotationOrTag = false ;
+		inAnnotationOrTagParam = false ;
+		inQuote = false ;
+	}
+
+	/**
+	 * Process the character located at the given offset
+	 * @param buffer
+	 * @param i
+	 * @param elements
+	 * @return true if the rest of the line is a comment
+	 * @throws DslModelError
+	 */
+	private boolean processCharacter(char[] buffer, int i, List<Element> elements) throws DslModelError {
+		char c = buffer[i];
+		if ( inAnnotationOrTagParam ) {
+			if ( inQuote ) {
+				if ( c == '\"' && previousChar != '\\' ) { // closing double quote char
+					inQuote = false ;
+				}
+				accumulate(i);
+			}
+			else if ( c == '\"' ) { // opening double quote char
+				inQuote = true ;
+				accumulate(i);
+			}
+			else if ( c == ')' ) { // end of parameter = end of annotation or tag element
+				accumulate(i);
+				keepElement(buffer, elements);
+			}
+			else {
+				accumulate(i);
+			}
+		}
+		else {
+			if ( c == '{' || c == '}' || c == ';' || c == ':' ) {
+				keepElement(buffer, elements); // SEPARATOR => end of current element
+				elements.add(new Element(lineNumber, i - lineStart + 1, buffer, i, 1));
+			}
+			else if ( c == '@' || c == '#' ) {
+				inAnnotationOrTag = true ;
+				accumulate(i);
+			}
+			else if ( c == '(' ) {
+				if ( inAnnotationOrTag ) {
+					inAnnotationOrTagParam = true ;
+					accumulate(i);
+				}
+				else {
+					throw newUnexpectedCharacter(c);
+				}
+			}
+			else if ( c == '\"' ) {
+				throw newUnexpectedCharacter(c);
+			}
+			else if ( c == SPACE || c == '\t' ) {
+				keepElement(buffer, elements);
+			}
+			else if ( c == '/' && previousChar == '/' ) {
+				// comment "//" => ignore rest of line (and the current element)
+				return true;
+			}
+			else {
+				accumulate(i);
+			}
+		}
+		previousChar = c ;
+		return false ;
+	}
+
+	private void accumulate(int i) {
+		if ( elementStart < 0 ) {
+			elementStart = i ;
+		}
+		elementEnd = i + 1 ;
+	}
+
+	private void keepElement(char[] buffer, List<Element> elements) {
+		if ( elementStart >= 0 ) {
+			Element element = new Element(lineNumber, elementStart - lineStart + 1,
+					buffer, elementStart, elementEnd - elementStart);
+			elements.add(element);
+			previousElement = element ;
+			elementStart = -1 ;
+		}
+		resetElementState();
+	}
+
+	private DslModelError newUnexpectedCharacter(char invalidChar) {
+		String message = "Unexpected character [" + invalidChar + "]";
+		if ( previousElement != null ) {
+			message = message + " after element [" + previousElement.getContent() + "]";
+		}
+		else if ( previousChar != 0 ) {
+			message = message + " after character [" + previousChar + "]";
+		}
+		return new DslModelError(entityName, lineNumber, message);
+	}
+}
@@ -16,8 +16,10 @@
 package org.telosys.tools.dsl.parser;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -28,6 +30,7 @@ import java.util.List;
 import org.telosys.tools.commons.StrUtil;
 import org.telosys.tools.dsl.DslModelUtil;
 import org.telosys.tools.dsl.DslModelError;
+import org.telosys.tools.dsl.commons.ModelSource;
 
 /**
  * Telosys DSL : entity file parser returning a list of grammar elements 
@@ -54,10 +57,25 @@ public class EntityElementsParser {
 	}
 
 	/**
-	 * Constructor
+	 * Use the original line by line lexer (instead of the single-pass lexer)
+	 */
+	private final boolean lineByLineLexer ;
+
+	/**
+	 * Constructor (single-pass lexer)
 	 */
 	public EntityElementsParser() {
+		this(false);
+	}
+	
+	/**
+	 * Constructor with the choice of the lexer 
+	 * @param lineByLineLexer true to use the original line by line lexer, false to use the single-pass lexer
+	 * @since 4.3.0
+	 */
+	public EntityElementsParser(boolean lineByLineLexer) {
 		super();
+		this.lineByLineLexer = lineByLineLexer;
 	}
 	
 	/**
@@ -82,21 +100,58 @@ public class EntityElementsParser {
 	 */
 	protected List<Element> parseAllElements(String filePath) throws DslModelError {
 		String entityNameFromFileName = DslModelUtil.getEntityName(new File(filePath));
+		if ( ! lineByLineLexer ) {
+			// v 4.3.0 : single-pass lexer 
+			EntityElementsLexer lexer = new EntityElementsLexer(entityNameFromFileName);
+			return lexer.parseFile(new File(filePath));
+		}
 		Path path = Paths.get(filePath); 
 		try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) { 
-			List<Element> elements = new LinkedList<>();
-			String line;
-			int lineNumber = 0 ;
-			while ((line = br.readLine()) != null) {
-				lineNumber++;
-				processLine(entityNameFromFileName, line, lineNumber, elements);
-			}
-			return elements;
+			return parseAllLines(entityNameFromFileName, br);
 		} catch (IOException e) {
 			throw new DslModelError(entityNameFromFileName, "IOException : " + e.getMessage() );
 		}
 	}
 
+	/**
+	 * Parse entity defined in the given source (file, string, bytes, zip entry, etc)
+	 * @param entitySource
+	 * @return
+	 * @throws DslModelError
+	 * @since 4.3.0
+	 */
+	public List<Element> parseEntitySource(ModelSource entitySource) throws DslModelError  {
+		if ( entitySource.getFile() != null ) {
+			return parseEntityFile(entitySource.getFile());
+		}
+		String entityName = entitySource.getEntityName();
+		byte[] content ;
+		try {
+			content = entitySource.getContent();
+		} catch (IOException e) {
+			throw new DslModelError(entityName, "IOException : " + e.getMessage() );
+		}
+		if ( ! lineByLineLexer ) {
+			return new EntityElementsLexer(entityName).parseBytes(content);
+		}
+		try (BufferedReader br = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))) { 
+			return parseAllLines(entityName, br);
+		} catch (IOException e) {
+			throw new DslModelError(entityName, "IOException : " + e.getMessage() );
+		}
+	}
+
+	private List<Element> parseAllLines(String entityName, BufferedReader br) throws IOException, DslModelError {
+		List<Element> elements = new LinkedList<>();
+		String line;
+		int lineNumber = 0 ;
+		while ((line = br.readLine()) != null) {
+			lineNumber++;
+			processLine(entityName, line, lineNumber, elements);
+		}
+		return elements;
+	}
+
 	protected void processLine(String entityName, String line, int lineNumber, List<Element> elements ) throws DslModelError {
 		StringBuilder sb = new StringBuilder();
 		char[] lineCharacters = line.toCharArray();
@@ -38,15 +38,51 @@ public class EntityElementsProcessor {
 
 	private final FieldElementsProcessor fieldElementsProcessor ;
 	
+	private final EntityParsingListener listener ; // v 4.3.0 (null if none)
+	
+	private boolean timingEnabled = false ; // v 4.3.0
+	private long annotationsAndTagsTime = 0 ; // v 4.3.0 (nanoseconds, entity level only)
+	
 	/**
 	 * Constructor
 	 * @param entityName
 	 * @param entitiesNames
 	 */
 	public EntityElementsProcessor(String entityName, List<String> entitiesNames) {
+		this(entityName, entitiesNames, null);
+	}
+
+	/**
+	 * Constructor with a listener notified during the processing
+	 * @param entityName
+	 * @param entitiesNames
+	 * @param listener the listener (or null if none)
+	 * @since 4.3.0
+	 */
+	public EntityElementsProcessor(String entityName, List<String> entitiesNames, EntityParsingListener listener) {
 		super();
 		this.entityName = entityName;
-		this.fieldElementsProcessor = new FieldElementsProcessor(entityName, entitiesNames);
+		this.listener = listener;
+		this.fieldElementsProcessor = new FieldElementsProcessor(entityName, entitiesNames, listener);
+	}
+
+	/**
+	 * Enables the measurement of the time spent processing annotations and tags (disabled by default)
+	 * @param timingEnabled
+	 * @since 4.3.0
+	 */
+	public void setTimingEnabled(boolean timingEnabled) {
+		this.timingEnabled = timingEnabled;
+		this.fieldElementsProcessor.setTimingEnabled(timingEnabled);
+	}
+
+	/**
+	 * Returns the time spent processing annotations and tags at entity and field level (if timing enabled)
+	 * @return the time in nanoseconds
+	 * @since 4.3.0
+	 */
+	public long getAnnotationsAndTagsTime() {
+		return annotationsAndTagsTime + fieldElementsProcessor.getAnnotationsAndTagsTime();
 	}
 
 	/**
@@ -58,6 +94,9 @@ public class EntityElementsProcessor {
 		List<Element> fieldElements = null ;
 		boolean inFields = false ;
 		DomainEntity domainEntity = new DomainEntity(entityName);
+		if ( listener != null ) {
+			listener.onEntityStart(entityName, elements.isEmpty() ? 0 : elements.get(0).getLineNumber());
+		}
 		for ( Element element : elements ) {
 			if ( ! inFields ) {
 				if ( element.contentEquals("{") ) {
@@ -91,9 +130,19 @@ public class EntityElementsProcessor {
 				}
 			}
 		}
+		if ( listener != null ) {
+			listener.onEntityEnd(entityName, elements.isEmpty() ? 0 : elements.get(elements.size() - 1).getLineNumber());
+		}
 		return domainEntity;
 	}
 	
+	private void addError(DslModelErrors errors, DslModelError error) {
+		errors.addError(error);
+		if ( listener != null ) {
+			listener.onError(error);
+		}
+	}
+	
 	private void declareNewField(DomainEntity domainEntity, List<Element> fieldElements, DslModelErrors errors) {
 		DomainField field = fieldElementsProcessor.processFieldElements(fieldElements, errors);
 		if ( field != null ) {
@@ -102,12 +151,23 @@ public class EntityElementsProcessor {
 				domainEntity.addField(field);
 			} catch (DslModelError error) {
 				// if duplicate field in the entity
-				errors.addError(error);
+				addError(errors, error);
 			}
 		}
 	}
 	
 	private void processElementAtEntityLevel(DomainEntity domainEntity, Element element, DslModelErrors errors) {
+		if ( timingEnabled && ( element.startsWithAnnotationPrefix() || element.startsWithTagPrefix() ) ) {
+			long start = System.nanoTime();
+			processEntityLevelElement(domainEntity, element, errors);
+			annotationsAndTagsTime += System.nanoTime() - start ;
+		}
+		else {
+			processEntityLevelElement(domainEntity, element, errors);
+		}
+	}
+
+	private void processEntityLevelElement(DomainEntity domainEntity, Element element, DslModelErrors errors) {
 		if ( element.startsWithAnnotationPrefix() ) {
 			AnnotationProcessor annotationParser = new AnnotationProcessor(domainEntity);
 			DomainAnnotation annotation;
@@ -115,8 +175,11 @@ public class EntityElementsProcessor {
 				annotation = annotationParser.parseAnnotation(element);
 				// no annotation error => continue
 				domainEntity.addAnnotation(annotation);
+				if ( listener != null ) {
+					listener.onEntityAnnotation(entityName, annotation, element.getLineNumber());
+				}
 			} catch (DslModelError e) {
-				errors.addError(e);
+				addError(errors, e);
 			}
 		}
 		else if ( element.startsWithTagPrefix() ) {
@@ -125,8 +188,11 @@ public class EntityElementsProcessor {
 			try {
 				tag = tagParser.parseTag(element);
 				domainEntity.addTag(tag);
+				if ( listener != null ) {
+					listener.onTag(entityName, null, tag, element.getLineNumber());
+				}
 			} catch (DslModelError e) {
-				errors.addError(e);
+				addError(errors, e);
 			}
 		}
 		else {
@@ -137,14 +203,14 @@ public class EntityElementsProcessor {
 				}
 				else {
 					// ERROR : invalid entity name
-					errors.addError( new DslModelError(entityName, element.getLineNumber(), 
+					addError(errors, new DslModelError(entityName, element.getLineNumber(), 
 							"Entity name '" + element.getContent()
 							+ "' different from file name '" + entityName +"' "));
 				}
 			}
 			else {
 				// ERROR : unexpected element 
-				errors.addError( new DslModelError(entityName, element.getLineNumber(),
+				addError(errors, new DslModelError(entityName, element.getLineNumber(),
 						"unexpected element '" + element.getContent()+"' "));
 			}
 		}
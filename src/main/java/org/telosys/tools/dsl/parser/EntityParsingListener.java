@@ -0,0 +1,95 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.parser;
+
+import org.telosys.tools.dsl.DslModelError;
+import org.telosys.tools.dsl.parser.model.DomainAnnotation;
+import org.telosys.tools.dsl.parser.model.DomainTag;
+import org.telosys.tools.dsl.parser.model.DomainType;
+
+/**
+ * Listener notified while the elements of an entity file are processed <br>
+ * (see 'ParserV2.scanModel' to scan a whole model without building the model) <br>
+ * <br>
+ * Events for each entity file : <br>
+ *  onEntityStart, <br>
+ *  onEntityAnnotation / onTag (entity level), <br>
+ *  for each field : onField then onFieldAnnotation / onTag (field level) <br>
+ *  onEntityEnd <br>
+ * and onError for each error (at any time) <br>
+ * If the entity file cannot be read, only 'onError' is called for this file.
+ *
+ * @author Laurent GUERIN
+ * @since 4.3.0
+ */
+public interface EntityParsingListener {
+
+	/**
+	 * Called before processing the elements of the entity 
+	 * @param entityName
+	 * @param lineNumber line number of the first element (or 0 if the file is void)
+	 */
+	void onEntityStart(String entityName, int lineNumber);
+
+	/**
+	 * Called for each valid annotation at entity level 
+	 * @param entityName
+	 * @param annotation
+	 * @param lineNumber
+	 */
+	void onEntityAnnotation(String entityName, DomainAnnotation annotation, int lineNumber);
+
+	/**
+	 * Called for each field with a valid name and a valid type 
+	 * @param entityName
+	 * @param fieldName
+	 * @param fieldType neutral type or entity type 
+	 * @param lineNumber
+	 */
+	void onField(String entityName, String fieldName, DomainType fieldType, int lineNumber);
+
+	/**
+	 * Called for each valid annotation at field level (including each '@FK')
+	 * @param entityName
+	 * @param fieldName
+	 * @param annotation
+	 * @param lineNumber
+	 */
+	void onFieldAnnotation(String entityName, String fieldName, DomainAnnotation annotation, int lineNumber);
+
+	/**
+	 * Called for each valid tag at entity level or at field level 
+	 * @param entityName
+	 * @param fieldName the field name (or null for a tag at entity level)
+	 * @param tag
+	 * @param lineNumber
+	 */
+	void onTag(String entityName, String fieldName, DomainTag tag, int lineNumber);
+
+	/**
+	 * Called for each error 
+	 * @param error the error (with entity name, line number and field name if any)
+	 */
+	void onError(DslModelError error);
+
+	/**
+	 * Called after processing all the elements of the entity 
+	 * @param entityName
+	 * @param lineNumber line number of the last element (or 0 if the file is void)
+	 */
+	void onEntityEnd(String entityName, int lineNumber);
+
+}
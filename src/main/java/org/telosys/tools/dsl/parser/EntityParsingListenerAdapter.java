@@ -0,0 +1,67 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.parser;
+
+import org.telosys.tools.dsl.DslModelError;
+import org.telosys.tools.dsl.parser.model.DomainAnnotation;
+import org.telosys.tools.dsl.parser.model.DomainTag;
+import org.telosys.tools.dsl.parser.model.DomainType;
+
+/**
+ * Void implementation of 'EntityParsingListener' <br>
+ * (to be extended by listeners interested in a subset of the events)
+ *
+ * @author Laurent GUERIN
+ * @since 4.3.0
+ */
+public class EntityParsingListenerAdapter implements EntityParsingListener {
+
+	@Override
+	public void onEntityStart(String entityName, int lineNumber) {
+		// nothing to do 
+	}
+
+	@Override
+	public void onEntityAnnotation(String entityName, DomainAnnotation annotation, int lineNumber) {
+		// nothing to do 
+	}
+
+	@Override
+	public void onField(String entityName, String fieldName, DomainType fieldType, int lineNumber) {
+		// nothing to do 
+	}
+
+	@Override
+	public void onFieldAnnotation(String entityName, String fieldName, DomainAnnotation annotation, int lineNumber) {
+		// nothing to do 
+	}
+
+	@Override
+	public void onTag(String entityName, String fieldName, DomainTag tag, int lineNumber) {
+		// nothing to do 
+	}
+
+	@Override
+	public void onError(DslModelError error) {
+		// nothing to do 
+	}
+
+	@Override
+	public void onEntityEnd(String entityName, int lineNumber) {
+		// nothing to do 
+	}
+
+}
@@ -39,6 +39,9 @@ public class FieldElementsProcessor {
 	
 	private final String entityName;
 	private final List<String> entitiesNamesInModel;
+	private final EntityParsingListener listener ; // v 4.3.0 (null if none)
+	private boolean timingEnabled = false ; // v 4.3.0
+	private long annotationsAndTagsTime = 0 ; // v 4.3.0 (nanoseconds)
 
 	/**
 	 * Constructor
@@ -46,9 +49,39 @@ public class FieldElementsProcessor {
 	 * @param entitiesNames
 	 */
 	public FieldElementsProcessor(String entityName, List<String> entitiesNames) {
+		this(entityName, entitiesNames, null);
+	}
+
+	/**
+	 * Constructor with a listener notified during the processing
+	 * @param entityName
+	 * @param entitiesNames
+	 * @param listener the listener (or null if none)
+	 * @since 4.3.0
+	 */
+	public FieldElementsProcessor(String entityName, List<String> entitiesNames, EntityParsingListener listener) {
 		super();
 		this.entityName = entityName;
 		this.entitiesNamesInModel = entitiesNames;		
+		this.listener = listener;
+	}
+
+	/**
+	 * Enables the measurement of the time spent processing annotations and tags (disabled by default)
+	 * @param timingEnabled
+	 * @since 4.3.0
+	 */
+	public void setTimingEnabled(boolean timingEnabled) {
+		this.timingEnabled = timingEnabled;
+	}
+
+	/**
+	 * Returns the time spent processing annotations and tags (if timing enabled)
+	 * @return the time in nanoseconds
+	 * @since 4.3.0
+	 */
+	public long getAnnotationsAndTagsTime() {
+		return annotationsAndTagsTime;
 	}
 
 	/**
@@ -64,16 +97,19 @@ public class FieldElementsProcessor {
 		try {
 			field = buildField(elements);
 		} catch (DslModelError e) {
-			errors.addError(e);
+			addError(errors, e);
 			return null;
 		}
+		if ( listener != null ) {
+			listener.onField(entityName, field.getName(), field.getType(), field.getLineNumber());
+		}
 		
 		// Extract additional elements for annotations and tags
 		List<Element> additionalElements;
 		try {
 			additionalElements = extractAdditionalElements(field.getName(), elements);
 		} catch (DslModelError e) {
-			errors.addError(e);
+			addError(errors, e);
 			return field;
 		}
 		
@@ -82,12 +118,19 @@ public class FieldElementsProcessor {
 			try {
 				processAnnotationOrTag(field, element) ;
 			} catch (DslModelError e) {
-				errors.addError(e);
+				addError(errors, e);
 			}
 		}
 		return field;
 	}
 	
+	private void addError(DslModelErrors errors, DslModelError error) {
+		errors.addError(error);
+		if ( listener != null ) {
+			listener.onError(error);
+		}
+	}
+	
 	private DomainField buildField(List<Element> elements) throws DslModelError {
 		if ( elements.size() >= 3 ) {
 			Element fieldNameElement = elements.get(0);
@@ -222,6 +265,20 @@ public class FieldElementsProcessor {
 	}
 	
 	private void processAnnotationOrTag(DomainField field, Element element) throws DslModelError {
+		if ( timingEnabled ) {
+			long start = System.nanoTime();
+			try {
+				processAnnotationOrTagElement(field, element);
+			} finally {
+				annotationsAndTagsTime += System.nanoTime() - start ;
+			}
+		}
+		else {
+			processAnnotationOrTagElement(field, element);
+		}
+	}
+
+	private void processAnnotationOrTagElement(DomainField field, Element element) throws DslModelError {
 		if ( element.startsWithAnnotationPrefix() ) {
 			// @Xxxx : Annotation			
 			AnnotationProcessor annotationProcessor = new AnnotationProcessor(entityName, field);
@@ -235,12 +292,18 @@ public class FieldElementsProcessor {
 				// Standard storage for other annotations (usable onmy once)
 				field.addAnnotation(annotation);
 			}
+			if ( listener != null ) {
+				listener.onFieldAnnotation(entityName, field.getName(), annotation, element.getLineNumber());
+			}
 		}
 		else if ( element.startsWithTagPrefix() ) {
 			// #Xxxx : Tag
 			TagProcessor tagProcessor = new TagProcessor(entityName, field.getName());
 			DomainTag tag = tagProcessor.parseTag(element);
 			field.addTag(tag);
+			if ( listener != null ) {
+				listener.onTag(entityName, field.getName(), tag, element.getLineNumber());
+			}
 		}
 		else {
 			// ERROR
@@ -16,15 +16,29 @@
 package org.telosys.tools.dsl.parser;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.telosys.tools.dsl.DslModelError;
 import org.telosys.tools.dsl.DslModelErrors;
 import org.telosys.tools.dsl.DslModelUtil;
 import org.telosys.tools.dsl.commons.ModelInfo;
 import org.telosys.tools.dsl.commons.ModelInfoLoader;
+import org.telosys.tools.dsl.commons.ModelSource;
+import org.telosys.tools.dsl.jfr.DslEvents;
+import org.telosys.tools.dsl.metrics.MetricsCounter;
+import org.telosys.tools.dsl.metrics.MetricsPhase;
+import org.telosys.tools.dsl.metrics.ModelMetricsListener;
+import org.telosys.tools.dsl.parser.cache.EntityParsingCache;
 import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainField;
 import org.telosys.tools.dsl.parser.model.DomainModel;
 
 /**
@@ -36,12 +50,78 @@ import org.telosys.tools.dsl.parser.model.DomainModel;
 public class ParserV2 {
 
 	/**
-	 * Constructor
+	 * Executor used to parse the entities in parallel (or null for sequential parsing)
+	 */
+	private final ExecutorService executor ;
+
+	/**
+	 * Cache for parsed entities (or null if no cache)
+	 */
+	private final EntityParsingCache parsingCache ;
+
+	/**
+	 * Maximum number of errors before stopping the parsing ( 0 = no limit )
+	 */
+	private int maxErrors = 0 ;
+
+	/**
+	 * Metrics listener (or null if no metrics)
+	 */
+	private ModelMetricsListener metricsListener = null ;
+
+	/**
+	 * Constructor (sequential parsing)
 	 */
 	public ParserV2() {
+		this(null, null);
+	}
+	
+	/**
+	 * Constructor for parallel parsing <br>
+	 * Each entity file is parsed by a task submitted to the given executor <br>
+	 * (the executor is not shut down by the parser)
+	 * @param executor the executor to be used (or null for sequential parsing)
+	 * @since 4.3.0
+	 */
+	public ParserV2(ExecutorService executor) {
+		this(executor, null);
+	}
+	
+	/**
+	 * Constructor with an on-disk cache for the parsed entities <br>
+	 * The unchanged entity files are not parsed, the entity is rebuilt from the cache
+	 * @param executor the executor to be used (or null for sequential parsing)
+	 * @param parsingCache the cache to be used (or null for no cache)
+	 * @since 4.3.0
+	 */
+	public ParserV2(ExecutorService executor, EntityParsingCache parsingCache) {
 		super();
+		this.executor = executor;
+		this.parsingCache = parsingCache;
 	}
 	
+	/**
+	 * Sets the maximum number of errors : the parsing stops as soon as this limit is reached <br>
+	 * (the entities not yet parsed are reported in the errors, see 'getNumberOfUnprocessedEntities')
+	 * @param maxErrors 1 to stop at the first error, 0 for no limit (default) 
+	 * @since 4.3.0
+	 */
+	public void setMaxErrors(int maxErrors) {
+		if ( maxErrors < 0 ) {
+			throw new IllegalArgumentException("Invalid max errors : " + maxErrors);
+		}
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * Sets the listener receiving the parsing metrics (time per phase and per entity, counters) 
+	 * @param metricsListener the listener (or null for no metrics, default)
+	 * @since 4.3.0
+	 */
+	public void setMetricsListener(ModelMetricsListener metricsListener) {
+		this.metricsListener = metricsListener;
+	}
+
 	/**
 	 * Parse the MODEL located in the given model folder name
 	 * @param modelFolderName
@@ -58,7 +138,7 @@ public class ParserV2 {
 	 */
 	public ParsingResult parseModel(File modelFolder) {
 
-		DslModelErrors errors = new DslModelErrors();
+		DslModelErrors errors = new DslModelErrors(maxErrors);
 		
 		//--- check model folder validity
 		try {
@@ -81,19 +161,101 @@ public class ParserV2 {
 		//--- create new model
 		DomainModel model = new DomainModel(modelFolder.getName(), modelInfo);
 
+		//--- build list of entities sources in the model
+		List<ModelSource> entitiesSources = new LinkedList<>();
+		for (String entityFileName : DslModelUtil.getEntityFullFileNames(modelFolder)) {
+			entitiesSources.add(ModelSource.fromFile(new File(entityFileName)));
+		}
+
+		//--- for each entity parse the file and populate it in the model
+		return parseEntities(entitiesSources, model, errors);
+	}
+
+	/**
+	 * Parse the MODEL defined by the given sources (without model folder) <br>
+	 * The model information is loaded from the 'model.yaml' source if any <br>
+	 * and an entity is parsed for each '.entity' source (the other sources are ignored) <br>
+	 * Duplicated source names are reported as errors (only the first source is parsed)
+	 * @param modelName the model name 
+	 * @param sources the model sources (file, string, bytes, zip entry, etc)
+	 * @return
+	 * @since 4.3.0
+	 */
+	public ParsingResult parseModel(String modelName, Collection<ModelSource> sources) {
+
+		DslModelErrors errors = new DslModelErrors(maxErrors);
+
+		//--- split model info and entities sources
+		ModelSource modelInfoSource = null ;
+		List<ModelSource> entitiesSources = new LinkedList<>();
+		Set<String> sourcesNames = new HashSet<>();
+		for (ModelSource source : sources) {
+			if ( source.isModelInfo() || source.isEntity() ) {
+				if ( ! sourcesNames.add(source.getName()) ) {
+					// v 4.3.0 : duplicated source name (e.g. same file in 2 archives or folders)
+					String message = "Duplicated model source '" + source.getName() + "'" ;
+					errors.addError(source.isEntity() ? new DslModelError(source.getEntityName(), message) 
+							: new DslModelError(message));
+				}
+				else if ( source.isModelInfo() ) {
+					modelInfoSource = source ;
+				}
+				else {
+					entitiesSources.add(source);
+				}
+			}
+		}
+
+		//--- load model info if any
+		ModelInfo modelInfo;
+		try {
+			modelInfo = ModelInfoLoader.loadModelInformation(modelInfoSource);
+		} catch (DslModelError e) {
+			errors.addError(e);
+			return new ParsingResult(null, errors);
+		}
+
+		//--- for each entity parse the source and populate it in the model
+		DomainModel model = new DomainModel(modelName, modelInfo);
+		return parseEntities(entitiesSources, model, errors);
+	}
+
+	/**
+	 * Parse all the given entities sources and populate them in the model
+	 * @param entitiesSources
+	 * @param model
+	 * @param errors
+	 * @return
+	 */
+	private ParsingResult parseEntities(List<ModelSource> entitiesSources, DomainModel model, DslModelErrors errors) {
+		long start = ( metricsListener != null ? System.nanoTime() : 0L );
 		//--- build list of entities names in the model
-		List<String> entitiesFileNames = DslModelUtil.getEntityFullFileNames(modelFolder);
 		List<String> entitiesNames = new LinkedList<>();
-		for (String entityFileName : entitiesFileNames) {
-			entitiesNames.add(DslModelUtil.getEntityName(new File(entityFileName)));
+		for (ModelSource entitySource : entitiesSources) {
+			entitiesNames.add(entitySource.getEntityName());
 		}
 
-		//--- for each entity parse the file and populate it in the model
-		for (String entityFileName : entitiesFileNames) {
-			// --- Parse
-			DomainEntity domainEntity = parseEntity(entityFileName, entitiesNames, errors);
-			if ( domainEntity != null ) {
-				model.setEntity(domainEntity);
+		if ( executor != null ) {
+			try {
+				parseEntitiesInParallel(entitiesSources, entitiesNames, model, errors);
+			} catch (DslModelError e) {
+				errors.addError(e);
+				return new ParsingResult(null, errors);
+			}
+		}
+		else {
+			int parsed = 0 ;
+			for (ModelSource entitySource : entitiesSources) {
+				if ( errors.isLimitReached() ) { // v 4.3.0
+					errors.addUnprocessedEntities(entitiesSources.size() - parsed);
+					break;
+				}
+				// --- Parse
+				DomainEntity domainEntity = parseEntity(entitySource, entitiesNames, errors);
+				if ( domainEntity != null ) {
+					model.setEntity(domainEntity);
+				}
+				parsed++;
 			}
 		}
 		
@@ -102,9 +264,152 @@ public class ParserV2 {
 //		ModelFKChecker modelFKChecker = new ModelFKChecker();
 //		modelFKChecker.checkNoDuplicateFK(model, errors);
 		
+		if ( metricsListener != null ) {
+			metricsListener.phaseCompleted(MetricsPhase.PARSING, System.nanoTime() - start);
+			metricsListener.count(MetricsCounter.ERRORS, errors.getNumberOfErrors());
+		}
 		return new ParsingResult(model, errors);
 	}
 
+	/**
+	 * Scans the MODEL located in the given folder : each entity file is processed sequentially <br>
+	 * and the given listener is notified of each entity, field, annotation, tag and error. <br>
+	 * No model is built : each entity is dropped after its processing (constant memory for any model size) <br>
+	 * The parsing cache (if any) is not used : each file is always parsed in order to notify all the events
+	 * @param modelFolder model folder (e.g. "/aa/bb/cc/modelname" )
+	 * @param listener
+	 * @since 4.3.0
+	 */
+	public void scanModel(File modelFolder, EntityParsingListener listener) {
+		try {
+			checkModelFolder(modelFolder);
+		} catch (DslModelError e) {
+			listener.onError(e);
+			return;
+		}
+		//--- build list of entities names in the model
+		List<String> entitiesFileNames = DslModelUtil.getEntityFullFileNames(modelFolder);
+		List<String> entitiesNames = new LinkedList<>();
+		for (String entityFileName : entitiesFileNames) {
+			entitiesNames.add(DslModelUtil.getEntityName(new File(entityFileName)));
+		}
+		//--- scan each entity file 
+		for (String entityFileName : entitiesFileNames) {
+			scanEntity(new File(entityFileName), entitiesNames, listener);
+		}
+	}
+
+	/**
+	 * Scans the given ENTITY file : the given listener is notified of each element processed <br>
+	 * (the file is always parsed, the parsing cache is not used)
+	 * @param entityFile
+	 * @param entitiesNames names of all the entities of the model 
+	 * @param listener
+	 * @since 4.3.0
+	 */
+	public void scanEntity(File entityFile, List<String> entitiesNames, EntityParsingListener listener) {
+		String entityNameFromFileName = DslModelUtil.getEntityName(entityFile);
+		List<Element> elements;
+		try {
+			elements = new EntityElementsParser().parseEntityFile(entityFile);
+		} catch (DslModelError e) {
+			listener.onError(e);
+			return;
+		}
+		// errors already reported to the listener => local errors dropped with the entity
+		EntityElementsProcessor elementsProcessor = new EntityElementsProcessor(entityNameFromFileName, entitiesNames, listener);
+		elementsProcessor.processEntityElements(elements, new DslModelErrors());
+	}
+
+	/**
+	 * Result of a single entity parsing task (entity + its own errors)
+	 */
+	private static class EntityParsingTaskResult {
+		private final DomainEntity entity ;
+		private final DslModelErrors errors ;
+		private EntityParsingTaskResult(DomainEntity entity, DslModelErrors errors) {
+			this.entity = entity;
+			this.errors = errors;
+		}
+	}
+
+	/**
+	 * Task parsing a single entity file with its own errors collector <br>
+	 * A task never skips its file : the errors limit is applied when merging the results 
+	 * (in the files order)
+	 */
+	private class EntityParsingTask implements Callable<EntityParsingTaskResult> {
+		private final ModelSource entitySource ;
+		private final List<String> entitiesNames ;
+		private EntityParsingTask(ModelSource entitySource, List<String> entitiesNames) {
+			this.entitySource = entitySource;
+			this.entitiesNames = entitiesNames;
+		}
+		@Override
+		public EntityParsingTaskResult call() {
+			DslModelErrors entityErrors = new DslModelErrors();
+			DomainEntity domainEntity = parseEntity(entitySource, entitiesNames, entityErrors);
+			return new EntityParsingTaskResult(domainEntity, entityErrors);
+		}
+	}
+
+	/**
+	 * Parse all the given entity sources in parallel using the current executor <br>
+	 * Each task collects its own errors, then the results are merged in the entity sources order <br>
+	 * (only the current thread populates the model, so the result is the same as with sequential parsing) <br>
+	 * When the errors limit is reached the tasks not yet started are cancelled
+	 * @param entitiesSources
+	 * @param entitiesNames
+	 * @param model
+	 * @param errors
+	 * @throws DslModelError if the parsing is interrupted
+	 */
+	private void parseEntitiesInParallel(List<ModelSource> entitiesSources, List<String> entitiesNames, 
+			DomainModel model, DslModelErrors errors) throws DslModelError {
+		//--- submit a task for each entity file
+		List<Future<EntityParsingTaskResult>> futures = new LinkedList<>();
+		for (ModelSource entitySource : entitiesSources) {
+			futures.add(executor.submit(new EntityParsingTask(entitySource, entitiesNames)));
+		}
+		//--- merge results in the original order
+		try {
+			int merged = 0 ;
+			for (Future<EntityParsingTaskResult> future : futures) {
+				if ( errors.isLimitReached() ) { // v 4.3.0
+					// cancel the tasks not yet started (no interruption for the running tasks)
+					for (Future<EntityParsingTaskResult> f : futures) {
+						f.cancel(false);
+					}
+					errors.addUnprocessedEntities(futures.size() - merged);
+					break;
+				}
+				EntityParsingTaskResult result = future.get();
+				errors.addErrors(result.errors);
+				if ( result.entity != null ) {
+					model.setEntity(result.entity);
+				}
+				merged++;
+			}
+		} catch (InterruptedException e) {
+			cancelAll(futures);
+			Thread.currentThread().interrupt();
+			throw new DslModelError("Model parsing interrupted");
+		} catch (ExecutionException e) {
+			cancelAll(futures);
+			Throwable cause = e.getCause();
+			if ( cause instanceof RuntimeException ) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException("Unexpected error during model parsing", cause);
+		}
+	}
+	
+	private void cancelAll(List<Future<EntityParsingTaskResult>> futures) {
+		for (Future<EntityParsingTaskResult> future : futures) {
+			future.cancel(true);
+		}
+	}
+
 	/**
 	 * Check model folder validity
 	 * @param modelFolder
@@ -121,6 +426,22 @@ public class ParserV2 {
 		}
 	}
 
+	/**
+	 * Parse the given ENTITY source <br>
+	 * (a source stored in a file is parsed as a file, using the cache if any)
+	 * @param entitySource
+	 * @param entitiesNames
+	 * @param errors
+	 * @return
+	 * @since 4.3.0
+	 */
+	public DomainEntity parseEntity(ModelSource entitySource, List<String> entitiesNames, DslModelErrors errors) {
+		if ( entitySource.getFile() != null ) {
+			return parseEntity(entitySource.getFile(), entitiesNames, errors);
+		}
+		return parseEntitySource(entitySource, entitiesNames, errors);
+	}
+
 	/**
 	 * Parse the given ENTITY file name
 	 * @param entityFileName
@@ -140,22 +461,125 @@ public class ParserV2 {
 	 * @return
 	 */
 	public DomainEntity parseEntity(File entityFile, List<String> entitiesNames, DslModelErrors errors) {
+		if ( parsingCache != null ) {
+			String hash = parsingCache.computeHash(entityFile);
+			DomainEntity cachedEntity = parsingCache.get(entityFile, hash, entitiesNames);
+			if ( cachedEntity != null ) {
+				if ( metricsListener != null ) {
+					// same counters as a parsed entity (no lexing => no phase time and no elements)
+					metricsListener.count(MetricsCounter.FILES, 1);
+					metricsListener.count(MetricsCounter.CACHED_ENTITIES, 1);
+					reportEntityCounters(cachedEntity);
+				}
+				return cachedEntity;
+			}
+			DslModelErrors entityErrors = new DslModelErrors();
+			DomainEntity domainEntity = parseEntityFile(entityFile, entitiesNames, entityErrors);
+			if ( domainEntity != null && entityErrors.isEmpty() ) {
+				parsingCache.put(entityFile, hash, domainEntity); // only valid entities are cached
+			}
+			errors.addErrors(entityErrors);
+			return domainEntity;
+		}
+		else {
+			return parseEntityFile(entityFile, entitiesNames, errors);
+		}
+	}
 
-		String entityNameFromFileName = DslModelUtil.getEntityName(entityFile);
+	/**
+	 * Parse the given ENTITY file (without cache)
+	 * @param entityFile
+	 * @param entitiesNames
+	 * @param errors
+	 * @return
+	 */
+	private DomainEntity parseEntityFile(File entityFile, List<String> entitiesNames, DslModelErrors errors) {
+		return parseEntitySource(ModelSource.fromFile(entityFile), entitiesNames, errors);
+	}
+
+	/**
+	 * Parse the given ENTITY source (without cache)
+	 * @param entitySource
+	 * @param entitiesNames
+	 * @param errors
+	 * @return
+	 */
+	private DomainEntity parseEntitySource(ModelSource entitySource, List<String> entitiesNames, DslModelErrors errors) {
+
+		String entityName = entitySource.getEntityName();
+		Object event = DslEvents.beginEntityParse(); // v 4.3.0 (null if no JFR recording)
+		int initialErrors = errors.getNumberOfErrors();
+		long start = ( metricsListener != null ? System.nanoTime() : 0L );
 
 		//--- Parse elements
 		EntityElementsParser elementsParser = new EntityElementsParser();
 		List<Element> elements;
 		try {
-			elements = elementsParser.parseEntityFile(entityFile);
+			elements = elementsParser.parseEntitySource(entitySource);
 		} catch (DslModelError e) {
 			errors.addError(e);
-			return null;
+			elements = null ;
 		}
+		long lexingEnd = ( metricsListener != null ? System.nanoTime() : 0L );
 
 		//--- Process elements
-		EntityElementsProcessor elementsProcessor = new EntityElementsProcessor(entityNameFromFileName, entitiesNames);
-		return elementsProcessor.processEntityElements(elements, errors);
+		DomainEntity domainEntity = null ;
+		long annotationsAndTagsTime = 0L ;
+		if ( elements != null ) {
+			EntityElementsProcessor elementsProcessor = new EntityElementsProcessor(entityName, entitiesNames);
+			elementsProcessor.setTimingEnabled(metricsListener != null);
+			domainEntity = elementsProcessor.processEntityElements(elements, errors);
+			annotationsAndTagsTime = elementsProcessor.getAnnotationsAndTagsTime();
+		}
+
+		if ( metricsListener != null ) {
+			reportEntityMetrics(entityName, elements, domainEntity, start, lexingEnd, annotationsAndTagsTime);
+		}
+		DslEvents.endEntityParse(event, entityName, elements != null ? elements.size() : 0, 
+				errors.getNumberOfErrors() - initialErrors);
+		return domainEntity;
+	}
+
+	/**
+	 * Reports the metrics (time per phase and counters) for the given entity
+	 * @param entityName
+	 * @param elements the elements (or null if lexing error)
+	 * @param domainEntity the entity (or null if processing error)
+	 * @param start the parsing start time
+	 * @param lexingEnd the lexing end time
+	 * @param annotationsAndTagsTime the time spent in annotations and tags processing 
+	 */
+	private void reportEntityMetrics(String entityName, List<Element> elements, DomainEntity domainEntity, 
+			long start, long lexingEnd, long annotationsAndTagsTime) {
+		metricsListener.count(MetricsCounter.FILES, 1);
+		metricsListener.entityPhaseCompleted(MetricsPhase.LEXING, entityName, lexingEnd - start);
+		if ( elements == null ) {
+			return;
+		}
+		metricsListener.count(MetricsCounter.ELEMENTS, elements.size());
+		metricsListener.entityPhaseCompleted(MetricsPhase.ELEMENTS_PROCESSING, entityName, 
+				System.nanoTime() - lexingEnd - annotationsAndTagsTime);
+		metricsListener.entityPhaseCompleted(MetricsPhase.ANNOTATIONS_AND_TAGS_PROCESSING, entityName, annotationsAndTagsTime);
+		if ( domainEntity != null ) {
+			reportEntityCounters(domainEntity);
+		}
+	}
+
+	/**
+	 * Reports the counters for the given entity (parsed or restored from the parsing cache)
+	 * @param domainEntity
+	 */
+	private void reportEntityCounters(DomainEntity domainEntity) {
+		int annotations = domainEntity.getAnnotations().size();
+		int tags = domainEntity.getTags().size();
+		for ( DomainField field : domainEntity.getFields() ) {
+			annotations += field.getAnnotations().size() + field.getFkElements().size();
+			tags += field.getTags().size();
+		}
+		metricsListener.count(MetricsCounter.ENTITIES, 1);
+		metricsListener.count(MetricsCounter.FIELDS, domainEntity.getNumberOfFields());
+		metricsListener.count(MetricsCounter.ANNOTATIONS, annotations);
+		metricsListener.count(MetricsCounter.TAGS, tags);
 	}
 	
 }
@@ -231,7 +231,7 @@ public abstract class AnnotationDefinition {
 	public String literal(String param) {
 		if ( this.hasParam() ) {
 			// protect with double quote ".." if necessary
-			return atName() + "(" + protectStringIfNecessary(param) + ")";
+			return atName() + "(" + StringUtil.quoteIfNecessary(param) + ")";
 		}
 		else {
 			throw new IllegalStateException("literal(String) no parameter expected");
@@ -253,16 +253,6 @@ public abstract class AnnotationDefinition {
 			throw new IllegalStateException("literal(Integer) no parameter expected");
 		}
 	}
-	private String protectStringIfNecessary(String s) {
-		if ( s.startsWith(" ") || s.endsWith(" ") 
-				|| s.contains("(") || s.contains(")") 
-				|| s.contains("\"") ) {
-			return StringUtil.quote(s);
-		}
-		else {
-			return s;
-		}
-	}
 	
 	/**
 	 * Checks if the number of parameters is OK <br>
@@ -109,7 +109,7 @@ public class AnnotationName {
 	public static final String CASCADE        = "Cascade";       // v 4.1.0 (ORM)
 	public static final String JOIN_ENTITY    = "JoinEntity";    // v 4.1.0
 	
-	// NB : don't forget to add each new annotation in "AnnotationDefinitions.java"
+	// NB : don't forget to add each new annotation in "AnnotationRegistry.java"
 
 	// new annotations (in the future) ?
     // @After(DateISO/TimeISO/TimestampISO)
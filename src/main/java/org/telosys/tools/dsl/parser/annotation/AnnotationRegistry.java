@@ -0,0 +1,395 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.parser.annotation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.telosys.tools.commons.logger.ConsoleLogger;
+import org.telosys.tools.dsl.parser.annotations.AbstractAnnotation;
+import org.telosys.tools.dsl.parser.annotations.AggregateRootAnnotation;
+import org.telosys.tools.dsl.parser.annotations.AutoIncrementedAnnotation;
+import org.telosys.tools.dsl.parser.annotations.CascadeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.ContextAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbCatalogAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbCommentAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbDefaultValueAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbNameAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbSchemaAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbSizeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbTableAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbTablespaceAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbTypeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DbViewAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DefaultValueAnnotation;
+import org.telosys.tools.dsl.parser.annotations.DomainAnnotation;
+import org.telosys.tools.dsl.parser.annotations.EmbeddedAnnotation;
+import org.telosys.tools.dsl.parser.annotations.ExtendsAnnotation;
+import org.telosys.tools.dsl.parser.annotations.FetchTypeEagerAnnotation;
+import org.telosys.tools.dsl.parser.annotations.FetchTypeLazyAnnotation;
+import org.telosys.tools.dsl.parser.annotations.FkAnnotation;
+import org.telosys.tools.dsl.parser.annotations.FutureAnnotation;
+import org.telosys.tools.dsl.parser.annotations.GeneratedValueAnnotation;
+import org.telosys.tools.dsl.parser.annotations.IdAnnotation;
+import org.telosys.tools.dsl.parser.annotations.InMemoryRepositoryAnnotation;
+import org.telosys.tools.dsl.parser.annotations.InitialValueAnnotation;
+import org.telosys.tools.dsl.parser.annotations.InputTypeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.InsertableAnnotation;
+import org.telosys.tools.dsl.parser.annotations.JoinEntityAnnotation;
+import org.telosys.tools.dsl.parser.annotations.LabelAnnotation;
+import org.telosys.tools.dsl.parser.annotations.LinkByAttrAnnotation;
+import org.telosys.tools.dsl.parser.annotations.LinkByFKAnnotation;
+import org.telosys.tools.dsl.parser.annotations.LinkByJoinEntityAnnotation;
+import org.telosys.tools.dsl.parser.annotations.LongTextAnnotation;
+import org.telosys.tools.dsl.parser.annotations.ManyToManyAnnotation;
+import org.telosys.tools.dsl.parser.annotations.MappedByAnnotation;
+import org.telosys.tools.dsl.parser.annotations.MaxAnnotation;
+import org.telosys.tools.dsl.parser.annotations.MaxLenAnnotation;
+import org.telosys.tools.dsl.parser.annotations.MinAnnotation;
+import org.telosys.tools.dsl.parser.annotations.MinLenAnnotation;
+import org.telosys.tools.dsl.parser.annotations.NotBlankAnnotation;
+import org.telosys.tools.dsl.parser.annotations.NotEmptyAnnotation;
+import org.telosys.tools.dsl.parser.annotations.NotNullAnnotation;
+import org.telosys.tools.dsl.parser.annotations.ObjectTypeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.OneToOneAnnotation;
+import org.telosys.tools.dsl.parser.annotations.OptionalAnnotation;
+import org.telosys.tools.dsl.parser.annotations.OrphanRemovalAnnotation;
+import org.telosys.tools.dsl.parser.annotations.PackageAnnotation;
+import org.telosys.tools.dsl.parser.annotations.PastAnnotation;
+import org.telosys.tools.dsl.parser.annotations.PatternAnnotation;
+import org.telosys.tools.dsl.parser.annotations.PrimitiveTypeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.ReadOnlyAnnotation;
+import org.telosys.tools.dsl.parser.annotations.SizeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.SizeMaxAnnotation;
+import org.telosys.tools.dsl.parser.annotations.SizeMinAnnotation;
+import org.telosys.tools.dsl.parser.annotations.TransientAnnotation;
+import org.telosys.tools.dsl.parser.annotations.UniqueAnnotation;
+import org.telosys.tools.dsl.parser.annotations.UnsignedTypeAnnotation;
+import org.telosys.tools.dsl.parser.annotations.UpdatableAnnotation;
+
+/**
+ * Registry of annotation definitions <br>
+ * A registry is populated with 'register' then frozen : once frozen it is immutable <br>
+ * and can be shared by all threads without synchronization. <br>
+ * <br>
+ * The default registry contains the standard annotations and the additional annotations <br>
+ * discovered with 'ServiceLoader' : each additional annotation is a subclass of 'AnnotationDefinition' <br>
+ * with a public no-arg constructor, declared in the file <br>
+ * "META-INF/services/org.telosys.tools.dsl.parser.annotation.AnnotationDefinition" <br>
+ * The providers are searched with the class loader of this library and with the thread context class loader <br>
+ * (if different). An invalid provider is reported once and ignored. <br>
+ * The default registry is used by the parser and the converter, it can be replaced 
+ * by a custom frozen registry with 'setDefault' (before loading the models). 
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class AnnotationRegistry {
+
+	private static final ConsoleLogger logger = new ConsoleLogger();
+
+	private static final int MAX_SERVICE_ERRORS = 100 ;
+
+	private static volatile AnnotationRegistry defaultRegistry = null ;
+
+	private final List<AnnotationDefinition> annotations = new ArrayList<>();
+	private final Map<String, AnnotationDefinition> annotationsByName = new HashMap<>();
+	private final List<String> serviceErrors = new ArrayList<>();
+
+	// immutable views published when frozen 
+	private volatile List<AnnotationDefinition> frozenAnnotations = null ;
+	private volatile Map<String, AnnotationDefinition> frozenAnnotationsByName = null ;
+
+	/**
+	 * Returns the default registry (standard annotations + annotations discovered with ServiceLoader) <br>
+	 * The registry is built and frozen at the first call (unless a custom registry has been set before)
+	 * @return
+	 */
+	public static AnnotationRegistry getDefault() {
+		AnnotationRegistry registry = defaultRegistry ; // no lock once built
+		if ( registry == null ) {
+			synchronized (AnnotationRegistry.class) {
+				registry = defaultRegistry ;
+				if ( registry == null ) {
+					registry = new AnnotationRegistry().registerStandardAnnotations();
+					for ( ClassLoader classLoader : getServiceClassLoaders() ) {
+						registry.registerServiceProviders(classLoader);
+					}
+					registry.freeze();
+					for ( String error : registry.getServiceErrors() ) {
+						logger.error(error); // reported once 
+					}
+					defaultRegistry = registry ;
+				}
+			}
+		}
+		return registry;
+	}
+
+	/**
+	 * Replaces the default registry used by the parser and the converter <br>
+	 * To be called before loading the models 
+	 * @param registry a frozen registry
+	 * @throws IllegalArgumentException if the registry is null or not frozen
+	 */
+	public static void setDefault(AnnotationRegistry registry) {
+		if ( registry == null ) {
+			throw new IllegalArgumentException("Annotation registry is null");
+		}
+		if ( ! registry.isFrozen() ) {
+			throw new IllegalArgumentException("Annotation registry is not frozen");
+		}
+		synchronized (AnnotationRegistry.class) {
+			defaultRegistry = registry ;
+		}
+	}
+
+	/**
+	 * Returns the class loaders used to discover the annotation definitions : <br>
+	 * the class loader of this library and the thread context class loader (if different)
+	 * @return
+	 */
+	private static List<ClassLoader> getServiceClassLoaders() {
+		ClassLoader libraryClassLoader = AnnotationDefinition.class.getClassLoader();
+		ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+		if ( contextClassLoader != null && contextClassLoader != libraryClassLoader ) {
+			return Arrays.asList(libraryClassLoader, contextClassLoader);
+		}
+		return Arrays.asList(libraryClassLoader);
+	}
+
+	/**
+	 * Constructor for a void registry
+	 */
+	public AnnotationRegistry() {
+		super();
+	}
+
+	/**
+	 * Registers the given annotation definition
+	 * @param annotationDefinition
+	 * @return this registry
+	 * @throws IllegalStateException if the registry is frozen
+	 * @throws IllegalArgumentException if an annotation with the same name is already registered
+	 */
+	public synchronized AnnotationRegistry register(AnnotationDefinition annotationDefinition) {
+		if ( isFrozen() ) {
+			throw new IllegalStateException("Annotation registry is frozen, cannot register '" 
+					+ annotationDefinition.getName() + "'");
+		}
+		AnnotationDefinition existing = annotationsByName.get(annotationDefinition.getName());
+		if ( existing != null ) {
+			throw new IllegalArgumentException("Annotation '" + annotationDefinition.getName() 
+					+ "' is already registered (" + existing.getClass().getName() + ")");
+		}
+		annotations.add(annotationDefinition);
+		annotationsByName.put(annotationDefinition.getName(), annotationDefinition);
+		return this ;
+	}
+
+	/**
+	 * Registers all the annotation definitions found by ServiceLoader with the given class loader <br>
+	 * An invalid provider (configuration error, instantiation error, duplicated name) is ignored 
+	 * and reported in the service errors 
+	 * @param classLoader
+	 * @return this registry
+	 * @throws IllegalStateException if the registry is frozen
+	 */
+	public synchronized AnnotationRegistry registerServiceProviders(ClassLoader classLoader) {
+		if ( isFrozen() ) {
+			throw new IllegalStateException("Annotation registry is frozen, cannot register service providers");
+		}
+		Iterator<AnnotationDefinition> iterator = ServiceLoader.load(AnnotationDefinition.class, classLoader).iterator();
+		int errors = 0 ;
+		while ( errors < MAX_SERVICE_ERRORS ) {
+			AnnotationDefinition annotationDefinition ;
+			try {
+				if ( ! iterator.hasNext() ) {
+					break;
+				}
+				annotationDefinition = iterator.next();
+			} catch (ServiceConfigurationError e) {
+				serviceErrors.add("Cannot load annotation definition : " + e.getMessage());
+				errors++;
+				continue;
+			}
+			AnnotationDefinition existing = annotationsByName.get(annotationDefinition.getName());
+			if ( existing == null ) {
+				register(annotationDefinition);
+			}
+			else if ( existing.getClass() != annotationDefinition.getClass() ) {
+				serviceErrors.add("Annotation '" + annotationDefinition.getName() + "' (" 
+						+ annotationDefinition.getClass().getName() + ") ignored : already registered (" 
+						+ existing.getClass().getName() + ")");
+			}
+			// else : same provider found with another class loader
+		}
+		return this ;
+	}
+
+	/**
+	 * Returns the errors found by 'registerServiceProviders' (the invalid providers have been ignored)
+	 * @return
+	 */
+	public synchronized List<String> getServiceErrors() {
+		return new ArrayList<>(serviceErrors);
+	}
+
+	/**
+	 * Registers all the standard annotation definitions 
+	 * @return this registry
+	 * @throws IllegalStateException if the registry is frozen
+	 */
+	public synchronized AnnotationRegistry registerStandardAnnotations() {
+		
+		register(new IdAnnotation());
+		
+		register(new AutoIncrementedAnnotation());
+
+		register(new NotNullAnnotation());
+		register(new NotEmptyAnnotation());
+		register(new NotBlankAnnotation());
+		
+		register(new MinAnnotation());
+		register(new MaxAnnotation());
+		
+		register(new SizeMinAnnotation());
+		register(new SizeMaxAnnotation());
+
+		register(new PastAnnotation());
+		register(new FutureAnnotation());
+
+		register(new PrimitiveTypeAnnotation());
+		register(new UnsignedTypeAnnotation());
+		register(new ObjectTypeAnnotation());
+		register(new LongTextAnnotation());
+		register(new EmbeddedAnnotation());
+	
+		//--- Added in ver 3.2.0
+		register(new DefaultValueAnnotation());
+		register(new InitialValueAnnotation());
+		register(new LabelAnnotation());
+		register(new InputTypeAnnotation());
+		register(new PatternAnnotation());
+
+		register(new DbNameAnnotation());
+		register(new DbTypeAnnotation());
+		register(new DbDefaultValueAnnotation());
+		register(new DbCommentAnnotation());
+		register(new DbSizeAnnotation());
+		
+		//--- Added in ver 3.3.0
+		register(new FkAnnotation());
+		register(new OptionalAnnotation());
+		register(new TransientAnnotation());
+		register(new FetchTypeEagerAnnotation());
+		register(new FetchTypeLazyAnnotation());
+		register(new MappedByAnnotation());
+		register(new LinkByAttrAnnotation());
+		register(new LinkByFKAnnotation());
+		register(new ManyToManyAnnotation());
+		register(new OneToOneAnnotation());
+		register(new InsertableAnnotation());
+		register(new UpdatableAnnotation());
+		register(new LinkByJoinEntityAnnotation());
+		
+		//--- Added in ver 3.4.0 
+		register(new SizeAnnotation());
+		register(new UniqueAnnotation());
+		register(new MaxLenAnnotation());
+		register(new MinLenAnnotation());
+		register(new GeneratedValueAnnotation());
+		//--- Added in ver 3.4.0 - entity scope
+		register(new DbTableAnnotation());
+		register(new DbViewAnnotation());
+		register(new DbSchemaAnnotation());
+		register(new DbCatalogAnnotation());
+		register(new DbTablespaceAnnotation());
+		
+		register(new AbstractAnnotation());
+		register(new ExtendsAnnotation());
+		register(new PackageAnnotation());
+		register(new ReadOnlyAnnotation());
+		register(new InMemoryRepositoryAnnotation());
+		
+		register(new AggregateRootAnnotation());
+		register(new DomainAnnotation());
+		register(new ContextAnnotation());
+		
+		//--- Added in ver 4.1.0
+		register(new OrphanRemovalAnnotation()); 
+		register(new CascadeAnnotation()); 
+		register(new JoinEntityAnnotation());
+		return this ;
+	}
+
+	/**
+	 * Freezes the registry : no more registration, lock-free lookups
+	 * @return this registry
+	 */
+	public synchronized AnnotationRegistry freeze() {
+		if ( ! isFrozen() ) {
+			frozenAnnotationsByName = Collections.unmodifiableMap(new HashMap<>(annotationsByName));
+			frozenAnnotations = Collections.unmodifiableList(new ArrayList<>(annotations));
+		}
+		return this ;
+	}
+
+	/**
+	 * Returns true if the registry is frozen
+	 * @return
+	 */
+	public boolean isFrozen() {
+		return frozenAnnotations != null ;
+	}
+
+	/**
+	 * Returns the annotation definition for the given name (or null if none)
+	 * @param annotationName
+	 * @return
+	 * @throws IllegalStateException if the registry is not frozen
+	 */
+	public AnnotationDefinition get(String annotationName) {
+		Map<String, AnnotationDefinition> map = frozenAnnotationsByName ;
+		if ( map == null ) {
+			throw new IllegalStateException("Annotation registry is not frozen");
+		}
+		if ( annotationName == null ) {
+			return null ;
+		}
+		return map.get(annotationName);
+	}
+
+	/**
+	 * Returns all the annotation definitions in registration order (unmodifiable list)
+	 * @return
+	 * @throws IllegalStateException if the registry is not frozen
+	 */
+	public List<AnnotationDefinition> getAll() {
+		List<AnnotationDefinition> list = frozenAnnotations ;
+		if ( list == null ) {
+			throw new IllegalStateException("Annotation registry is not frozen");
+		}
+		return list;
+	}
+}
@@ -0,0 +1,297 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.parser.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.telosys.tools.dsl.DslModelError;
+import org.telosys.tools.dsl.parser.commons.FkElement;
+import org.telosys.tools.dsl.parser.model.DomainAnnotation;
+import org.telosys.tools.dsl.parser.model.DomainCardinality;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainEntityType;
+import org.telosys.tools.dsl.parser.model.DomainField;
+import org.telosys.tools.dsl.parser.model.DomainNeutralTypes;
+import org.telosys.tools.dsl.parser.model.DomainTag;
+import org.telosys.tools.dsl.parser.model.DomainType;
+
+/**
+ * Binary serializer for a parsed entity ( 'DomainEntity' with its fields, annotations, tags and FK elements ) <br>
+ * Any change in this format requires a new cache format version
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+class DomainEntitySerializer {
+
+	//--- annotation parameter types
+	private static final int NO_PARAMETER  = 0 ;
+	private static final int STRING        = 1 ;
+	private static final int INTEGER       = 2 ;
+	private static final int BIG_DECIMAL   = 3 ;
+	private static final int BOOLEAN       = 4 ;
+	private static final int LIST          = 5 ;
+	private static final int FK_ELEMENT    = 6 ;
+
+	//--- field types
+	private static final int NEUTRAL_TYPE  = 0 ;
+	private static final int ENTITY_ONE    = 1 ;
+	private static final int ENTITY_MANY   = 2 ;
+
+	/**
+	 * Private constructor
+	 */
+	private DomainEntitySerializer() {
+	}
+
+	//-------------------------------------------------------------------------------------
+	// WRITE
+	//-------------------------------------------------------------------------------------
+	protected static void writeEntity(DataOutput out, DomainEntity entity) throws IOException {
+		writeString(out, entity.getName());
+		writeString(out, entity.getDatabaseTable());
+		writeAnnotations(out, entity.getAnnotations().values());
+		writeTags(out, entity.getTags().values());
+		List<DomainField> fields = entity.getFields();
+		out.writeInt(fields.size());
+		for ( DomainField field : fields ) {
+			writeField(out, field);
+		}
+	}
+
+	private static void writeField(DataOutput out, DomainField field) throws IOException {
+		out.writeInt(field.getLineNumber());
+		writeString(out, field.getName());
+		DomainType type = field.getType();
+		if ( type.isEntity() ) {
+			out.writeInt(type.getCardinality() == DomainCardinality.MANY ? ENTITY_MANY : ENTITY_ONE);
+		}
+		else {
+			out.writeInt(NEUTRAL_TYPE);
+		}
+		writeString(out, type.getName());
+		writeAnnotations(out, field.getAnnotations().values());
+		writeTags(out, field.getTags().values());
+		out.writeInt(field.getFkElements().size());
+		for ( FkElement fkElement : field.getFkElements() ) {
+			writeFkElement(out, fkElement);
+		}
+	}
+
+	private static void writeAnnotations(DataOutput out, Iterable<DomainAnnotation> annotations) throws IOException {
+		List<DomainAnnotation> list = new LinkedList<>();
+		for ( DomainAnnotation annotation : annotations ) {
+			list.add(annotation);
+		}
+		out.writeInt(list.size());
+		for ( DomainAnnotation annotation : list ) {
+			writeString(out, annotation.getName());
+			writeParameter(out, annotation.getParameter());
+		}
+	}
+
+	private static void writeParameter(DataOutput out, Object parameter) throws IOException {
+		if ( parameter == null ) {
+			out.writeInt(NO_PARAMETER);
+		}
+		else if ( parameter instanceof String ) {
+			out.writeInt(STRING);
+			writeString(out, (String) parameter);
+		}
+		else if ( parameter instanceof Integer ) {
+			out.writeInt(INTEGER);
+			out.writeInt((Integer) parameter);
+		}
+		else if ( parameter instanceof BigDecimal ) {
+			out.writeInt(BIG_DECIMAL);
+			writeString(out, parameter.toString());
+		}
+		else if ( parameter instanceof Boolean ) {
+			out.writeInt(BOOLEAN);
+			out.writeBoolean((Boolean) parameter);
+		}
+		else if ( parameter instanceof List ) {
+			out.writeInt(LIST);
+			List<?> list = (List<?>) parameter;
+			out.writeInt(list.size());
+			for ( Object element : list ) {
+				writeString(out, (String) element);
+			}
+		}
+		else if ( parameter instanceof FkElement ) {
+			out.writeInt(FK_ELEMENT);
+			writeFkElement(out, (FkElement) parameter);
+		}
+		else {
+			throw new IOException("Unexpected annotation parameter type " + parameter.getClass().getName());
+		}
+	}
+
+	private static void writeTags(DataOutput out, Iterable<DomainTag> tags) throws IOException {
+		List<DomainTag> list = new LinkedList<>();
+		for ( DomainTag tag : tags ) {
+			list.add(tag);
+		}
+		out.writeInt(list.size());
+		for ( DomainTag tag : list ) {
+			writeString(out, tag.getName());
+			writeString(out, tag.getParameter());
+		}
+	}
+
+	private static void writeFkElement(DataOutput out, FkElement fkElement) throws IOException {
+		writeString(out, fkElement.getFkName());
+		writeString(out, fkElement.getReferencedEntityName());
+		writeString(out, fkElement.getReferencedFieldName());
+	}
+
+	/**
+	 * Writes a string (can be null) as UTF-8 bytes (no size limit as with 'writeUTF')
+	 * @param out
+	 * @param s
+	 * @throws IOException
+	 */
+	private static void writeString(DataOutput out, String s) throws IOException {
+		if ( s == null ) {
+			out.writeInt(-1);
+		}
+		else {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	//-------------------------------------------------------------------------------------
+	// READ
+	//-------------------------------------------------------------------------------------
+	protected static DomainEntity readEntity(DataInput in) throws IOException {
+		DomainEntity entity = new DomainEntity(readString(in));
+		entity.setDatabaseTable(readString(in));
+		int n = in.readInt();
+		for ( int i = 0 ; i < n ; i++ ) {
+			entity.addAnnotation(readAnnotation(in));
+		}
+		n = in.readInt();
+		for ( int i = 0 ; i < n ; i++ ) {
+			entity.addTag(readTag(in));
+		}
+		n = in.readInt();
+		for ( int i = 0 ; i < n ; i++ ) {
+			try {
+				entity.addField(readField(in));
+			} catch (DslModelError e) {
+				throw new IOException("Invalid cached entity : " + e.getMessage());
+			}
+		}
+		return entity;
+	}
+
+	private static DomainField readField(DataInput in) throws IOException {
+		int lineNumber = in.readInt();
+		String name = readString(in);
+		int typeKind = in.readInt();
+		String typeName = readString(in);
+		DomainType type ;
+		switch ( typeKind ) {
+		case NEUTRAL_TYPE :
+			type = DomainNeutralTypes.getType(typeName); // same instance as the parser
+			if ( type == null ) {
+				throw new IOException("Invalid neutral type '" + typeName + "'");
+			}
+			break;
+		case ENTITY_ONE :
+			type = new DomainEntityType(typeName, DomainCardinality.ONE);
+			break;
+		case ENTITY_MANY :
+			type = new DomainEntityType(typeName, DomainCardinality.MANY);
+			break;
+		default :
+			throw new IOException("Invalid field type kind " + typeKind);
+		}
+		DomainField field = new DomainField(lineNumber, name, type);
+		int n = in.readInt();
+		for ( int i = 0 ; i < n ; i++ ) {
+			field.addAnnotation(readAnnotation(in));
+		}
+		n = in.readInt();
+		for ( int i = 0 ; i < n ; i++ ) {
+			field.addTag(readTag(in));
+		}
+		n = in.readInt();
+		for ( int i = 0 ; i < n ; i++ ) {
+			field.addFkElement(readFkElement(in));
+		}
+		return field;
+	}
+
+	private static DomainAnnotation readAnnotation(DataInput in) throws IOException {
+		String name = readString(in);
+		int parameterType = in.readInt();
+		switch ( parameterType ) {
+		case NO_PARAMETER :
+			return new DomainAnnotation(name);
+		case STRING :
+			return new DomainAnnotation(name, readString(in));
+		case INTEGER :
+			return new DomainAnnotation(name, Integer.valueOf(in.readInt()));
+		case BIG_DECIMAL :
+			return new DomainAnnotation(name, new BigDecimal(readString(in)));
+		case BOOLEAN :
+			return new DomainAnnotation(name, Boolean.valueOf(in.readBoolean()));
+		case LIST :
+			int n = in.readInt();
+			List<String> list = new LinkedList<>();
+			for ( int i = 0 ; i < n ; i++ ) {
+				list.add(readString(in));
+			}
+			return new DomainAnnotation(name, list);
+		case FK_ELEMENT :
+			return new DomainAnnotation(name, readFkElement(in));
+		default :
+			throw new IOException("Invalid annotation parameter type " + parameterType);
+		}
+	}
+
+	private static DomainTag readTag(DataInput in) throws IOException {
+		String name = readString(in);
+		String parameter = readString(in);
+		return parameter != null ? new DomainTag(name, parameter) : new DomainTag(name);
+	}
+
+	private static FkElement readFkElement(DataInput in) throws IOException {
+		String fkName = readString(in);
+		String referencedEntityName = readString(in);
+		String referencedFieldName = readString(in);
+		return new FkElement(fkName, referencedEntityName, referencedFieldName);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if ( length < 0 ) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
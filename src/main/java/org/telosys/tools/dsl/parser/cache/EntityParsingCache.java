@@ -0,0 +1,232 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.parser.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.telosys.tools.dsl.DslModelUtil;
+import org.telosys.tools.dsl.model.DslModelVersion;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainField;
+
+/**
+ * On-disk cache for parsed entities <br>
+ * Each valid parsed entity is stored in the '.telosys-cache' folder located in the model folder <br>
+ * ( eg "mymodel/.telosys-cache/Car.cache" for "mymodel/Car.entity" ) <br>
+ * A cached entity is used only if : <br>
+ *  . the SHA-256 hash of the entity file is the same <br>
+ *  . the cache was written with the same format and the same DSL model version (and build id) <br>
+ *  . all the entities referenced by its fields still exist in the model <br>
+ * <br>
+ * The cache is optional : any I/O error is considered as a cache miss. <br>
+ * This class is thread-safe (a cache file is written in a temporary file and then moved)
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class EntityParsingCache {
+
+	public static final String CACHE_FOLDER_NAME = ".telosys-cache" ;
+
+	private static final String CACHE_FILE_SUFFIX = ".cache" ;
+
+	private static final int MAGIC_NUMBER = 0x54444331 ; // "TDC1"
+
+	/**
+	 * Cache format version : to be incremented for each change in the serialization format
+	 */
+	private static final int FORMAT_VERSION = 1 ;
+
+	private final String versionStamp ;
+
+	private final AtomicInteger hits = new AtomicInteger();
+
+	private final AtomicInteger misses = new AtomicInteger();
+
+	/**
+	 * Constructor
+	 */
+	public EntityParsingCache() {
+		this(DslModelVersion.getVersionWithBuilId());
+	}
+
+	/**
+	 * Constructor with a specific version stamp
+	 * @param versionStamp the version of the parser producing the cached entities
+	 */
+	protected EntityParsingCache(String versionStamp) {
+		super();
+		this.versionStamp = versionStamp != null ? versionStamp : "" ;
+	}
+
+	/**
+	 * Returns the number of entities retrieved from the cache
+	 * @return
+	 */
+	public int getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * Returns the number of entities not found (or not usable) in the cache
+	 * @return
+	 */
+	public int getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Returns the cache folder for the given model folder
+	 * @param modelFolder
+	 * @return
+	 */
+	public static File getCacheFolder(File modelFolder) {
+		return new File(modelFolder, CACHE_FOLDER_NAME);
+	}
+
+	private File getCacheFile(File entityFile) {
+		File cacheFolder = getCacheFolder(entityFile.getAbsoluteFile().getParentFile());
+		return new File(cacheFolder, DslModelUtil.getEntityName(entityFile) + CACHE_FILE_SUFFIX);
+	}
+
+	/**
+	 * Computes the hash of the given entity file content
+	 * @param entityFile
+	 * @return the hash (hexadecimal) or null if the file cannot be read
+	 */
+	public String computeHash(File entityFile) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] digest = md.digest(Files.readAllBytes(entityFile.toPath()));
+			StringBuilder sb = new StringBuilder();
+			for ( byte b : digest ) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the cached entity for the given entity file (or null if not in the cache)
+	 * @param entityFile the entity file
+	 * @param hash the current entity file hash
+	 * @param entitiesNames all the entities names in the model
+	 * @return
+	 */
+	public DomainEntity get(File entityFile, String hash, List<String> entitiesNames) {
+		DomainEntity entity = null ;
+		File cacheFile = getCacheFile(entityFile);
+		if ( hash != null && cacheFile.exists() ) {
+			try ( DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile))) ) {
+				if ( in.readInt() == MAGIC_NUMBER
+						&& in.readInt() == FORMAT_VERSION
+						&& versionStamp.equals(in.readUTF())
+						&& hash.equals(in.readUTF()) ) {
+					entity = DomainEntitySerializer.readEntity(in);
+				}
+			} catch (IOException | RuntimeException e) {
+				entity = null ; // invalid cache file => cache miss
+			}
+		}
+		if ( entity != null && referencedEntitiesExist(entity, entitiesNames) ) {
+			hits.incrementAndGet();
+			return entity ;
+		}
+		else {
+			misses.incrementAndGet();
+			return null ;
+		}
+	}
+
+	/**
+	 * The parsing result depends on the existing entities (a field type can be an entity)
+	 * @param entity
+	 * @param entitiesNames
+	 * @return
+	 */
+	private boolean referencedEntitiesExist(DomainEntity entity, List<String> entitiesNames) {
+		for ( DomainField field : entity.getFields() ) {
+			if ( field.isLink() && ! entitiesNames.contains(field.getTypeName()) ) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Stores the given entity in the cache
+	 * @param entityFile the entity file
+	 * @param hash the entity file hash
+	 * @param entity the entity parsed without error
+	 */
+	public void put(File entityFile, String hash, DomainEntity entity) {
+		if ( hash == null ) {
+			return;
+		}
+		File cacheFile = getCacheFile(entityFile);
+		File tmpFile = null ;
+		try {
+			File cacheFolder = cacheFile.getParentFile();
+			if ( ! cacheFolder.exists() ) {
+				cacheFolder.mkdirs();
+			}
+			tmpFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFolder);
+			try ( DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile))) ) {
+				out.writeInt(MAGIC_NUMBER);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(versionStamp);
+				out.writeUTF(hash);
+				DomainEntitySerializer.writeEntity(out, entity);
+			}
+			Files.move(tmpFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			// the cache is optional : just try to remove the temporary file
+			if ( tmpFile != null ) {
+				tmpFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Removes all the cache files for the given model folder
+	 * @param modelFolder
+	 */
+	public static void clear(File modelFolder) {
+		File cacheFolder = getCacheFolder(modelFolder);
+		File[] files = cacheFolder.listFiles();
+		if ( files != null ) {
+			for ( File file : files ) {
+				file.delete();
+			}
+		}
+		cacheFolder.delete();
+	}
+}
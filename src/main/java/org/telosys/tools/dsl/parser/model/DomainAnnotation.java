@@ -31,6 +31,8 @@ public class DomainAnnotation {
 	
 	private final String name;
 	private final Object parameter;
+	// v 4.3.0 : definition resolved once at construction (null if unknown annotation)
+	private final AnnotationDefinition annotationDefinition ;
 
 	//-------------------------------------------------------------------------
 	// Constructors
@@ -43,6 +45,7 @@ public class DomainAnnotation {
     public DomainAnnotation(String name) {
     	super();
 		this.name = name;
+		this.annotationDefinition = AnnotationDefinitions.get(name);
 		this.parameter = null;
     }
 
@@ -54,6 +57,7 @@ public class DomainAnnotation {
     public DomainAnnotation(String name, String param) {
     	super();
 		this.name = name;
+		this.annotationDefinition = AnnotationDefinitions.get(name);
 		this.parameter = param;
     }
     
@@ -65,6 +69,7 @@ public class DomainAnnotation {
     public DomainAnnotation(String name, Integer param) {
     	super();
 		this.name = name;
+		this.annotationDefinition = AnnotationDefinitions.get(name);
 		this.parameter = param;
     }
     
@@ -76,6 +81,7 @@ public class DomainAnnotation {
     public DomainAnnotation(String name, BigDecimal param) {
     	super();
 		this.name = name;
+		this.annotationDefinition = AnnotationDefinitions.get(name);
 		this.parameter = param;
     }
 
@@ -87,6 +93,7 @@ public class DomainAnnotation {
     public DomainAnnotation(String name, Boolean param) {
     	super();
 		this.name = name;
+		this.annotationDefinition = AnnotationDefinitions.get(name);
 		this.parameter = param;
     }
     
@@ -98,6 +105,7 @@ public class DomainAnnotation {
     public DomainAnnotation(String name, List<String> param) {
     	super();
 		this.name = name;
+		this.annotationDefinition = AnnotationDefinitions.get(name);
 		this.parameter = param;
     }
     
@@ -109,6 +117,7 @@ public class DomainAnnotation {
     public DomainAnnotation(String name, FkElement param) {
     	super();
 		this.name = name;
+		this.annotationDefinition = AnnotationDefinitions.get(name);
 		this.parameter = param;
     }
 
@@ -254,8 +263,7 @@ public class DomainAnnotation {
     }
 
 	public void applyToEntity(DslModel model, DslModelEntity entity ) throws ParamError {
-    	AnnotationDefinition annotationDefinition = getAnnotationDefinition();
-       	if ( annotationDefinition.hasEntityScope() ) {
+       	if ( getAnnotationDefinition().hasEntityScope() ) {
         	annotationDefinition.applyToEntity(model, entity, this.getParameter());
     	}
     	else {
@@ -270,8 +278,7 @@ public class DomainAnnotation {
 	 * @param attribute
 	 */
 	public void applyToAttribute(DslModel model, DslModelEntity entity, DslModelAttribute attribute ) throws ParamError {
-    	AnnotationDefinition annotationDefinition = getAnnotationDefinition();
-       	if ( annotationDefinition.hasAttributeScope() ) {
+       	if ( getAnnotationDefinition().hasAttributeScope() ) {
         	annotationDefinition.apply(model, entity, attribute, this.getParameter());
     	}
     	else {
@@ -286,8 +293,7 @@ public class DomainAnnotation {
 	 * @param link
 	 */
 	public void applyToLink(DslModel model, DslModelEntity entity, DslModelLink link ) throws ParamError {
-    	AnnotationDefinition annotationDefinition = getAnnotationDefinition();
-       	if ( annotationDefinition.hasLinkScope() ) {
+       	if ( getAnnotationDefinition().hasLinkScope() ) {
     		annotationDefinition.apply(model, entity, link, this.getParameter());
     	}
     	else {
@@ -300,7 +306,6 @@ public class DomainAnnotation {
 	 * @return
 	 */
 	public AnnotationDefinition getAnnotationDefinition() {
-    	AnnotationDefinition annotationDefinition = AnnotationDefinitions.get(this.name);
     	if ( annotationDefinition != null ) {
     		return annotationDefinition ;
     	}
@@ -0,0 +1,197 @@
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DslModelCacheTest {
+
+	/**
+	 * Cache counting the loads (with an optional latch to block the loading)
+	 */
+	private static class CountingCache extends DslModelCache {
+		private final AtomicInteger loads = new AtomicInteger(0);
+		private CountDownLatch latch = null ;
+		private CountingCache(int maxModels, long maxWeight) {
+			super(maxModels, maxWeight);
+		}
+		@Override
+		protected DslModel loadModel(File modelFolder) throws DslModelError {
+			loads.incrementAndGet();
+			if ( latch != null ) {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			return super.loadModel(modelFolder);
+		}
+	}
+
+	@Test
+	public void testHitAndMiss() throws Exception {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people1");
+		CountingCache cache = new CountingCache(10, 0);
+		DslModel model1 = cache.getModel(modelFolder);
+		DslModel model2 = cache.getModel(new File(modelFolder, "../people1"));
+		assertSame(model1, model2);
+		assertEquals(1, cache.loads.get());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.size());
+		assertTrue(cache.getWeight() > 0);
+
+		//--- changed file => reloaded
+		Files.write(new File(modelFolder, "Town.entity").toPath(), 
+				"\n// changed \n".getBytes(StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND);
+		DslModel model3 = cache.getModel(modelFolder);
+		assertNotSame(model1, model3);
+		assertEquals(2, cache.loads.get());
+		assertEquals(1, cache.size());
+		assertEquals(0, cache.getEvictions());
+
+		cache.invalidate(modelFolder);
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	public void testEvictionByNumber() throws Exception {
+		File modelFolder1 = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people2");
+		File modelFolder2 = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people3");
+		CountingCache cache = new CountingCache(1, 0);
+		cache.getModel(modelFolder1);
+		cache.getModel(modelFolder2);
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getEvictions());
+		cache.getModel(modelFolder2);
+		assertEquals(2, cache.loads.get());
+		cache.getModel(modelFolder1);
+		assertEquals(3, cache.loads.get());
+		assertEquals(2, cache.getEvictions());
+	}
+
+	@Test
+	public void testEvictionByWeight() throws Exception {
+		File modelFolder1 = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people4");
+		File modelFolder2 = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people5");
+		File modelFolder3 = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people6");
+		CountingCache cache = new CountingCache(10, 0);
+		DslModel model = cache.getModel(modelFolder1);
+		long weight = cache.weigh(model);
+		assertEquals(weight, cache.getWeight());
+		// room for 2 models
+		cache = new CountingCache(10, weight * 2 + 1);
+		cache.getModel(modelFolder1);
+		cache.getModel(modelFolder2);
+		cache.getModel(modelFolder1); // model 1 is now the most recently used 
+		cache.getModel(modelFolder3); // evicts model 2
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictions());
+		cache.getModel(modelFolder1);
+		assertEquals(3, cache.loads.get());
+		cache.getModel(modelFolder2);
+		assertEquals(4, cache.loads.get());
+	}
+
+	@Test
+	public void testSingleFlight() throws Exception {
+		final File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people7");
+		final CountingCache cache = new CountingCache(10, 0);
+		cache.latch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<DslModel>> futures = new LinkedList<>();
+			for ( int i = 0 ; i < 4 ; i++ ) {
+				futures.add(executor.submit(new Callable<DslModel>() {
+					@Override
+					public DslModel call() throws Exception {
+						return cache.getModel(modelFolder);
+					}
+				}));
+			}
+			while ( cache.getHits() + cache.getMisses() < 4 ) {
+				Thread.sleep(10);
+			}
+			cache.latch.countDown();
+			DslModel model = futures.get(0).get();
+			for ( Future<DslModel> future : futures ) {
+				assertSame(model, future.get());
+			}
+			assertEquals(1, cache.loads.get());
+			assertEquals(1, cache.getMisses());
+			assertEquals(3, cache.getHits());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testInvalidModel() throws Exception {
+		DslModelCache cache = new DslModelCache(10, 0);
+		File modelFolder = new File("src/test/resources/model_test/invalid/TwoEntitiesModel");
+		for ( int i = 1 ; i <= 2 ; i++ ) {
+			try {
+				cache.getModel(modelFolder);
+				throw new AssertionError("DslModelError expected");
+			} catch (DslModelError e) {
+				assertTrue(e.getMessage().contains("TwoEntitiesModel"));
+			}
+		}
+		assertEquals(2, cache.getMisses());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testChangeWithSameSizeAndTimestamp() throws Exception {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people8");
+		CountingCache cache = new CountingCache(10, 0);
+		DslModel model1 = cache.getModel(modelFolder);
+		File file = new File(modelFolder, "Town.entity");
+		long lastModified = file.lastModified();
+		String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+		// same size, same timestamp
+		Files.write(file.toPath(), content.replace("name : string", "nome : string").getBytes(StandardCharsets.UTF_8));
+		assertTrue(file.setLastModified(lastModified));
+		assertEquals(content.length(), file.length());
+		DslModel model2 = cache.getModel(modelFolder);
+		assertNotSame(model1, model2);
+		assertEquals(2, cache.loads.get());
+	}
+
+	@Test
+	public void testModelManagerFactory() throws Exception {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-cache/people9");
+		final AtomicInteger created = new AtomicInteger(0);
+		DslModelCache cache = new DslModelCache(10, 0, new DslModelManagerFactory() {
+			@Override
+			public DslModelManager createModelManager() {
+				created.incrementAndGet();
+				DslModelManager modelManager = new DslModelManager();
+				modelManager.setFailFast(true);
+				return modelManager;
+			}
+		});
+		DslModel model = cache.getModel(modelFolder);
+		assertSame(model, cache.getModel(modelFolder));
+		assertEquals(1, created.get());
+	}
+}
@@ -0,0 +1,142 @@
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.converter.ModelConverter;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.ParsingResult;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DslModelErrorsLimitTest {
+
+	/**
+	 * Creates a model with 10 entities, each one with 2 errors
+	 * @return
+	 * @throws IOException
+	 */
+	private File createInvalidModel() throws IOException {
+		File modelFolder = TestFileProvider.getTargetTmpFile("errors-limit/invalid");
+		modelFolder.mkdirs();
+		for ( int i = 1 ; i <= 10 ; i++ ) {
+			String name = "Entity" + i ;
+			String content = name + " {\n  id : int { @Id @Foo } ;\n  code : badtype ;\n}\n" ;
+			Files.write(new File(modelFolder, name + ".entity").toPath(), content.getBytes(StandardCharsets.UTF_8));
+		}
+		return modelFolder;
+	}
+
+	@Test
+	public void testErrorsCollector() {
+		DslModelErrors errors = new DslModelErrors(2);
+		assertFalse(errors.isLimitReached());
+		errors.addError(new DslModelError("e1"));
+		errors.addError(new DslModelError("e2"));
+		assertTrue(errors.isLimitReached());
+		errors.addError(new DslModelError("e3")); // ignored
+		assertEquals(2, errors.getNumberOfErrors());
+		assertFalse(errors.isInterrupted());
+		errors.addUnprocessedEntities(3);
+		assertTrue(errors.isInterrupted());
+		assertEquals(3, errors.getNumberOfUnprocessedEntities());
+	}
+
+	@Test
+	public void testParserNoLimit() throws IOException {
+		ParsingResult result = new ParserV2().parseModel(createInvalidModel());
+		assertEquals(20, result.getErrors().getNumberOfErrors());
+		assertFalse(result.getErrors().isInterrupted());
+	}
+
+	@Test
+	public void testParserFailFast() throws IOException {
+		ParserV2 parser = new ParserV2();
+		parser.setMaxErrors(1);
+		ParsingResult result = parser.parseModel(createInvalidModel());
+		assertEquals(1, result.getErrors().getNumberOfErrors());
+		assertEquals(9, result.getErrors().getNumberOfUnprocessedEntities());
+	}
+
+	@Test
+	public void testParserMaxErrors() throws IOException {
+		ParserV2 parser = new ParserV2();
+		parser.setMaxErrors(3);
+		ParsingResult result = parser.parseModel(createInvalidModel());
+		assertEquals(3, result.getErrors().getNumberOfErrors());
+		assertEquals(8, result.getErrors().getNumberOfUnprocessedEntities());
+	}
+
+	private ParsingResult parseInParallel(int maxErrors) throws IOException {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ParserV2 parser = new ParserV2(executor);
+			parser.setMaxErrors(maxErrors);
+			return parser.parseModel(createInvalidModel());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void assertSameErrors(DslModelErrors expected, DslModelErrors actual) {
+		assertEquals(expected.getNumberOfErrors(), actual.getNumberOfErrors());
+		assertEquals(expected.getNumberOfUnprocessedEntities(), actual.getNumberOfUnprocessedEntities());
+		for ( int i = 0 ; i < expected.getNumberOfErrors() ; i++ ) {
+			assertEquals(expected.getErrors().get(i).getEntityName(), actual.getErrors().get(i).getEntityName());
+			assertEquals(expected.getErrors().get(i).getMessage(), actual.getErrors().get(i).getMessage());
+		}
+	}
+
+	@Test
+	public void testParallelParserFailFast() throws IOException {
+		// same result as the sequential parsing (whatever the tasks scheduling)
+		for ( int i = 0 ; i < 10 ; i++ ) {
+			ParsingResult result = parseInParallel(1);
+			assertEquals(1, result.getErrors().getNumberOfErrors());
+			assertEquals(9, result.getErrors().getNumberOfUnprocessedEntities());
+		}
+	}
+
+	@Test
+	public void testParallelParserMaxErrors() throws IOException {
+		ParserV2 parser = new ParserV2();
+		parser.setMaxErrors(3);
+		ParsingResult sequentialResult = parser.parseModel(createInvalidModel());
+		for ( int i = 0 ; i < 10 ; i++ ) {
+			ParsingResult result = parseInParallel(3);
+			assertEquals(3, result.getErrors().getNumberOfErrors());
+			assertEquals(8, result.getErrors().getNumberOfUnprocessedEntities());
+			assertSameErrors(sequentialResult.getErrors(), result.getErrors());
+		}
+	}
+
+	@Test
+	public void testModelManagerFailFast() throws IOException {
+		DslModelManager modelManager = new DslModelManager();
+		modelManager.setFailFast(true);
+		assertNull(modelManager.loadModel(createInvalidModel()));
+		assertEquals(1, modelManager.getErrors().getNumberOfErrors());
+		assertEquals(9, modelManager.getErrors().getNumberOfUnprocessedEntities());
+		assertEquals("1 parsing error(s) (parsing stopped, 9 entities not parsed)", modelManager.getErrorMessage());
+	}
+
+	@Test
+	public void testConverterStopped() {
+		ParsingResult result = new ParserV2().parseModel("src/test/resources/model_test/valid/PeopleModel");
+		assertFalse(result.hasErrors());
+		DslModelErrors errors = new DslModelErrors(1);
+		errors.addError(new DslModelError("previous error"));
+		new ModelConverter(errors).convertModel(result.getModel());
+		assertEquals(6, errors.getNumberOfUnprocessedEntities());
+		assertEquals(4, errors.getNumberOfSkippedSteps());
+	}
+}
@@ -0,0 +1,138 @@
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.ForeignKey;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.Model;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DslModelIncrementalLoaderTest {
+
+	private void appendLine(File file, String line) throws IOException {
+		long lastModified = file.lastModified();
+		Files.write(file.toPath(), (line + "\n").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		file.setLastModified(lastModified + 2000);
+	}
+
+	private String describe(Model model) {
+		StringBuilder sb = new StringBuilder();
+		for ( Entity entity : model.getEntities() ) {
+			sb.append(entity.getClassName()).append(" (").append(entity.getDatabaseTable()).append(")\n");
+			for ( Attribute a : entity.getAttributes() ) {
+				sb.append(" attribute ").append(a.getName()).append(":").append(a.getNeutralType())
+					.append(" key=").append(a.isKeyElement()).append(" fk=").append(a.isFK()).append("\n");
+			}
+			for ( Link link : entity.getLinks() ) {
+				sb.append(" link ").append(link.getFieldName()).append(" -> ").append(link.getReferencedEntityName())
+					.append(" ").append(link.getAttributes() != null ? link.getAttributes().size() : 0).append("\n");
+			}
+			for ( ForeignKey fk : entity.getForeignKeys() ) {
+				// implicit FK names contain a global counter 
+				String fkName = fk.getName().startsWith("FK_IMPLICIT") ? "FK_IMPLICIT" : fk.getName();
+				sb.append(" fk ").append(fkName).append(" -> ").append(fk.getReferencedEntityName())
+					.append(" ").append(fk.getAttributes().size()).append("\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	private void checkSameAsFullLoad(File modelFolder, Model model) {
+		Model fullModel = new DslModelManager().loadModel(modelFolder);
+		assertNotNull(fullModel);
+		assertNotNull(model);
+		assertEquals(describe(fullModel), describe(model));
+	}
+
+	@Test
+	public void testFirstLoadAndNoChange() throws IOException {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "incremental/people1");
+		DslModelIncrementalLoader loader = new DslModelIncrementalLoader(modelFolder);
+		Model model1 = loader.loadModel();
+		assertNotNull(model1);
+		assertEquals(6, loader.getNumberOfParsedEntities());
+		assertEquals(6, loader.getNumberOfConvertedEntities());
+		checkSameAsFullLoad(modelFolder, model1);
+
+		Model model2 = loader.loadModel();
+		assertNotNull(model2);
+		assertNotSame(model1, model2);
+		assertEquals(0, loader.getNumberOfParsedEntities());
+		assertEquals(0, loader.getNumberOfConvertedEntities());
+		assertSame(model1.getEntityByClassName("Person"), model2.getEntityByClassName("Person"));
+		checkSameAsFullLoad(modelFolder, model2);
+	}
+
+	@Test
+	public void testChangedEntity() throws IOException {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "incremental/people2");
+		DslModelIncrementalLoader loader = new DslModelIncrementalLoader(modelFolder);
+		Model model1 = loader.loadModel();
+		assertNotNull(model1);
+
+		// Town is referenced by Person only
+		appendLine(new File(modelFolder, "Town.entity"), "// changed");
+		Model model2 = loader.loadModel();
+		assertNotNull(model2);
+		assertEquals(1, loader.getNumberOfParsedEntities());
+		assertEquals(2, loader.getNumberOfConvertedEntities());
+		assertNotSame(model1.getEntityByClassName("Town"), model2.getEntityByClassName("Town"));
+		assertNotSame(model1.getEntityByClassName("Person"), model2.getEntityByClassName("Person"));
+		assertSame(model1.getEntityByClassName("Country"), model2.getEntityByClassName("Country"));
+		checkSameAsFullLoad(modelFolder, model2);
+	}
+
+	@Test
+	public void testAddedAndDeletedEntity() throws IOException {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "incremental/people3");
+		DslModelIncrementalLoader loader = new DslModelIncrementalLoader(modelFolder);
+		assertNotNull(loader.loadModel());
+
+		//--- new entity
+		File foo = new File(modelFolder, "Foo.entity");
+		Files.write(foo.toPath(), "Foo {\n id : int { @Id } ;\n country : Country ;\n}\n".getBytes(StandardCharsets.UTF_8));
+		Model model = loader.loadModel();
+		assertNotNull(model);
+		assertEquals(1, loader.getNumberOfParsedEntities());
+		assertEquals(1, loader.getNumberOfConvertedEntities());
+		assertEquals(7, model.getEntities().size());
+		checkSameAsFullLoad(modelFolder, model);
+
+		//--- deleted entity => Foo is now invalid
+		assertTrue(new File(modelFolder, "Country.entity").delete());
+		assertNull(loader.loadModel());
+		assertTrue(loader.getErrors().getNumberOfErrors() > 0);
+
+		//--- deleted invalid entity => valid again
+		assertTrue(foo.delete());
+		assertTrue(new File(modelFolder, "Area.entity").delete());
+		assertTrue(new File(modelFolder, "Town.entity").delete());
+		File person = new File(modelFolder, "Person.entity");
+		Files.write(person.toPath(), "Person {\n id : int { @Id } ;\n gender : Gender ;\n}\n".getBytes(StandardCharsets.UTF_8));
+		model = loader.loadModel();
+		assertNotNull(model);
+		assertEquals(3, model.getEntities().size());
+		checkSameAsFullLoad(modelFolder, model);
+	}
+
+	@Test
+	public void testInvalidFolder() {
+		DslModelIncrementalLoader loader = new DslModelIncrementalLoader(new File("src/test/resources/model_test/nofolder"));
+		assertNull(loader.loadModel());
+		assertEquals(1, loader.getErrors().getNumberOfErrors());
+	}
+}
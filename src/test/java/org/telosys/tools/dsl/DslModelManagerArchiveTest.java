@@ -0,0 +1,140 @@
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DslModelManagerArchiveTest {
+
+	private static final File PEOPLE_MODEL = new File("src/test/resources/model_test/valid/PeopleModel");
+
+	private File createArchive(String fileName, String folderInArchive) throws IOException {
+		File archive = TestFileProvider.getTargetTmpFile("model-archives/" + fileName);
+		archive.getParentFile().mkdirs();
+		try ( ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive)) ) {
+			//--- directory entries (as in a jar built by Maven)
+			int i = folderInArchive.indexOf('/');
+			while ( i > 0 ) {
+				out.putNextEntry(new ZipEntry(folderInArchive.substring(0, i + 1)));
+				out.closeEntry();
+				i = folderInArchive.indexOf('/', i + 1);
+			}
+			for ( File file : PEOPLE_MODEL.listFiles() ) {
+				out.putNextEntry(new ZipEntry(folderInArchive + file.getName()));
+				out.write(Files.readAllBytes(file.toPath()));
+				out.closeEntry();
+			}
+		}
+		return archive;
+	}
+
+	private void checkPeopleModel(DslModelManager modelManager, DslModel model, String expectedName) {
+		assertNotNull(modelManager.getErrorMessage() + " " + modelManager.getErrors(), model);
+		assertEquals(expectedName, model.getName());
+		assertEquals(6, model.getEntities().size());
+		DslModel modelFromFolder = (DslModel) new DslModelManager().loadModel(PEOPLE_MODEL);
+		assertEquals(modelFromFolder.getTitle(), model.getTitle());
+	}
+
+	@Test
+	public void testLoadModelFromArchive() throws IOException {
+		File zip = createArchive("people.zip", "models/people/");
+		DslModelManager modelManager = new DslModelManager();
+		DslModel model = (DslModel) modelManager.loadModelFromArchive(zip, "models/people");
+		checkPeopleModel(modelManager, model, "people");
+
+		File rootZip = createArchive("people-root.zip", "");
+		model = (DslModel) modelManager.loadModelFromArchive(rootZip, "");
+		checkPeopleModel(modelManager, model, "people-root");
+	}
+
+	@Test
+	public void testLoadModelFromArchiveErrors() throws IOException {
+		File zip = createArchive("people2.zip", "models/people/");
+		DslModelManager modelManager = new DslModelManager();
+		assertNull(modelManager.loadModelFromArchive(zip, "models/foo"));
+		assertEquals(1, modelManager.getErrors().getNumberOfErrors());
+		assertNull(modelManager.loadModelFromArchive(new File("nosuchfile.zip"), "models/people"));
+		assertEquals(1, modelManager.getErrors().getNumberOfErrors());
+		assertTrue(modelManager.getErrors().getErrors().get(0).getMessage().contains("not found"));
+	}
+
+	@Test
+	public void testLoadModelFromClasspath() throws IOException {
+		//--- in a jar
+		File jar = createArchive("people.jar", "models/people/");
+		try ( URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toURI().toURL() }, null) ) {
+			DslModelManager modelManager = new DslModelManager();
+			DslModel model = (DslModel) modelManager.loadModelFromClasspath("models/people", classLoader);
+			checkPeopleModel(modelManager, model, "people");
+			assertNull(modelManager.loadModelFromClasspath("models/foo", classLoader));
+		}
+		//--- in a directory
+		File classesFolder = PEOPLE_MODEL.getParentFile();
+		try ( URLClassLoader classLoader = new URLClassLoader(new URL[] { classesFolder.toURI().toURL() }, null) ) {
+			DslModelManager modelManager = new DslModelManager();
+			DslModel model = (DslModel) modelManager.loadModelFromClasspath("PeopleModel", classLoader);
+			checkPeopleModel(modelManager, model, "PeopleModel");
+		}
+	}
+
+	@Test
+	public void testLoadModelFromClasspathWithOpenedFileSystem() throws IOException {
+		File jar = createArchive("people-shared.jar", "models/people/");
+		URI jarUri = URI.create("jar:" + jar.toURI().toString());
+		// file system opened by another caller : must be left open and usable
+		try ( FileSystem otherFileSystem = FileSystems.newFileSystem(jarUri, Collections.<String, Object>emptyMap());
+			  URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toURI().toURL() }, null) ) {
+			DslModelManager modelManager = new DslModelManager();
+			DslModel model = (DslModel) modelManager.loadModelFromClasspath("models/people", classLoader);
+			checkPeopleModel(modelManager, model, "people");
+			assertTrue(otherFileSystem.isOpen());
+			assertTrue(Files.isDirectory(otherFileSystem.getPath("models/people")));
+		}
+	}
+
+	@Test
+	public void testLoadModelFromClasspathUnsupportedScheme() {
+		final URLStreamHandler handler = new URLStreamHandler() {
+			@Override
+			protected URLConnection openConnection(URL u) throws IOException {
+				throw new IOException("not supported");
+			}
+		};
+		ClassLoader classLoader = new ClassLoader(null) {
+			@Override
+			public URL getResource(String name) {
+				try {
+					return new URL(null, "vfs:/content/app.war/WEB-INF/classes/" + name, handler);
+				} catch (MalformedURLException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		DslModelManager modelManager = new DslModelManager();
+		assertNull(modelManager.loadModelFromClasspath("models/people", classLoader));
+		assertEquals(1, modelManager.getErrors().getNumberOfErrors());
+		assertTrue(modelManager.getErrors().getErrors().get(0).getMessage().contains("Unsupported"));
+	}
+}
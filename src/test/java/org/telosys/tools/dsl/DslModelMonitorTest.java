@@ -0,0 +1,173 @@
+package org.telosys.tools.dsl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.telosys.tools.commons.logger.ConsoleLogger;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DslModelMonitorTest {
+
+	private void write(File file, String content, StandardOpenOption... options) throws IOException {
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), options);
+	}
+
+	@Test
+	public void testProcessChanges() throws IOException {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-monitor/people1");
+		DslModelMonitor monitor = new DslModelMonitor(modelFolder);
+		monitor.initialize();
+		assertEquals(6, monitor.getNumberOfParsedEntities());
+		assertEquals(6, monitor.getEntityNames().size());
+		assertNotNull(monitor.getModelInfo());
+
+		//--- changed entity => only this entity is parsed
+		write(new File(modelFolder, "Country.entity"), "\n// changed \n", StandardOpenOption.APPEND);
+		List<DslModelChange> changes = monitor.processChanges(Arrays.asList("Country.entity", "foo.txt"));
+		assertEquals(1, changes.size());
+		assertEquals(DslModelChangeType.ENTITY_CHANGED, changes.get(0).getType());
+		assertEquals("Country", changes.get(0).getEntityName());
+		assertNotNull(changes.get(0).getEntity());
+		assertEquals(7, monitor.getNumberOfParsedEntities());
+
+		//--- removed entity => entity referencing it re-parsed (with errors)
+		File genderFile = new File(modelFolder, "Gender.entity");
+		String genderContent = new String(Files.readAllBytes(genderFile.toPath()), StandardCharsets.UTF_8);
+		assertTrue(genderFile.delete());
+		changes = monitor.processChanges(Arrays.asList("Gender.entity"));
+		assertEquals(2, changes.size());
+		assertEquals("ENTITY_REMOVED Gender", changes.get(0).toString());
+		assertEquals(DslModelChangeType.PARSING_ERRORS, changes.get(1).getType());
+		assertEquals("Person", changes.get(1).getEntityName());
+		assertFalse(changes.get(1).getErrors().isEmpty());
+		assertNotNull(monitor.getEntityErrors("Person"));
+		assertNotNull(monitor.getEntity("Person")); // last valid entity
+		assertEquals(5, monitor.getEntityNames().size());
+
+		//--- entity restored => entity with errors re-parsed
+		write(genderFile, genderContent);
+		changes = monitor.processChanges(Arrays.asList("Gender.entity"));
+		assertEquals(2, changes.size());
+		assertEquals("ENTITY_ADDED Gender", changes.get(0).toString());
+		assertEquals("ENTITY_CHANGED Person", changes.get(1).toString());
+		assertNull(monitor.getEntityErrors("Person"));
+
+		//--- model information
+		write(new File(modelFolder, "model.yaml"), "title: My title \n");
+		changes = monitor.processChanges(Arrays.asList("model.yaml"));
+		assertEquals(1, changes.size());
+		assertEquals(DslModelChangeType.MODEL_INFO_CHANGED, changes.get(0).getType());
+		assertEquals("My title", changes.get(0).getModelInfo().getTitle().trim());
+	}
+
+	@Test
+	public void testWatchService() throws Exception {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-monitor/people2");
+		final BlockingQueue<DslModelChange> queue = new LinkedBlockingQueue<>();
+		DslModelMonitor monitor = new DslModelMonitor(modelFolder);
+		monitor.setDebounceDelay(200);
+		monitor.addListener(new DslModelMonitorListener() {
+			@Override
+			public void modelChanged(List<DslModelChange> changes) {
+				queue.addAll(changes);
+			}
+		});
+		monitor.start();
+		try {
+			assertTrue(monitor.isStarted());
+			write(new File(modelFolder, "Car.entity"), "Car { \n id : int {@Id} ; \n } \n");
+			DslModelChange change = queue.poll(20, TimeUnit.SECONDS);
+			assertNotNull(change);
+			assertEquals("ENTITY_ADDED Car", change.toString());
+			assertEquals(7, monitor.getEntityNames().size());
+		} finally {
+			monitor.stop();
+		}
+		assertFalse(monitor.isStarted());
+	}
+
+	@Test
+	public void testListenerErrorAndStopFromListener() throws Exception {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-monitor/people3");
+		final DslModelMonitor monitor = new DslModelMonitor(modelFolder);
+		final BlockingQueue<String> logs = new LinkedBlockingQueue<>();
+		final BlockingQueue<Boolean> stopped = new LinkedBlockingQueue<>();
+		monitor.setDebounceDelay(100);
+		monitor.setLogger(new ConsoleLogger() {
+			@Override
+			public void error(String s) {
+				logs.add(s);
+			}
+		});
+		monitor.addListener(new DslModelMonitorListener() {
+			@Override
+			public void modelChanged(List<DslModelChange> changes) {
+				throw new IllegalStateException("listener failure");
+			}
+		});
+		monitor.addListener(new DslModelMonitorListener() {
+			@Override
+			public void modelChanged(List<DslModelChange> changes) {
+				monitor.stop(); // in the monitor thread
+				stopped.add(monitor.isStarted());
+			}
+		});
+		monitor.start();
+		write(new File(modelFolder, "Car.entity"), "Car { \n id : int {@Id} ; \n } \n");
+		assertEquals(Boolean.FALSE, stopped.poll(20, TimeUnit.SECONDS));
+		String log = logs.poll(1, TimeUnit.SECONDS);
+		assertNotNull(log);
+		assertTrue(log.contains("listener failure"));
+		assertFalse(monitor.isStarted());
+	}
+
+	@Test
+	public void testModelFolderRemoved() throws Exception {
+		File modelFolder = TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "model-monitor/people4");
+		final BlockingQueue<DslModelChange> queue = new LinkedBlockingQueue<>();
+		DslModelMonitor monitor = new DslModelMonitor(modelFolder);
+		monitor.setDebounceDelay(100);
+		monitor.addListener(new DslModelMonitorListener() {
+			@Override
+			public void modelChanged(List<DslModelChange> changes) {
+				queue.addAll(changes);
+			}
+		});
+		monitor.start();
+		try {
+			for ( File file : modelFolder.listFiles() ) {
+				assertTrue(file.delete());
+			}
+			assertTrue(modelFolder.delete());
+			DslModelChange change = queue.poll(20, TimeUnit.SECONDS);
+			int removed = 0 ;
+			while ( change != null && change.getType() != DslModelChangeType.MODEL_FOLDER_REMOVED ) {
+				if ( change.getType() == DslModelChangeType.ENTITY_REMOVED ) {
+					removed++;
+				}
+				change = queue.poll(20, TimeUnit.SECONDS);
+			}
+			assertNotNull(change);
+			assertEquals(6, removed);
+			assertTrue(monitor.getEntityNames().isEmpty());
+			assertFalse(monitor.isStarted());
+		} finally {
+			monitor.stop();
+		}
+	}
+}
@@ -1,12 +1,14 @@
 package org.telosys.tools.dsl.commons;
 
 import java.io.File;
+import java.nio.file.Files;
 
 import org.junit.Test;
 import org.telosys.tools.dsl.DslModelError;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class ModelInfoLoaderTest {
 
@@ -50,4 +52,31 @@ public class ModelInfoLoaderTest {
 		assertEquals("", modelInfo.getVersion());
 		assertEquals("", modelInfo.getDescription());
 	}
+
+	@Test
+	public void testSourceInMemory() throws Exception {
+		File modelYamlFile = new File("src/test/resources/model-yaml-files/model1.yaml") ;
+		ModelSource source = ModelSource.fromBytes("model.yaml", Files.readAllBytes(modelYamlFile.toPath()));
+		assertNull(source.getFile());
+		ModelInfo modelInfo = ModelInfoLoader.loadModelInformation(source);
+		ModelInfo modelInfoFromFile = ModelInfoLoader.loadModelInformation(modelYamlFile);
+		assertEquals(modelInfoFromFile.getTitle(), modelInfo.getTitle());
+		assertEquals(modelInfoFromFile.getVersion(), modelInfo.getVersion());
+		assertEquals(modelInfoFromFile.getDescription(), modelInfo.getDescription());
+
+		modelInfo = ModelInfoLoader.loadModelInformation(ModelSource.fromString("model.yaml", ""));
+		assertEquals("", modelInfo.getTitle());
+	}
+
+	@Test(expected = DslModelError.class)
+	public void testSourceInMemoryInvalid() throws DslModelError {
+		ModelInfoLoader.loadModelInformation(ModelSource.fromString("model.yaml", "title: [ a, b \n"));
+	}
+
+	@Test(expected = DslModelError.class)
+	public void testSourceInMemoryGlobalTagRejected() throws DslModelError {
+		// no Java object can be created from the YAML content 
+		ModelInfoLoader.loadModelInformation(ModelSource.fromString("model.yaml", 
+				"title: !!javax.script.ScriptEngineManager [ !!java.net.URLClassLoader [ [ !!java.net.URL [ \"http://localhost/\" ] ] ] ]\n"));
+	}
 }
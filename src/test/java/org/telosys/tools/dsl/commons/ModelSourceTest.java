@@ -0,0 +1,134 @@
+package org.telosys.tools.dsl.commons;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.parser.Element;
+import org.telosys.tools.dsl.parser.EntityElementsParser;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.ParsingResult;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelSourceTest {
+
+	private static final File PEOPLE_MODEL = new File("src/test/resources/model_test/valid/PeopleModel");
+
+	private List<ModelSource> getStringSources(File modelFolder) throws IOException {
+		List<ModelSource> sources = new LinkedList<>();
+		for ( File file : modelFolder.listFiles() ) {
+			String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+			sources.add(ModelSource.fromString(file.getName(), content));
+		}
+		return sources;
+	}
+
+	@Test
+	public void testSource() throws IOException {
+		ModelSource source = ModelSource.fromString("Car.entity", "Car { }");
+		assertTrue(source.isEntity());
+		assertFalse(source.isModelInfo());
+		assertEquals("Car", source.getEntityName());
+		assertNull(source.getFile());
+		assertEquals("Car { }", new String(source.getContent(), StandardCharsets.UTF_8));
+
+		source = ModelSource.fromFile(new File(PEOPLE_MODEL, "model.yaml"));
+		assertTrue(source.isModelInfo());
+		assertNotNull(source.getFile());
+	}
+
+	@Test
+	public void testLoadModelFromStrings() throws IOException {
+		DslModelManager modelManager = new DslModelManager();
+		DslModel model = (DslModel) modelManager.loadModel("people", getStringSources(PEOPLE_MODEL));
+		assertNotNull(modelManager.getErrorMessage() + " " + modelManager.getErrors(), model);
+		assertEquals("people", model.getName());
+		DslModel modelFromFolder = (DslModel) new DslModelManager().loadModel(PEOPLE_MODEL);
+		assertEquals(modelFromFolder.getEntities().size(), model.getEntities().size());
+		assertEquals(modelFromFolder.getTitle(), model.getTitle());
+		assertEquals(modelFromFolder.getEntityByClassName("Person").getAttributes().size(), 
+				model.getEntityByClassName("Person").getAttributes().size());
+	}
+
+	@Test
+	public void testLoadModelFromZipEntries() throws IOException {
+		File zip = TestFileProvider.getTargetTmpFile("model-sources/people.zip");
+		zip.getParentFile().mkdirs();
+		try ( ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip)) ) {
+			for ( File file : PEOPLE_MODEL.listFiles() ) {
+				out.putNextEntry(new ZipEntry("models/people/" + file.getName()));
+				out.write(Files.readAllBytes(file.toPath()));
+				out.closeEntry();
+			}
+		}
+		try ( ZipFile zipFile = new ZipFile(zip) ) {
+			List<ModelSource> sources = new ArrayList<>();
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while ( entries.hasMoreElements() ) {
+				sources.add(ModelSource.fromZipEntry(zipFile, entries.nextElement()));
+			}
+			ParsingResult result = new ParserV2().parseModel("people", sources);
+			assertFalse(result.getErrors().toString(), result.hasErrors());
+			assertEquals(6, result.getModel().getNumberOfEntities());
+		}
+	}
+
+	@Test
+	public void testDuplicatedSources() {
+		List<ModelSource> sources = new LinkedList<>();
+		sources.add(ModelSource.fromString("model.yaml", "title: t1 \n"));
+		sources.add(ModelSource.fromString("Car.entity", "Car { \n id : int {@Id} ; \n }"));
+		sources.add(ModelSource.fromString("Car.entity", "Car { \n code : string {@Id} ; \n }"));
+		sources.add(ModelSource.fromString("model.yaml", "title: t2 \n"));
+		ParsingResult result = new ParserV2().parseModel("cars", sources);
+		assertEquals(2, result.getErrors().getNumberOfErrors());
+		assertEquals("Car", result.getErrors().getErrors().get(0).getEntityName());
+		assertTrue(result.getErrors().getErrors().get(0).getMessage().contains("Duplicated model source 'Car.entity'"));
+		assertTrue(result.getErrors().getErrors().get(1).getMessage().contains("Duplicated model source 'model.yaml'"));
+	}
+
+	@Test
+	public void testParsingErrors() {
+		List<ModelSource> sources = new LinkedList<>();
+		sources.add(ModelSource.fromString("Car.entity", "Car { \n id : int {@Id} ; \n driver : Driver ; \n }"));
+		sources.add(ModelSource.fromString("README.txt", "not a model file"));
+		DslModelManager modelManager = new DslModelManager();
+		assertNull(modelManager.loadModel("cars", sources));
+		assertEquals(1, modelManager.getErrors().getNumberOfErrors());
+		assertEquals("Car", modelManager.getErrors().getErrors().get(0).getEntityName());
+		assertEquals(3, modelManager.getErrors().getErrors().get(0).getLineNumber());
+	}
+
+	@Test
+	public void testSameElementsWithBothLexers() throws Exception {
+		File file = new File(PEOPLE_MODEL, "Person.entity");
+		ModelSource source = ModelSource.fromBytes(file.getName(), Files.readAllBytes(file.toPath()));
+		List<Element> elements1 = new EntityElementsParser(false).parseEntitySource(source);
+		List<Element> elements2 = new EntityElementsParser(true).parseEntitySource(source);
+		List<Element> elements3 = new EntityElementsParser().parseEntityFile(file);
+		assertEquals(elements3.size(), elements1.size());
+		assertEquals(elements3.size(), elements2.size());
+		for ( int i = 0 ; i < elements1.size() ; i++ ) {
+			assertEquals(elements3.get(i).toString(), elements1.get(i).toString());
+			assertEquals(elements3.get(i).toString(), elements2.get(i).toString());
+		}
+	}
+}
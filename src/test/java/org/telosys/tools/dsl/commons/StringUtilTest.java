@@ -23,6 +23,17 @@ public class StringUtilTest {
 		assertEquals("\" a\\\"bc \"", StringUtil.quote(" a\"bc "));
 	}
 	
+	@Test
+	public void testQuoteIfNecessary() {
+		assertNull(StringUtil.quoteIfNecessary(null));
+		assertEquals("abc", StringUtil.quoteIfNecessary("abc"));
+		assertEquals("a b", StringUtil.quoteIfNecessary("a b"));
+		assertEquals("\" abc\"", StringUtil.quoteIfNecessary(" abc"));
+		assertEquals("\"abc \"", StringUtil.quoteIfNecessary("abc "));
+		assertEquals("\"a(b)\"", StringUtil.quoteIfNecessary("a(b)"));
+		assertEquals("\"a\\\"b\"", StringUtil.quoteIfNecessary("a\"b"));
+	}
+	
 	@Test
 	public void testUnquote() {
 		assertNull(StringUtil.unquote(null));
@@ -0,0 +1,265 @@
+package org.telosys.tools.dsl.converter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelError;
+import org.telosys.tools.dsl.DslModelErrors;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.writer.SyntheticModelGenerator;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.ParsingResult;
+import org.telosys.tools.dsl.parser.model.DomainCardinality;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainEntityType;
+import org.telosys.tools.dsl.parser.model.DomainField;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.ForeignKey;
+import org.telosys.tools.generic.model.ForeignKeyAttribute;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.Model;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelConverterParallelTest {
+
+	private ExecutorService executor ;
+
+	@Before
+	public void setUp() {
+		executor = new ForkJoinPool(4);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	private DomainModel parse(File modelFolder) {
+		ParsingResult result = new ParserV2().parseModel(modelFolder);
+		assertFalse(result.getErrors().toString(), result.hasErrors());
+		return result.getModel();
+	}
+
+	/**
+	 * Returns the number of the first implicit FK in the model ('FK_IMPLICITn_...')
+	 * @param model
+	 * @return
+	 */
+	private int firstImplicitForeignKeyNumber(Model model) {
+		int first = Integer.MAX_VALUE ;
+		for ( Entity entity : model.getEntities() ) {
+			for ( ForeignKey fk : entity.getForeignKeys() ) {
+				if ( fk.getName().startsWith(FK_IMPLICIT) ) {
+					first = Math.min(first, implicitForeignKeyNumber(fk.getName()));
+				}
+			}
+		}
+		return first;
+	}
+
+	private static final String FK_IMPLICIT = "FK_IMPLICIT" ;
+
+	private int implicitForeignKeyNumber(String fkName) {
+		return Integer.parseInt(fkName.substring(FK_IMPLICIT.length(), fkName.indexOf('_', FK_IMPLICIT.length())));
+	}
+
+	private String describe(Model model) {
+		// implicit FK names are based on a global sequence => numbers relative to the first one
+		int firstImplicitForeignKey = firstImplicitForeignKeyNumber(model);
+		StringBuilder sb = new StringBuilder();
+		for ( Entity entity : model.getEntities() ) {
+			sb.append(entity.getClassName()).append(" ").append(entity.getDatabaseTable()).append("\n");
+			for ( Attribute a : entity.getAttributes() ) {
+				sb.append("  attribute ").append(a.getName()).append(" ").append(a.getNeutralType())
+					.append(" id=").append(a.isKeyElement()).append(" fk=").append(a.isFKSimple())
+					.append("/").append(a.isFKComposite()).append(" ").append(a.getReferencedEntityClassName())
+					.append(" parts=").append(a.getFKParts().size()).append("\n");
+			}
+			for ( ForeignKey fk : entity.getForeignKeys() ) {
+				String fkName = fk.getName();
+				if ( fkName.startsWith(FK_IMPLICIT) ) {
+					int n = implicitForeignKeyNumber(fkName) - firstImplicitForeignKey ;
+					fkName = FK_IMPLICIT + "+" + n + fkName.substring(fkName.indexOf('_', FK_IMPLICIT.length()));
+				}
+				sb.append("  fk ").append(fkName).append(" -> ").append(fk.getReferencedEntityName());
+				for ( ForeignKeyAttribute fka : fk.getAttributes() ) {
+					sb.append(" ").append(fka.getOriginAttributeName()).append(":").append(fka.getReferencedAttributeName());
+				}
+				sb.append("\n");
+			}
+			for ( Link link : entity.getLinks() ) {
+				sb.append("  link ").append(link.getFieldName()).append(" -> ").append(link.getReferencedEntityName())
+					.append(" ").append(link.getCardinality()).append(" fk=").append(link.isBasedOnForeignKey())
+					.append(" ").append(link.getForeignKeyName()).append(" join=").append(link.isBasedOnJoinEntity())
+					.append(" attributes=").append(link.getAttributes() != null ? link.getAttributes().size() : -1).append("\n");
+			}
+		}
+		return sb.toString();
+	}
+
+	private String describe(DslModelErrors errors) {
+		StringBuilder sb = new StringBuilder();
+		for ( DslModelError e : errors.getErrors() ) {
+			sb.append(e.getReportMessage()).append("\n");
+		}
+		sb.append("unprocessed=").append(errors.getNumberOfUnprocessedEntities());
+		sb.append(" skipped=").append(errors.getNumberOfSkippedSteps());
+		return sb.toString();
+	}
+
+	private void checkSameResult(DomainModel domainModel, int maxErrors) {
+		DslModelErrors sequentialErrors = new DslModelErrors(maxErrors);
+		Model sequentialModel = new ModelConverter(sequentialErrors).convertModel(domainModel);
+		DslModelErrors parallelErrors = new DslModelErrors(maxErrors);
+		Model parallelModel = new ModelConverter(parallelErrors, executor).convertModel(domainModel);
+		assertEquals(describe(sequentialErrors), describe(parallelErrors));
+		if ( ! sequentialErrors.isInterrupted() ) {
+			assertEquals(describe(sequentialModel), describe(parallelModel));
+		}
+	}
+
+	@Test
+	public void testValidModel() {
+		DomainModel domainModel = parse(new File("src/test/resources/model_test/valid/PeopleModel"));
+		checkSameResult(domainModel, 0);
+	}
+
+	@Test
+	public void testSyntheticModel() {
+		File modelFolder = TestFileProvider.getTargetTmpFile("converter-parallel/synthetic");
+		modelFolder.mkdirs();
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumberOfEntities(200);
+		generator.setFieldsPerEntity(10);
+		generator.setForeignKeysPerEntity(3);
+		generator.setNumberOfJoinEntities(20);
+		generator.setSeed(19);
+		generator.writeModel(modelFolder);
+		DomainModel domainModel = parse(modelFolder);
+		for ( int i = 0 ; i < 5 ; i++ ) {
+			checkSameResult(domainModel, 0);
+		}
+	}
+
+	/**
+	 * Creates a model with 10 entities, each one with a conversion error (unknown attribute in a link)
+	 * @return
+	 * @throws IOException
+	 */
+	private File createInvalidModel() throws IOException {
+		File modelFolder = TestFileProvider.getTargetTmpFile("converter-parallel/invalid");
+		modelFolder.mkdirs();
+		for ( int i = 1 ; i <= 10 ; i++ ) {
+			String name = "Entity" + i ;
+			String next = "Entity" + ( i % 10 + 1 ) ;
+			String content = name + " {\n  id : int { @Id } ;\n  next : " + next + " { @LinkByAttr(foo" + i + ") } ;\n}\n" ;
+			Files.write(new File(modelFolder, name + ".entity").toPath(), content.getBytes(StandardCharsets.UTF_8));
+		}
+		return modelFolder;
+	}
+
+	@Test
+	public void testConversionErrors() throws IOException {
+		DomainModel domainModel = parse(createInvalidModel());
+		DslModelErrors errors = new DslModelErrors();
+		new ModelConverter(errors, executor).convertModel(domainModel);
+		assertEquals(errors.toString(), 10, errors.getNumberOfErrors());
+		// errors in the entities order
+		int i = 0 ;
+		for ( DomainEntity domainEntity : domainModel.getEntities() ) {
+			assertEquals(domainEntity.getName(), errors.getErrors().get(i++).getEntityName());
+		}
+		checkSameResult(domainModel, 0);
+	}
+
+	@Test
+	public void testConversionMaxErrors() throws IOException {
+		DomainModel domainModel = parse(createInvalidModel());
+		DslModelErrors errors = new DslModelErrors(3);
+		new ModelConverter(errors, executor).convertModel(domainModel);
+		assertEquals(3, errors.getNumberOfErrors());
+		assertEquals(7, errors.getNumberOfUnprocessedEntities());
+		assertEquals(1, errors.getNumberOfSkippedSteps());
+		checkSameResult(domainModel, 3);
+		checkSameResult(domainModel, 1);
+	}
+
+	private List<String> implicitForeignKeyNames(Model model) {
+		int first = firstImplicitForeignKeyNumber(model);
+		List<String> names = new ArrayList<>();
+		for ( Entity entity : model.getEntities() ) {
+			for ( ForeignKey fk : entity.getForeignKeys() ) {
+				if ( fk.getName().startsWith(FK_IMPLICIT) ) {
+					int n = implicitForeignKeyNumber(fk.getName()) - first ;
+					names.add(n + fk.getName().substring(fk.getName().indexOf('_', FK_IMPLICIT.length())));
+				}
+			}
+		}
+		Collections.sort(names);
+		return names;
+	}
+
+	@Test
+	public void testImplicitForeignKeyNames() {
+		DomainModel domainModel = parse(new File("src/test/resources/model_test/valid/PeopleModel"));
+		List<String> expected = implicitForeignKeyNames(new ModelConverter(new DslModelErrors()).convertModel(domainModel));
+		assertFalse(expected.isEmpty());
+		for ( int i = 0 ; i < 10 ; i++ ) {
+			Model model = new ModelConverter(new DslModelErrors(), executor).convertModel(domainModel);
+			// same names, numbered in the entities order (as with a sequential conversion)
+			assertEquals(expected, implicitForeignKeyNames(model));
+		}
+		// consecutive numbers
+		for ( int i = 0 ; i < expected.size() ; i++ ) {
+			assertTrue(expected.get(i), expected.get(i).startsWith(i + "_"));
+		}
+	}
+
+	@Test
+	public void testConverterError() throws DslModelError {
+		DomainModel domainModel = parse(new File("src/test/resources/model_test/valid/PeopleModel"));
+		// unknown entity referenced by a link => same exception as with sequential conversion
+		String sequentialMessage = null ;
+		String parallelMessage = null ;
+		domainModel.getEntities().iterator().next().addField(new DomainField(1, "foo", new DomainEntityType("Foo", DomainCardinality.ONE)));
+		try {
+			new ModelConverter(new DslModelErrors()).convertModel(domainModel);
+		} catch (RuntimeException e) {
+			sequentialMessage = e.getMessage();
+		}
+		try {
+			new ModelConverter(new DslModelErrors(), executor).convertModel(domainModel);
+		} catch (RuntimeException e) {
+			parallelMessage = e.getMessage();
+		}
+		assertNotNull(sequentialMessage);
+		assertEquals(sequentialMessage, parallelMessage);
+	}
+
+	@Test
+	public void testModelManager() {
+		DslModelManager modelManager = new DslModelManager(executor);
+		modelManager.setParallelConversion(true);
+		Model model = modelManager.loadModel("src/test/resources/model_test/valid/PeopleModel");
+		assertNotNull(modelManager.getErrorMessage(), model);
+		Model sequentialModel = new DslModelManager().loadModel("src/test/resources/model_test/valid/PeopleModel");
+		assertEquals(describe(sequentialModel), describe(model));
+	}
+}
@@ -0,0 +1,83 @@
+package org.telosys.tools.dsl.jfr;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.writer.ModelWriter;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class DslEventsTest {
+
+	private static final File PEOPLE_MODEL = new File("src/test/resources/model_test/valid/PeopleModel");
+
+	private static final String[] EVENTS = { "org.telosys.dsl.ModelLoad", "org.telosys.dsl.EntityParse", 
+			"org.telosys.dsl.ConverterStep", "org.telosys.dsl.ModelWrite" } ;
+
+	private List<RecordedEvent> record(String fileName, boolean enableEvents) throws IOException {
+		try ( Recording recording = new Recording() ) {
+			if ( enableEvents ) {
+				for ( String eventName : EVENTS ) {
+					recording.enable(eventName).withoutThreshold();
+				}
+			}
+			recording.start();
+			DslModel model = (DslModel) new DslModelManager().loadModel(PEOPLE_MODEL);
+			assertNotNull(model);
+			File outputFolder = TestFileProvider.getTargetTmpFile("jfr/" + fileName);
+			new ModelWriter().writeModel(model, outputFolder.getAbsolutePath());
+			recording.stop();
+			Path path = TestFileProvider.getTargetTmpFile("jfr/" + fileName + ".jfr").toPath();
+			recording.dump(path);
+			return RecordingFile.readAllEvents(path);
+		}
+	}
+
+	private Map<String, Integer> countTelosysEvents(List<RecordedEvent> events) {
+		Map<String, Integer> counts = new HashMap<>();
+		for ( RecordedEvent event : events ) {
+			String name = event.getEventType().getName();
+			if ( name.startsWith("org.telosys.") ) {
+				Integer n = counts.get(name);
+				counts.put(name, n != null ? n + 1 : 1);
+			}
+		}
+		return counts;
+	}
+
+	@Test
+	public void testEventsEnabled() throws IOException {
+		List<RecordedEvent> events = record("enabled", true);
+		Map<String, Integer> counts = countTelosysEvents(events);
+		assertEquals(Integer.valueOf(1), counts.get("org.telosys.dsl.ModelLoad"));
+		assertEquals(Integer.valueOf(6), counts.get("org.telosys.dsl.EntityParse"));
+		assertEquals(Integer.valueOf(6), counts.get("org.telosys.dsl.ConverterStep"));
+		assertEquals(Integer.valueOf(1), counts.get("org.telosys.dsl.ModelWrite"));
+		for ( RecordedEvent event : events ) {
+			if ( "org.telosys.dsl.ModelLoad".equals(event.getEventType().getName()) ) {
+				assertEquals("PeopleModel", event.getString("modelName"));
+				assertEquals(6, event.getInt("entityCount"));
+				assertEquals(0, event.getInt("errorCount"));
+			}
+		}
+	}
+
+	@Test
+	public void testEventsDisabledByDefault() throws IOException {
+		List<RecordedEvent> events = record("disabled", false);
+		assertEquals(0, countTelosysEvents(events).size());
+	}
+}
@@ -0,0 +1,111 @@
+package org.telosys.tools.dsl.metrics;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelErrors;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.converter.ModelConverter;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+import org.telosys.tools.generic.model.Model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelMetricsSummaryTest {
+
+	private static final File PEOPLE_MODEL = new File("src/test/resources/model_test/valid/PeopleModel");
+
+	private ModelMetricsSummary loadWithMetrics(File modelFolder, ExecutorService executor, boolean valid) {
+		ModelMetricsSummary summary = new ModelMetricsSummary();
+		DslModelManager modelManager = new DslModelManager(executor);
+		modelManager.setMetricsListener(summary);
+		Model model = modelManager.loadModel(modelFolder);
+		if ( valid ) {
+			assertNotNull(modelManager.getErrorMessage(), model);
+		}
+		else {
+			assertNull(model);
+		}
+		return summary;
+	}
+
+	@Test
+	public void testValidModel() {
+		ModelMetricsSummary summary = loadWithMetrics(PEOPLE_MODEL, null, true);
+		assertEquals(6, summary.getCounter(MetricsCounter.FILES));
+		assertEquals(6, summary.getCounter(MetricsCounter.ENTITIES));
+		assertTrue(summary.getCounter(MetricsCounter.ELEMENTS) > 0);
+		assertTrue(summary.getCounter(MetricsCounter.FIELDS) > 0);
+		assertTrue(summary.getCounter(MetricsCounter.ANNOTATIONS) > 0);
+		assertTrue(summary.getCounter(MetricsCounter.TAGS) > 0);
+		assertTrue(summary.getCounter(MetricsCounter.FOREIGN_KEYS) > 0);
+		assertTrue(summary.getCounter(MetricsCounter.LINKS) > 0);
+		assertEquals(0, summary.getCounter(MetricsCounter.ERRORS));
+
+		assertTrue(summary.getPhaseTime(MetricsPhase.MODEL_LOADING) > 0);
+		assertTrue(summary.getPhaseTime(MetricsPhase.PARSING) > 0);
+		assertTrue(summary.getPhaseTime(MetricsPhase.CONVERSION) > 0);
+		assertTrue(summary.getPhaseTime(MetricsPhase.CONVERTER_STEP2_ATTRIBUTES) > 0);
+		assertTrue(summary.getPhaseTime(MetricsPhase.MODEL_LOADING) >= summary.getPhaseTime(MetricsPhase.PARSING));
+		assertTrue(summary.getEntityPhaseTime(MetricsPhase.LEXING, "Person") > 0);
+		assertTrue(summary.getEntityTime("Person") > 0);
+		assertEquals(3, summary.getSlowestEntities(3).size());
+
+		String text = summary.getSummary();
+		assertTrue(text.contains("MODEL_LOADING"));
+		assertTrue(text.contains("CONVERTER_STEP4_LINKS"));
+		assertTrue(text.contains("Slowest entities (6 of 6)"));
+		assertTrue(text.contains("Person"));
+	}
+
+	@Test
+	public void testParallelParsing() {
+		ModelMetricsSummary summary1 = loadWithMetrics(PEOPLE_MODEL, null, true);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			ModelMetricsSummary summary2 = loadWithMetrics(PEOPLE_MODEL, executor, true);
+			for ( MetricsCounter counter : MetricsCounter.values() ) {
+				assertEquals(counter.name(), summary1.getCounter(counter), summary2.getCounter(counter));
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testInvalidModel() {
+		ModelMetricsSummary summary = loadWithMetrics(new File("src/test/resources/model_test/invalid/TwoEntitiesModel"), null, false);
+		assertTrue(summary.getCounter(MetricsCounter.ERRORS) > 0);
+		assertEquals(0, summary.getPhaseTime(MetricsPhase.CONVERSION));
+		summary.reset();
+		assertEquals(0, summary.getCounter(MetricsCounter.ERRORS));
+	}
+
+	@Test
+	public void testIncrementalConversion() {
+		DomainModel domainModel = new ParserV2().parseModel(PEOPLE_MODEL).getModel();
+		DslModel previousModel = (DslModel) new ModelConverter(new DslModelErrors()).convertModel(domainModel);
+		ModelMetricsSummary summary = new ModelMetricsSummary();
+		ModelConverter converter = new ModelConverter(new DslModelErrors());
+		converter.setMetricsListener(summary);
+		Model model = converter.convertModel(domainModel, previousModel, Arrays.asList("Person"));
+		assertEquals(6, model.getEntities().size());
+		assertTrue(summary.getPhaseTime(MetricsPhase.CONVERSION) > 0);
+		for ( MetricsPhase step : Arrays.asList(MetricsPhase.CONVERTER_STEP1_VOID_ENTITIES, 
+				MetricsPhase.CONVERTER_STEP2_ATTRIBUTES, MetricsPhase.CONVERTER_STEP4_LINKS) ) {
+			assertTrue(step.name(), summary.getPhaseTime(step) > 0);
+			assertTrue(step.name(), summary.getEntityPhaseTime(step, "Person") > 0);
+			assertEquals(step.name(), 0, summary.getEntityPhaseTime(step, "Country")); // not converted
+		}
+		assertTrue(summary.getCounter(MetricsCounter.LINKS) > 0);
+		assertEquals(0, summary.getCounter(MetricsCounter.ERRORS));
+	}
+}
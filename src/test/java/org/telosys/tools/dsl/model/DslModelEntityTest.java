@@ -0,0 +1,203 @@
+package org.telosys.tools.dsl.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.enums.Cardinality;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DslModelEntityTest {
+
+	private DslModelAttribute newAttribute(String name, boolean id) {
+		DslModelAttribute attribute = new DslModelAttribute(name, "int");
+		attribute.setKeyElement(id);
+		return attribute;
+	}
+
+	@Test
+	public void testAttributes() {
+		DslModelEntity entity = new DslModelEntity("Car");
+		assertFalse(entity.hasId());
+		DslModelAttribute id = newAttribute("id", true);
+		DslModelAttribute code = newAttribute("code", false);
+		entity.addAttribute(id);
+		entity.addAttribute(code);
+		assertSame(id, entity.getAttributeByName("id"));
+		assertSame(code, entity.getAttributeByName("code"));
+		assertNull(entity.getAttributeByName("foo"));
+		assertTrue(entity.hasId());
+		assertEquals(1, entity.getIdCount());
+		assertFalse(entity.hasCompositeId());
+
+		// key attributes : a new modifiable list at each call
+		List<Attribute> keyAttributes = entity.getKeyAttributes();
+		assertNotSame(keyAttributes, entity.getKeyAttributes());
+		keyAttributes.clear();
+		assertEquals(1, entity.getIdCount());
+		entity.addAttribute(newAttribute("id2", true));
+		assertEquals(2, entity.getKeyAttributes().size());
+		assertTrue(entity.hasCompositeId());
+
+		// replace
+		DslModelAttribute newCode = newAttribute("newCode", true);
+		assertSame(code, entity.replaceAttribute("code", newCode));
+		assertNull(entity.getAttributeByName("code"));
+		assertSame(newCode, entity.getAttributeByName("newCode"));
+		assertEquals(3, entity.getIdCount());
+		assertNull(entity.replaceAttribute("code", newCode));
+
+		// set
+		List<Attribute> list = new ArrayList<>();
+		list.add(code);
+		entity.setAttributes(list);
+		assertNull(entity.getAttributeByName("id"));
+		assertSame(code, entity.getAttributeByName("code"));
+		assertFalse(entity.hasId());
+
+		// list modified directly
+		entity.getAttributes().add(id);
+		assertSame(id, entity.getAttributeByName("id"));
+		assertTrue(entity.hasId());
+	}
+
+	@Test
+	public void testKeyElementChanged() {
+		DslModelEntity entity = new DslModelEntity("Car");
+		DslModelAttribute id = newAttribute("id", true);
+		DslModelAttribute code = newAttribute("code", false);
+		entity.addAttribute(id);
+		entity.addAttribute(code);
+		assertEquals(1, entity.getIdCount());
+		// attribute already in the entity
+		code.setKeyElement(true);
+		assertEquals(2, entity.getIdCount());
+		assertTrue(entity.hasCompositeId());
+		id.setKeyElement(false);
+		code.setKeyElement(false);
+		assertFalse(entity.hasId());
+		assertTrue(entity.getKeyAttributes().isEmpty());
+		// attributes set as a list
+		List<Attribute> list = new ArrayList<>();
+		list.add(id);
+		entity.setAttributes(list);
+		id.setKeyElement(true);
+		assertSame(id, entity.getKeyAttributes().get(0));
+	}
+
+	@Test
+	public void testConcurrentReads() throws InterruptedException {
+		final DslModelEntity entity = new DslModelEntity("Car");
+		for ( int i = 0 ; i < 100 ; i++ ) {
+			entity.getAttributes().add(newAttribute("attr" + i, i < 3)); // index to be rebuilt
+		}
+		final AtomicInteger errors = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for ( int t = 0 ; t < threads.length ; t++ ) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for ( int i = 0 ; i < 100 ; i++ ) {
+						if ( entity.getAttributeByName("attr" + i) == null || entity.getIdCount() != 3 ) {
+							errors.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+		assertEquals(0, errors.get());
+	}
+
+	@Test
+	public void testLinksAndForeignKeys() {
+		DslModelEntity entity = new DslModelEntity("Car");
+		DslModelLink link = new DslModelLink("driver");
+		link.setCardinality(Cardinality.MANY_TO_ONE);
+		entity.addLink(link);
+		assertSame(link, entity.getLinkByFieldName("driver"));
+		assertNull(entity.getLinkByFieldName("foo"));
+
+		DslModelForeignKey fk = new DslModelForeignKey("FK_CAR_DRIVER", "Car", "Driver");
+		entity.addForeignKey(fk);
+		assertSame(fk, entity.getForeignKeyByName("FK_CAR_DRIVER"));
+		assertNull(entity.getForeignKeyByName("FK_FOO"));
+		entity.getForeignKeys().clear();
+		assertNull(entity.getForeignKeyByName("FK_CAR_DRIVER"));
+	}
+
+	@Test
+	public void testLinksAndForeignKeysListsModified() {
+		DslModelEntity entity = new DslModelEntity("Car");
+		DslModelLink driver = new DslModelLink("driver");
+		DslModelLink owner = new DslModelLink("owner");
+		entity.addLink(driver);
+		entity.addLink(owner);
+		assertSame(owner, entity.getLinkByFieldName("owner"));
+		// same size 
+		DslModelLink garage = new DslModelLink("garage");
+		entity.getLinks().set(1, garage);
+		assertSame(garage, entity.getLinkByFieldName("garage"));
+		assertNull(entity.getLinkByFieldName("owner"));
+		// cleared and filled again with the same size
+		entity.getLinks().clear();
+		entity.getLinks().add(owner);
+		entity.getLinks().add(driver);
+		assertSame(owner, entity.getLinkByFieldName("owner"));
+		assertSame(driver, entity.getLinkByFieldName("driver"));
+		assertNull(entity.getLinkByFieldName("garage"));
+		entity.addLink(garage);
+		assertSame(garage, entity.getLinkByFieldName("garage"));
+
+		DslModelForeignKey fk1 = new DslModelForeignKey("FK1", "Car", "Driver");
+		DslModelForeignKey fk2 = new DslModelForeignKey("FK2", "Car", "Person");
+		entity.addForeignKey(fk1);
+		assertSame(fk1, entity.getForeignKeyByName("FK1"));
+		entity.getForeignKeys().set(0, fk2);
+		assertSame(fk2, entity.getForeignKeyByName("FK2"));
+		assertNull(entity.getForeignKeyByName("FK1"));
+		entity.getForeignKeys().clear();
+		entity.getForeignKeys().add(fk1);
+		assertSame(fk1, entity.getForeignKeyByName("FK1"));
+		assertNull(entity.getForeignKeyByName("FK2"));
+	}
+
+	@Test
+	public void testConcurrentLinksReads() throws InterruptedException {
+		final DslModelEntity entity = new DslModelEntity("Car");
+		for ( int i = 0 ; i < 100 ; i++ ) {
+			entity.getLinks().add(new DslModelLink("link" + i)); // index to be rebuilt
+			entity.getForeignKeys().add(new DslModelForeignKey("FK" + i, "Car", "Driver"));
+		}
+		final AtomicInteger errors = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for ( int t = 0 ; t < threads.length ; t++ ) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for ( int i = 0 ; i < 100 ; i++ ) {
+						if ( entity.getLinkByFieldName("link" + i) == null || entity.getForeignKeyByName("FK" + i) == null ) {
+							errors.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+		assertEquals(0, errors.get());
+	}
+}
@@ -0,0 +1,136 @@
+package org.telosys.tools.dsl.model;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class DslModelTest {
+
+	private DslModelEntity newEntity(String className, String tableName) {
+		DslModelEntity entity = new DslModelEntity(className);
+		entity.setDatabaseTable(tableName);
+		return entity;
+	}
+
+	@Test
+	public void testLookups() {
+		DslModel model = new DslModel("mymodel");
+		DslModelEntity car = newEntity("Car", "CAR");
+		DslModelEntity driver = newEntity("Driver", "DRIVER");
+		model.addEntity(driver);
+		model.addEntity(car);
+		assertSame(car, model.getEntityByClassName("Car"));
+		assertSame(driver, model.getEntityByClassName("Driver"));
+		assertNull(model.getEntityByClassName("Foo"));
+		assertSame(car, model.getEntityByTableName("CAR"));
+		assertNull(model.getEntityByTableName("Car"));
+		assertEquals(2, model.getEntitiesByClassName().size());
+		assertEquals(2, model.getEntitiesByTableName().size());
+
+		model.sortEntitiesByClassName();
+		assertSame(car, model.getEntities().get(0));
+		assertSame(driver, model.getEntityByClassName("Driver"));
+	}
+
+	@Test
+	public void testDuplicatedNames() {
+		DslModel model = new DslModel("mymodel");
+		DslModelEntity car1 = newEntity("Car", "CAR");
+		DslModelEntity car2 = newEntity("Car", "CAR");
+		model.addEntity(car1);
+		model.addEntity(car2);
+		// first entity wins (as with a sequential search)
+		assertSame(car1, model.getEntityByClassName("Car"));
+		assertSame(car1, model.getEntityByTableName("CAR"));
+	}
+
+	@Test
+	public void testEntitiesListModified() {
+		DslModel model = new DslModel("mymodel");
+		DslModelEntity car = newEntity("Car", "CAR");
+		DslModelEntity driver = newEntity("Driver", "DRIVER");
+		model.addEntity(car);
+		model.addEntity(driver);
+		model.getEntities().remove(car);
+		assertNull(model.getEntityByClassName("Car"));
+		model.getEntities().add(newEntity("Bus", "BUS"));
+		assertEquals("Bus", model.getEntityByClassName("Bus").getClassName());
+
+		driver.setDatabaseTable("PILOT");
+		assertNull(model.getEntityByTableName("DRIVER"));
+		assertSame(driver, model.getEntityByTableName("PILOT"));
+	}
+
+	@Test
+	public void testEntityReplacedOrRenamed() {
+		DslModel model = new DslModel("mymodel");
+		DslModelEntity car = newEntity("Car", "CAR");
+		DslModelEntity driver = newEntity("Driver", "DRIVER");
+		model.addEntity(car);
+		model.addEntity(driver);
+		assertSame(car, model.getEntityByClassName("Car"));
+		// same size => index not rebuilt before the lookup 
+		DslModelEntity bus = newEntity("Bus", "BUS");
+		model.getEntities().set(0, bus);
+		assertNull(model.getEntityByClassName("Car"));
+		assertNull(model.getEntityByTableName("CAR"));
+		assertSame(bus, model.getEntityByClassName("Bus"));
+		assertSame(bus, model.getEntityByTableName("BUS"));
+		// renamed table (not a list modification => indexes to be rebuilt explicitly)
+		bus.setDatabaseTable("COACH");
+		model.rebuildIndexes();
+		assertSame(bus, model.getEntityByTableName("COACH"));
+		assertNull(model.getEntityByTableName("BUS"));
+	}
+
+	@Test
+	public void testSortedEntities() {
+		DslModel model = new DslModel("mymodel");
+		DslModelEntity driver = newEntity("Driver", "DRIVER");
+		DslModelEntity car = newEntity("Car", "CAR");
+		model.addEntity(driver);
+		model.addEntity(car);
+		assertSame(car, model.getEntityByClassName("Car"));
+		// sorted directly (same size, not via sortEntitiesByClassName)
+		Collections.reverse(model.getEntities());
+		assertSame(car, model.getEntities().get(0));
+		assertSame(car, model.getEntityByClassName("Car"));
+		assertSame(driver, model.getEntityByTableName("DRIVER"));
+		assertSame(car, model.getEntitiesByClassName().get("Car"));
+		assertNull(model.getEntityByClassName("Foo"));
+	}
+
+	@Test
+	public void testConcurrentLookups() throws InterruptedException {
+		final DslModel model = new DslModel("mymodel");
+		for ( int i = 0 ; i < 200 ; i++ ) {
+			model.addEntity(newEntity("Entity" + i, "TABLE" + i));
+		}
+		model.getEntities().set(10, newEntity("Other", "OTHER")); // stale index 
+		final AtomicInteger errors = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for ( int t = 0 ; t < threads.length ; t++ ) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for ( int i = 0 ; i < 200 ; i++ ) {
+						String name = ( i == 10 ? "Other" : "Entity" + i );
+						if ( model.getEntityByClassName(name) == null ) {
+							errors.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for ( Thread thread : threads ) {
+			thread.join();
+		}
+		assertEquals(0, errors.get());
+	}
+}
@@ -0,0 +1,212 @@
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.commons.cfg.TelosysToolsCfgManager;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinition;
+import org.telosys.tools.commons.logger.ConsoleLogger;
+import org.telosys.tools.db.model.DatabaseColumn;
+import org.telosys.tools.db.model.DatabaseForeignKey;
+import org.telosys.tools.db.model.DatabaseForeignKeyColumn;
+import org.telosys.tools.db.model.DatabaseModelManager;
+import org.telosys.tools.db.model.DatabaseTable;
+import org.telosys.tools.db.model.DatabaseTables;
+import org.telosys.tools.dsl.model.DslModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DbMetadataBulkLoaderTest {
+
+	private TelosysToolsCfg getTelosysToolsCfg() {
+		File projectFolder = new File("src/test/resources/myproject");
+		TelosysToolsCfgManager cfgManager = new TelosysToolsCfgManager(projectFolder.getAbsolutePath());
+		return cfgManager.loadTelosysToolsCfg();
+	}
+
+	@Test
+	public void testPatterns() {
+		assertTrue(DbMetadataBulkLoader.like("STUDENT", "%", "\\"));
+		assertTrue(DbMetadataBulkLoader.like("STUDENT", "STU%", "\\"));
+		assertTrue(DbMetadataBulkLoader.like("MY_TABLE", "MY_TABLE", "\\"));
+		assertTrue(DbMetadataBulkLoader.like("MYXTABLE", "MY_TABLE", "\\"));
+		assertFalse(DbMetadataBulkLoader.like("MYXTABLE", "MY\\_TABLE", "\\"));
+		assertTrue(DbMetadataBulkLoader.like("A.B", "A.B", "\\"));
+		assertFalse(DbMetadataBulkLoader.like("AXB", "A.B", "\\"));
+		assertFalse(DbMetadataBulkLoader.like(null, "%", "\\"));
+
+		assertTrue(DbMetadataBulkLoader.isLiteral("STUDENT", "\\"));
+		assertTrue(DbMetadataBulkLoader.isLiteral("MY\\_TABLE", "\\"));
+		assertFalse(DbMetadataBulkLoader.isLiteral("MY_TABLE", "\\"));
+		assertFalse(DbMetadataBulkLoader.isLiteral("%", "\\"));
+		assertFalse(DbMetadataBulkLoader.isLiteral(null, "\\"));
+
+		assertEquals("MY_TABLE", DbMetadataBulkLoader.unescape("MY\\_TABLE", "\\"));
+		assertEquals("A\\B", DbMetadataBulkLoader.unescape("A\\\\B", "\\"));
+	}
+
+	@Test
+	public void testRowsResultSet() throws SQLException {
+		List<Object[]> rows = new ArrayList<>();
+		rows.add(new Object[] { "STUDENT", "ID", 4, Short.valueOf((short) 1) });
+		rows.add(new Object[] { "STUDENT", "NAME", 12, null });
+		MetaDataRows metaDataRows = new MetaDataRows(Arrays.asList("TABLE_NAME", "column_name", "DATA_TYPE", "KEY_SEQ"), rows);
+		ResultSet rs = metaDataRows.toResultSet();
+		assertTrue(rs.next());
+		assertEquals("STUDENT", rs.getString("TABLE_NAME"));
+		assertEquals("ID", rs.getString("COLUMN_NAME"));
+		assertEquals(4, rs.getInt(3));
+		assertEquals(1, rs.getShort("KEY_SEQ"));
+		assertFalse(rs.wasNull());
+		assertEquals(4, rs.getMetaData().getColumnCount());
+		assertEquals("COLUMN_NAME", rs.getMetaData().getColumnName(2));
+		assertTrue(rs.next());
+		assertEquals(0, rs.getInt("KEY_SEQ"));
+		assertTrue(rs.wasNull());
+		assertEquals(null, rs.getString("KEY_SEQ"));
+		assertFalse(rs.next());
+		rs.close();
+		assertTrue(rs.isClosed());
+	}
+
+	/**
+	 * Driver stub returning no row for the keys requests without table name (instead of an error)
+	 * @param tableRequests the number of table by table requests 
+	 */
+	private Connection driverStub(final AtomicInteger tableRequests) {
+		final List<String> labels = Arrays.asList("TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "KEY_SEQ", "PK_NAME", 
+				"FKTABLE_CAT", "FKTABLE_SCHEM", "FKTABLE_NAME");
+		final Object metaData = Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), 
+				new Class<?>[] { DatabaseMetaData.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						List<Object[]> rows = new ArrayList<>();
+						switch ( method.getName() ) {
+						case "getSearchStringEscape" :
+							return "\\" ;
+						case "getColumns" :
+							rows.add(new Object[] { null, "S1", "STUDENT", "ID", null, null, null, null, null });
+							rows.add(new Object[] { null, "S1", "STUDENT", "NAME", null, null, null, null, null });
+							return new MetaDataRows(labels, rows).toResultSet();
+						case "getPrimaryKeys" :
+							if ( args[2] != null ) {
+								tableRequests.incrementAndGet();
+								rows.add(new Object[] { null, "S1", "STUDENT", "ID", Short.valueOf((short) 1), "PK_STUDENT", null, null, null });
+							}
+							return new MetaDataRows(labels, rows).toResultSet();
+						case "getImportedKeys" :
+							if ( args[2] != null ) {
+								tableRequests.incrementAndGet();
+							}
+							return new MetaDataRows(labels, rows).toResultSet();
+						default:
+							throw new SQLFeatureNotSupportedException(method.getName());
+						}
+					}
+				});
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), 
+				new Class<?>[] { Connection.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if ( "getMetaData".equals(method.getName()) ) {
+							return metaData ;
+						}
+						throw new SQLFeatureNotSupportedException(method.getName());
+					}
+				});
+	}
+
+	@Test
+	public void testKeysWithoutTableNameIgnoredByDriver() throws SQLException {
+		AtomicInteger tableRequests = new AtomicInteger();
+		Connection connection = new DbMetadataBulkLoader().bulkConnection(driverStub(tableRequests), null, "S1", "%");
+		DatabaseMetaData metaData = connection.getMetaData();
+		// columns from the schema-wide request 
+		ResultSet rs = metaData.getColumns(null, "S1", "STUDENT", "%");
+		assertTrue(rs.next());
+		assertTrue(rs.next());
+		assertFalse(rs.next());
+		assertEquals(0, tableRequests.get());
+		// no key loaded with the schema-wide requests => table by table requests 
+		rs = metaData.getPrimaryKeys(null, "S1", "STUDENT");
+		assertTrue(rs.next());
+		assertEquals("ID", rs.getString("COLUMN_NAME"));
+		assertFalse(rs.next());
+		rs = metaData.getImportedKeys(null, "S1", "STUDENT");
+		assertFalse(rs.next());
+		assertEquals(2, tableRequests.get());
+	}
+
+	private List<String> describe(DatabaseTables dbTables) {
+		List<String> list = new ArrayList<>();
+		for ( DatabaseTable table : dbTables ) {
+			list.add(table.getCatalogName() + "." + table.getSchemaName() + "." + table.getTableName() 
+					+ " " + table.getTableType() + " " + table.getComment());
+			for ( DatabaseColumn c : table.getColumns() ) {
+				list.add("  " + c.getColumnName() + " " + c.getDbTypeName() + " " + c.getJdbcTypeCode() 
+						+ " " + c.getSize() + " " + c.getDecimalDigits() + " notNull=" + c.isNotNull() 
+						+ " pk=" + c.isInPrimaryKey() + " auto=" + c.isAutoIncremented() 
+						+ " " + c.getDefaultValue() + " " + c.getComment());
+			}
+			for ( DatabaseForeignKey fk : table.getForeignKeys() ) {
+				list.add("  FK " + fk.getForeignKeyName());
+				for ( DatabaseForeignKeyColumn fkc : fk.getForeignKeyColumns() ) {
+					list.add("    " + fkc.getFkSequence() + " " + fkc.getFkTableName() + "." + fkc.getFkColumnName() 
+							+ " -> " + fkc.getPkTableName() + "." + fkc.getPkColumnName());
+				}
+			}
+		}
+		return list;
+	}
+
+	@Test
+	public void testSameTablesAsTableByTable() throws TelosysToolsException, SQLException {
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(getTelosysToolsCfg(), "db2");
+		databaseInMemory.executeSqlFile("students.sql");
+		try {
+			DatabaseDefinition db = databaseInMemory.getDatabaseDefinition();
+			DatabaseTables expected = new DatabaseModelManager().getDatabaseTables(databaseInMemory.getCurrentConnection(), 
+					db.getCatalog(), db.getSchema(), "%", db.getTableTypesArray(), 
+					db.getTableNameInclude(), db.getTableNameExclude());
+			DatabaseTables dbTables = new DbMetadataBulkLoader().getDatabaseTables(databaseInMemory.getCurrentConnection(), 
+					db.getCatalog(), db.getSchema(), "%", db.getTableTypesArray(), 
+					db.getTableNameInclude(), db.getTableNameExclude());
+			assertEquals(4, dbTables.getNumberOfTables());
+			assertEquals(describe(expected), describe(dbTables));
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+
+	@Test
+	public void testModelFromDatabase() throws TelosysToolsException {
+		TelosysToolsCfg telosysToolsCfg = getTelosysToolsCfg();
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(telosysToolsCfg, "db2");
+		databaseInMemory.executeSqlFile("students.sql");
+		try {
+			DbToModelManager manager = new DbToModelManager(telosysToolsCfg, new ConsoleLogger());
+			manager.setBulkMetadataLoading(true);
+			DslModel model = manager.createModelFromDatabase("db2", "students-bulk");
+			assertEquals(4, model.getEntities().size());
+			assertEquals(2, model.getEntityByTableName("STUDENT").getForeignKeys().size());
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+}
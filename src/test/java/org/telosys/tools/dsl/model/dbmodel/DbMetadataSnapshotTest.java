@@ -0,0 +1,213 @@
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.commons.cfg.TelosysToolsCfgManager;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinition;
+import org.telosys.tools.commons.logger.ConsoleLogger;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DbMetadataSnapshotTest {
+
+	private TelosysToolsCfg getTelosysToolsCfg() {
+		File projectFolder = new File("src/test/resources/myproject");
+		TelosysToolsCfgManager cfgManager = new TelosysToolsCfgManager(projectFolder.getAbsolutePath());
+		return cfgManager.loadTelosysToolsCfg();
+	}
+
+	/**
+	 * Fake connection with a fake metadata (no database)
+	 */
+	private Connection fakeConnection() {
+		final Object metaData = Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), 
+				new Class<?>[] { DatabaseMetaData.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						switch ( method.getName() ) {
+						case "getSearchStringEscape" :
+							return "\\" ;
+						case "getTables" :
+							List<Object[]> rows = new ArrayList<>();
+							rows.add(new Object[] { null, "S1", "STUDENT", "TABLE", Short.valueOf((short) 1), 
+									Long.valueOf(12), new BigDecimal("1.50"), Boolean.TRUE, 2.5d, 1.5f, Byte.valueOf((byte) 3) });
+							rows.add(new Object[] { null, "S1", "TEACHER", "TABLE", null, null, null, null, null, null, null });
+							return new MetaDataRows(Arrays.asList("TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE", 
+									"A", "B", "C", "D", "E", "F", "G"), rows).toResultSet();
+						default:
+							throw new SQLFeatureNotSupportedException(method.getName());
+						}
+					}
+				});
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), 
+				new Class<?>[] { Connection.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						switch ( method.getName() ) {
+						case "getMetaData" :
+							return metaData ;
+						case "getCatalog" :
+							return "CAT" ;
+						default:
+							throw new SQLFeatureNotSupportedException(method.getName());
+						}
+					}
+				});
+	}
+
+	private List<String> readTables(Connection connection) throws SQLException {
+		List<String> list = new ArrayList<>();
+		list.add(connection.getCatalog());
+		DatabaseMetaData metaData = connection.getMetaData();
+		list.add(metaData.getSearchStringEscape());
+		ResultSet rs = metaData.getTables(null, "S1", "%", new String[] { "TABLE" });
+		while ( rs.next() ) {
+			StringBuilder sb = new StringBuilder();
+			for ( int i = 1 ; i <= 11 ; i++ ) {
+				Object value = rs.getObject(i);
+				sb.append(value != null ? value.getClass().getSimpleName() + ":" + value : "null").append(" ");
+			}
+			list.add(sb.toString());
+		}
+		rs.close();
+		return list;
+	}
+
+	@Test
+	public void testRecordAndReplay() throws SQLException, IOException {
+		MetaDataRecording recording = new MetaDataRecording();
+		List<String> expected = readTables(recording.recordingConnection(fakeConnection()));
+		assertEquals(4, expected.size());
+		assertEquals(3, recording.getNumberOfCalls());
+
+		// write and read 
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		recording.write(new DataOutputStream(bytes));
+		MetaDataRecording recording2 = MetaDataRecording.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		assertEquals(3, recording2.getNumberOfCalls());
+
+		// replay : same results (values and types)  
+		Connection connection = recording2.replayConnection();
+		assertEquals(expected, readTables(connection));
+		assertEquals(expected, readTables(connection)); // twice
+		assertFalse(connection.isClosed());
+		connection.close();
+		assertTrue(connection.isClosed());
+	}
+
+	@Test
+	public void testReplayNotRecorded() throws SQLException {
+		MetaDataRecording recording = new MetaDataRecording();
+		readTables(recording.recordingConnection(fakeConnection()));
+		Connection connection = recording.replayConnection();
+		DatabaseMetaData metaData = connection.getMetaData();
+		assertSame(connection, metaData.getConnection());
+		try {
+			// other parameters => not recorded 
+			metaData.getTables(null, "S2", "%", new String[] { "TABLE" });
+			fail("SQLFeatureNotSupportedException expected");
+		} catch (SQLFeatureNotSupportedException e) {
+			assertTrue(e.getMessage().contains("getTables"));
+		}
+	}
+
+	private List<String> describe(DslModel model) {
+		List<String> list = new ArrayList<>();
+		for ( Entity entity : model.getEntities() ) {
+			list.add(entity.getClassName() + " " + entity.getDatabaseTable() + " " + entity.getAttributes().size() 
+					+ " " + entity.getForeignKeys().size() + " " + entity.getLinks().size() + " " + entity.isJoinEntity());
+		}
+		return list;
+	}
+
+	@Test
+	public void testModelFromSnapshot() throws TelosysToolsException {
+		TelosysToolsCfg telosysToolsCfg = getTelosysToolsCfg();
+		File snapshotFile = TestFileProvider.getTargetTmpFile("snapshots/db2.snapshot");
+		DslModel model ;
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(telosysToolsCfg, "db2");
+		databaseInMemory.executeSqlFile("students.sql");
+		try {
+			DbToModelManager manager = new DbToModelManager(telosysToolsCfg, new ConsoleLogger());
+			model = manager.createModelFromDatabase("db2", "students-snapshot", snapshotFile);
+		} finally {
+			databaseInMemory.close();
+		}
+		assertTrue(snapshotFile.exists());
+		// database closed => model from snapshot only
+		DbToModelManager manager = new DbToModelManager(telosysToolsCfg, new ConsoleLogger());
+		DslModel model2 = manager.createModelFromSnapshot(snapshotFile, "students-from-snapshot");
+		assertEquals(4, model2.getEntities().size());
+		assertEquals(describe(model), describe(model2));
+		assertEquals("db2", model2.getDatabaseId());
+		assertEquals(model.getDatabaseName(), model2.getDatabaseName());
+	}
+
+	private int countLinks(DslModel model) {
+		int n = 0 ;
+		for ( Entity entity : model.getEntities() ) {
+			n = n + entity.getLinks().size();
+		}
+		return n;
+	}
+
+	@Test
+	public void testModelFromSnapshotWithCurrentOptions() throws TelosysToolsException {
+		TelosysToolsCfg telosysToolsCfg = getTelosysToolsCfg();
+		File snapshotFile = TestFileProvider.getTargetTmpFile("snapshots/db2-options.snapshot");
+		DslModel model ;
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(telosysToolsCfg, "db2");
+		databaseInMemory.executeSqlFile("students.sql");
+		try {
+			DbToModelManager manager = new DbToModelManager(telosysToolsCfg, new ConsoleLogger());
+			model = manager.createModelFromDatabase("db2", "students-snapshot-options", snapshotFile);
+		} finally {
+			databaseInMemory.close();
+		}
+		// 'linksOneToMany' flipped after the snapshot 
+		DatabaseDefinition options = DbMetadataSnapshot.load(snapshotFile).getDatabaseDefinition();
+		assertTrue(options.isLinksOneToMany());
+		String yaml = DbMetadataSnapshot.toYaml(options).replace("linksOneToMany: true", "linksOneToMany: false");
+		DatabaseDefinition newOptions = DbMetadataSnapshot.fromYaml("db2", yaml);
+		assertFalse(newOptions.isLinksOneToMany());
+
+		DbToModelManager manager = new DbToModelManager(telosysToolsCfg, new ConsoleLogger());
+		DslModel model2 = manager.createModelFromSnapshot(snapshotFile, "students-from-snapshot-options", newOptions);
+		// same entities, less links (no more 'one to many' links) 
+		assertEquals(model.getEntities().size(), model2.getEntities().size());
+		assertTrue(countLinks(model2) > 0);
+		assertTrue(countLinks(model2) < countLinks(model));
+	}
+
+	@Test(expected = TelosysToolsException.class)
+	public void testSnapshotNotFound() throws TelosysToolsException {
+		DbMetadataSnapshot.load(new File("src/test/resources/no-such-file.snapshot"));
+	}
+}
@@ -0,0 +1,91 @@
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.commons.TelosysToolsException;
+import org.telosys.tools.commons.cfg.TelosysToolsCfg;
+import org.telosys.tools.commons.cfg.TelosysToolsCfgManager;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseConnectionProvider;
+import org.telosys.tools.commons.dbcfg.yaml.DatabaseDefinition;
+import org.telosys.tools.commons.logger.ConsoleLogger;
+import org.telosys.tools.db.model.DatabaseModelManager;
+import org.telosys.tools.db.model.DatabaseTable;
+import org.telosys.tools.db.model.DatabaseTables;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.generic.model.Entity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class DbTablesParallelLoaderTest {
+
+	private TelosysToolsCfg getTelosysToolsCfg() {
+		File projectFolder = new File("src/test/resources/myproject");
+		TelosysToolsCfgManager cfgManager = new TelosysToolsCfgManager(projectFolder.getAbsolutePath());
+		return cfgManager.loadTelosysToolsCfg();
+	}
+
+	private List<String> describe(DatabaseTables dbTables) {
+		List<String> list = new ArrayList<>();
+		for ( DatabaseTable table : dbTables ) {
+			list.add(table.getTableName() + " : " + table.getColumns().size() + " column(s), " 
+					+ table.getForeignKeys().size() + " FK(s)");
+		}
+		return list;
+	}
+
+	@Test
+	public void testEscapePattern() {
+		assertEquals("STUDENT", DbTablesParallelLoader.escapePattern("STUDENT", "\\"));
+		assertEquals("MY\\_TABLE", DbTablesParallelLoader.escapePattern("MY_TABLE", "\\"));
+		assertEquals("A\\%B\\\\C", DbTablesParallelLoader.escapePattern("A%B\\C", "\\"));
+		assertEquals("MY_TABLE", DbTablesParallelLoader.escapePattern("MY_TABLE", ""));
+		assertEquals("MY_TABLE", DbTablesParallelLoader.escapePattern("MY_TABLE", null));
+	}
+
+	@Test
+	public void testSameTablesAsSingleConnection() throws TelosysToolsException, SQLException {
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(getTelosysToolsCfg(), "db2");
+		databaseInMemory.executeSqlFile("students.sql");
+		try {
+			DatabaseDefinition db = databaseInMemory.getDatabaseDefinition();
+			DatabaseTables expected = new DatabaseModelManager().getDatabaseTables(databaseInMemory.getCurrentConnection(), 
+					db.getCatalog(), db.getSchema(), "%", db.getTableTypesArray(), 
+					db.getTableNameInclude(), db.getTableNameExclude());
+			for ( int n = 1 ; n <= 5 ; n++ ) {
+				DbTablesParallelLoader loader = new DbTablesParallelLoader(new DatabaseConnectionProvider(), db, n);
+				DatabaseTables dbTables = loader.loadTables("%");
+				assertEquals(describe(expected), describe(dbTables));
+			}
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+
+	@Test
+	public void testModelFromDatabase() throws TelosysToolsException {
+		TelosysToolsCfg telosysToolsCfg = getTelosysToolsCfg();
+		DatabaseInMemory databaseInMemory = new DatabaseInMemory(telosysToolsCfg, "db2");
+		databaseInMemory.executeSqlFile("students.sql");
+		try {
+			DbToModelManager manager = new DbToModelManager(telosysToolsCfg, new ConsoleLogger());
+			manager.setNumberOfConnections(3);
+			DslModel model = manager.createModelFromDatabase("db2", "students-parallel");
+			assertEquals(4, model.getEntities().size());
+			Entity student = model.getEntityByTableName("STUDENT");
+			assertNotNull(student);
+			assertEquals(2, student.getForeignKeys().size());
+		} finally {
+			databaseInMemory.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidNumberOfConnections() {
+		new DbToModelManager(getTelosysToolsCfg(), new ConsoleLogger()).setNumberOfConnections(0);
+	}
+}
@@ -0,0 +1,246 @@
+package org.telosys.tools.dsl.model.dbmodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.writer.SyntheticModelGenerator;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DbToModelSynchronizerTest {
+
+	private File generateModel(String name) {
+		File modelFolder = TestFileProvider.getTargetTmpFile("sync/" + name);
+		if ( modelFolder.exists() ) {
+			for ( File file : modelFolder.listFiles() ) {
+				file.delete();
+			}
+		}
+		modelFolder.mkdirs();
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumberOfEntities(10);
+		generator.setFieldsPerEntity(5);
+		generator.setForeignKeysPerEntity(2);
+		generator.setNumberOfJoinEntities(1);
+		generator.setSeed(7);
+		generator.writeModel(modelFolder);
+		return modelFolder;
+	}
+
+	private DslModel load(File modelFolder) {
+		DslModelManager modelManager = new DslModelManager();
+		DslModel model = (DslModel) modelManager.loadModel(modelFolder);
+		assertNotNull(modelManager.getErrorMessage() + " " + modelManager.getErrors(), model);
+		return model;
+	}
+
+	private String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private Map<String, String> readAll(File modelFolder) throws IOException {
+		Map<String, String> map = new HashMap<>();
+		for ( File file : modelFolder.listFiles() ) {
+			map.put(file.getName(), read(file));
+		}
+		return map;
+	}
+
+	private void userChange(File file) throws IOException {
+		String content = read(file);
+		String newContent = content.replace("id : int { @Id @NotNull };", "id : int { @Id @NotNull @Label(My id) #UserTag };");
+		assertFalse(content.equals(newContent));
+		Files.write(file.toPath(), newContent.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testNoChange() throws IOException {
+		File modelFolder = generateModel("nochange-model");
+		File databaseFolder = generateModel("nochange-db");
+		userChange(new File(modelFolder, "Entity0003.entity"));
+		Map<String, String> before = readAll(modelFolder);
+
+		DbToModelSyncResult result = new DbToModelSynchronizer().synchronize(load(modelFolder), load(databaseFolder), 
+				modelFolder.getAbsolutePath());
+		assertEquals(0, result.getNumberOfFilesWritten());
+		assertEquals(11, result.getUnchangedEntities().size());
+		assertTrue(result.getDroppedEntities().isEmpty());
+		assertEquals(before, readAll(modelFolder));
+	}
+
+	@Test
+	public void testChanges() throws IOException {
+		File modelFolder = generateModel("changes-model");
+		File databaseFolder = generateModel("changes-db");
+		userChange(new File(modelFolder, "Entity0003.entity"));
+		Map<String, String> before = readAll(modelFolder);
+
+		DslModel databaseModel = load(databaseFolder);
+		// changed column type and new column in ENTITY0003
+		DslModelEntity entity3 = (DslModelEntity) databaseModel.getEntityByClassName("Entity0003");
+		((DslModelAttribute) entity3.getAttributeByName("id")).setDatabaseType("INTEGER");
+		DslModelAttribute newAttribute = new DslModelAttribute("newCol", "string");
+		newAttribute.setDatabaseName("NEW_COL");
+		entity3.addAttribute(newAttribute);
+		// new table 
+		DslModelEntity newEntity = new DslModelEntity("Entity9999");
+		newEntity.setDatabaseTable("ENTITY9999");
+		DslModelAttribute id = new DslModelAttribute("id", "int");
+		id.setKeyElement(true);
+		id.setNotNull(true);
+		newEntity.addAttribute(id);
+		databaseModel.addEntity(newEntity);
+		// dropped table 
+		databaseModel.getEntities().remove(databaseModel.getEntityByClassName("Join0001"));
+		
+		DbToModelSyncResult result = new DbToModelSynchronizer().synchronize(load(modelFolder), databaseModel, 
+				modelFolder.getAbsolutePath());
+		assertEquals(Arrays.asList("Entity9999"), result.getNewEntities());
+		assertEquals(Arrays.asList("Entity0003"), result.getChangedEntities());
+		assertEquals(Arrays.asList("Join0001"), result.getDroppedEntities());
+		assertEquals(9, result.getUnchangedEntities().size());
+		assertEquals(2, result.getNumberOfFilesWritten());
+
+		Map<String, String> after = readAll(modelFolder);
+		assertEquals(before.size() + 1, after.size());
+		for ( Map.Entry<String, String> entry : before.entrySet() ) {
+			if ( ! entry.getKey().equals("Entity0003.entity") ) {
+				assertEquals(entry.getKey(), entry.getValue(), after.get(entry.getKey()));
+			}
+		}
+		// user annotations and tags kept in the changed entity
+		String entity3File = after.get("Entity0003.entity");
+		assertTrue(entity3File, entity3File.contains("id : int { @Id @DbType(INTEGER) @NotNull @Label(My id) #UserTag };"));
+		assertTrue(entity3File, entity3File.contains("newCol : string { @DbName(NEW_COL) };"));
+
+		// still a valid model 
+		DslModel model = load(modelFolder);
+		assertEquals(12, model.getEntities().size());
+		Attribute attribute = model.getEntityByClassName("Entity0003").getAttributeByName("id");
+		assertEquals("My id", attribute.getLabel());
+		assertTrue(attribute.getTagContainer().containsTag("UserTag"));
+
+		// same database => no change 
+		result = new DbToModelSynchronizer().synchronize(load(modelFolder), databaseModel, modelFolder.getAbsolutePath());
+		assertEquals(0, result.getNumberOfFilesWritten());
+	}
+
+	private void userValidationChanges(File file) throws IOException {
+		String content = read(file);
+		String newContent = content.replace("  field4 : time { @DbName(FIELD4) @NotNull @Label(Label of field4) };", 
+					"  field4 : time { @DbName(FIELD4) @Label(Label of field4) };")
+				.replace("  field5 : time { @DbName(FIELD5) };", "  field5 : time { @DbName(FIELD5) @NotNull };");
+		assertFalse(content.equals(newContent));
+		Files.write(file.toPath(), newContent.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testUserValidationAnnotationsKept() throws IOException {
+		File modelFolder = generateModel("validation-model");
+		File databaseFolder = generateModel("validation-db");
+		userValidationChanges(new File(modelFolder, "Entity0003.entity"));
+
+		// NOT NULL int column : @NotEmpty removed by the user in the model
+		DslModel databaseModel = load(databaseFolder);
+		DslModelEntity entity3 = (DslModelEntity) databaseModel.getEntityByClassName("Entity0003");
+		((DslModelAttribute) entity3.getAttributeByName("field2")).setNotEmpty(true);
+
+		// different validation annotations only => no change
+		DbToModelSyncResult result = new DbToModelSynchronizer().synchronize(load(modelFolder), databaseModel, 
+				modelFolder.getAbsolutePath());
+		assertEquals(0, result.getNumberOfFilesWritten());
+
+		// new column => entity rewritten with the user validation annotations
+		DslModelAttribute newAttribute = new DslModelAttribute("newCol", "string");
+		newAttribute.setDatabaseName("NEW_COL");
+		newAttribute.setNotNull(true);
+		entity3.addAttribute(newAttribute);
+		result = new DbToModelSynchronizer().synchronize(load(modelFolder), databaseModel, modelFolder.getAbsolutePath());
+		assertEquals(Arrays.asList("Entity0003"), result.getChangedEntities());
+		String entity3File = read(new File(modelFolder, "Entity0003.entity"));
+		assertTrue(entity3File, entity3File.contains("  field2 : int { @NotNull @Max(73590) @Label(Label of field2) };"));
+		assertTrue(entity3File, entity3File.contains("  field4 : time { @DbName(FIELD4) @Label(Label of field4) };"));
+		assertTrue(entity3File, entity3File.contains("  field5 : time { @DbName(FIELD5) @NotNull };"));
+		assertTrue(entity3File, entity3File.contains("  newCol : string { @DbName(NEW_COL) @NotNull };"));
+
+		// changed column => validation annotations updated from the database
+		((DslModelAttribute) entity3.getAttributeByName("field2")).setDatabaseType("BIGINT");
+		result = new DbToModelSynchronizer().synchronize(load(modelFolder), databaseModel, modelFolder.getAbsolutePath());
+		assertEquals(Arrays.asList("Entity0003"), result.getChangedEntities());
+		entity3File = read(new File(modelFolder, "Entity0003.entity"));
+		assertTrue(entity3File, entity3File.contains("  field2 : int { @DbType(BIGINT) @NotNull @NotEmpty @Max(73590) @Label(Label of field2) };"));
+		assertTrue(entity3File, entity3File.contains("  field4 : time { @DbName(FIELD4) @Label(Label of field4) };"));
+	}
+
+	private void renameFields(File file) throws IOException {
+		String content = read(file);
+		String newContent = content.replace("  field1 : double { @DbName(FIELD1)", "  amount : double { @DbName(FIELD1)")
+				.replace("  ref1 : Entity0002 { @LinkByFK(FK_Entity0003_1) };", "  owner : Entity0002 { @LinkByFK(FK_Entity0003_1) };");
+		assertFalse(content.equals(newContent));
+		Files.write(file.toPath(), newContent.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testRenamedField() throws IOException {
+		File modelFolder = generateModel("renamed-model");
+		File databaseFolder = generateModel("renamed-db");
+		renameFields(new File(modelFolder, "Entity0003.entity"));
+
+		// renamed field and link => no change 
+		DbToModelSyncResult result = new DbToModelSynchronizer().synchronize(load(modelFolder), load(databaseFolder), 
+				modelFolder.getAbsolutePath());
+		assertEquals(0, result.getNumberOfFilesWritten());
+
+		// changed column type => renamed field updated in place (not replaced)
+		DslModel databaseModel = load(databaseFolder);
+		DslModelEntity entity3 = (DslModelEntity) databaseModel.getEntityByClassName("Entity0003");
+		((DslModelAttribute) entity3.getAttributeByName("field1")).setDatabaseType("DECIMAL");
+		DslModel currentModel = load(modelFolder);
+		Attribute amount = currentModel.getEntityByClassName("Entity0003").getAttributeByName("amount");
+		Link owner = ((DslModelEntity) currentModel.getEntityByClassName("Entity0003")).getLinkByFieldName("owner");
+		result = new DbToModelSynchronizer().synchronize(currentModel, databaseModel, modelFolder.getAbsolutePath());
+		assertEquals(Arrays.asList("Entity0003"), result.getChangedEntities());
+		assertSame(amount, currentModel.getEntityByClassName("Entity0003").getAttributeByName("amount"));
+		assertSame(owner, ((DslModelEntity) currentModel.getEntityByClassName("Entity0003")).getLinkByFieldName("owner"));
+		assertEquals("DECIMAL", amount.getDatabaseType());
+
+		String entity3File = read(new File(modelFolder, "Entity0003.entity"));
+		assertTrue(entity3File, entity3File.contains("  amount : double { @DbName(FIELD1) @DbType(DECIMAL) "));
+		assertTrue(entity3File, entity3File.contains("  owner : Entity0002 { @LinkByFK(FK_Entity0003_1) };"));
+		assertFalse(entity3File, entity3File.contains("field1 :"));
+		assertFalse(entity3File, entity3File.contains("ref1 :"));
+
+		// same database => no change 
+		result = new DbToModelSynchronizer().synchronize(load(modelFolder), databaseModel, modelFolder.getAbsolutePath());
+		assertEquals(0, result.getNumberOfFilesWritten());
+	}
+
+	@Test
+	public void testDeleteDroppedEntities() {
+		File modelFolder = generateModel("dropped-model");
+		DslModel databaseModel = load(generateModel("dropped-db"));
+		databaseModel.getEntities().remove(databaseModel.getEntityByClassName("Join0001"));
+		DbToModelSynchronizer synchronizer = new DbToModelSynchronizer();
+		synchronizer.setDeleteDroppedEntities(true);
+		DbToModelSyncResult result = synchronizer.synchronize(load(modelFolder), databaseModel, modelFolder.getAbsolutePath());
+		assertEquals(Arrays.asList("Join0001"), result.getDroppedEntities());
+		assertFalse(new File(modelFolder, "Join0001.entity").exists());
+	}
+}
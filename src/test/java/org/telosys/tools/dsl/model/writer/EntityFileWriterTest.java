@@ -0,0 +1,311 @@
+package org.telosys.tools.dsl.model.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.DslModelForeignKeyPart;
+import org.telosys.tools.dsl.model.DslModelLink;
+import org.telosys.tools.dsl.model.DslModelLinkAttribute;
+import org.telosys.tools.dsl.tags.Tag;
+import org.telosys.tools.dsl.tags.TagError;
+import org.telosys.tools.dsl.tags.Tags;
+import org.telosys.tools.generic.model.Attribute;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.generic.model.LinkAttribute;
+import org.telosys.tools.generic.model.enums.BooleanValue;
+import org.telosys.tools.generic.model.enums.Cardinality;
+import org.telosys.tools.generic.model.enums.FetchType;
+import org.telosys.tools.generic.model.enums.GeneratedValueStrategy;
+import org.telosys.tools.generic.model.enums.Optional;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class EntityFileWriterTest {
+
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+
+	private final EntityFileWriter writer = new EntityFileWriter("unused");
+
+	private void checkSameText(DslModelEntity entity) throws IOException {
+		String expected = writer.renderEntity(entity);
+		assertTrue(expected.endsWith("}" + LINE_SEPARATOR));
+		StringWriter stringWriter = new StringWriter();
+		writer.renderEntity(entity, stringWriter);
+		assertEquals(expected, stringWriter.toString());
+		StringBuilder sb = new StringBuilder("x");
+		writer.renderEntity(entity, sb);
+		assertEquals("x" + expected, sb.toString());
+	}
+
+	private String text(String... lines) {
+		StringBuilder sb = new StringBuilder();
+		for ( String line : lines ) {
+			sb.append(line).append(LINE_SEPARATOR);
+		}
+		return sb.toString();
+	}
+
+	private void checkSameText(DslModel model) throws IOException {
+		for ( Entity entity : model.getEntities() ) {
+			checkSameText((DslModelEntity) entity);
+		}
+	}
+
+	private DslModel loadModel(File modelFolder) {
+		DslModelManager modelManager = new DslModelManager();
+		DslModel model = (DslModel) modelManager.loadModel(modelFolder);
+		assertNotNull(modelManager.getErrorMessage(), model);
+		return model;
+	}
+
+	@Test
+	public void testSameTextForValidModels() throws IOException {
+		int n = 0 ;
+		for ( File modelFolder : new File("src/test/resources/model_test/valid").listFiles() ) {
+			if ( modelFolder.isDirectory() ) {
+				DslModelManager modelManager = new DslModelManager();
+				DslModel model = (DslModel) modelManager.loadModel(modelFolder);
+				if ( model != null ) {
+					checkSameText(model);
+					n++;
+				}
+			}
+		}
+		assertTrue(n > 5);
+	}
+
+	private String elementLine(String start, List<String> annotationsAndTags) {
+		StringBuilder sb = new StringBuilder(start);
+		if ( ! annotationsAndTags.isEmpty() ) {
+			sb.append(" {");
+			for ( String s : annotationsAndTags ) {
+				sb.append(" ").append(s);
+			}
+			sb.append(" }");
+		}
+		return sb.append(";").toString();
+	}
+
+	@SuppressWarnings("deprecation")
+	private void checkDeprecatedBuildMethods(DslModelEntity entity) {
+		String text = writer.renderEntity(entity);
+		List<String> header = writer.buildEntityHeader(entity);
+		assertTrue(text.startsWith(text(header.toArray(new String[0])) + entity.getClassName() + " {"));
+		for ( Attribute attribute : entity.getAttributes() ) {
+			DslModelAttribute a = (DslModelAttribute) attribute;
+			String line = writer.buildAttribute(a);
+			assertTrue(line, text.contains(LINE_SEPARATOR + line + LINE_SEPARATOR));
+			List<String> list = writer.buildAttributeAnnotations(a);
+			list.addAll(writer.buildTags((Tags) a.getTagContainer()));
+			assertEquals(line, elementLine("  " + a.getName() + " : " + a.getNeutralType(), list));
+		}
+		for ( Link link : entity.getLinks() ) {
+			DslModelLink l = (DslModelLink) link;
+			String line = writer.buildLink(l);
+			assertTrue(line, text.contains(LINE_SEPARATOR + line + LINE_SEPARATOR));
+			List<String> list = writer.buildLinkAnnotations(l);
+			list.addAll(writer.buildTags((Tags) l.getTagContainer()));
+			assertTrue(line, line.endsWith(elementLine("", list)));
+		}
+	}
+
+	@Test
+	public void testDeprecatedBuildMethods() {
+		File modelFolder = TestFileProvider.getTargetTmpFile("entity-writer/synthetic-build");
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumberOfEntities(10);
+		generator.setAnnotationDensity(0.8);
+		generator.setTagDensity(0.8);
+		generator.setForeignKeysPerEntity(3);
+		generator.setNumberOfJoinEntities(2);
+		generator.writeModel(modelFolder);
+		for ( Entity entity : loadModel(modelFolder).getEntities() ) {
+			checkDeprecatedBuildMethods((DslModelEntity) entity);
+		}
+	}
+
+	@Test
+	public void testSameTextForSyntheticModel() throws IOException {
+		File modelFolder = TestFileProvider.getTargetTmpFile("entity-writer/synthetic");
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumberOfEntities(30);
+		generator.setAnnotationDensity(0.8);
+		generator.setTagDensity(0.8);
+		generator.setForeignKeysPerEntity(3);
+		generator.setNumberOfJoinEntities(3);
+		generator.writeModel(modelFolder);
+		checkSameText(loadModel(modelFolder));
+	}
+
+	private Tags tags(Tag... tags) throws TagError {
+		Tags container = new Tags();
+		for ( Tag tag : tags ) {
+			container.addTag(tag);
+		}
+		return container;
+	}
+
+	@Test
+	public void testSameTextForAllAnnotations() throws IOException, TagError {
+		DslModelEntity entity = new DslModelEntity("Car");
+		entity.setPackageName("org.demo");
+		entity.setDatabaseTable("CAR");
+		entity.setDatabaseCatalog("CAT");
+		entity.setDatabaseSchema("SCH");
+		entity.setDatabaseComment(" comment (with parenthesis) and \"quotes\"");
+		entity.setDatabaseTablespace("TBS");
+		entity.setDatabaseView(true);
+		entity.setJoinEntity(true);
+		entity.setDomain("dom");
+		entity.setContext("ctx");
+		entity.setAggregateRoot(true);
+		entity.setReadOnly(true);
+		entity.setInMemoryRepository(true);
+		entity.setAbstract(true);
+		entity.setSuperClass("Vehicle");
+		entity.setTagContainer(tags(new Tag("EntityTag"), new Tag("Group", "a b")));
+
+		DslModelAttribute id = new DslModelAttribute("id", "long");
+		id.setKeyElement(true);
+		id.setGeneratedValueStrategy(GeneratedValueStrategy.SEQUENCE);
+		id.setGeneratedValueSequenceName("SEQ_CAR");
+		id.setGeneratedValueAllocationSize(10);
+		id.setGeneratedValueInitialValue(1);
+		id.setDatabaseName("ID");
+		id.setDatabaseType("NUMBER(10)");
+		id.setDatabaseDefaultValue("0");
+		id.setDatabaseComment("the id ");
+		id.setNotNull(true);
+		entity.addAttribute(id);
+
+		DslModelAttribute name = new DslModelAttribute("name", "string");
+		name.setNotBlank(true);
+		name.setNotEmpty(true);
+		name.setUnique(true);
+		name.setTransient(true);
+		name.setMaxValue(new BigDecimal("12.50"));
+		name.setMinValue(BigDecimal.ZERO);
+		name.setSize("20");
+		name.setMaxLength(20);
+		name.setMinLength(2);
+		name.setLabel("Name (full)");
+		name.setInputType("text");
+		name.setInitialValue("a");
+		name.setDefaultValue("b");
+		name.setPattern("[a-z]*");
+		name.setLongText(true);
+		name.setObjectTypeExpected(true);
+		name.setPrimitiveTypeExpected(true);
+		name.setUnsignedTypeExpected(true);
+		name.setDatePast(true);
+		name.setDateFuture(true);
+		name.setTagContainer(tags(new Tag("T1"), new Tag("T2", "x")));
+		entity.addAttribute(name);
+
+		DslModelAttribute driverId = new DslModelAttribute("driverId", "int");
+		driverId.addFKPart(new DslModelForeignKeyPart("FK_CAR_DRIVER", "Driver", "id"));
+		driverId.addFKPart(new DslModelForeignKeyPart("FK_CAR_OWNER", "Person", "id"));
+		driverId.setFKSimple(true);
+		driverId.setGeneratedValueStrategy(GeneratedValueStrategy.UNDEFINED);
+		entity.addAttribute(driverId);
+
+		DslModelAttribute plain = new DslModelAttribute("plain", "int");
+		entity.addAttribute(plain);
+		for ( GeneratedValueStrategy strategy : new GeneratedValueStrategy[] { GeneratedValueStrategy.AUTO, 
+				GeneratedValueStrategy.IDENTITY } ) {
+			DslModelAttribute attribute = new DslModelAttribute("gen" + strategy, "int");
+			attribute.setGeneratedValueStrategy(strategy);
+			entity.addAttribute(attribute);
+		}
+
+		DslModelLink driver = new DslModelLink("driver");
+		driver.setReferencedEntityName("Driver");
+		driver.setCardinality(Cardinality.MANY_TO_ONE);
+		driver.setForeignKeyName("FK_CAR_DRIVER");
+		driver.setBasedOnForeignKey(true);
+		driver.setEmbedded(true);
+		driver.setTransient(true);
+		driver.setOptional(Optional.TRUE);
+		driver.setFetchType(FetchType.EAGER);
+		driver.setInsertable(BooleanValue.TRUE);
+		driver.setUpdatable(BooleanValue.FALSE);
+		driver.setTagContainer(tags(new Tag("LinkTag")));
+		entity.addLink(driver);
+
+		DslModelLink owners = new DslModelLink("owners");
+		owners.setReferencedEntityName("Person");
+		owners.setCardinality(Cardinality.MANY_TO_MANY);
+		owners.setJoinEntityName("CarOwner");
+		owners.setBasedOnJoinEntity(true);
+		owners.setFetchType(FetchType.LAZY);
+		owners.setMappedBy("cars");
+		entity.addLink(owners);
+
+		DslModelLink parts = new DslModelLink("parts");
+		parts.setReferencedEntityName("Part");
+		parts.setCardinality(Cardinality.ONE_TO_MANY);
+		entity.addLink(parts);
+
+		DslModelLink engine = new DslModelLink("engine");
+		engine.setReferencedEntityName("Engine");
+		engine.setCardinality(Cardinality.ONE_TO_ONE);
+		engine.setBasedOnAttributes(true);
+		List<LinkAttribute> linkAttributes = new ArrayList<>();
+		linkAttributes.add(new DslModelLinkAttribute("engineId", "id"));
+		linkAttributes.add(new DslModelLinkAttribute("engineType", "type"));
+		engine.setAttributes(linkAttributes);
+		entity.addLink(engine);
+
+		checkSameText(entity);
+		assertEquals(text(
+				"@Package(org.demo)",
+				"@DbTable(CAR)",
+				"@DbCatalog(CAT)",
+				"@DbSchema(SCH)",
+				"@DbComment(\" comment (with parenthesis) and \\\"quotes\\\"\")",
+				"@DbTablespace(TBS)",
+				"@DbView",
+				"@JoinEntity",
+				"@Domain(dom)",
+				"@Context(ctx)",
+				"@AggregateRoot",
+				"@ReadOnly",
+				"@InMemoryRepository",
+				"@Abstract",
+				"@Extends(Vehicle)",
+				"#Group(a b)",
+				"#EntityTag",
+				"Car {",
+				"  // attributes",
+				"  id : long { @Id @GeneratedValue(SEQUENCE, SEQ_CAR, 10, 1) @DbName(ID) @DbType(\"NUMBER(10)\") @DbDefaultValue(0) @DbComment(\"the id \") @NotNull };",
+				"  name : string { @NotBlank @NotEmpty @Unique @Transient @Max(12.50) @Min(0) @Size(20) @MaxLen(20) @MinLen(2) @Label(\"Name (full)\") @InputType(text) @InitialValue(a) @DefaultValue(b) @Pattern([a-z]*) @LongText @ObjectType @PrimitiveType @UnsignedType @Past @Future #T1 #T2(x) };",
+				"  driverId : int { @FK(FK_CAR_DRIVER, Driver.id) @FK(FK_CAR_OWNER, Person.id) };",
+				"  plain : int;",
+				"  genAUTO : int { @GeneratedValue(AUTO) };",
+				"  genIDENTITY : int { @GeneratedValue(IDENTITY) };",
+				"  // links",
+				"  driver : Driver { @Embedded @Transient @Optional @FetchTypeEager @Insertable(true) @Updatable(false) @LinkByFK(FK_CAR_DRIVER) #LinkTag };",
+				"  owners : Person[] { @FetchTypeLazy @ManyToMany @MappedBy(cars) @LinkByJoinEntity(CarOwner) };",
+				"  parts : Part[];",
+				"  engine : Engine { @OneToOne @LinkByAttr(engineId, engineType) };",
+				"}"), writer.renderEntity(entity));
+		checkDeprecatedBuildMethods(entity);
+
+		// empty entity
+		checkSameText(new DslModelEntity("Empty"));
+		assertEquals(text("Empty {", "  // attributes", "  // links", "}"), writer.renderEntity(new DslModelEntity("Empty")));
+	}
+}
@@ -0,0 +1,217 @@
+package org.telosys.tools.dsl.model.writer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModelWriterTest {
+
+	private static final long OLD_TIME = 1000000000000L ;
+
+	private File getEmptyFolder(String name) {
+		File folder = TestFileProvider.getTargetTmpFile("model-writer/" + name);
+		if ( folder.exists() ) {
+			for ( File file : folder.listFiles() ) {
+				file.delete();
+			}
+		}
+		return folder;
+	}
+
+	private DslModel loadModel(String name) {
+		File modelFolder = getEmptyFolder(name);
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumberOfEntities(20);
+		generator.setForeignKeysPerEntity(2);
+		generator.setNumberOfJoinEntities(2);
+		generator.setTagDensity(0.5);
+		generator.setSeed(11);
+		generator.writeModel(modelFolder);
+		DslModelManager modelManager = new DslModelManager();
+		DslModel model = (DslModel) modelManager.loadModel(modelFolder);
+		assertNotNull(modelManager.getErrorMessage(), model);
+		return model;
+	}
+
+	private void checkSameFiles(File folder1, File folder2) throws IOException {
+		String[] names = folder1.list();
+		Arrays.sort(names);
+		String[] names2 = folder2.list();
+		Arrays.sort(names2);
+		assertArrayEquals(names, names2);
+		for ( String name : names ) {
+			assertTrue(name, Arrays.equals(Files.readAllBytes(new File(folder1, name).toPath()), 
+					Files.readAllBytes(new File(folder2, name).toPath())));
+		}
+	}
+
+	private void checkWriteIfChanged(ModelWriter modelWriter, String name) throws IOException {
+		DslModel model = loadModel(name + "-source");
+		File expectedFolder = getEmptyFolder(name + "-expected");
+		new ModelWriter().writeModel(model, expectedFolder.getAbsolutePath());
+		File folder = getEmptyFolder(name);
+
+		// 1) new files => all written (same content as 'writeModel')
+		ModelWriterResult result = modelWriter.writeModelIfChanged(model, folder.getAbsolutePath());
+		assertEquals(22 + 1, result.getNumberOfWrittenFiles());
+		assertEquals(0, result.getNumberOfSkippedFiles());
+		assertEquals("model.yaml", result.getWrittenFiles().get(0));
+		assertEquals("Entity0001.entity", result.getWrittenFiles().get(1));
+		checkSameFiles(expectedFolder, folder);
+
+		// 2) same model => no file written 
+		for ( File file : folder.listFiles() ) {
+			assertTrue(file.setLastModified(OLD_TIME));
+		}
+		result = modelWriter.writeModelIfChanged(model, folder.getAbsolutePath());
+		assertEquals(0, result.getNumberOfWrittenFiles());
+		assertEquals(23, result.getNumberOfSkippedFiles());
+		for ( File file : folder.listFiles() ) {
+			assertEquals(file.getName(), OLD_TIME, file.lastModified());
+		}
+
+		// 3) one entity changed => only one file written 
+		DslModelEntity entity = (DslModelEntity) model.getEntityByClassName("Entity0005");
+		((DslModelAttribute) entity.getAttributeByName("field1")).setLabel("New label");
+		result = modelWriter.writeModelIfChanged(model, folder.getAbsolutePath());
+		assertEquals(Arrays.asList("Entity0005.entity"), result.getWrittenFiles());
+		assertEquals(22, result.getNumberOfSkippedFiles());
+		assertTrue(new File(folder, "Entity0005.entity").lastModified() != OLD_TIME);
+		assertEquals(OLD_TIME, new File(folder, "Entity0004.entity").lastModified());
+		new ModelWriter().writeModel(model, expectedFolder.getAbsolutePath());
+		checkSameFiles(expectedFolder, folder); // no temporary file left
+	}
+
+	@Test
+	public void testWriteIfChanged() throws IOException {
+		checkWriteIfChanged(new ModelWriter(), "sequential");
+	}
+
+	@Test
+	public void testWriteIfChangedInParallel() throws IOException {
+		ExecutorService executor = new ForkJoinPool(4);
+		try {
+			checkWriteIfChanged(new ModelWriter(executor), "parallel");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testPermissionsKeptOnRewrite() throws IOException {
+		DslModel model = loadModel("permissions-source");
+		File folder = getEmptyFolder("permissions");
+		ModelWriter modelWriter = new ModelWriter();
+		modelWriter.writeModelIfChanged(model, folder.getAbsolutePath());
+		Path file = new File(folder, "Entity0005.entity").toPath();
+		Path otherFile = new File(folder, "Entity0004.entity").toPath();
+		if ( ! Files.getFileStore(file).supportsFileAttributeView(PosixFileAttributeView.class) ) {
+			return; // not a POSIX file system
+		}
+		// new file => default permissions (as any new file)
+		File defaultFile = new File(folder, "default.tmp");
+		new FileOutputStream(defaultFile).close();
+		assertEquals(Files.getPosixFilePermissions(defaultFile.toPath()), Files.getPosixFilePermissions(otherFile));
+		assertTrue(defaultFile.delete());
+
+		// rewritten file => same permissions as before 
+		Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-rw-r--");
+		Files.setPosixFilePermissions(file, permissions);
+		DslModelEntity entity = (DslModelEntity) model.getEntityByClassName("Entity0005");
+		((DslModelAttribute) entity.getAttributeByName("field1")).setLabel("New label");
+		ModelWriterResult result = modelWriter.writeModelIfChanged(model, folder.getAbsolutePath());
+		assertEquals(Arrays.asList("Entity0005.entity"), result.getWrittenFiles());
+		assertEquals(permissions, Files.getPosixFilePermissions(file));
+	}
+
+	@Test(expected = ModelWriterException.class)
+	public void testWriteError() {
+		DslModel model = new DslModel("foo");
+		model.addEntity(new DslModelEntity("Foo/Bar")); // invalid file name
+		ExecutorService executor = new ForkJoinPool(2);
+		try {
+			new ModelWriter(executor).writeModelIfChanged(model, getEmptyFolder("error").getAbsolutePath());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testWriteErrorCancelsOtherEntities() throws InterruptedException {
+		DslModel model = new DslModel("foo");
+		model.addEntity(new DslModelEntity("Foo/Bar")); // invalid file name
+		for ( int i = 1 ; i < 50 ; i++ ) {
+			model.addEntity(new DslModelEntity("Entity" + i));
+		}
+		final CountDownLatch allSubmitted = new CountDownLatch(model.getEntities().size());
+		final CountDownLatch writerReturned = new CountDownLatch(1);
+		final AtomicInteger executed = new AtomicInteger();
+		// single thread executor : the tasks start when all are submitted,
+		// the first one (error) blocks the thread until the writer returns
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()) {
+			@Override
+			public void execute(Runnable command) {
+				super.execute(command);
+				allSubmitted.countDown();
+			}
+			@Override
+			protected void beforeExecute(Thread t, Runnable r) {
+				await(allSubmitted);
+			}
+			@Override
+			protected void afterExecute(Runnable r, Throwable t) {
+				if ( executed.incrementAndGet() == 1 ) {
+					await(writerReturned);
+				}
+			}
+		};
+		File folder = getEmptyFolder("error-cancel");
+		boolean error = false ;
+		try {
+			new ModelWriter(executor).writeModelIfChanged(model, folder.getAbsolutePath());
+		} catch (ModelWriterException e) {
+			error = true ;
+		} finally {
+			writerReturned.countDown();
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		}
+		assertTrue(error);
+		// no entity file written after the error
+		assertEquals(Arrays.asList("model.yaml"), Arrays.asList(folder.list()));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
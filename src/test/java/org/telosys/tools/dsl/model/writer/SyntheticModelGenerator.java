@@ -0,0 +1,323 @@
+/**
+ *  Copyright (C) 2008-2017  Telosys project org. ( http://www.telosys.org/ )
+ *
+ *  Licensed under the GNU LESSER GENERAL PUBLIC LICENSE, Version 3.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *          http://www.gnu.org/licenses/lgpl.html
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.telosys.tools.dsl.model.writer;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.Random;
+
+import org.telosys.tools.dsl.commons.AttributeFKUtil;
+import org.telosys.tools.dsl.commons.ModelInfo;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.model.DslModelForeignKey;
+import org.telosys.tools.dsl.model.DslModelForeignKeyAttribute;
+import org.telosys.tools.dsl.model.DslModelLink;
+import org.telosys.tools.dsl.tags.Tag;
+import org.telosys.tools.dsl.tags.TagError;
+import org.telosys.tools.dsl.tags.Tags;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.ForeignKey;
+import org.telosys.tools.generic.model.enums.Cardinality;
+
+/**
+ * Synthetic model generator for load and scaling tests <br>
+ * Builds a DSL model with the given characteristics and writes it with 'ModelWriter' <br>
+ * The generated model is always the same for the same configuration (including the seed) <br>
+ * <br>
+ * Generated entities : <br>
+ *  . "EntityNNNN" : an '@Id' attribute, N basic attributes with annotations and tags, <br>
+ *     and for each FK (fan-out) : a FK attribute referencing a previous entity and a link based on this FK <br>
+ *  . "JoinNNNN" : join entities with 2 FK (both in the primary key) <br>
+ *     and a '@ManyToMany' link in each referenced entity <br>
+ * <br>
+ * Test tool only (not in the library) : shared by the unit tests and the JMH benchmarks <br>
+ * ( "src/jmh/java" is added to the test sources by the 'jmh' profile )
+ *
+ * @author Laurent Guerin
+ * @since 4.3.0
+ */
+public class SyntheticModelGenerator {
+
+	private static final String ID = "id" ;
+
+	private static final String[] BASIC_TYPES = { "string", "int", "long", "decimal", "boolean", "date", "time", "timestamp", "double" } ;
+
+	// tag names : letters only
+	private static final String[] TAGS = { "Searchable", "Sortable", "Hidden", "ReadOnly", "Audited" } ;
+
+	private int    numberOfEntities = 10 ;
+	private int    fieldsPerEntity = 10 ;
+	private double annotationDensity = 0.5 ;
+	private double tagDensity = 0.2 ;
+	private int    foreignKeysPerEntity = 1 ;
+	private int    numberOfJoinEntities = 0 ;
+	private long   seed = 0 ;
+
+	/**
+	 * Constructor (with default configuration)
+	 */
+	public SyntheticModelGenerator() {
+		super();
+	}
+
+	/**
+	 * Number of entities (join entities excluded)
+	 * @param numberOfEntities
+	 */
+	public void setNumberOfEntities(int numberOfEntities) {
+		this.numberOfEntities = numberOfEntities;
+	}
+
+	/**
+	 * Number of basic attributes in each entity ('@Id' and FK attributes excluded)
+	 * @param fieldsPerEntity
+	 */
+	public void setFieldsPerEntity(int fieldsPerEntity) {
+		this.fieldsPerEntity = fieldsPerEntity;
+	}
+
+	/**
+	 * Probability (from 0 to 1) for each possible annotation to be set on a basic attribute
+	 * @param annotationDensity
+	 */
+	public void setAnnotationDensity(double annotationDensity) {
+		this.annotationDensity = annotationDensity;
+	}
+
+	/**
+	 * Probability (from 0 to 1) for a basic attribute to have a tag
+	 * @param tagDensity
+	 */
+	public void setTagDensity(double tagDensity) {
+		this.tagDensity = tagDensity;
+	}
+
+	/**
+	 * Number of FK (and associated links) in each entity (FK fan-out) <br>
+	 * (the first entities have less FK because only the previous entities can be referenced)
+	 * @param foreignKeysPerEntity
+	 */
+	public void setForeignKeysPerEntity(int foreignKeysPerEntity) {
+		this.foreignKeysPerEntity = foreignKeysPerEntity;
+	}
+
+	/**
+	 * Number of join entities (each one producing 2 many-to-many links)
+	 * @param numberOfJoinEntities
+	 */
+	public void setNumberOfJoinEntities(int numberOfJoinEntities) {
+		this.numberOfJoinEntities = numberOfJoinEntities;
+	}
+
+	/**
+	 * Seed for the random generator
+	 * @param seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the name of the entity for the given index (starting at 1)
+	 * @param index
+	 * @return
+	 */
+	public String entityName(int index) {
+		return "Entity" + number(index, numberOfEntities);
+	}
+
+	/**
+	 * Returns the name of the join entity for the given index (starting at 1)
+	 * @param index
+	 * @return
+	 */
+	public String joinEntityName(int index) {
+		return "Join" + number(index, numberOfJoinEntities);
+	}
+
+	private String number(int index, int max) {
+		int width = Math.max(4, String.valueOf(max).length());
+		StringBuilder sb = new StringBuilder(String.valueOf(index));
+		while ( sb.length() < width ) {
+			sb.insert(0, '0');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Generates the model and writes it in the given folder (created if necessary)
+	 * @param modelFolder
+	 * @return the generated model
+	 */
+	public DslModel writeModel(File modelFolder) {
+		DslModel model = generateModel(modelFolder.getName());
+		new ModelWriter().writeModel(model, modelFolder.getAbsolutePath());
+		return model;
+	}
+
+	/**
+	 * Generates the model (in memory)
+	 * @param modelName
+	 * @return
+	 */
+	public DslModel generateModel(String modelName) {
+		Random random = new Random(seed);
+		ModelInfo modelInfo = new ModelInfo();
+		modelInfo.setTitle("Synthetic model");
+		modelInfo.setVersion("1.0.0");
+		modelInfo.setDescription(numberOfEntities + " entities, " + numberOfJoinEntities + " join entities, seed " + seed);
+		DslModel model = new DslModel(modelName, modelInfo);
+		//--- entities with basic attributes and FK attributes
+		for ( int i = 1 ; i <= numberOfEntities ; i++ ) {
+			model.addEntity(createEntity(i, random));
+		}
+		//--- join entities
+		if ( numberOfEntities >= 2 ) {
+			for ( int i = 1 ; i <= numberOfJoinEntities ; i++ ) {
+				model.addEntity(createJoinEntity(model, i, random));
+			}
+		}
+		//--- FK applied when all the referenced entities are in the model
+		for ( Entity entity : model.getEntities() ) {
+			for ( ForeignKey fk : entity.getForeignKeys() ) {
+				AttributeFKUtil.applyFKToAttributes(fk, model);
+			}
+		}
+		model.sortEntitiesByClassName();
+		return model;
+	}
+
+	private DslModelEntity createEntity(int index, Random random) {
+		String entityName = entityName(index);
+		DslModelEntity entity = new DslModelEntity(entityName);
+		entity.setDatabaseTable(entityName.toUpperCase());
+		if ( random.nextDouble() < tagDensity ) {
+			entity.setTagContainer(newTags(new Tag("Group", String.valueOf(index % 10))));
+		}
+		//--- id
+		DslModelAttribute id = new DslModelAttribute(ID, "int");
+		id.setKeyElement(true);
+		id.setNotNull(true);
+		entity.addAttribute(id);
+		//--- basic attributes
+		for ( int f = 1 ; f <= fieldsPerEntity ; f++ ) {
+			String type = BASIC_TYPES[random.nextInt(BASIC_TYPES.length)];
+			DslModelAttribute attribute = new DslModelAttribute("field" + f, type);
+			setAnnotations(attribute, random);
+			if ( random.nextDouble() < tagDensity ) {
+				attribute.setTagContainer(newTags(new Tag(TAGS[random.nextInt(TAGS.length)])));
+			}
+			entity.addAttribute(attribute);
+		}
+		//--- FK attributes and links (referencing previous entities only)
+		int n = Math.min(foreignKeysPerEntity, index - 1);
+		for ( int k = 1 ; k <= n ; k++ ) {
+			String referencedEntityName = entityName(1 + random.nextInt(index - 1));
+			String fkName = "FK_" + entityName + "_" + k ;
+			String fkAttributeName = "ref" + k + "Id" ;
+			entity.addAttribute(new DslModelAttribute(fkAttributeName, "int"));
+			DslModelForeignKey fk = new DslModelForeignKey(fkName, entityName, referencedEntityName);
+			fk.addAttribute(new DslModelForeignKeyAttribute(1, fkAttributeName, ID));
+			entity.addForeignKey(fk);
+			DslModelLink link = new DslModelLink("ref" + k);
+			link.setReferencedEntityName(referencedEntityName);
+			link.setCardinality(Cardinality.MANY_TO_ONE);
+			link.setForeignKeyName(fkName);
+			link.setBasedOnForeignKey(true);
+			entity.addLink(link);
+		}
+		return entity;
+	}
+
+	private DslModelEntity createJoinEntity(DslModel model, int index, Random random) {
+		String joinEntityName = joinEntityName(index);
+		int i1 = 1 + random.nextInt(numberOfEntities);
+		int i2 = 1 + random.nextInt(numberOfEntities - 1);
+		if ( i2 >= i1 ) {
+			i2++; // 2 different entities
+		}
+		DslModelEntity joinEntity = new DslModelEntity(joinEntityName);
+		joinEntity.setDatabaseTable(joinEntityName.toUpperCase());
+		joinEntity.setJoinEntity(true);
+		String[] referencedEntities = { entityName(i1), entityName(i2) };
+		for ( int k = 0 ; k < 2 ; k++ ) {
+			String attributeName = "entity" + (k + 1) + "Id" ;
+			DslModelAttribute attribute = new DslModelAttribute(attributeName, "int");
+			attribute.setKeyElement(true);
+			attribute.setNotNull(true);
+			joinEntity.addAttribute(attribute);
+			DslModelForeignKey fk = new DslModelForeignKey("FK_" + joinEntityName + "_" + (k + 1),
+					joinEntityName, referencedEntities[k]);
+			fk.addAttribute(new DslModelForeignKeyAttribute(1, attributeName, ID));
+			joinEntity.addForeignKey(fk);
+		}
+		for ( int k = 0 ; k < 2 ; k++ ) {
+			// many-to-many link in each referenced entity
+			DslModelEntity entity = (DslModelEntity) model.getEntityByClassName(referencedEntities[k]);
+			DslModelLink link = new DslModelLink("many" + joinEntityName);
+			link.setReferencedEntityName(referencedEntities[1 - k]);
+			link.setCardinality(Cardinality.MANY_TO_MANY);
+			link.setJoinEntityName(joinEntityName);
+			link.setBasedOnJoinEntity(true);
+			entity.addLink(link);
+		}
+		return joinEntity;
+	}
+
+	private void setAnnotations(DslModelAttribute attribute, Random random) {
+		String type = attribute.getNeutralType();
+		if ( random.nextDouble() < annotationDensity ) {
+			attribute.setNotNull(true);
+		}
+		if ( random.nextDouble() < annotationDensity ) {
+			attribute.setDatabaseName(attribute.getName().toUpperCase());
+		}
+		if ( random.nextDouble() < annotationDensity ) {
+			attribute.setLabel("Label of " + attribute.getName());
+		}
+		if ( "string".equals(type) ) {
+			if ( random.nextDouble() < annotationDensity ) {
+				attribute.setMaxLength(10 + random.nextInt(200));
+			}
+			if ( random.nextDouble() < annotationDensity ) {
+				attribute.setNotBlank(true);
+			}
+		}
+		else if ( "int".equals(type) || "long".equals(type) || "decimal".equals(type) || "double".equals(type) ) {
+			if ( random.nextDouble() < annotationDensity ) {
+				attribute.setMinValue(BigDecimal.ZERO);
+			}
+			if ( random.nextDouble() < annotationDensity ) {
+				attribute.setMaxValue(BigDecimal.valueOf(1000L + random.nextInt(100000)));
+			}
+		}
+		else if ( "date".equals(type) && random.nextDouble() < annotationDensity ) {
+			attribute.setDatePast(true);
+		}
+	}
+
+	private Tags newTags(Tag tag) {
+		Tags tags = new Tags();
+		try {
+			tags.addTag(tag);
+		} catch (TagError e) {
+			throw new IllegalStateException("Cannot add tag " + tag.getName(), e);
+		}
+		return tags;
+	}
+}
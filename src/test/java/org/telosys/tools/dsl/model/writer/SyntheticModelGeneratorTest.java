@@ -0,0 +1,99 @@
+package org.telosys.tools.dsl.model.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelManager;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.generic.model.Entity;
+import org.telosys.tools.generic.model.Link;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SyntheticModelGeneratorTest {
+
+	private SyntheticModelGenerator newGenerator(long seed) {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumberOfEntities(50);
+		generator.setFieldsPerEntity(8);
+		generator.setAnnotationDensity(0.7);
+		generator.setTagDensity(0.5);
+		generator.setForeignKeysPerEntity(3);
+		generator.setNumberOfJoinEntities(5);
+		generator.setSeed(seed);
+		return generator;
+	}
+
+	private File getModelFolder(String name) {
+		File modelFolder = TestFileProvider.getTargetTmpFile("synthetic/" + name);
+		if ( modelFolder.exists() ) {
+			for ( File file : modelFolder.listFiles() ) {
+				file.delete();
+			}
+		}
+		modelFolder.mkdirs();
+		return modelFolder;
+	}
+
+	private int countLinks(DslModel model) {
+		int n = 0 ;
+		for ( Entity entity : model.getEntities() ) {
+			n = n + entity.getLinks().size();
+		}
+		return n;
+	}
+
+	@Test
+	public void testGenerateAndLoad() {
+		File modelFolder = getModelFolder("model-50");
+		DslModel generatedModel = newGenerator(123).writeModel(modelFolder);
+		assertEquals(55, generatedModel.getEntities().size());
+
+		DslModelManager modelManager = new DslModelManager();
+		DslModel model = (DslModel) modelManager.loadModel(modelFolder);
+		assertNotNull(modelManager.getErrorMessage() + " " + modelManager.getErrors(), model);
+		assertEquals(55, model.getEntities().size());
+		assertEquals(countLinks(generatedModel), countLinks(model));
+
+		Entity entity = model.getEntityByClassName("Entity0050");
+		assertEquals(1 + 8 + 3, entity.getAttributes().size());
+		assertEquals(3, entity.getForeignKeys().size());
+		assertTrue(entity.getAttributeByName("id").isKeyElement());
+		assertTrue(entity.getAttributeByName("ref1Id").isFK());
+
+		Entity joinEntity = model.getEntityByClassName("Join0001");
+		assertTrue(joinEntity.isJoinEntity());
+		assertEquals(2, joinEntity.getForeignKeys().size());
+		DslModelEntity referencedEntity = (DslModelEntity) model.getEntityByClassName(
+				joinEntity.getForeignKeys().get(0).getReferencedEntityName());
+		Link link = referencedEntity.getLinkByFieldName("manyJoin0001");
+		assertNotNull(link);
+		assertTrue(link.isBasedOnJoinEntity());
+	}
+
+	private String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testSameSeedSameFiles() throws IOException {
+		File folder1 = getModelFolder("seed-a");
+		File folder2 = getModelFolder("seed-b");
+		newGenerator(42).writeModel(folder1);
+		newGenerator(42).writeModel(folder2);
+		String[] names = folder1.list();
+		assertEquals(55 + 1, names.length); // entities + model.yaml
+		for ( String name : names ) {
+			if ( name.endsWith(".entity") ) {
+				assertEquals(name, read(new File(folder1, name)), read(new File(folder2, name)));
+			}
+		}
+	}
+}
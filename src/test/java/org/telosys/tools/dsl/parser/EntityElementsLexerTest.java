@@ -0,0 +1,110 @@
+package org.telosys.tools.dsl.parser;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelError;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EntityElementsLexerTest {
+
+	private List<Element> lex(String text) throws DslModelError {
+		char[] chars = text.toCharArray();
+		return new EntityElementsLexer("MyEntity").parse(chars, 0, chars.length);
+	}
+
+	private String describe(List<Element> elements) {
+		StringBuilder sb = new StringBuilder();
+		for ( Element e : elements ) {
+			sb.append(e.getLineNumber()).append(":").append(e.getContent()).append("\n");
+		}
+		return sb.toString();
+	}
+
+	private String parseWithLexer(File file, boolean lineByLine) {
+		try {
+			return describe(new EntityElementsParser(lineByLine).parseEntityFile(file));
+		} catch (DslModelError e) {
+			return "ERROR " + e.getReportMessage();
+		}
+	}
+
+	private void collectEntityFiles(File folder, List<File> files) {
+		for ( File file : folder.listFiles() ) {
+			if ( file.isDirectory() ) {
+				collectEntityFiles(file, files);
+			}
+			else if ( file.getName().endsWith(".entity") ) {
+				files.add(file);
+			}
+		}
+	}
+
+	@Test
+	public void testSameResultForAllTestFiles() {
+		List<File> files = new LinkedList<>();
+		collectEntityFiles(new File("src/test/resources"), files);
+		assertTrue(files.size() > 50);
+		for ( File file : files ) {
+			assertEquals(file.getPath(), parseWithLexer(file, true), parseWithLexer(file, false));
+		}
+	}
+
+	@Test
+	public void testLineTerminators() throws DslModelError {
+		List<Element> elements = lex("Foo {\r\n id : int ;\r name : string ;\n}");
+		assertEquals("1:Foo\n1:{\n2:id\n2::\n2:int\n2:;\n3:name\n3::\n3:string\n3:;\n4:}\n", describe(elements));
+	}
+
+	@Test
+	public void testOffsetAndColumn() throws DslModelError {
+		String text = "Foo {\n  id : int { @Id #Tag(\"a b\") } ;\n}";
+		List<Element> elements = lex(text);
+		Element id = elements.get(2);
+		assertTrue(id.contentEquals("id"));
+		assertEquals(2, id.getLineNumber());
+		assertEquals(3, id.getColumn());
+		assertEquals(8, id.getOffset());
+		assertEquals(2, id.getLength());
+		Element tag = elements.get(7);
+		assertTrue(tag.startsWithTagPrefix());
+		assertFalse(tag.startsWithAnnotationPrefix());
+		assertEquals("#Tag(\"a b\")", tag.getContent());
+		assertEquals(text.indexOf('#'), tag.getOffset());
+		// separators are always the same String instance
+		assertSame(elements.get(1).getContent(), elements.get(5).getContent());
+		assertSame(";", elements.get(9).getContent());
+	}
+
+	@Test
+	public void testComment() throws DslModelError {
+		List<Element> elements = lex("id : int ; // comment\nname//comment\n");
+		assertEquals("1:id\n1::\n1:int\n1:;\n", describe(elements));
+	}
+
+	@Test
+	public void testQuote() throws DslModelError {
+		List<Element> elements = lex("@DefaultValue( \"a \\\"xx\\\" ) a\" ) #Foo");
+		assertEquals(2, elements.size());
+		assertEquals("@DefaultValue( \"a \\\"xx\\\" ) a\" )", elements.get(0).getContent());
+		assertEquals("#Foo", elements.get(1).getContent());
+	}
+
+	@Test
+	public void testUnexpectedCharacter() {
+		try {
+			lex("Foo {\n  id : int \"abc\" ;\n}");
+		} catch (DslModelError e) {
+			assertEquals(2, e.getLineNumber());
+			assertEquals("Unexpected character [\"] after element [int]", e.getErrorMessage());
+			return;
+		}
+		throw new AssertionError("DslModelError expected");
+	}
+}
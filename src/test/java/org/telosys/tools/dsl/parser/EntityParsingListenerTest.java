@@ -0,0 +1,106 @@
+package org.telosys.tools.dsl.parser;
+
+import java.io.File;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelError;
+import org.telosys.tools.dsl.parser.model.DomainAnnotation;
+import org.telosys.tools.dsl.parser.model.DomainTag;
+import org.telosys.tools.dsl.parser.model.DomainType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EntityParsingListenerTest {
+
+	private static class RecordingListener implements EntityParsingListener {
+		private final List<String> events = new LinkedList<>();
+		private int errors = 0 ;
+		@Override
+		public void onEntityStart(String entityName, int lineNumber) {
+			events.add(lineNumber + ":start " + entityName);
+		}
+		@Override
+		public void onEntityAnnotation(String entityName, DomainAnnotation annotation, int lineNumber) {
+			events.add(lineNumber + ":annotation " + annotation);
+		}
+		@Override
+		public void onField(String entityName, String fieldName, DomainType fieldType, int lineNumber) {
+			events.add(lineNumber + ":field " + fieldName + " " + fieldType.getName());
+		}
+		@Override
+		public void onFieldAnnotation(String entityName, String fieldName, DomainAnnotation annotation, int lineNumber) {
+			events.add(lineNumber + ":annotation " + fieldName + " " + annotation);
+		}
+		@Override
+		public void onTag(String entityName, String fieldName, DomainTag tag, int lineNumber) {
+			events.add(lineNumber + ":tag " + fieldName + " " + tag);
+		}
+		@Override
+		public void onError(DslModelError error) {
+			errors++;
+			events.add(error.getLineNumber() + ":error " + error.getEntityName());
+		}
+		@Override
+		public void onEntityEnd(String entityName, int lineNumber) {
+			events.add(lineNumber + ":end " + entityName);
+		}
+	}
+
+	@Test
+	public void testScanEntity() {
+		RecordingListener listener = new RecordingListener();
+		List<String> entitiesNames = new LinkedList<>();
+		entitiesNames.add("Country");
+		new ParserV2().scanEntity(new File("src/test/resources/model_test/valid/PeopleModel/Country.entity"),
+				entitiesNames, listener);
+		assertEquals(0, listener.errors);
+		assertEquals(6, listener.events.size());
+		assertEquals("1:start Country", listener.events.get(0));
+		assertEquals("3:field code string", listener.events.get(1));
+		assertEquals("3:annotation code @Id", listener.events.get(2));
+		assertEquals("3:annotation code @SizeMax(2)", listener.events.get(3));
+		assertEquals("5:field name string", listener.events.get(4));
+		assertEquals("6:end Country", listener.events.get(5));
+	}
+
+	@Test
+	public void testScanValidModel() {
+		RecordingListener listener = new RecordingListener();
+		new ParserV2().scanModel(new File("src/test/resources/model_test/valid/PeopleModel"), listener);
+		assertEquals(0, listener.errors);
+		int starts = 0 ;
+		int ends = 0 ;
+		for ( String event : listener.events ) {
+			if ( event.contains(":start ") ) {
+				starts++;
+			}
+			if ( event.contains(":end ") ) {
+				ends++;
+			}
+		}
+		assertEquals(6, starts);
+		assertEquals(6, ends);
+	}
+
+	@Test
+	public void testScanInvalidModel() {
+		File modelFolder = new File("src/test/resources/model_test/invalid/TwoEntitiesModel");
+		RecordingListener listener = new RecordingListener();
+		new ParserV2().scanModel(modelFolder, listener);
+		// same errors as with a full parsing
+		ParsingResult result = new ParserV2().parseModel(modelFolder);
+		assertTrue(listener.errors > 0);
+		assertEquals(result.getErrors().getNumberOfErrors(), listener.errors);
+	}
+
+	@Test
+	public void testScanInvalidFolder() {
+		RecordingListener listener = new RecordingListener();
+		new ParserV2().scanModel(new File("src/test/resources/model_test/valid/NoSuchModel"), listener);
+		assertEquals(1, listener.errors);
+		assertEquals(1, listener.events.size());
+	}
+}
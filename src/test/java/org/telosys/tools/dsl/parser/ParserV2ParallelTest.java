@@ -0,0 +1,79 @@
+package org.telosys.tools.dsl.parser;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.telosys.tools.dsl.DslModelError;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ParserV2ParallelTest {
+
+	private ExecutorService executor ;
+
+	@Before
+	public void before() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	private void checkSameResult(ParsingResult expected, ParsingResult actual) {
+		//--- same errors in the same order
+		List<DslModelError> expectedErrors = expected.getErrors().getErrors();
+		List<DslModelError> actualErrors = actual.getErrors().getErrors();
+		assertEquals(expectedErrors.size(), actualErrors.size());
+		for ( int i = 0 ; i < expectedErrors.size() ; i++ ) {
+			assertEquals(expectedErrors.get(i).getReportMessage(), actualErrors.get(i).getReportMessage());
+		}
+		//--- same entities
+		DomainModel expectedModel = expected.getModel();
+		DomainModel actualModel = actual.getModel();
+		assertNotNull(expectedModel);
+		assertNotNull(actualModel);
+		assertEquals(expectedModel.getModelName(), actualModel.getModelName());
+		assertEquals(expectedModel.getEntityNames(), actualModel.getEntityNames());
+		for ( String entityName : expectedModel.getEntityNames() ) {
+			DomainEntity expectedEntity = expectedModel.getEntity(entityName);
+			DomainEntity actualEntity = actualModel.getEntity(entityName);
+			assertEquals(expectedEntity.toString(), actualEntity.toString());
+		}
+	}
+
+	@Test
+	public void testValidModel() {
+		String modelFolder = "src/test/resources/model_test/valid/FourEntitiesModel" ;
+		ParsingResult sequentialResult = new ParserV2().parseModel(modelFolder);
+		ParsingResult parallelResult = new ParserV2(executor).parseModel(modelFolder);
+		assertTrue(parallelResult.getErrors().isEmpty());
+		assertEquals(4, parallelResult.getModel().getNumberOfEntities());
+		checkSameResult(sequentialResult, parallelResult);
+	}
+
+	@Test
+	public void testInvalidModel() {
+		String modelFolder = "src/test/resources/model_test/invalid/FourEntitiesModel" ;
+		ParsingResult sequentialResult = new ParserV2().parseModel(modelFolder);
+		ParsingResult parallelResult = new ParserV2(executor).parseModel(modelFolder);
+		assertTrue(parallelResult.hasErrors());
+		checkSameResult(sequentialResult, parallelResult);
+	}
+
+	@Test
+	public void testInvalidFolder() {
+		ParsingResult parallelResult = new ParserV2(executor).parseModel("src/test/resources/model_test/nofolder");
+		assertTrue(parallelResult.hasErrors());
+		assertEquals(1, parallelResult.getErrors().getNumberOfErrors());
+	}
+}
@@ -0,0 +1,175 @@
+package org.telosys.tools.dsl.parser.annotation;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.model.DslModel;
+import org.telosys.tools.dsl.model.DslModelAttribute;
+import org.telosys.tools.dsl.model.DslModelEntity;
+import org.telosys.tools.dsl.parser.annotations.IdAnnotation;
+import org.telosys.tools.dsl.parser.commons.ParamError;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AnnotationRegistryTest {
+
+	/**
+	 * Custom annotation (public with a no-arg constructor for ServiceLoader)
+	 */
+	public static class SearchableAnnotation extends AnnotationDefinition {
+		public SearchableAnnotation() {
+			super("Searchable", AnnotationParamType.NONE, AnnotationScope.ATTRIBUTE);
+		}
+		@Override
+		public void apply(DslModel model, DslModelEntity entity, DslModelAttribute attribute, Object paramValue) throws ParamError {
+			checkParamValue(entity, attribute, paramValue);
+			attribute.setLabel("searchable");
+		}
+	}
+
+	/**
+	 * Custom annotation with the same name as a standard annotation
+	 */
+	public static class OtherIdAnnotation extends AnnotationDefinition {
+		public OtherIdAnnotation() {
+			super("Id", AnnotationParamType.NONE, AnnotationScope.ATTRIBUTE);
+		}
+	}
+
+	private URLClassLoader servicesClassLoader(String name, String... classNames) throws IOException {
+		File folder = TestFileProvider.getTargetTmpFile("annotation-registry/" + name);
+		File servicesFolder = new File(folder, "META-INF/services");
+		servicesFolder.mkdirs();
+		StringBuilder sb = new StringBuilder("# custom annotations\n");
+		for ( String className : classNames ) {
+			sb.append(className).append("\n");
+		}
+		Files.write(new File(servicesFolder, AnnotationDefinition.class.getName()).toPath(),
+				sb.toString().getBytes(StandardCharsets.UTF_8));
+		return new URLClassLoader(new URL[] { folder.toURI().toURL() }, getClass().getClassLoader());
+	}
+
+	@Test
+	public void testServiceLoader() throws IOException {
+		try ( URLClassLoader classLoader = servicesClassLoader("searchable", SearchableAnnotation.class.getName()) ) {
+			AnnotationRegistry standardRegistry = new AnnotationRegistry().registerStandardAnnotations().freeze();
+			int n = standardRegistry.getAll().size();
+			assertNull(standardRegistry.get("Searchable"));
+			// same provider found with 2 class loaders => registered once
+			AnnotationRegistry registry = new AnnotationRegistry().registerStandardAnnotations()
+					.registerServiceProviders(classLoader)
+					.registerServiceProviders(classLoader)
+					.freeze();
+			assertEquals(n + 1, registry.getAll().size());
+			assertTrue(registry.getServiceErrors().isEmpty());
+			assertNotNull(registry.get("Searchable"));
+			assertSame(registry.get("Searchable"), registry.getAll().get(n));
+			assertTrue(registry.get("Searchable").hasAttributeScope());
+			assertFalse(registry.get("Searchable").hasEntityScope());
+			assertNull(registry.get("Foo"));
+			assertNull(registry.get(null));
+		}
+	}
+
+	@Test
+	public void testServiceLoaderDuplicatedName() throws IOException {
+		try ( URLClassLoader classLoader = servicesClassLoader("duplicated", OtherIdAnnotation.class.getName()) ) {
+			AnnotationRegistry registry = new AnnotationRegistry().registerStandardAnnotations()
+					.registerServiceProviders(classLoader).freeze();
+			assertEquals(1, registry.getServiceErrors().size());
+			assertTrue(registry.getServiceErrors().get(0).contains(OtherIdAnnotation.class.getName()));
+			assertSame(IdAnnotation.class, registry.get("Id").getClass());
+		}
+	}
+
+	@Test
+	public void testServiceLoaderInvalidProvider() throws IOException {
+		try ( URLClassLoader classLoader = servicesClassLoader("invalid", "org.foo.NoSuchAnnotation", 
+				SearchableAnnotation.class.getName()) ) {
+			AnnotationRegistry registry = new AnnotationRegistry().registerStandardAnnotations()
+					.registerServiceProviders(classLoader).freeze();
+			// invalid provider reported and ignored, next provider registered
+			assertEquals(1, registry.getServiceErrors().size());
+			assertTrue(registry.getServiceErrors().get(0).contains("org.foo.NoSuchAnnotation"));
+			assertNotNull(registry.get("Searchable"));
+			assertNotNull(registry.get("Id"));
+		}
+	}
+
+	@Test
+	public void testRegisterAndFreeze() {
+		AnnotationRegistry registry = new AnnotationRegistry();
+		assertFalse(registry.isFrozen());
+		assertSame(registry, registry.register(new SearchableAnnotation()));
+		try {
+			registry.register(new SearchableAnnotation());
+			fail("IllegalArgumentException expected");
+		} catch (IllegalArgumentException e) {
+			// expected : duplicated name
+		}
+		try {
+			registry.get("Searchable");
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			// expected : not frozen 
+		}
+		assertSame(registry, registry.freeze());
+		assertTrue(registry.isFrozen());
+		assertEquals(1, registry.getAll().size());
+		assertNotNull(registry.get("Searchable"));
+		assertNull(registry.get("Id"));
+		try {
+			registry.register(new IdAnnotation());
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			// expected : frozen
+		}
+		assertEquals(1, registry.getAll().size());
+	}
+
+	@Test
+	public void testSetDefault() {
+		AnnotationRegistry defaultRegistry = AnnotationRegistry.getDefault();
+		AnnotationRegistry registry = new AnnotationRegistry().registerStandardAnnotations()
+				.register(new SearchableAnnotation()).freeze();
+		AnnotationRegistry.setDefault(registry);
+		try {
+			assertSame(registry, AnnotationRegistry.getDefault());
+			assertSame(registry.get("Searchable"), AnnotationDefinitions.get("Searchable"));
+		} finally {
+			AnnotationRegistry.setDefault(defaultRegistry);
+		}
+		assertNull(AnnotationDefinitions.get("Searchable"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetDefaultNotFrozen() {
+		AnnotationRegistry.setDefault(new AnnotationRegistry().registerStandardAnnotations());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testImmutable() {
+		AnnotationRegistry.getDefault().getAll().clear();
+	}
+
+	@Test
+	public void testDefault() {
+		AnnotationRegistry registry = AnnotationRegistry.getDefault();
+		assertSame(registry, AnnotationRegistry.getDefault());
+		assertTrue(registry.isFrozen());
+		assertSame(registry.get("Id"), AnnotationDefinitions.get("Id"));
+		assertNotNull(registry.get("JoinEntity"));
+	}
+}
@@ -3,10 +3,12 @@ package org.telosys.tools.dsl.parser.annotation;
 import java.util.List;
 
 import org.junit.Test;
+import org.telosys.tools.dsl.parser.model.DomainAnnotation;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -71,6 +73,31 @@ public class AnnotationsTest {
 		assertTrue(list.contains("@DbComment()"));
 		assertTrue(list.contains("@Label()"));
 	}
+	@Test
+	public void testGetAll() {
+		List<AnnotationDefinition> all = AnnotationDefinitions.getAll();
+		assertTrue(all.size() > 50);
+		for ( AnnotationDefinition ad : all ) {
+			assertSame(ad, AnnotationDefinitions.get(ad.getName()));
+		}
+		assertNull(AnnotationDefinitions.get(null));
+	}
+
+	@Test
+	public void testDomainAnnotationDefinition() {
+		DomainAnnotation annotation = new DomainAnnotation("Id");
+		assertSame(AnnotationDefinitions.get("Id"), annotation.getAnnotationDefinition());
+		// unknown name accepted at construction, error only when the definition is required
+		annotation = new DomainAnnotation("DbColumn", "FOO");
+		assertEquals("DbColumn", annotation.getName());
+		try {
+			annotation.getAnnotationDefinition();
+		} catch (IllegalStateException e) {
+			return;
+		}
+		throw new AssertionError("IllegalStateException expected");
+	}
+
 	private void print(List<String> list) {		
 //		System.out.println("Annotations :");
 //		for(String s : list) {
@@ -0,0 +1,174 @@
+package org.telosys.tools.dsl.parser.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.Test;
+import org.telosys.tools.dsl.metrics.MetricsCounter;
+import org.telosys.tools.dsl.metrics.ModelMetricsSummary;
+import org.telosys.tools.dsl.parser.EntityParsingListenerAdapter;
+import org.telosys.tools.dsl.parser.ParserV2;
+import org.telosys.tools.dsl.parser.ParsingResult;
+import org.telosys.tools.dsl.parser.model.DomainEntity;
+import org.telosys.tools.dsl.parser.model.DomainField;
+import org.telosys.tools.dsl.parser.model.DomainModel;
+import org.telosys.tools.junit.utils.TestFileProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EntityParsingCacheTest {
+
+	private File copyModel(String targetFolderName) {
+		EntityParsingCache.clear(TestFileProvider.getTargetTmpFile("parsing-cache/" + targetFolderName));
+		return TestFileProvider.copyModelFolder("model_test/valid/PeopleModel", "parsing-cache/" + targetFolderName);
+	}
+	private void checkSameModel(DomainModel expected, DomainModel actual) {
+		assertEquals(expected.getEntityNames(), actual.getEntityNames());
+		for ( String entityName : expected.getEntityNames() ) {
+			DomainEntity expectedEntity = expected.getEntity(entityName);
+			DomainEntity actualEntity = actual.getEntity(entityName);
+			assertEquals(expectedEntity.toString(), actualEntity.toString());
+			assertEquals(expectedEntity.getDatabaseTable(), actualEntity.getDatabaseTable());
+			assertEquals(expectedEntity.getNumberOfFields(), actualEntity.getNumberOfFields());
+			for ( DomainField expectedField : expectedEntity.getFields() ) {
+				DomainField actualField = actualEntity.getField(expectedField.getName());
+				assertEquals(expectedField.getLineNumber(), actualField.getLineNumber());
+				assertEquals(expectedField.getType().getCardinality(), actualField.getType().getCardinality());
+				if ( expectedField.getType().isNeutralType() ) {
+					// shared neutral type instances
+					assertSame(expectedField.getType(), actualField.getType());
+				}
+				else {
+					assertEquals(expectedField.getTypeName(), actualField.getTypeName());
+				}
+				assertEquals(expectedField.isLink(), actualField.isLink());
+				assertEquals(expectedField.getFkElements().toString(), actualField.getFkElements().toString());
+				assertEquals(expectedField.getTags().toString(), actualField.getTags().toString());
+			}
+		}
+	}
+
+	@Test
+	public void testCache() throws IOException {
+		File modelFolder = copyModel("people");
+		ParsingResult expected = new ParserV2().parseModel(modelFolder);
+		assertFalse(expected.hasErrors());
+
+		//--- first parsing : void cache
+		EntityParsingCache cache = new EntityParsingCache("1.0");
+		ParsingResult result = new ParserV2(null, cache).parseModel(modelFolder);
+		assertFalse(result.hasErrors());
+		assertEquals(0, cache.getHits());
+		assertEquals(6, cache.getMisses());
+		assertTrue(new File(EntityParsingCache.getCacheFolder(modelFolder), "Person.cache").exists());
+		checkSameModel(expected.getModel(), result.getModel());
+
+		//--- second parsing : all entities in cache
+		cache = new EntityParsingCache("1.0");
+		result = new ParserV2(null, cache).parseModel(modelFolder);
+		assertFalse(result.hasErrors());
+		assertEquals(6, cache.getHits());
+		assertEquals(0, cache.getMisses());
+		checkSameModel(expected.getModel(), result.getModel());
+
+		//--- changed entity file
+		Files.write(new File(modelFolder, "Town.entity").toPath(),
+				"// changed\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		cache = new EntityParsingCache("1.0");
+		result = new ParserV2(null, cache).parseModel(modelFolder);
+		assertFalse(result.hasErrors());
+		assertEquals(5, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		//--- new version => cache invalidated
+		cache = new EntityParsingCache("2.0");
+		result = new ParserV2(null, cache).parseModel(modelFolder);
+		assertEquals(0, cache.getHits());
+		assertEquals(6, cache.getMisses());
+	}
+
+	@Test
+	public void testDeletedReferencedEntity() throws IOException {
+		File modelFolder = copyModel("people-deleted");
+		EntityParsingCache cache = new EntityParsingCache("1.0");
+		assertFalse(new ParserV2(null, cache).parseModel(modelFolder).hasErrors());
+
+		// Country is referenced by Area, Person and Town => not usable from the cache
+		assertTrue(new File(modelFolder, "Country.entity").delete());
+		cache = new EntityParsingCache("1.0");
+		ParsingResult result = new ParserV2(null, cache).parseModel(modelFolder);
+		assertTrue(result.hasErrors());
+		assertEquals(2, cache.getHits());
+		assertEquals(3, cache.getMisses());
+		ParsingResult expected = new ParserV2().parseModel(modelFolder);
+		assertEquals(expected.getErrors().getNumberOfErrors(), result.getErrors().getNumberOfErrors());
+	}
+
+	@Test
+	public void testInvalidCacheFile() throws IOException {
+		File modelFolder = copyModel("people-invalid");
+		EntityParsingCache cache = new EntityParsingCache("1.0");
+		assertFalse(new ParserV2(null, cache).parseModel(modelFolder).hasErrors());
+
+		File cacheFile = new File(EntityParsingCache.getCacheFolder(modelFolder), "Person.cache");
+		Files.write(cacheFile.toPath(), "bad content".getBytes(StandardCharsets.UTF_8));
+		cache = new EntityParsingCache("1.0");
+		ParsingResult result = new ParserV2(null, cache).parseModel(modelFolder);
+		assertFalse(result.hasErrors());
+		assertNotNull(result.getModel().getEntity("Person"));
+		assertEquals(5, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	private ModelMetricsSummary parseWithMetrics(File modelFolder) {
+		ModelMetricsSummary summary = new ModelMetricsSummary();
+		ParserV2 parser = new ParserV2(null, new EntityParsingCache("1.0"));
+		parser.setMetricsListener(summary);
+		assertFalse(parser.parseModel(modelFolder).hasErrors());
+		return summary;
+	}
+
+	@Test
+	public void testMetricsWithCache() throws IOException {
+		File modelFolder = copyModel("people-metrics");
+		ModelMetricsSummary parsed = parseWithMetrics(modelFolder); // void cache
+		ModelMetricsSummary cached = parseWithMetrics(modelFolder); // all entities in cache
+		assertEquals(0, parsed.getCounter(MetricsCounter.CACHED_ENTITIES));
+		assertEquals(6, cached.getCounter(MetricsCounter.CACHED_ENTITIES));
+		// same counters for the parsed and the cached entities 
+		for ( MetricsCounter counter : new MetricsCounter[] { MetricsCounter.FILES, MetricsCounter.ENTITIES, 
+				MetricsCounter.FIELDS, MetricsCounter.ANNOTATIONS, MetricsCounter.TAGS } ) {
+			assertEquals(counter.name(), parsed.getCounter(counter), cached.getCounter(counter));
+		}
+		// no lexing for the cached entities
+		assertTrue(parsed.getCounter(MetricsCounter.ELEMENTS) > 0);
+		assertEquals(0, cached.getCounter(MetricsCounter.ELEMENTS));
+	}
+
+	@Test
+	public void testScanWithCache() throws IOException {
+		File modelFolder = copyModel("people-scan");
+		EntityParsingCache cache = new EntityParsingCache("1.0");
+		ParserV2 parser = new ParserV2(null, cache);
+		assertFalse(parser.parseModel(modelFolder).hasErrors());
+		// the scan never uses the cache : all the events are notified
+		final List<String> entities = new LinkedList<>();
+		parser.scanModel(modelFolder, new EntityParsingListenerAdapter() {
+			@Override
+			public void onEntityStart(String entityName, int lineNumber) {
+				entities.add(entityName);
+			}
+		});
+		assertEquals(6, entities.size());
+		assertEquals(0, cache.getHits());
+	}
+}
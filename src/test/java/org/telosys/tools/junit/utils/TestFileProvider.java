@@ -1,6 +1,9 @@
 package org.telosys.tools.junit.utils;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 import org.telosys.tools.commons.FileUtil;
 
@@ -72,4 +75,35 @@ public class TestFileProvider {
 			}
 		}
 	}
+
+	/**
+	 * Copies all the files of the given test resource folder (eg a model folder) in a target tmp folder <br>
+	 * The target folder is created if necessary and its existing files are deleted before the copy
+	 * @param sourceFolder folder in "src/test/resources/" (eg "model_test/valid/PeopleModel")
+	 * @param targetFolderName folder in "target/tests-tmp/" (eg "model-cache/people1")
+	 * @return the target folder
+	 */
+	public final static File copyModelFolder(String sourceFolder, String targetFolderName) {
+		File source = new File(SRC_TEST_RESOURCES + sourceFolder);
+		if ( ! source.isDirectory() ) {
+			throw new RuntimeException("TEST ENV : Test resource folder '" + sourceFolder + "' not found");
+		}
+		File target = getTargetTmpFile(targetFolderName);
+		if ( target.exists() ) {
+			for ( File file : target.listFiles() ) {
+				file.delete();
+			}
+		}
+		target.mkdirs();
+		try {
+			for ( File file : source.listFiles() ) {
+				if ( file.isFile() ) {
+					Files.copy(file.toPath(), new File(target, file.getName()).toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("TEST ENV : Cannot copy folder '" + sourceFolder + "' in target", e);
+		}
+		return target;
+	}
 }